@@ -1,7 +1,5 @@
 package com.mku.attendance;
 
-import com.mku.attendance.services.EmailService;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Configuration;
@@ -15,9 +13,6 @@ import jakarta.annotation.PostConstruct;
 @EnableAsync
 public class MkuAttendanceApplication {
 
-    @Autowired
-    private EmailService emailService;
-
     public static void main(String[] args) {
         SpringApplication.run(MkuAttendanceApplication.class, args);
     }
@@ -26,11 +21,7 @@ public class MkuAttendanceApplication {
     public void init() {
         System.out.println("🚀 Starting MKU Attendance System...");
         displayStartupInfo();
-
-        // Test email configuration if service is available
-        if (emailService != null) {
-            emailService.testEmailConfiguration();
-        }
+        // Email configuration is checked in the background by ReadinessService, not here
     }
 
     private void displayStartupInfo() {
@@ -39,6 +30,7 @@ public class MkuAttendanceApplication {
         System.out.println("📁 Data: ./attendance_data/");
         System.out.println("🔄 Async: ENABLED");
         System.out.println("🎯 OTP: CONSOLE + EMAIL DELIVERY");
+        System.out.println("🩺 Readiness: /api/system/readiness");
         System.out.println("======================================\n");
     }
 
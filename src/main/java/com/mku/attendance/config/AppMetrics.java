@@ -0,0 +1,89 @@
+package com.mku.attendance.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Thin wrapper over the Micrometer registry so the services record hot-path timings with one line
+ * and the metric names and tags stay consistent in one place. Scraped from /actuator/prometheus.
+ *
+ *   attendance.mark, attendance.lecture.start, attendance.lecture.end   (outcome)
+ *   persistence.save, persistence.load                                  (file, outcome) + persistence.bytes
+ *   auth.login, auth.otp.issue, auth.otp.verify                         (role, outcome)
+ *   email.validation                                                    (result)
+ *   email.send (per batch) and email.messages (per message)             (type, outcome)
+ *
+ * Gauges (store sizes, active lectures, queue depths) are registered in MetricsConfig.
+ */
+@Component
+public class AppMetrics {
+
+    private final MeterRegistry registry;
+
+    public AppMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String name, String... tags) {
+        sample.stop(Timer.builder(name).tags(tags).register(registry));
+    }
+
+    /**
+     * Time a service call that answers with the usual {success, message} map; the outcome tag is
+     * taken from the "success" flag.
+     */
+    public Map<String, Object> timeResult(String name, Supplier<Map<String, Object>> call, String... tags) {
+        Timer.Sample sample = start();
+        String outcome = "error";
+        try {
+            Map<String, Object> result = call.get();
+            outcome = result != null && Boolean.TRUE.equals(result.get("success")) ? "success" : "failure";
+            return result;
+        } finally {
+            stop(sample, name, withTag(tags, "outcome", outcome));
+        }
+    }
+
+    public void recordPersistence(String operation, String file, long nanos, long bytes, boolean success) {
+        Timer.builder("persistence." + operation)
+                .tags("file", file, "outcome", success ? "success" : "failure")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (success) {
+            DistributionSummary.builder("persistence.bytes")
+                    .baseUnit("bytes")
+                    .tags("file", file, "operation", operation)
+                    .register(registry)
+                    .record(bytes);
+        }
+    }
+
+    public void countEmailMessages(String type, String outcome, long count) {
+        Counter.builder("email.messages")
+                .tags("type", type != null ? type : "UNKNOWN", "outcome", outcome)
+                .register(registry)
+                .increment(count);
+    }
+
+    private static String[] withTag(String[] tags, String key, String value) {
+        String[] all = new String[tags.length + 2];
+        System.arraycopy(tags, 0, all, 0, tags.length);
+        all[tags.length] = key;
+        all[tags.length + 1] = value;
+        return all;
+    }
+}
@@ -0,0 +1,32 @@
+package com.mku.attendance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Single place that decides whether the app's own background threads (email outbox, schedulers,
+ * request handling) are virtual or platform threads, driven by app.threads.virtual.enabled.
+ */
+@Component
+public class AppThreads {
+
+    @Value("${app.threads.virtual.enabled:false}")
+    private boolean virtualEnabled;
+
+    public boolean isVirtualEnabled() {
+        return virtualEnabled;
+    }
+
+    /**
+     * Thread factory naming threads prefix1, prefix2, ... Platform threads are daemons so they
+     * never keep the JVM alive on shutdown.
+     */
+    public ThreadFactory factory(String prefix) {
+        if (virtualEnabled) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        return Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+}
@@ -0,0 +1,21 @@
+package com.mku.attendance.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * The clock that lecture windows, attendance dates, OTP expiry and account lockout read instead of
+ * calling LocalDateTime.now() directly, so the app can be driven on simulated time. Defaults to
+ * the system clock; a tool that drives the app on its own time (e.g. a replay) registers its
+ * Clock as a primary bean, which then wins wherever a Clock is injected.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -0,0 +1,49 @@
+package com.mku.attendance.config;
+
+import com.mku.attendance.services.ReadinessService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Times the first real request that starts after readiness flips to READY and hands it to
+ * ReadinessService. Readiness/actuator probes and static files are not counted, nor are the
+ * warmup requests, which all start before READY. After the first request it only does one check.
+ */
+@Component
+public class FirstRequestFilter extends OncePerRequestFilter {
+
+    private static final List<String> IGNORED_PREFIXES = List.of(
+            "/api/system/readiness", "/actuator", "/css/", "/js/", "/images/", "/favicon.ico");
+
+    @Autowired
+    private ReadinessService readinessService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (readinessService.isFirstRequestRecorded() || !readinessService.isReady()) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return IGNORED_PREFIXES.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readinessService.recordFirstRequest(request.getMethod() + " " + request.getRequestURI(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
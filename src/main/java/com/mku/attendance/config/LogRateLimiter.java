@@ -0,0 +1,80 @@
+package com.mku.attendance.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how often the same line repeats, for RingBufferAppender. Lines are grouped by logger and
+ * message template (the text before placeholders and key-value fields are filled in), so every
+ * "Student lookup" line from StudentManager is counted together, whatever the student. Each group
+ * may log maxPerWindow lines per window; the rest are counted, and the first line of that group in
+ * a later window reports how many were suppressed.
+ *
+ * This sits in the appender rather than in a logback TurboFilter because lines logged with the
+ * SLF4J fluent API (log.atDebug().addKeyValue(...).log(...)) never pass through turbo filters.
+ */
+class LogRateLimiter {
+
+    /** Returned by {@link #admit} when the line is over the limit and should be dropped */
+    static final long SUPPRESS = -1;
+
+    private final int maxPerWindow;
+    private final long windowMillis;
+    private final int maxTrackedMessages;
+    private final ConcurrentHashMap<MessageKey, Window> windows = new ConcurrentHashMap<>();
+
+    LogRateLimiter(int maxPerWindow, long windowMillis, int maxTrackedMessages) {
+        this.maxPerWindow = maxPerWindow;
+        this.windowMillis = windowMillis;
+        this.maxTrackedMessages = maxTrackedMessages;
+    }
+
+    /**
+     * Counts one line from the given logger and template. Returns SUPPRESS if it is over the limit,
+     * otherwise the number of lines of the same group suppressed in the window that just ended
+     * (usually 0).
+     */
+    long admit(String logger, String template, long now) {
+        if (template == null) return 0;
+        MessageKey key = new MessageKey(logger, template);
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= maxTrackedMessages) {
+                // Many distinct templates means they are built by concatenation, not repeats
+                return 0;
+            }
+            window = windows.computeIfAbsent(key, k -> new Window(now));
+        }
+        if (now - window.start >= windowMillis) {
+            long suppressed = window.roll(now, windowMillis);
+            if (suppressed >= 0) return suppressed;
+        }
+        if (window.count.incrementAndGet() <= maxPerWindow) return 0;
+        window.suppressed.incrementAndGet();
+        return SUPPRESS;
+    }
+
+    private record MessageKey(String logger, String template) {
+    }
+
+    private static final class Window {
+        volatile long start;
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong suppressed = new AtomicLong();
+
+        Window(long start) {
+            this.start = start;
+        }
+
+        /**
+         * Starts a new window and returns the suppressed count of the old one, counting the caller
+         * as the first line of the new window. Returns -1 if another thread rolled it first.
+         */
+        synchronized long roll(long now, long windowMillis) {
+            if (now - start < windowMillis) return -1;
+            start = now;
+            count.set(1);
+            return suppressed.getAndSet(0);
+        }
+    }
+}
@@ -21,6 +21,40 @@ public class MailConfig {
     @Value("${spring.mail.password}")
     private String password;
 
+    @Value("${spring.mail.properties.mail.smtp.auth:true}")
+    private boolean smtpAuth;
+
+    @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}")
+    private boolean startTlsEnable;
+
+    @Value("${spring.mail.properties.mail.smtp.starttls.required:true}")
+    private boolean startTlsRequired;
+
+    @Value("${spring.mail.properties.mail.debug:true}")
+    private boolean mailDebug;
+
+    @Value("${spring.mail.properties.mail.smtp.connectiontimeout:10000}")
+    private int connectionTimeout;
+
+    @Value("${spring.mail.properties.mail.smtp.timeout:10000}")
+    private int readTimeout;
+
+    @Value("${spring.mail.properties.mail.smtp.writetimeout:10000}")
+    private int writeTimeout;
+
+    // Keep authenticated SMTP connections open between messages instead of reconnecting every time
+    @Value("${app.mail.pool.enabled:true}")
+    private boolean poolEnabled;
+
+    @Value("${app.mail.pool.max-connections:2}")
+    private int poolMaxConnections;
+
+    @Value("${app.mail.pool.max-idle-ms:30000}")
+    private long poolMaxIdleMs;
+
+    @Value("${app.mail.pool.max-messages-per-connection:100}")
+    private int poolMaxMessagesPerConnection;
+
     @Bean
     public JavaMailSender javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
@@ -30,12 +64,20 @@ public class MailConfig {
         mailSender.setPassword(password);
 
         java.util.Properties props = mailSender.getJavaMailProperties();
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.smtp.starttls.required", "true");
+        props.put("mail.smtp.auth", String.valueOf(smtpAuth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(startTlsEnable));
+        props.put("mail.smtp.starttls.required", String.valueOf(startTlsRequired));
         props.put("mail.smtp.ssl.trust", mailHost);
-        props.put("mail.debug", "true");
+        props.put("mail.debug", String.valueOf(mailDebug));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(connectionTimeout));
+        props.put("mail.smtp.timeout", String.valueOf(readTimeout));
+        props.put("mail.smtp.writetimeout", String.valueOf(writeTimeout));
 
+        if (poolEnabled) {
+            System.out.println("📮 SMTP connection pool enabled: max " + poolMaxConnections + " connections, idle timeout "
+                    + poolMaxIdleMs + "ms");
+            return new PooledMailSender(mailSender, poolMaxConnections, poolMaxIdleMs, poolMaxMessagesPerConnection);
+        }
         return mailSender;
     }
 }
\ No newline at end of file
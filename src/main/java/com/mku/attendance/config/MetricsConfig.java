@@ -0,0 +1,63 @@
+package com.mku.attendance.config;
+
+import com.mku.attendance.services.AttendanceManager;
+import com.mku.attendance.services.CourseManager;
+import com.mku.attendance.services.EmailOutboxService;
+import com.mku.attendance.services.HODManager;
+import com.mku.attendance.services.MxResolver;
+import com.mku.attendance.services.StudentManager;
+import com.mku.attendance.services.UnitManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Gauges for the in-memory stores and queues. They are read on scrape, so they only call cheap
+ * size getters and never trigger cleanup or I/O.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder storeGauges(StudentManager studentManager, HODManager hodManager, UnitManager unitManager,
+                                   CourseManager courseManager, AttendanceManager attendanceManager) {
+        return registry -> {
+            Gauge.builder("store.size", studentManager, StudentManager::getStudentCount)
+                    .tag("store", "students").register(registry);
+            Gauge.builder("store.size", hodManager, HODManager::getHodCount)
+                    .tag("store", "hods").register(registry);
+            Gauge.builder("store.size", hodManager, HODManager::getLecturerCount)
+                    .tag("store", "lecturers").register(registry);
+            Gauge.builder("store.size", unitManager, UnitManager::getUnitCount)
+                    .tag("store", "units").register(registry);
+            Gauge.builder("store.size", courseManager, CourseManager::getCourseCount)
+                    .tag("store", "courses").register(registry);
+            Gauge.builder("store.size", attendanceManager, AttendanceManager::getAttendanceRecordCount)
+                    .tag("store", "attendance").register(registry);
+            Gauge.builder("attendance.lectures.active", attendanceManager, AttendanceManager::getActiveLectureCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder queueGauges(EmailOutboxService emailOutboxService, MxResolver mxResolver, JavaMailSender mailSender) {
+        return registry -> {
+            Gauge.builder("email.outbox.depth", emailOutboxService, EmailOutboxService::getQueueDepth)
+                    .register(registry);
+            Gauge.builder("email.outbox.in.flight", emailOutboxService, EmailOutboxService::getInFlightCount)
+                    .register(registry);
+            Gauge.builder("email.outbox.oldest.age", emailOutboxService, EmailOutboxService::getOldestMessageAgeSeconds)
+                    .baseUnit("seconds").register(registry);
+            Gauge.builder("dns.mx.cache.size", mxResolver, MxResolver::getCachedDomainCount)
+                    .register(registry);
+            if (mailSender instanceof PooledMailSender pool) {
+                Gauge.builder("smtp.pool.connections", pool, PooledMailSender::getIdleConnectionCount)
+                        .tag("state", "idle").register(registry);
+                Gauge.builder("smtp.pool.connections", pool, PooledMailSender::getActiveConnectionCount)
+                        .tag("state", "active").register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,336 @@
+package com.mku.attendance.config;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JavaMailSender that keeps a few authenticated SMTP connections open and reuses them, instead of
+ * doing TCP + STARTTLS + AUTH for every message like JavaMailSenderImpl does. Connection settings
+ * and the mail Session come from the wrapped JavaMailSenderImpl.
+ *
+ * A connection is closed when it has been idle for maxIdleMillis, after maxMessagesPerConnection
+ * messages, or when a send on it fails. A message that fails on a pooled connection is retried
+ * once on a fresh one, since the server may simply have dropped the idle connection.
+ */
+public class PooledMailSender implements JavaMailSender, AutoCloseable {
+
+    private final JavaMailSenderImpl delegate;
+    private final int maxConnections;
+    private final long maxIdleMillis;
+    private final int maxMessagesPerConnection;
+
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+
+    public PooledMailSender(JavaMailSenderImpl delegate, int maxConnections, long maxIdleMillis, int maxMessagesPerConnection) {
+        this.delegate = delegate;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.maxIdleMillis = maxIdleMillis;
+        this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+        this.permits = new Semaphore(this.maxConnections, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "smtp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, maxIdleMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== JavaMailSender ==========
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return delegate.createMimeMessage();
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+        return delegate.createMimeMessage(contentStream);
+    }
+
+    @Override
+    public void send(MimeMessage mimeMessage) throws MailException {
+        send(new MimeMessage[]{mimeMessage});
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        doSend(mimeMessages, null);
+    }
+
+    @Override
+    public void send(MimeMessagePreparator mimeMessagePreparator) throws MailException {
+        send(new MimeMessagePreparator[]{mimeMessagePreparator});
+    }
+
+    @Override
+    public void send(MimeMessagePreparator... mimeMessagePreparators) throws MailException {
+        MimeMessage[] mimeMessages = new MimeMessage[mimeMessagePreparators.length];
+        try {
+            for (int i = 0; i < mimeMessagePreparators.length; i++) {
+                mimeMessages[i] = createMimeMessage();
+                mimeMessagePreparators[i].prepare(mimeMessages[i]);
+            }
+        } catch (MailException e) {
+            throw e;
+        } catch (MessagingException e) {
+            throw new MailParseException(e);
+        } catch (Exception e) {
+            throw new MailPreparationException(e);
+        }
+        send(mimeMessages);
+    }
+
+    @Override
+    public void send(SimpleMailMessage simpleMessage) throws MailException {
+        send(new SimpleMailMessage[]{simpleMessage});
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
+        MimeMessage[] mimeMessages = new MimeMessage[simpleMessages.length];
+        for (int i = 0; i < simpleMessages.length; i++) {
+            MimeMailMessage message = new MimeMailMessage(createMimeMessage());
+            simpleMessages[i].copyTo(message);
+            mimeMessages[i] = message.getMimeMessage();
+        }
+        // Failures are reported against the original SimpleMailMessage objects, like JavaMailSenderImpl
+        doSend(mimeMessages, simpleMessages);
+    }
+
+    // ========== SENDING ==========
+
+    private void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        PooledTransport connection = null;
+        try {
+            messages:
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage message = mimeMessages[i];
+                Object original = originalMessages != null ? originalMessages[i] : message;
+
+                try {
+                    prepareForSending(message);
+                } catch (MessagingException e) {
+                    failedMessages.put(original, new MailParseException(e));
+                    continue;
+                }
+
+                boolean sent = false;
+                for (int attempt = 1; attempt <= 2 && !sent; attempt++) {
+                    try {
+                        if (connection == null) {
+                            try {
+                                connection = borrow();
+                            } catch (MailSendException e) {
+                                // Server unreachable: no point trying the rest of the batch
+                                for (int j = i; j < mimeMessages.length; j++) {
+                                    failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], e);
+                                }
+                                break messages;
+                            }
+                        }
+                        connection.transport.sendMessage(message, message.getAllRecipients());
+                        connection.messageCount++;
+                        messagesSent.incrementAndGet();
+                        sent = true;
+                    } catch (SendFailedException e) {
+                        // Rejected recipients: the connection itself is still usable
+                        failedMessages.put(original, e);
+                        break;
+                    } catch (MessagingException e) {
+                        discard(connection);
+                        connection = null;
+                        if (attempt == 2) {
+                            failedMessages.put(original, e);
+                        }
+                    }
+                }
+
+                if (connection != null && connection.messageCount >= maxMessagesPerConnection) {
+                    discard(connection);
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) {
+                release(connection);
+            }
+            permits.release();
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private void prepareForSending(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            // Preserve an explicitly specified message id, saveChanges() replaces it
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+
+    // ========== POOL ==========
+
+    private PooledTransport borrow() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (isExpired(connection, System.currentTimeMillis())) {
+                discard(connection);
+            } else {
+                return connection;
+            }
+        }
+        return open();
+    }
+
+    private PooledTransport open() {
+        try {
+            String protocol = delegate.getProtocol();
+            if (protocol == null) {
+                protocol = delegate.getSession().getProperty("mail.transport.protocol");
+            }
+            Transport transport = delegate.getSession().getTransport(protocol != null ? protocol : JavaMailSenderImpl.DEFAULT_PROTOCOL);
+            String username = delegate.getUsername();
+            String password = delegate.getPassword();
+            if ("".equals(username)) {
+                username = null;
+                if ("".equals(password)) {
+                    password = null;
+                }
+            }
+            transport.connect(delegate.getHost(), delegate.getPort(), username, password);
+            connectionsOpened.incrementAndGet();
+            return new PooledTransport(transport);
+        } catch (jakarta.mail.AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        } catch (MessagingException e) {
+            throw new MailSendException("Mail server connection failed", e);
+        }
+    }
+
+    private void release(PooledTransport connection) {
+        connection.lastUsed = System.currentTimeMillis();
+        // Most recently used first, so surplus connections go idle and get evicted
+        idle.offerFirst(connection);
+    }
+
+    private void discard(PooledTransport connection) {
+        if (connection == null) return;
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            // already broken, nothing to do
+        }
+    }
+
+    private boolean isExpired(PooledTransport connection, long now) {
+        return now - connection.lastUsed > maxIdleMillis;
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (PooledTransport connection : idle) {
+            if (isExpired(connection, now) && idle.remove(connection)) {
+                discard(connection);
+            }
+        }
+    }
+
+    /**
+     * Open (or reuse) a connection and hand it back to the pool. Used by the email health probe,
+     * and leaves a warm connection behind for the next send.
+     */
+    public void testConnection() throws MailException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+        try {
+            release(borrow());
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getIdleConnectionCount() {
+        return idle.size();
+    }
+
+    public int getActiveConnectionCount() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    private static class PooledTransport {
+        private final Transport transport;
+        private int messageCount;
+        private long lastUsed = System.currentTimeMillis();
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
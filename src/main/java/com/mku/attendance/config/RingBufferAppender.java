@@ -0,0 +1,243 @@
+package com.mku.attendance.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logback appender that passes events to the appenders attached to it (console, file) on a single
+ * background writer thread, so request threads never wait for console or file I/O (see
+ * logback-spring.xml).
+ *
+ * Events go through a bounded lock-free ring buffer with one writer (consumer) and any number of
+ * logging threads (producers). Every slot carries a sequence number: a producer claims the next
+ * position with one CAS on the tail and publishes the event with a release store of the slot's
+ * sequence, and the writer takes it once that sequence shows up. When the buffer is full, events
+ * below WARN are dropped and counted, while WARN and ERROR wait for a free slot. The writer logs
+ * how many were dropped once it has caught up. Stopping the appender drains the buffer first.
+ *
+ * Lines that repeat are capped before they reach the buffer (maxPerWindow lines per logger and
+ * message template per windowMillis, see LogRateLimiter); 0 turns the cap off.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private int capacity = 8192;
+    private int maxPerWindow = 0;
+    private long windowMillis = 10_000;
+    private int maxTrackedMessages = 10_000;
+    private LogRateLimiter rateLimiter;
+
+    private AtomicReferenceArray<ILoggingEvent> slots;
+    private AtomicLongArray sequences;
+    private int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // writer thread only
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    /** Buffer size in events, rounded up to a power of two */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /** Lines allowed per logger and message template in each window, 0 for no limit */
+    public void setMaxPerWindow(int maxPerWindow) {
+        this.maxPerWindow = maxPerWindow;
+    }
+
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /** Templates tracked for rate limiting; templates seen after that are never limited */
+    public void setMaxTrackedMessages(int maxTrackedMessages) {
+        this.maxTrackedMessages = maxTrackedMessages;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) return;
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender attached to " + getName());
+            return;
+        }
+
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+        rateLimiter = maxPerWindow > 0 ? new LogRateLimiter(maxPerWindow, windowMillis, maxTrackedMessages) : null;
+
+        running = true;
+        writer = Thread.ofPlatform().name("log-writer").daemon(true).start(this::writeLoop);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) return;
+        super.stop();
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (rateLimiter != null) {
+            long suppressed = rateLimiter.admit(event.getLoggerName(), event.getMessage(), event.getTimeStamp());
+            if (suppressed == LogRateLimiter.SUPPRESS) return;
+            if (suppressed > 0) {
+                enqueue(notice(Level.INFO, "Suppressed {} repeats of \"{}\" from {} in the last window",
+                        suppressed, event.getMessage(), event.getLoggerName()));
+            }
+        }
+        // Thread name, MDC and formatted message are captured now, on the logging thread
+        event.prepareForDeferredProcessing();
+        enqueue(event);
+    }
+
+    private void enqueue(ILoggingEvent event) {
+        boolean important = event.getLevel().isGreaterOrEqual(Level.WARN);
+        while (!offer(event)) {
+            if (!important || !running) {
+                dropped.incrementAndGet();
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean offer(ILoggingEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.getAcquire(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.setPlain(index, event);
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return false; // the writer has not freed this slot yet: full
+            } else {
+                position = tail.get(); // another producer took it
+            }
+        }
+    }
+
+    private ILoggingEvent poll() {
+        int index = (int) (head & mask);
+        if (sequences.getAcquire(index) != head + 1) {
+            return null;
+        }
+        ILoggingEvent event = slots.getPlain(index);
+        slots.setPlain(index, null);
+        sequences.setRelease(index, head + mask + 1);
+        head++;
+        return event;
+    }
+
+    private void writeLoop() {
+        int idle = 0;
+        while (running) {
+            ILoggingEvent event = poll();
+            if (event == null) {
+                reportDropped();
+                // Nobody waits on log output, so the writer just naps while the buffer is empty
+                LockSupport.parkNanos(idle++ < 100 ? 100_000 : 2_000_000);
+                continue;
+            }
+            idle = 0;
+            write(event);
+        }
+        for (ILoggingEvent event; (event = poll()) != null; ) {
+            write(event);
+        }
+        reportDropped();
+    }
+
+    private void write(ILoggingEvent event) {
+        try {
+            appenders.appendLoopOnAppenders(event);
+        } catch (RuntimeException e) {
+            addError("Appender failed for event from " + event.getLoggerName(), e);
+        }
+    }
+
+    private void reportDropped() {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            write(notice(Level.WARN, "Log buffer full, dropped {} events below WARN", count));
+        }
+    }
+
+    private ILoggingEvent notice(Level level, String message, Object... args) {
+        LoggingEvent event = new LoggingEvent(RingBufferAppender.class.getName(),
+                ((LoggerContext) getContext()).getLogger(RingBufferAppender.class), level, message, null, args);
+        event.prepareForDeferredProcessing();
+        return event;
+    }
+
+    // ========== AppenderAttachable ==========
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,170 @@
+package com.mku.attendance.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes Server-Sent Events for the live feeds (LectureFeedService, StudentFeedService) off the
+ * request thread, so the request that caused an event (a check-in, a lecture starting) never waits
+ * on a viewer's connection. Payloads are serialized to JSON once and the same text is queued for
+ * every viewer.
+ *
+ * Each viewer has its own queue, written out in order by one task at a time, so a viewer whose
+ * connection stalls only holds up its own events. A queue holds at most app.sse.max-queued-events;
+ * a viewer that falls that far behind is dropped (its stream is ended with an error and the
+ * browser reconnects for a fresh snapshot) rather than letting its backlog grow.
+ */
+@Component
+public class SseSender {
+
+    private static final Logger log = LoggerFactory.getLogger(SseSender.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService sender;
+    private final int maxQueuedEvents;
+    private final AtomicLong droppedViewers = new AtomicLong();
+
+    @Autowired
+    public SseSender(AppThreads appThreads, @Value("${app.sse.max-queued-events:64}") int maxQueuedEvents) {
+        // A stalled write parks its thread until the connection gives up, so threads are not pooled
+        // to a fixed size: with platform threads, idle ones are reused and the rest are created as needed
+        ThreadFactory threads = appThreads.factory("sse-sender-");
+        this.sender = appThreads.isVirtualEnabled()
+                ? Executors.newThreadPerTaskExecutor(threads)
+                : Executors.newCachedThreadPool(threads);
+        this.maxQueuedEvents = Math.max(1, maxQueuedEvents);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /** Wraps a new stream; everything sent to it goes through its queue */
+    public Viewer open(SseEmitter emitter) {
+        return new Viewer(emitter);
+    }
+
+    public String toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event", e);
+        }
+    }
+
+    /**
+     * Queues one event for all the given viewers, dropping any that have gone away or fallen too
+     * far behind. Does not wait for the writes.
+     */
+    public void publish(Collection<Viewer> viewers, String name, Object data) {
+        if (viewers.isEmpty()) return;
+        String json = toJson(data);
+        List<Viewer> gone = new ArrayList<>();
+        for (Viewer viewer : viewers) {
+            if (!viewer.send(name, json)) gone.add(viewer);
+        }
+        viewers.removeAll(gone);
+    }
+
+    public long getDroppedViewerCount() {
+        return droppedViewers.get();
+    }
+
+    /**
+     * One stream and its queue of events not yet written. send and complete only queue; the
+     * writes happen on a sender thread, in the order they were queued.
+     */
+    public final class Viewer {
+        private final SseEmitter emitter;
+        // Guarded by this viewer's monitor
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Viewer(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /** Queues an event; false once the viewer has gone away or been dropped */
+        public boolean send(String name, String json) {
+            return offer(() -> write(name, json), false);
+        }
+
+        /** Ends the stream once the events queued before it are written */
+        public void complete() {
+            offer(this::finish, true);
+        }
+
+        private boolean offer(Runnable task, boolean last) {
+            synchronized (this) {
+                if (closed) return false;
+                if (queue.size() < maxQueuedEvents) {
+                    queue.add(task);
+                    closed = last;
+                    if (!draining) {
+                        draining = true;
+                        sender.execute(this::drain);
+                    }
+                    return true;
+                }
+                closed = true;
+                queue.clear();
+            }
+            droppedViewers.incrementAndGet();
+            log.atWarn().addKeyValue("queued", maxQueuedEvents).log("Dropping a live feed viewer that stopped reading");
+            // Ended on a sender thread: the emitter may be blocked in a write to this viewer
+            sender.execute(() -> emitter.completeWithError(new IOException("Viewer fell too far behind")));
+            return false;
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = queue.poll();
+                    if (task == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+
+        private void write(String name, String json) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                synchronized (this) {
+                    closed = true;
+                    queue.clear();
+                }
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void finish() {
+            emitter.complete();
+        }
+    }
+}
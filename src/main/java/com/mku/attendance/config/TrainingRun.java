@@ -0,0 +1,61 @@
+package com.mku.attendance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Training run for the faststart build profile (mvn -Pfaststart package). With
+ * app.training-run=true the app starts as usual, requests a few pages once it is ready so the
+ * classes behind a typical request (Thymeleaf, Jackson, the controllers) are loaded too, and then
+ * exits. The JVM writes every class it loaded into the class-data-sharing archive given by
+ * -XX:ArchiveClassesAtExit, which later launches map instead of loading and verifying classes again.
+ *
+ * Checked at runtime rather than with @ConditionalOnProperty, because Spring AOT fixes conditions
+ * at build time.
+ */
+@Component
+public class TrainingRun {
+
+    private static final List<String> PAGES = List.of(
+            "/student/login", "/lecturer/login", "/hod/login",
+            "/api/students/health", "/api/system/readiness", "/actuator/health");
+
+    @Value("${app.training-run:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (String page : PAGES) {
+            try {
+                HttpResponse<Void> response = http.send(
+                        HttpRequest.newBuilder(URI.create("http://localhost:" + port + page)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                System.out.println("🏋️ Training run: GET " + page + " -> " + response.statusCode());
+            } catch (Exception e) {
+                System.out.println("⚠️ Training run: GET " + page + " failed: " + e.getMessage());
+            }
+        }
+
+        System.out.println("🏋️ Training run complete, exiting");
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,46 @@
+package com.mku.attendance.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual-thread mode (app.threads.virtual.enabled=true): Tomcat request handling, @Async work and
+ * @Scheduled jobs run on virtual threads, so blocking SMTP, DNS and file I/O no longer ties up a
+ * small pool of platform threads. With the flag off, Spring Boot's default pools
+ * (server.tomcat.threads.*, spring.task.execution.pool.*) are used as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(AppThreads appThreads) {
+        System.out.println("🧵 Virtual threads ENABLED for requests, @Async and @Scheduled");
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(appThreads.factory("http-vt-")));
+    }
+
+    // Replaces Boot's applicationTaskExecutor pool; also the default executor for @Async
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor(AppThreads appThreads) {
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(appThreads.factory("async-vt-")));
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(AppThreads appThreads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadFactory(appThreads.factory("scheduling-vt-"));
+        return scheduler;
+    }
+}
@@ -4,8 +4,13 @@ import com.mku.attendance.entities.*;
 import com.mku.attendance.services.HODManager;
 import com.mku.attendance.services.StudentManager;
 import com.mku.attendance.services.AttendanceManager;
+import com.mku.attendance.services.AttendanceReportService;
+import com.mku.attendance.services.AttendanceAnalytics;
+import com.mku.attendance.services.AtRiskService;
+import com.mku.attendance.services.DepartmentViewService;
 import com.mku.attendance.services.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +35,18 @@ public class HODController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    @Autowired
+    private AttendanceAnalytics attendanceAnalytics;
+
+    @Autowired
+    private AtRiskService atRiskService;
+
+    @Autowired
+    private DepartmentViewService departmentViewService;
+
     // Store OTPs temporarily (in production, use Redis or database)
     private Map<String, String> hodOTPs = new HashMap<>();
     private Map<String, Long> hodOTPExpiry = new HashMap<>();
@@ -312,11 +329,8 @@ public class HODController {
 
         model.addAttribute("hod", hod);
         model.addAttribute("hodName", hod.getName());
-        model.addAttribute("studentManager", studentManager);
-        model.addAttribute("hodManager", hodManager);
-        model.addAttribute("attendanceManager", attendanceManager);
-        // Get lecturers from HODManager
-        model.addAttribute("lecturers", hodManager.getLecturers());
+        // Scoped to the HOD's courses; the tabs below load their lists through /hod/api/*
+        model.addAttribute("department", departmentViewService.getView(hod));
 
         return "hod-dashboard";
     }
@@ -590,66 +604,10 @@ public class HODController {
             return "redirect:/hod/login";
         }
 
-        List<Map<String, Object>> attendanceRecords = new ArrayList<>();
-
-        // Get all attendance records
-        List<Attendance> allRecords = attendanceManager.getAttendanceRecords();
-
-        // Convert to map format for display
-        for (Attendance record : allRecords) {
-            Map<String, Object> recordMap = new HashMap<>();
-            recordMap.put("studentId", record.getStudentId());
-            recordMap.put("unitCode", record.getUnitCode());
-            recordMap.put("date", record.getDate());
-
-            // Extract time from timestamp - FIXED: Handle missing getTime() method
-            String time = extractTimeFromTimestamp(record);
-            recordMap.put("time", time);
-
-            recordMap.put("status", record.isPresent() ? "PRESENT" : "ABSENT");
-            recordMap.put("present", record.isPresent());
-
-            // Add student name
-            StudentData student = studentManager.getStudent(record.getStudentId());
-            if (student != null) {
-                recordMap.put("studentName", student.getName());
-                recordMap.put("course", student.getCourse());
-            } else {
-                recordMap.put("studentName", "Unknown Student");
-                recordMap.put("course", "N/A");
-            }
-
-            attendanceRecords.add(recordMap);
-        }
-
-        // Apply filters
-        if (unitCode != null && !unitCode.isEmpty()) {
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> r.get("unitCode").toString().equalsIgnoreCase(unitCode))
-                    .collect(Collectors.toList());
-        }
-
-        if (date != null && !date.isEmpty()) {
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> r.get("date").toString().startsWith(date))
-                    .collect(Collectors.toList());
-        }
-
-        if (status != null && !status.isEmpty() && !status.equals("ALL")) {
-            boolean presentFilter = "PRESENT".equalsIgnoreCase(status);
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> (Boolean) r.get("present") == presentFilter)
-                    .collect(Collectors.toList());
-        }
-
-        if (studentId != null && !studentId.isEmpty()) {
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> r.get("studentId").toString().toLowerCase().contains(studentId.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-
-        // Sort by date descending (most recent first)
-        attendanceRecords.sort((r1, r2) -> r2.get("date").toString().compareTo(r1.get("date").toString()));
+        // Get attendance records (only the selected unit's when filtering by unit)
+        List<Attendance> allRecords = attendanceReportService.getSourceRecords(unitCode);
+        List<Map<String, Object>> attendanceRecords =
+                attendanceReportService.getFilteredAttendanceRecords(allRecords, unitCode, date, status, studentId);
 
         model.addAttribute("hod", hod);
         model.addAttribute("attendanceRecords", attendanceRecords);
@@ -657,13 +615,11 @@ public class HODController {
         model.addAttribute("date", date);
         model.addAttribute("status", status);
         model.addAttribute("studentId", studentId);
-        model.addAttribute("totalRecords", allRecords.size());
+        model.addAttribute("totalRecords", attendanceManager.getAttendanceRecordCount());
         model.addAttribute("filteredCount", attendanceRecords.size());
 
         // Get available units for filter dropdown
-        Set<String> availableUnits = allRecords.stream()
-                .map(Attendance::getUnitCode)
-                .collect(Collectors.toSet());
+        Set<String> availableUnits = attendanceManager.getAttendanceUnitCodes();
         model.addAttribute("availableUnits", availableUnits);
 
         return "hod-attendance-report";
@@ -685,7 +641,7 @@ public class HODController {
         }
 
         // Get filtered records
-        List<Map<String, Object>> records = getFilteredAttendanceRecords(unitCode, date, status, studentId);
+        List<Map<String, Object>> records = attendanceReportService.getFilteredAttendanceRecords(unitCode, date, status, studentId);
 
         // Set response headers for CSV download
         response.setContentType("text/csv");
@@ -711,109 +667,6 @@ public class HODController {
         }
     }
 
-    // Helper method to extract time from timestamp
-    private String extractTimeFromTimestamp(Attendance record) {
-        try {
-            // Try to get timestamp using reflection or available methods
-            // Since we don't know the exact methods in Attendance class, let's try common approaches
-
-            // Option 1: Try to get timestamp field
-            java.lang.reflect.Field timestampField = null;
-            try {
-                timestampField = record.getClass().getDeclaredField("timestamp");
-                timestampField.setAccessible(true);
-                String timestamp = (String) timestampField.get(record);
-                if (timestamp != null && timestamp.length() > 11) {
-                    return timestamp.substring(11, 16); // Extract HH:mm
-                }
-            } catch (Exception e) {
-                // Ignore and try next approach
-            }
-
-            // Option 2: Try to get date field and extract time if it contains time
-            try {
-                String date = record.getDate();
-                if (date != null && date.contains(" ")) {
-                    String[] parts = date.split(" ");
-                    if (parts.length > 1 && parts[1].length() >= 5) {
-                        return parts[1].substring(0, 5); // Extract HH:mm
-                    }
-                }
-            } catch (Exception e) {
-                // Ignore
-            }
-
-            // Option 3: Return default time
-            return "--:--";
-
-        } catch (Exception e) {
-            return "--:--";
-        }
-    }
-
-    // Helper method to get filtered attendance records
-    private List<Map<String, Object>> getFilteredAttendanceRecords(String unitCode, String date, String status, String studentId) {
-        List<Attendance> allRecords = attendanceManager.getAttendanceRecords();
-        List<Map<String, Object>> attendanceRecords = new ArrayList<>();
-
-        // Convert to map format
-        for (Attendance record : allRecords) {
-            Map<String, Object> recordMap = new HashMap<>();
-            recordMap.put("studentId", record.getStudentId());
-            recordMap.put("unitCode", record.getUnitCode());
-            recordMap.put("date", record.getDate());
-
-            // Extract time from timestamp
-            String time = extractTimeFromTimestamp(record);
-            recordMap.put("time", time);
-
-            recordMap.put("status", record.isPresent() ? "PRESENT" : "ABSENT");
-            recordMap.put("present", record.isPresent());
-
-            StudentData student = studentManager.getStudent(record.getStudentId());
-            if (student != null) {
-                recordMap.put("studentName", student.getName());
-                recordMap.put("course", student.getCourse());
-            } else {
-                recordMap.put("studentName", "Unknown Student");
-                recordMap.put("course", "N/A");
-            }
-
-            attendanceRecords.add(recordMap);
-        }
-
-        // Apply filters
-        if (unitCode != null && !unitCode.isEmpty()) {
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> r.get("unitCode").toString().equalsIgnoreCase(unitCode))
-                    .collect(Collectors.toList());
-        }
-
-        if (date != null && !date.isEmpty()) {
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> r.get("date").toString().startsWith(date))
-                    .collect(Collectors.toList());
-        }
-
-        if (status != null && !status.isEmpty() && !status.equals("ALL")) {
-            boolean presentFilter = "PRESENT".equalsIgnoreCase(status);
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> (Boolean) r.get("present") == presentFilter)
-                    .collect(Collectors.toList());
-        }
-
-        if (studentId != null && !studentId.isEmpty()) {
-            attendanceRecords = attendanceRecords.stream()
-                    .filter(r -> r.get("studentId").toString().toLowerCase().contains(studentId.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-
-        // Sort by date descending
-        attendanceRecords.sort((r1, r2) -> r2.get("date").toString().compareTo(r1.get("date").toString()));
-
-        return attendanceRecords;
-    }
-
     // API ENDPOINTS
     @GetMapping("/hod/api/courses")
     @ResponseBody
@@ -848,12 +701,111 @@ public class HODController {
         return lecturers;
     }
 
+    /**
+     * Assign a unit to a lecturer (a lecturer can teach several units and a unit can have several lecturers)
+     */
+    @PostMapping("/hod/api/lecturers/{lecturerId}/units")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> assignLecturerUnit(@PathVariable String lecturerId, @RequestParam String unitCode) {
+        Map<String, Object> result = new HashMap<>();
+        String code = unitCode.trim().toUpperCase();
+        if (!hodManager.lecturerExists(lecturerId)) {
+            result.put("success", false);
+            result.put("message", "Lecturer not found: " + lecturerId);
+        } else if (!hodManager.getUnitManager().unitExists(code)) {
+            result.put("success", false);
+            result.put("message", "Unit not found: " + code);
+        } else if (!hodManager.assignUnit(lecturerId, code)) {
+            result.put("success", false);
+            result.put("message", "Unit " + code + " is already assigned to " + lecturerId);
+        } else {
+            result.put("success", true);
+            result.put("message", "Unit " + code + " assigned to " + lecturerId);
+            result.put("unitCodes", hodManager.getLecturer(lecturerId).getUnitCodes());
+        }
+        return Boolean.TRUE.equals(result.get("success")) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    @DeleteMapping("/hod/api/lecturers/{lecturerId}/units/{unitCode}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> unassignLecturerUnit(@PathVariable String lecturerId, @PathVariable String unitCode) {
+        Map<String, Object> result = new HashMap<>();
+        if (!hodManager.unassignUnit(lecturerId, unitCode)) {
+            result.put("success", false);
+            result.put("message", "Unit " + unitCode + " is not assigned to " + lecturerId);
+        } else {
+            result.put("success", true);
+            result.put("message", "Unit " + unitCode + " removed from " + lecturerId);
+            result.put("unitCodes", hodManager.getLecturer(lecturerId).getUnitCodes());
+        }
+        return Boolean.TRUE.equals(result.get("success")) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    /**
+     * Lecturers assigned to a unit, from the assignment index
+     */
+    @GetMapping("/hod/api/units/{unitCode}/lecturers")
+    @ResponseBody
+    public Map<String, Object> getUnitLecturers(@PathVariable String unitCode) {
+        List<String> lecturers = new ArrayList<>(hodManager.getUnitLecturers(unitCode));
+        lecturers.sort(null);
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("unitCode", unitCode);
+        result.put("lecturers", lecturers);
+        return result;
+    }
+
     @GetMapping("/hod/api/attendance-records")
     @ResponseBody
     public List<Map<String, Object>> getAttendanceRecords(
             @RequestParam(required = false) String unitCode,
             @RequestParam(required = false) String date,
             @RequestParam(required = false) String status) {
-        return getFilteredAttendanceRecords(unitCode, date, status, null);
+        return attendanceReportService.getFilteredAttendanceRecords(unitCode, date, status, null);
+    }
+
+    /**
+     * Students who missed `sessions` sessions of a unit in a row
+     */
+    @GetMapping("/hod/api/analytics/consecutive-absences")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getConsecutiveAbsences(
+            @RequestParam String unitCode,
+            @RequestParam(defaultValue = "3") int sessions) {
+        Map<String, Object> result = attendanceAnalytics.getConsecutiveAbsentees(unitCode, sessions);
+        return Boolean.TRUE.equals(result.get("success")) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    /**
+     * Absentees shared by several units (unitCodes comma separated), optionally between two dates
+     */
+    @GetMapping("/hod/api/analytics/absentee-overlap")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getAbsenteeOverlap(
+            @RequestParam List<String> unitCodes,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        List<String> units = unitCodes.stream().map(String::trim).filter(u -> !u.isEmpty()).collect(Collectors.toList());
+        Map<String, Object> result = attendanceAnalytics.getAbsenteeOverlap(units,
+                from != null && !from.isEmpty() ? from : null, to != null && !to.isEmpty() ? to : null);
+        return Boolean.TRUE.equals(result.get("success")) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    /**
+     * Students below the attendance threshold, by course, department or HOD (hodId: their courses)
+     */
+    @GetMapping("/hod/api/at-risk")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getAtRiskStudents(
+            @RequestParam(required = false) String courseCode,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String hodId) {
+        Map<String, Object> result = atRiskService.getAtRisk(blankToNull(courseCode), blankToNull(department), blankToNull(hodId));
+        return Boolean.TRUE.equals(result.get("success")) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.trim().isEmpty() ? value.trim() : null;
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,26 @@
 package com.mku.attendance.controllers;
 
+import com.mku.attendance.services.AttendanceAnalytics;
+import com.mku.attendance.services.AttendanceManager;
 import com.mku.attendance.services.HODManager;
+import com.mku.attendance.services.LectureFeedService;
 import com.mku.attendance.services.UnitManager;
 import com.mku.attendance.entities.LecturerData;
 import com.mku.attendance.entities.Unit;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.*;
 
 @Controller
@@ -22,11 +33,20 @@ public class LecturerController {
     @Autowired
     private UnitManager unitManager;
 
+    @Autowired
+    private AttendanceManager attendanceManager;
+
+    @Autowired
+    private LectureFeedService lectureFeedService;
+
+    @Autowired
+    private AttendanceAnalytics attendanceAnalytics;
+
     /**
      * Show lecturer dashboard
      */
     @GetMapping("/dashboard")
-    public String showDashboard(HttpSession session, Model model) {
+    public String showDashboard(@RequestParam(required = false) String unitCode, HttpSession session, Model model) {
         // Check if lecturer is logged in
         String lecturerId = (String) session.getAttribute("lecturerId");
         if (lecturerId == null) {
@@ -43,24 +63,25 @@ public class LecturerController {
         model.addAttribute("lecturerName", lecturerName);
         model.addAttribute("lecturer", lecturer);
 
-        // FIXED: Properly handle units retrieval
-        try {
-            // Get units as Map and convert to List
-            Map<String, Unit> unitsMap = unitManager.getUnits();
-            List<Unit> unitsList = new ArrayList<>(unitsMap.values());
-
-            model.addAttribute("units", unitsList);
-            model.addAttribute("totalUnits", unitsList.size());
-
-        } catch (Exception e) {
-            System.out.println("❌ Error getting units: " + e.getMessage());
-            model.addAttribute("units", List.of());
-            model.addAttribute("totalUnits", 0);
+        // Only the lecturer's own units, with their session state and running counts
+        List<Map<String, Object>> units = assignedUnits(lecturer);
+        model.addAttribute("units", units);
+        model.addAttribute("totalUnits", units.size());
+        model.addAttribute("liveUnits", units.stream().filter(unit -> Boolean.TRUE.equals(unit.get("isActive"))).count());
+
+        // The attendance control and live feed follow the unit asked for, else a running lecture on
+        // any assigned unit, else the primary unit
+        String activeUnit = lecturer != null ? activeUnit(lecturer, unitCode, units) : null;
+        model.addAttribute("activeUnit", activeUnit);
+        model.addAttribute("isAttendanceActive", activeUnit != null && attendanceManager.isAttendanceActive(activeUnit));
+
+        // Statistics cards for the same unit (running counts, so the dashboard does not read the
+        // unit's records)
+        if (activeUnit != null && !activeUnit.isEmpty()) {
+            model.addAllAttributes(attendanceManager.getAttendanceStatistics(activeUnit));
+            model.addAttribute("presentToday", attendanceManager.getDashboardSummary(activeUnit).get("presentToday"));
         }
 
-        // FIXED: Add missing isAttendanceActive attribute with default value
-        model.addAttribute("isAttendanceActive", false);
-
         System.out.println("Lecturer dashboard accessed by: " + lecturerId);
         return "lecturer-dashboard";
     }
@@ -108,27 +129,22 @@ public class LecturerController {
         model.addAttribute("lecturerName", lecturerName);
         model.addAttribute("lecturer", lecturer);
 
-        // FIXED: Simplified units retrieval for attendance page
-        try {
-            Map<String, Unit> unitsMap = unitManager.getUnits();
-            List<Unit> unitsList = new ArrayList<>(unitsMap.values());
-            model.addAttribute("units", unitsList);
-        } catch (Exception e) {
-            model.addAttribute("units", List.of());
-        }
+        List<Map<String, Object>> units = assignedUnits(lecturer);
+        model.addAttribute("units", units);
 
-        // FIXED: Add missing attribute
-        model.addAttribute("isAttendanceActive", false);
+        // Active while a lecture runs on any of the lecturer's units, not just the primary one
+        model.addAttribute("isAttendanceActive", units.stream().anyMatch(unit -> Boolean.TRUE.equals(unit.get("isActive"))));
 
         System.out.println("Lecturer attendance page accessed by: " + lecturerId);
         return "lecturer-attendance";
     }
 
     /**
-     * Show reports page
+     * Show reports page: each assigned unit's counters and its latest sessions against its overall
+     * rate (AttendanceAnalytics keeps the per-session counts up to date, so no records are read)
      */
     @GetMapping("/reports")
-    public String showReports(HttpSession session, Model model) {
+    public String showReports(@RequestParam(defaultValue = "10") int sessions, HttpSession session, Model model) {
         String lecturerId = (String) session.getAttribute("lecturerId");
         if (lecturerId == null) {
             return "redirect:/lecturer/login";
@@ -143,6 +159,14 @@ public class LecturerController {
         model.addAttribute("lecturerName", lecturerName);
         model.addAttribute("lecturer", lecturer);
 
+        int window = Math.max(sessions, 1);
+        List<Map<String, Object>> units = assignedUnits(lecturer);
+        for (Map<String, Object> unit : units) {
+            unit.put("trend", attendanceAnalytics.getSessionTrend((String) unit.get("code"), window));
+        }
+        model.addAttribute("units", units);
+        model.addAttribute("sessions", window);
+
         System.out.println("Lecturer reports page accessed by: " + lecturerId);
         return "lecturer-reports";
     }
@@ -169,4 +193,194 @@ public class LecturerController {
         System.out.println("Lecturer settings page accessed by: " + lecturerId);
         return "lecturer-settings";
     }
-}
\ No newline at end of file
+
+    // ========== ATTENDANCE SESSION ENDPOINTS ==========
+
+    /**
+     * Open attendance marking for one of the lecturer's units (the dashboard unit unless unitCode
+     * names another assigned unit)
+     */
+    @PostMapping("/start-attendance")
+    public String startAttendance(@RequestParam(defaultValue = "60") int durationMinutes,
+                                  @RequestParam(required = false) String unitCode, HttpSession session) {
+        String lecturerId = (String) session.getAttribute("lecturerId");
+        if (lecturerId == null) {
+            return "redirect:/lecturer/login";
+        }
+
+        LecturerData lecturer = hodManager.getLecturer(lecturerId);
+        String unit = lecturer != null ? unitFor(lecturer, unitCode) : null;
+        if (lecturer != null && unit == null) {
+            return "redirect:/lecturer/dashboard?error=You are not assigned to that unit";
+        }
+        if (unit == null || unit.isEmpty()) {
+            return "redirect:/lecturer/dashboard?error=No unit assigned";
+        }
+
+        if (!attendanceManager.startLecture(unit, durationMinutes)) {
+            return "redirect:/lecturer/dashboard?error=Attendance already active";
+        }
+
+        System.out.println("Attendance started by " + lecturerId + " for unit: " + unit);
+        return "redirect:/lecturer/dashboard?success=Attendance started&unitCode=" + unit;
+    }
+
+    /**
+     * Close attendance marking and auto-mark everyone who did not check in as absent
+     */
+    @PostMapping("/stop-attendance")
+    public String stopAttendance(@RequestParam(required = false) String unitCode, HttpSession session) {
+        String lecturerId = (String) session.getAttribute("lecturerId");
+        if (lecturerId == null) {
+            return "redirect:/lecturer/login";
+        }
+
+        LecturerData lecturer = hodManager.getLecturer(lecturerId);
+        String unit = lecturer != null ? unitFor(lecturer, unitCode) : null;
+        if (unit == null || !attendanceManager.isAttendanceActive(unit)) {
+            return "redirect:/lecturer/dashboard?error=Attendance not active";
+        }
+
+        attendanceManager.endLecture(unit);
+        System.out.println("Attendance stopped by " + lecturerId + " for unit: " + unit);
+        return "redirect:/lecturer/dashboard?success=Attendance stopped";
+    }
+
+    /**
+     * Polled by the dashboard while attendance is running
+     */
+    @GetMapping("/attendance-status")
+    @ResponseBody
+    public Map<String, Object> attendanceStatus(@RequestParam(required = false) String unitCode, HttpSession session) {
+        Map<String, Object> status = new HashMap<>();
+        String lecturerId = (String) session.getAttribute("lecturerId");
+        LecturerData lecturer = lecturerId != null ? hodManager.getLecturer(lecturerId) : null;
+        if (lecturer == null) {
+            status.put("active", false);
+            status.put("message", "Not logged in");
+            return status;
+        }
+
+        String unit = unitFor(lecturer, unitCode);
+        if (unit == null) {
+            status.put("active", false);
+            status.put("message", "Not assigned to unit " + unitCode);
+            return status;
+        }
+        status.put("active", attendanceManager.isAttendanceActive(unit));
+        status.put("unitCode", unit);
+        status.put("remainingTime", attendanceManager.getRemainingTime(unit));
+        return status;
+    }
+
+    /**
+     * Live check-ins, counts and remaining time for the lecturer's running lecture (Server-Sent
+     * Events, see LectureFeedService); replaces reloading the dashboard while attendance is open
+     */
+    @GetMapping(path = "/attendance-feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> attendanceFeed(@RequestParam(required = false) String unitCode, HttpSession session) {
+        String lecturerId = (String) session.getAttribute("lecturerId");
+        LecturerData lecturer = lecturerId != null ? hodManager.getLecturer(lecturerId) : null;
+        if (lecturer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String unit = unitFor(lecturer, unitCode);
+        if (unit == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(lectureFeedService.subscribe(unit));
+    }
+
+    /**
+     * Submit or correct a whole roster for one of the lecturer's units in one request:
+     * {"unitCode": optional, defaults to the dashboard unit, "date": "yyyy-MM-dd",
+     * "attendance": {"<studentId>": true | false | "PRESENT" | "ABSENT", ...}}.
+     * Saved once; the response has the outcome for every row (see AttendanceManager.markRoster).
+     */
+    @PostMapping("/attendance/roster")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> submitRoster(@RequestBody Map<String, Object> body, HttpSession session) {
+        String lecturerId = (String) session.getAttribute("lecturerId");
+        LecturerData lecturer = lecturerId != null ? hodManager.getLecturer(lecturerId) : null;
+        if (lecturer == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "success", false,
+                    "message", "Not logged in"
+            ));
+        }
+
+        Object requestedUnit = body.get("unitCode");
+        String unitCode = unitFor(lecturer, requestedUnit != null ? requestedUnit.toString() : null);
+        if (unitCode == null || unitCode.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "You can only submit attendance for your assigned units"
+            ));
+        }
+        if (!(body.get("attendance") instanceof Map<?, ?> attendance)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "attendance must map student IDs to present or absent"
+            ));
+        }
+
+        Map<String, Boolean> roster = new LinkedHashMap<>();
+        attendance.forEach((studentId, value) -> roster.put(String.valueOf(studentId), parsePresent(value)));
+
+        Map<String, Object> result = attendanceManager.markRoster(unitCode, (String) body.get("date"), roster);
+        return Boolean.TRUE.equals(result.get("success")) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    // The lecturer's units with their session state and running counts; nothing here reads the
+    // unit list or attendance records
+    private List<Map<String, Object>> assignedUnits(LecturerData lecturer) {
+        List<Map<String, Object>> units = new ArrayList<>();
+        if (lecturer == null) {
+            return units;
+        }
+        for (String unitCode : lecturer.getUnitCodes()) {
+            Unit unit = unitManager.getUnit(unitCode.toUpperCase());
+            Map<String, Object> row = new HashMap<>(attendanceManager.getDashboardSummary(unitCode));
+            row.put("code", unitCode);
+            row.put("name", unit != null ? unit.getName() : "");
+            row.put("courseCode", unit != null ? unit.getCourseCode() : "");
+            row.put("current", unitCode.equalsIgnoreCase(lecturer.getUnitCode()));
+            row.put("remainingTime", Boolean.TRUE.equals(row.get("isActive")) ? attendanceManager.getRemainingTime(unitCode) : null);
+            units.add(row);
+        }
+        return units;
+    }
+
+    // The assigned unit a request is for: the dashboard unit when none is named, null if the
+    // lecturer is not assigned to the one named
+    private static String unitFor(LecturerData lecturer, String requested) {
+        if (requested == null || requested.trim().isEmpty()) {
+            return lecturer.getUnitCode();
+        }
+        return lecturer.getUnitCodes().stream().filter(requested.trim()::equalsIgnoreCase).findFirst().orElse(null);
+    }
+
+    // The unit the dashboard's attendance control is for: the one requested if assigned, else the
+    // first assigned unit with a lecture running, else the primary unit
+    private static String activeUnit(LecturerData lecturer, String requested, List<Map<String, Object>> units) {
+        if (requested != null && !requested.trim().isEmpty()) {
+            String unit = unitFor(lecturer, requested);
+            if (unit != null) return unit;
+        }
+        return units.stream()
+                .filter(unit -> Boolean.TRUE.equals(unit.get("isActive")))
+                .map(unit -> (String) unit.get("code"))
+                .findFirst()
+                .orElse(lecturer.getUnitCode());
+    }
+
+    // true/false, or "PRESENT"/"ABSENT" (any case); anything else is null, reported as an invalid row
+    private static Boolean parsePresent(Object value) {
+        if (value instanceof Boolean present) return present;
+        if (value == null) return null;
+        String text = value.toString().trim();
+        if ("PRESENT".equalsIgnoreCase(text) || "true".equalsIgnoreCase(text)) return true;
+        if ("ABSENT".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) return false;
+        return null;
+    }
+}
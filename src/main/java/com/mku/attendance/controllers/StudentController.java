@@ -4,14 +4,21 @@ import com.mku.attendance.entities.StudentData;
 import com.mku.attendance.services.StudentManager;
 import com.mku.attendance.services.AuthService;
 import com.mku.attendance.services.EmailService;
+import com.mku.attendance.services.StudentFeedService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/students")
@@ -27,6 +34,9 @@ public class StudentController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private StudentFeedService studentFeedService;
+
     @Value("${app.email.enabled:true}")
     private boolean emailEnabled;
 
@@ -199,6 +209,89 @@ public class StudentController {
         }
     }
 
+    /**
+     * BULK REGISTER STUDENTS - body: {"students": [{student_id, name, email, password}, ...]}
+     * Emails are validated concurrently; each row is created or rejected independently.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> createStudentsBulk(@RequestBody Map<String, List<Map<String, String>>> request) {
+        List<Map<String, String>> rows = request.get("students");
+        if (rows == null || rows.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "No students provided"
+            ));
+        }
+
+        System.out.println("🆕 Bulk registering " + rows.size() + " students");
+
+        // Collect the distinct emails first so they can all be validated at once
+        Set<String> emails = new LinkedHashSet<>();
+        for (Map<String, String> row : rows) {
+            String email = row.get("email");
+            if (email != null && !email.trim().isEmpty()) {
+                emails.add(email.trim().toLowerCase());
+            }
+        }
+        Map<String, Boolean> emailResults = emailService.validateEmailsConcurrently(emails);
+
+        List<StudentData> accepted = new ArrayList<>();
+        List<Map<String, Object>> failed = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        for (Map<String, String> row : rows) {
+            String studentId = row.get("student_id");
+            String name = row.get("name");
+            String email = row.get("email");
+            String password = row.get("password");
+
+            String error = null;
+            if (studentId == null || studentId.trim().isEmpty() ||
+                    name == null || name.trim().isEmpty() ||
+                    email == null || email.trim().isEmpty() ||
+                    password == null || password.trim().isEmpty()) {
+                error = "All fields are required: student_id, name, email, password";
+            } else {
+                studentId = studentId.trim().toUpperCase();
+                email = email.trim().toLowerCase();
+
+                if (!Boolean.TRUE.equals(emailResults.get(email))) {
+                    error = "Invalid email address";
+                } else if (studentManager.exists(studentId) || !seenIds.add(studentId)) {
+                    error = "Student ID already exists";
+                } else if (authService.findStudentByEmail(email) != null || !seenEmails.add(email)) {
+                    error = "Email address already registered";
+                } else {
+                    StudentData student = new StudentData(studentId, name.trim(), email, password.trim());
+                    if (student.isValidForRegistration()) {
+                        accepted.add(student);
+                    } else {
+                        error = "Invalid student data";
+                    }
+                }
+            }
+
+            if (error != null) {
+                Map<String, Object> failure = new HashMap<>();
+                failure.put("student_id", studentId);
+                failure.put("message", error);
+                failed.add(failure);
+            }
+        }
+
+        studentManager.addStudents(accepted);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", failed.isEmpty());
+        response.put("message", accepted.size() + " students created, " + failed.size() + " rejected");
+        response.put("created", accepted.stream().map(StudentData::getStudentId).toList());
+        response.put("failed", failed);
+
+        System.out.println("✅ Bulk registration: " + accepted.size() + " created, " + failed.size() + " rejected");
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * UPDATE STUDENT - For React frontend
      */
@@ -379,8 +472,10 @@ public class StudentController {
         System.out.println("📊 Fetching attendance summary for: " + studentId);
 
         try {
-            Map<String, Map<String, Object>> attendanceSummary = studentManager.getAttendanceSummary(studentId);
-            Map<String, Object> overallStats = studentManager.getOverallStatistics(studentId);
+            // One read of the student's history for both
+            Map<String, StudentData.UnitAttendance> byUnit = studentManager.getAttendanceByUnit(studentId);
+            Map<String, Map<String, Object>> attendanceSummary = studentManager.getAttendanceSummary(studentId, byUnit);
+            Map<String, Object> overallStats = studentManager.getOverallStatistics(studentId, byUnit);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -399,6 +494,18 @@ public class StudentController {
         }
     }
 
+    /**
+     * LECTURE FEED - Server-Sent Events telling the student when a lecture opens or closes for one
+     * of their units (see StudentFeedService), instead of polling for active units
+     */
+    @GetMapping(path = "/{studentId}/lecture-feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> lectureFeed(@PathVariable String studentId) {
+        if (!studentManager.exists(studentId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(studentFeedService.subscribe(studentId));
+    }
+
     /**
      * MARK ATTENDANCE - For React frontend
      */
@@ -413,7 +520,12 @@ public class StudentController {
         System.out.println("📝 Marking attendance for " + studentId + " in " + unitCode + ": " + (present ? "PRESENT" : "ABSENT"));
 
         try {
-            studentManager.markAttendance(studentId, unitCode, present);
+            if (!studentManager.markAttendance(studentId, unitCode, present)) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "success", false,
+                        "message", "Attendance can only be marked for a registered unit while its lecture is running"
+                ));
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -0,0 +1,138 @@
+package com.mku.attendance.controllers;
+
+import com.mku.attendance.services.EmailOutboxService;
+import com.mku.attendance.services.FlightRecordingService;
+import com.mku.attendance.services.ReadinessService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private ReadinessService readinessService;
+
+    @Autowired
+    private FlightRecordingService flightRecordingService;
+
+    /**
+     * READINESS - 200 once the server is ready, 503 before that. Email health is informational.
+     */
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, Object>> getReadiness() {
+        Map<String, Object> response = new HashMap<>(readinessService.getStatus());
+        response.put("success", readinessService.isReady());
+        return ResponseEntity.status(readinessService.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(response);
+    }
+
+    /**
+     * OUTBOUND EMAIL QUEUE - depth, age of oldest message, delivery counters
+     */
+    @GetMapping("/email-outbox")
+    public ResponseEntity<Map<String, Object>> getEmailOutboxStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("outbox", emailOutboxService.getQueueStats());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * FLIGHT RECORDING - start a bounded JFR recording (stops by itself after durationSeconds)
+     */
+    @PostMapping("/flight-recording")
+    public ResponseEntity<Map<String, Object>> startFlightRecording(
+            @RequestParam(defaultValue = "60") long durationSeconds,
+            @RequestParam(defaultValue = "default") String settings,
+            @RequestHeader(value = "X-JFR-Token", required = false) String token) {
+        ResponseEntity<Map<String, Object>> refused = refuseFlightRecording(token);
+        if (refused != null) {
+            return refused;
+        }
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("recording", flightRecordingService.start(durationSeconds, settings));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * FLIGHT RECORDING STATUS - state, size and duration of the current recording
+     */
+    @GetMapping("/flight-recording")
+    public ResponseEntity<Map<String, Object>> getFlightRecording(
+            @RequestHeader(value = "X-JFR-Token", required = false) String token) {
+        ResponseEntity<Map<String, Object>> refused = refuseFlightRecording(token);
+        if (refused != null) {
+            return refused;
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("recording", flightRecordingService.getStatus());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * FLIGHT RECORDING DUMP - download the current recording as a .jfr file (open with JDK Mission
+     * Control or `jfr print --events mku.attendance.MarkAttempt`)
+     */
+    @GetMapping("/flight-recording/dump")
+    public void dumpFlightRecording(@RequestHeader(value = "X-JFR-Token", required = false) String token,
+                                    HttpServletResponse response) throws IOException {
+        if (!flightRecordingService.isEnabled()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!flightRecordingService.isAuthorized(token)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        Path file;
+        try {
+            file = flightRecordingService.dump();
+        } catch (IllegalStateException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+            return;
+        }
+        try {
+            response.setContentType("application/octet-stream");
+            response.setContentLengthLong(Files.size(file));
+            response.setHeader("Content-Disposition", "attachment; filename=\"mku-attendance-" + System.currentTimeMillis() + ".jfr\"");
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // 404 while recordings are disabled, 403 without the configured token, null when allowed
+    private ResponseEntity<Map<String, Object>> refuseFlightRecording(String token) {
+        if (!flightRecordingService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!flightRecordingService.isAuthorized(token)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Missing or invalid X-JFR-Token");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        return null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mku.attendance.controllers;
 
+import com.mku.attendance.services.AttendanceManager;
 import com.mku.attendance.services.AuthService;
 import com.mku.attendance.services.StudentManager;
 import com.mku.attendance.services.EmailService;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -24,6 +26,9 @@ public class WebController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private AttendanceManager attendanceManager;
+
     // ========== PAGE MAPPINGS ==========
 
     @GetMapping("/student/login")
@@ -91,12 +96,14 @@ public class WebController {
         }
 
         model.addAttribute("student", student);
-        model.addAttribute("attendanceSummary", studentManager.getAttendanceSummary(studentId));
-        model.addAttribute("overallStats", studentManager.getOverallStatistics(studentId));
-
-        // ADD MISSING ATTRIBUTES TO PREVENT NULL ERRORS
-        model.addAttribute("canTakeAttendance", false);
-        model.addAttribute("activeUnitCode", "");
+        // One read of the student's history for both
+        var byUnit = studentManager.getAttendanceByUnit(studentId);
+        model.addAttribute("attendanceSummary", studentManager.getAttendanceSummary(studentId, byUnit));
+        model.addAttribute("overallStats", studentManager.getOverallStatistics(studentId, byUnit));
+
+        List<String> activeUnits = attendanceManager.getActiveUnitsForStudent(studentId);
+        model.addAttribute("canTakeAttendance", !activeUnits.isEmpty());
+        model.addAttribute("activeUnitCode", activeUnits.isEmpty() ? "" : activeUnits.get(0));
         // Remove the problematic method calls - use empty maps instead
         model.addAttribute("courses", new java.util.HashMap<>());
         model.addAttribute("units", new java.util.HashMap<>());
@@ -381,6 +388,21 @@ public class WebController {
         return "forgot-password";
     }
 
+    @PostMapping("/student/take-attendance")
+    public String handleTakeAttendance(@RequestParam String studentId,
+                                       @RequestParam(required = false) String unitCode) {
+        // Without a unit, mark the first of the student's units with a running lecture
+        if (unitCode == null || unitCode.isEmpty()) {
+            List<String> activeUnits = attendanceManager.getActiveUnitsForStudent(studentId);
+            unitCode = activeUnits.isEmpty() ? null : activeUnits.get(0);
+        }
+
+        Map<String, Object> result = attendanceManager.markAttendance(studentId, unitCode);
+        String outcome = Boolean.TRUE.equals(result.get("success")) ? "success" : "error";
+        String message = java.net.URLEncoder.encode((String) result.get("message"), java.nio.charset.StandardCharsets.UTF_8);
+        return "redirect:/student/dashboard?studentId=" + studentId + "&" + outcome + "=" + message;
+    }
+
     @GetMapping("/student/logout")
     public String handleLogout() {
         return "redirect:/student/login?success=Logged out successfully";
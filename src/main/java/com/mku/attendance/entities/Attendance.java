@@ -1,12 +1,19 @@
 package com.mku.attendance.entities;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class Attendance {
     private String studentId;
     private String unitCode;
     private String date;
     private boolean present;
 
-    public Attendance(String studentId, String unitCode, String date, boolean present) {
+    @JsonCreator
+    public Attendance(@JsonProperty("studentId") String studentId,
+                      @JsonProperty("unitCode") String unitCode,
+                      @JsonProperty("date") String date,
+                      @JsonProperty("present") boolean present) {
         this.studentId = studentId;
         this.unitCode = unitCode;
         this.date = date;
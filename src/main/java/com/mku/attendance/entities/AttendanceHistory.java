@@ -0,0 +1,13 @@
+package com.mku.attendance.entities;
+
+import java.util.List;
+
+/**
+ * Where StudentData reads a student's attendance from (AttendanceStore), so the per-student
+ * views are derived from the single attendance store instead of a copy kept on the student.
+ */
+@FunctionalInterface
+public interface AttendanceHistory {
+
+    List<Attendance> forStudent(String studentId);
+}
@@ -1,6 +1,7 @@
 package com.mku.attendance.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -14,7 +15,6 @@ public class AttendanceRecord {
 
     // Default constructor for JSON
     public AttendanceRecord() {
-        this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
 
     // Constructor for manual creation
@@ -23,16 +23,16 @@ public class AttendanceRecord {
         this.unitCode = unitCode;
         this.present = present;
         this.date = date;
-        this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
 
-    // Constructor with auto date generation
-    public AttendanceRecord(String studentId, String unitCode, boolean present) {
+    // Constructor stamped with the app's clock
+    public AttendanceRecord(String studentId, String unitCode, boolean present, Clock clock) {
         this.studentId = studentId;
         this.unitCode = unitCode;
         this.present = present;
-        this.date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        LocalDateTime now = LocalDateTime.now(clock);
+        this.date = now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        this.timestamp = now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
 
     // Getters and Setters
@@ -60,26 +60,43 @@ public class AttendanceRecord {
         this.present = present;
     }
 
+    // A record missing one of date and timestamp takes it from the other, never from the current time
     public String getDate() {
         if (date == null || date.isEmpty()) {
-            this.date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            return timestamp != null && timestamp.length() >= 10 ? timestamp.substring(0, 10) : "";
         }
         return date;
     }
 
     public void setDate(String date) {
-        this.date = date != null ? date : LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        this.date = date;
     }
 
     public String getTimestamp() {
         if (timestamp == null || timestamp.isEmpty()) {
-            this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            return getDate();
         }
         return timestamp;
     }
 
     public void setTimestamp(String timestamp) {
-        this.timestamp = timestamp != null ? timestamp : LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        this.timestamp = timestamp;
+    }
+
+    // View of a record from the attendance store; its date may carry the time ("yyyy-MM-dd HH:mm:ss")
+    public static AttendanceRecord from(Attendance attendance) {
+        String when = attendance.getDate() != null ? attendance.getDate() : "";
+        AttendanceRecord record = new AttendanceRecord(attendance.getStudentId(), attendance.getUnitCode(), attendance.isPresent(),
+                when.length() >= 10 ? when.substring(0, 10) : when);
+        record.setTimestamp(when);
+        return record;
+    }
+
+    // Store form of a legacy record: the timestamp when it is from the same day, otherwise the date
+    public Attendance toAttendance() {
+        String day = getDate();
+        String when = timestamp != null && day.length() == 10 && timestamp.startsWith(day) ? timestamp : day;
+        return new Attendance(getStudentId(), getUnitCode().toUpperCase(), when, present);
     }
 
     // Helper methods
@@ -95,10 +112,7 @@ public class AttendanceRecord {
     }
 
     public String getFormattedDate() {
-        if (date != null && date.length() >= 10) {
-            return date; // Already in yyyy-MM-dd format
-        }
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        return getDate(); // Already in yyyy-MM-dd format
     }
 
     // ADD THIS METHOD: Extract time from timestamp
@@ -2,6 +2,9 @@ package com.mku.attendance.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class LecturerData {
     private String name;
@@ -9,7 +12,9 @@ public class LecturerData {
     private String lecturerId;
     private String password;
     private String courseCode;
+    // The unit the dashboard opens on; unitCodes holds every unit the lecturer is assigned to
     private String unitCode;
+    private List<String> unitCodes = new ArrayList<>();
 
     public LecturerData() {
     }
@@ -21,6 +26,9 @@ public class LecturerData {
         this.password = password;
         this.courseCode = courseCode;
         this.unitCode = unitCode;
+        if (unitCode != null && !unitCode.isEmpty()) {
+            this.unitCodes.add(unitCode);
+        }
     }
 
     // Getters
@@ -31,6 +39,20 @@ public class LecturerData {
     public String getCourseCode() { return courseCode; }
     public String getUnitCode() { return unitCode; }
 
+    /**
+     * Every unit assigned to the lecturer (files written before assignments only carry unitCode)
+     */
+    public List<String> getUnitCodes() {
+        if (unitCodes.isEmpty() && unitCode != null && !unitCode.isEmpty()) {
+            return List.of(unitCode);
+        }
+        return List.copyOf(unitCodes);
+    }
+
+    public boolean isAssignedTo(String code) {
+        return code != null && getUnitCodes().stream().anyMatch(code::equalsIgnoreCase);
+    }
+
     // Setters (required for JSON deserialization)
     public void setName(String name) { this.name = name != null ? name : ""; }
     public void setEmail(String email) { this.email = email != null ? email : ""; }
@@ -38,4 +60,33 @@ public class LecturerData {
     public void setPassword(String password) { this.password = password != null ? password : ""; }
     public void setCourseCode(String courseCode) { this.courseCode = courseCode != null ? courseCode : ""; }
     public void setUnitCode(String unitCode) { this.unitCode = unitCode != null ? unitCode : ""; }
+    public void setUnitCodes(List<String> unitCodes) { this.unitCodes = unitCodes != null ? new ArrayList<>(unitCodes) : new ArrayList<>(); }
+
+    /**
+     * Adds a unit (upper case); the first one becomes the lecturer's dashboard unit
+     */
+    public boolean assignUnit(String code) {
+        if (code == null || code.trim().isEmpty()) return false;
+        String upper = code.trim().toUpperCase();
+        unitCodes = new ArrayList<>(getUnitCodes());
+        if (isAssignedTo(upper)) return false;
+        unitCodes.add(upper);
+        if (unitCode == null || unitCode.isEmpty()) {
+            unitCode = upper;
+        }
+        return true;
+    }
+
+    /**
+     * Removes a unit; if it was the dashboard unit, the next assigned unit (if any) takes its place
+     */
+    public boolean unassignUnit(String code) {
+        if (!isAssignedTo(code)) return false;
+        unitCodes = new ArrayList<>(getUnitCodes());
+        unitCodes.removeIf(code::equalsIgnoreCase);
+        if (code.equalsIgnoreCase(unitCode)) {
+            unitCode = unitCodes.isEmpty() ? "" : unitCodes.get(0);
+        }
+        return true;
+    }
 }
\ No newline at end of file
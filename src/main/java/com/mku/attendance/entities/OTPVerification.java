@@ -1,6 +1,7 @@
 package com.mku.attendance.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.Clock;
 import java.time.LocalDateTime;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -11,13 +12,19 @@ public class OTPVerification {
     private LocalDateTime expiresAt;
     private boolean used;
     private int attemptCount;
+    private Clock clock = Clock.systemDefaultZone(); // not serialized: no accessors
 
     public OTPVerification() {}
 
     public OTPVerification(String email, String otp, int expiryMinutes) {
+        this(email, otp, expiryMinutes, Clock.systemDefaultZone());
+    }
+
+    public OTPVerification(String email, String otp, int expiryMinutes, Clock clock) {
+        this.clock = clock;
         this.email = email;
         this.otp = otp;
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = LocalDateTime.now(clock);
         this.expiresAt = this.createdAt.plusMinutes(expiryMinutes);
         this.used = false;
         this.attemptCount = 0;
@@ -43,7 +50,7 @@ public class OTPVerification {
     public void setAttemptCount(int attemptCount) { this.attemptCount = attemptCount; }
 
     public boolean isExpired() {
-        return LocalDateTime.now().isAfter(expiresAt);
+        return LocalDateTime.now(clock).isAfter(expiresAt);
     }
 
     public void incrementAttemptCount() {
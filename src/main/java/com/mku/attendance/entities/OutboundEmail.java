@@ -0,0 +1,104 @@
+package com.mku.attendance.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OutboundEmail {
+    private String id;
+    private String type;
+    private String fromEmail;
+    private String toEmail;
+    private String subject;
+    private String body;
+    private String dedupeKey;
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    // Messages carrying a credential (OTPs) are never written to the outbox directory and are
+    // dropped, not retried, once expiresAt has passed
+    private boolean memoryOnly;
+    private LocalDateTime expiresAt;
+
+    // Default constructor for JSON
+    public OutboundEmail() {
+        this.id = UUID.randomUUID().toString();
+    }
+
+    // The app's clock, so queued mail follows simulated time too
+    public OutboundEmail(String type, String fromEmail, String toEmail, String subject, String body, String dedupeKey,
+                         Clock clock) {
+        this();
+        this.createdAt = LocalDateTime.now(clock);
+        this.nextAttemptAt = this.createdAt;
+        this.type = type;
+        this.fromEmail = fromEmail;
+        this.toEmail = toEmail;
+        this.subject = subject;
+        this.body = body;
+        this.dedupeKey = dedupeKey;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id != null ? id : UUID.randomUUID().toString(); }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getFromEmail() { return fromEmail; }
+    public void setFromEmail(String fromEmail) { this.fromEmail = fromEmail; }
+
+    public String getToEmail() { return toEmail; }
+    public void setToEmail(String toEmail) { this.toEmail = toEmail; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public String getDedupeKey() { return dedupeKey; }
+    public void setDedupeKey(String dedupeKey) { this.dedupeKey = dedupeKey; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public boolean isMemoryOnly() { return memoryOnly; }
+    public void setMemoryOnly(boolean memoryOnly) { this.memoryOnly = memoryOnly; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && now.isAfter(expiresAt);
+    }
+
+    // A message read back without a schedule is due straight away
+    public boolean isDue(LocalDateTime now) {
+        return nextAttemptAt == null || !nextAttemptAt.isAfter(now);
+    }
+
+    @Override
+    public String toString() {
+        return "OutboundEmail{" +
+                "id='" + id + '\'' +
+                ", type='" + type + '\'' +
+                ", toEmail='" + toEmail + '\'' +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                '}';
+    }
+}
@@ -1,11 +1,19 @@
 package com.mku.attendance.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.time.LocalDateTime;
 import java.util.*;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class StudentData {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentData.class);
+
     private String id; // UUID from database
     private String studentId; // Student ID
     private String name; // Full name (matches React frontend)
@@ -17,9 +25,13 @@ public class StudentData {
     // Legacy fields for backward compatibility
     private String course;
     private Set<String> registeredUnits;
-    private Map<String, List<AttendanceRecord>> attendanceRecords;
     private boolean emailVerified = false;
 
+    // Attendance is derived from the attendance store (set by StudentManager), not saved with the student.
+    // Per-student history from older students.json files is kept here only until StudentManager migrates it.
+    private AttendanceHistory attendanceHistory;
+    private Map<String, List<AttendanceRecord>> legacyAttendanceRecords;
+
     // Constructor for React frontend compatibility
     public StudentData(String studentId, String name, String email, String passwordHash) {
         this.id = UUID.randomUUID().toString();
@@ -33,7 +45,6 @@ public class StudentData {
         // Initialize legacy fields
         this.course = "";
         this.registeredUnits = new HashSet<>();
-        this.attendanceRecords = new HashMap<>();
         this.emailVerified = false;
     }
 
@@ -51,7 +62,6 @@ public class StudentData {
         // Initialize legacy fields
         this.course = "";
         this.registeredUnits = new HashSet<>();
-        this.attendanceRecords = new HashMap<>();
         this.emailVerified = false;
     }
 
@@ -65,7 +75,6 @@ public class StudentData {
         this.updatedAt = LocalDateTime.now();
         this.course = "";
         this.registeredUnits = new HashSet<>();
-        this.attendanceRecords = new HashMap<>();
         this.emailVerified = false;
     }
 
@@ -97,7 +106,8 @@ public class StudentData {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt != null ? updatedAt : LocalDateTime.now(); }
 
-    // Legacy getters for backward compatibility
+    // Legacy getters for backward compatibility; derived from name, so never written to students.json
+    @JsonIgnore
     public String getFirstName() {
         if (name != null && name.contains(" ")) {
             return name.split(" ")[0];
@@ -105,6 +115,7 @@ public class StudentData {
         return name != null ? name : "";
     }
 
+    @JsonIgnore
     public String getLastName() {
         if (name != null && name.contains(" ")) {
             String[] parts = name.split(" ");
@@ -116,7 +127,9 @@ public class StudentData {
     public String getCourse() { return course; }
     public void setCourse(String course) { this.course = course != null ? course : ""; }
 
+    @JsonIgnore
     public String getPassword() { return passwordHash; } // Legacy compatibility
+    @JsonSetter("password")
     public void setPassword(String password) { this.passwordHash = password != null ? password : ""; } // Legacy compatibility
 
     public boolean isEmailVerified() { return emailVerified; }
@@ -133,15 +146,48 @@ public class StudentData {
         this.registeredUnits = registeredUnits != null ? registeredUnits : new HashSet<>();
     }
 
+    public void setAttendanceHistory(AttendanceHistory attendanceHistory) {
+        this.attendanceHistory = attendanceHistory;
+    }
+
+    // Attendance by unit, derived from the attendance store
+    @JsonIgnore
     public Map<String, List<AttendanceRecord>> getAttendanceRecords() {
-        if (attendanceRecords == null) {
-            attendanceRecords = new HashMap<>();
+        Map<String, List<AttendanceRecord>> byUnit = new HashMap<>();
+        for (Attendance attendance : getAttendance()) {
+            if (attendance.getUnitCode() != null) {
+                byUnit.computeIfAbsent(attendance.getUnitCode().toUpperCase(), k -> new ArrayList<>())
+                        .add(AttendanceRecord.from(attendance));
+            }
         }
-        return attendanceRecords;
+        return byUnit;
     }
 
+    // Read from older students.json files that still carry per-student history
+    @JsonSetter("attendanceRecords")
     public void setAttendanceRecords(Map<String, List<AttendanceRecord>> attendanceRecords) {
-        this.attendanceRecords = attendanceRecords != null ? attendanceRecords : new HashMap<>();
+        this.legacyAttendanceRecords = attendanceRecords;
+    }
+
+    /**
+     * Per-student history read from an older students.json, handed over once for migration into
+     * the attendance store. Empty afterwards.
+     */
+    public List<AttendanceRecord> takeLegacyAttendanceRecords() {
+        List<AttendanceRecord> legacy = new ArrayList<>();
+        if (legacyAttendanceRecords != null) {
+            legacyAttendanceRecords.forEach((unitCode, records) -> {
+                if (records == null) return;
+                for (AttendanceRecord record : records) {
+                    if (record == null) continue;
+                    if (record.getUnitCode().isEmpty()) record.setUnitCode(unitCode);
+                    if (record.getStudentId().isEmpty()) record.setStudentId(studentId);
+                    legacy.add(record);
+                }
+            });
+            legacyAttendanceRecords = null;
+        }
+        return legacy;
     }
 
     // Business methods - Updated for React frontend compatibility
@@ -151,6 +197,7 @@ public class StudentData {
     }
 
     // Method to validate student data for React frontend
+    @JsonIgnore
     public boolean isValidForRegistration() {
         return studentId != null && !studentId.trim().isEmpty() &&
                 name != null && !name.trim().isEmpty() &&
@@ -187,10 +234,11 @@ public class StudentData {
         if (registeredUnits.size() < 8) {
             String normalizedUnitCode = unitCode.trim().toUpperCase();
             boolean added = registeredUnits.add(normalizedUnitCode);
-            System.out.println("Registering unit " + normalizedUnitCode + " for student " + studentId + ": " + (added ? "SUCCESS" : "ALREADY_EXISTS"));
+            log.atDebug().addKeyValue("studentId", studentId).addKeyValue("unitCode", normalizedUnitCode).addKeyValue("added", added)
+                    .log("Registering unit");
             return added;
         }
-        System.out.println("Cannot register unit " + unitCode + " for student " + studentId + ": MAX_UNITS_REACHED");
+        log.info("Cannot register unit {} for student {}: MAX_UNITS_REACHED", unitCode, studentId);
         return false;
     }
 
@@ -199,30 +247,11 @@ public class StudentData {
             return false;
         }
         boolean removed = registeredUnits.remove(unitCode.toUpperCase());
-        System.out.println("Removing unit " + unitCode + " for student " + studentId + ": " + (removed ? "SUCCESS" : "NOT_FOUND"));
+        log.atDebug().addKeyValue("studentId", studentId).addKeyValue("unitCode", unitCode).addKeyValue("removed", removed)
+                .log("Removing unit");
         return removed;
     }
 
-    public void addAttendanceRecord(String unitCode, AttendanceRecord record) {
-        if (unitCode == null || record == null) {
-            return;
-        }
-        if (attendanceRecords == null) {
-            attendanceRecords = new HashMap<>();
-        }
-        String normalizedUnitCode = unitCode.toUpperCase();
-        attendanceRecords.computeIfAbsent(normalizedUnitCode, k -> new ArrayList<>()).add(record);
-        System.out.println("Added attendance record for student " + studentId + " in unit " + normalizedUnitCode + ": " + record);
-    }
-
-    public void markAttendance(String unitCode, boolean present) {
-        if (unitCode == null) {
-            return;
-        }
-        AttendanceRecord record = new AttendanceRecord(studentId, unitCode, present);
-        addAttendanceRecord(unitCode, record);
-    }
-
     public boolean isRegisteredForUnit(String unitCode) {
         if (unitCode == null || registeredUnits == null) {
             return false;
@@ -233,114 +262,95 @@ public class StudentData {
     // ========== ATTENDANCE CALCULATION METHODS ==========
 
     public int getTotalSessions(String unitCode) {
-        if (unitCode == null) return 0;
-        List<AttendanceRecord> records = getAttendanceRecordsForUnit(unitCode);
-        return records.size();
+        return unitAttendance(unitCode).getTotalSessions();
     }
 
     public int getPresentCount(String unitCode) {
-        if (unitCode == null) return 0;
-        List<AttendanceRecord> records = getAttendanceRecordsForUnit(unitCode);
-        return (int) records.stream()
-                .filter(record -> record != null && record.isPresent())
-                .count();
+        return unitAttendance(unitCode).getPresentCount();
     }
 
     // MISSING METHOD: Added back
     public int getAbsentCount(String unitCode) {
-        if (unitCode == null) return 0;
-        List<AttendanceRecord> records = getAttendanceRecordsForUnit(unitCode);
-        return (int) records.stream()
-                .filter(record -> record != null && !record.isPresent())
-                .count();
+        return unitAttendance(unitCode).getAbsentCount();
     }
 
     public double getAttendancePercentage(String unitCode) {
-        int total = getTotalSessions(unitCode);
-        if (total == 0) return 0.0;
-        int present = getPresentCount(unitCode);
-        return Math.round((present * 100.0) / total * 10.0) / 10.0;
+        return unitAttendance(unitCode).getAttendancePercentage();
     }
 
-    // MISSING METHOD: Added back
-    public String getTodaysAttendanceStatus(String unitCode) {
-        if (unitCode == null) return "NOT_MARKED";
-
-        List<AttendanceRecord> records = getAttendanceRecordsForUnit(unitCode);
-        if (records.isEmpty()) return "NOT_MARKED";
-
-        String today = java.time.LocalDate.now().toString();
-
-        for (AttendanceRecord record : records) {
-            if (record != null && record.getDate() != null && record.getDate().contains(today)) {
-                return record.isPresent() ? "PRESENT" : "ABSENT";
-            }
-        }
-
-        return "NOT_MARKED";
+    // today comes from the app's clock
+    public String getTodaysAttendanceStatus(String unitCode, java.time.LocalDate today) {
+        return unitAttendance(unitCode).getTodaysStatus(today);
     }
 
     // MISSING METHOD: Added back
     public String getLastAttendanceDate(String unitCode) {
-        if (unitCode == null) return null;
-
-        List<AttendanceRecord> records = getAttendanceRecordsForUnit(unitCode);
-        if (records.isEmpty()) return null;
-
-        return records.stream()
-                .filter(record -> record != null && record.getDate() != null)
-                .max(Comparator.comparing(AttendanceRecord::getDate))
-                .map(AttendanceRecord::getDate)
-                .orElse(null);
+        return unitAttendance(unitCode).getLastAttendanceDate();
     }
 
     // MISSING METHOD: Added back
     public String getLastAttendanceTime(String unitCode) {
-        if (unitCode == null) return null;
-
-        List<AttendanceRecord> records = getAttendanceRecordsForUnit(unitCode);
-        if (records.isEmpty()) return null;
-
-        return records.stream()
-                .filter(record -> record != null && record.getTimestamp() != null)
-                .max(Comparator.comparing(AttendanceRecord::getTimestamp))
-                .map(AttendanceRecord::getFormattedTime)
-                .orElse(null);
+        return unitAttendance(unitCode).getLastAttendanceTime();
+    }
+
+    /**
+     * Attendance in every unit the student has records in (unit code upper case), from a single
+     * read of the history; callers needing several figures should use this rather than the
+     * per-unit getters, which each read the history again.
+     */
+    @JsonIgnore
+    public Map<String, UnitAttendance> getAttendanceByUnit() {
+        Map<String, UnitAttendance> byUnit = new HashMap<>();
+        for (Attendance attendance : getAttendance()) {
+            if (attendance.getUnitCode() != null) {
+                byUnit.computeIfAbsent(attendance.getUnitCode().toUpperCase(), k -> new UnitAttendance())
+                        .add(AttendanceRecord.from(attendance));
+            }
+        }
+        return byUnit;
     }
 
     // MISSING METHOD: Added back
+    @JsonIgnore
     public int getUnitsWithAttendanceCount() {
         if (registeredUnits == null) return 0;
+        Map<String, UnitAttendance> byUnit = getAttendanceByUnit();
         return (int) registeredUnits.stream()
-                .filter(unitCode -> getTotalSessions(unitCode) > 0)
+                .filter(unitCode -> attendanceIn(byUnit, unitCode).getTotalSessions() > 0)
                 .count();
     }
 
     // MISSING METHOD: Added back
+    @JsonIgnore
     public int getUnitsWithGoodAttendanceCount() {
         if (registeredUnits == null) return 0;
+        Map<String, UnitAttendance> byUnit = getAttendanceByUnit();
         return (int) registeredUnits.stream()
-                .filter(unitCode -> getAttendancePercentage(unitCode) >= 75)
+                .filter(unitCode -> attendanceIn(byUnit, unitCode).getAttendancePercentage() >= 75)
                 .count();
     }
 
     // MISSING METHOD: Added back
+    @JsonIgnore
     public int getUnitsNeedingImprovementCount() {
         if (registeredUnits == null) return 0;
+        Map<String, UnitAttendance> byUnit = getAttendanceByUnit();
         return (int) registeredUnits.stream()
-                .filter(unitCode -> getAttendancePercentage(unitCode) < 75)
+                .filter(unitCode -> attendanceIn(byUnit, unitCode).getAttendancePercentage() < 75)
                 .count();
     }
 
     // MISSING METHOD: Added back
+    @JsonIgnore
     public double getOverallAttendancePercentage() {
         if (registeredUnits == null || registeredUnits.isEmpty()) return 0.0;
+        Map<String, UnitAttendance> byUnit = getAttendanceByUnit();
 
         double totalPercentage = 0.0;
         int unitsWithAttendance = 0;
 
         for (String unitCode : registeredUnits) {
-            double unitPercentage = getAttendancePercentage(unitCode);
+            double unitPercentage = attendanceIn(byUnit, unitCode).getAttendancePercentage();
             if (unitPercentage > 0) {
                 totalPercentage += unitPercentage;
                 unitsWithAttendance++;
@@ -353,32 +363,106 @@ public class StudentData {
     // MISSING METHOD: Added back
     public boolean hasAnyAttendanceRecords() {
         if (registeredUnits == null) return false;
+        Map<String, UnitAttendance> byUnit = getAttendanceByUnit();
         return registeredUnits.stream()
-                .anyMatch(unitCode -> getTotalSessions(unitCode) > 0);
+                .anyMatch(unitCode -> attendanceIn(byUnit, unitCode).getTotalSessions() > 0);
     }
 
     // MISSING METHOD: Added back
+    @JsonIgnore
     public int getTotalSessionsAcrossAllUnits() {
         if (registeredUnits == null) return 0;
+        Map<String, UnitAttendance> byUnit = getAttendanceByUnit();
         return registeredUnits.stream()
-                .mapToInt(this::getTotalSessions)
+                .mapToInt(unitCode -> attendanceIn(byUnit, unitCode).getTotalSessions())
                 .sum();
     }
 
     // MISSING METHOD: Added back
+    @JsonIgnore
     public int getTotalPresentSessionsAcrossAllUnits() {
         if (registeredUnits == null) return 0;
+        Map<String, UnitAttendance> byUnit = getAttendanceByUnit();
         return registeredUnits.stream()
-                .mapToInt(this::getPresentCount)
+                .mapToInt(unitCode -> attendanceIn(byUnit, unitCode).getPresentCount())
                 .sum();
     }
 
+    /**
+     * A unit's figures from the records given to add, in history order
+     */
+    public static final class UnitAttendance {
+        private static final UnitAttendance NONE = new UnitAttendance();
+
+        private int totalSessions;
+        private int presentCount;
+        private String lastDate;
+        private String lastTimestamp;
+        private String lastTime;
+        // Status of each day, from the day's first record
+        private final Map<String, Boolean> presentOnDay = new HashMap<>();
+
+        void add(AttendanceRecord record) {
+            totalSessions++;
+            if (record.isPresent()) presentCount++;
+            String date = record.getDate();
+            if (date != null) {
+                if (lastDate == null || date.compareTo(lastDate) > 0) lastDate = date;
+                presentOnDay.putIfAbsent(date, record.isPresent());
+            }
+            String timestamp = record.getTimestamp();
+            if (timestamp != null && (lastTimestamp == null || timestamp.compareTo(lastTimestamp) > 0)) {
+                lastTimestamp = timestamp;
+                lastTime = record.getFormattedTime();
+            }
+        }
+
+        public int getTotalSessions() { return totalSessions; }
+        public int getPresentCount() { return presentCount; }
+        public int getAbsentCount() { return totalSessions - presentCount; }
+
+        public double getAttendancePercentage() {
+            if (totalSessions == 0) return 0.0;
+            return Math.round((presentCount * 100.0) / totalSessions * 10.0) / 10.0;
+        }
+
+        public String getTodaysStatus(java.time.LocalDate today) {
+            Boolean present = presentOnDay.get(today.toString());
+            return present == null ? "NOT_MARKED" : present ? "PRESENT" : "ABSENT";
+        }
+
+        public String getLastAttendanceDate() { return lastDate; }
+        public String getLastAttendanceTime() { return lastTime; }
+    }
+
+    private static UnitAttendance attendanceIn(Map<String, UnitAttendance> byUnit, String unitCode) {
+        UnitAttendance attendance = unitCode != null ? byUnit.get(unitCode.toUpperCase()) : null;
+        return attendance != null ? attendance : UnitAttendance.NONE;
+    }
+
+    private UnitAttendance unitAttendance(String unitCode) {
+        UnitAttendance attendance = new UnitAttendance();
+        for (AttendanceRecord record : getAttendanceRecordsForUnit(unitCode)) {
+            attendance.add(record);
+        }
+        return attendance;
+    }
+
+    private List<Attendance> getAttendance() {
+        return attendanceHistory != null ? attendanceHistory.forStudent(studentId) : new ArrayList<>();
+    }
+
     private List<AttendanceRecord> getAttendanceRecordsForUnit(String unitCode) {
-        if (unitCode == null || attendanceRecords == null) {
-            return new ArrayList<>();
+        List<AttendanceRecord> records = new ArrayList<>();
+        if (unitCode == null) {
+            return records;
+        }
+        for (Attendance attendance : getAttendance()) {
+            if (unitCode.equalsIgnoreCase(attendance.getUnitCode())) {
+                records.add(AttendanceRecord.from(attendance));
+            }
         }
-        List<AttendanceRecord> records = attendanceRecords.get(unitCode.toUpperCase());
-        return records != null ? records : new ArrayList<>();
+        return records;
     }
 
     @Override
@@ -393,6 +477,7 @@ public class StudentData {
                 '}';
     }
 
+    @JsonIgnore
     public String getDebugInfo() {
         return String.format("Student[ID=%s, StudentID=%s, Name=%s, Email=%s, Created=%s]",
                 id, studentId, name, email, createdAt);
@@ -0,0 +1,39 @@
+package com.mku.attendance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A lecture closing, either ended by the lecturer or cleaned up after it expired. The duration
+ * covers auto-marking the absentees and saving the attendance file.
+ */
+@Name("mku.attendance.LectureEnd")
+@Label("Lecture End")
+@Category({"MKU Attendance", "Check-in"})
+@Description("Attendance session closed and absentees auto-marked")
+public class LectureEndEvent extends jdk.jfr.Event {
+
+    @Label("Unit Code")
+    public String unitCode;
+
+    @Label("Reason")
+    @Description("ended or expired")
+    public String reason;
+
+    @Label("Roster Size")
+    @Description("Students registered for the unit")
+    public int rosterSize;
+
+    @Label("Present")
+    public int present;
+
+    @Label("Absentees Marked")
+    public int absenteesMarked;
+
+    public LectureEndEvent(String unitCode, String reason) {
+        this.unitCode = unitCode;
+        this.reason = reason;
+    }
+}
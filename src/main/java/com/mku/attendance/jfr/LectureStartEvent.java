@@ -0,0 +1,38 @@
+package com.mku.attendance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A lecturer starting attendance for a unit. The roster size is only counted when the event is
+ * actually recorded, because counting it means a pass over all students.
+ */
+@Name("mku.attendance.LectureStart")
+@Label("Lecture Start")
+@Category({"MKU Attendance", "Check-in"})
+@Description("Attendance session opened for a unit")
+public class LectureStartEvent extends jdk.jfr.Event {
+
+    @Label("Unit Code")
+    public String unitCode;
+
+    @Label("Started")
+    @Description("false if a session for the unit was already running")
+    public boolean started;
+
+    @Label("Lecture Length")
+    @Timespan(Timespan.SECONDS)
+    public long lectureSeconds;
+
+    @Label("Roster Size")
+    @Description("Students registered for the unit")
+    public int rosterSize;
+
+    public LectureStartEvent(String unitCode, int durationMinutes) {
+        this.unitCode = unitCode;
+        this.lectureSeconds = durationMinutes * 60L;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mku.attendance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One student check-in through AttendanceManager.markAttendance, including the ones that were
+ * turned away. Scan length is how many attendance records the unit had when the duplicate check
+ * ran; the check walks them all unless it finds an earlier mark.
+ */
+@Name("mku.attendance.MarkAttempt")
+@Label("Mark Attempt")
+@Category({"MKU Attendance", "Check-in"})
+@Description("Student attempt to mark attendance")
+@StackTrace(false)
+public class MarkAttemptEvent extends jdk.jfr.Event {
+
+    @Label("Unit Code")
+    public String unitCode;
+
+    @Label("Outcome")
+    @Description("marked, duplicate, no_lecture, lecture_ended, lecture_expired, unknown_student, not_registered, invalid, error")
+    public String outcome = "error";
+
+    @Label("Scan Length")
+    @Description("Attendance records in the unit when the duplicate check ran")
+    public int scanLength;
+
+    public MarkAttemptEvent(String unitCode) {
+        this.unitCode = unitCode;
+    }
+}
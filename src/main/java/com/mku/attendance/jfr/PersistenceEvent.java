@@ -0,0 +1,40 @@
+package com.mku.attendance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One FileDataService save or load of a data file (or of one outbox message). The event duration
+ * covers JSON (de)serialization and file I/O, plus waiting for the file lock on saves.
+ */
+@Name("mku.attendance.Persistence")
+@Label("Persistence")
+@Category({"MKU Attendance", "Persistence"})
+@Description("Save or load of a JSON data file")
+@StackTrace(false)
+public class PersistenceEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("save or load")
+    public String operation;
+
+    @Label("Entity Type")
+    @Description("Data file: students, attendance, hods, units, outbox, ...")
+    public String entityType;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Success")
+    public boolean success;
+
+    public PersistenceEvent(String operation, String entityType) {
+        this.operation = operation;
+        this.entityType = entityType;
+    }
+}
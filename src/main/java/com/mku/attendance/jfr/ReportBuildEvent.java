@@ -0,0 +1,32 @@
+package com.mku.attendance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One HOD attendance report build (web view, CSV download or JSON API): rows in is the number of
+ * attendance records joined with student details, rows out what is left after the filters.
+ */
+@Name("mku.attendance.ReportBuild")
+@Label("Report Build")
+@Category({"MKU Attendance", "Reports"})
+@Description("HOD attendance report filtered and sorted")
+public class ReportBuildEvent extends jdk.jfr.Event {
+
+    @Label("Unit Code Filter")
+    public String unitCode;
+
+    @Label("Date Filter")
+    public String date;
+
+    @Label("Status Filter")
+    public String status;
+
+    @Label("Rows In")
+    public int rowsIn;
+
+    @Label("Rows Out")
+    public int rowsOut;
+}
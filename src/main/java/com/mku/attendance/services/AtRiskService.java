@@ -0,0 +1,348 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.config.AppThreads;
+import com.mku.attendance.entities.Attendance;
+import com.mku.attendance.entities.HOD;
+import com.mku.attendance.entities.StudentData;
+import com.mku.attendance.entities.Unit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Students whose attendance in a unit is below app.at-risk.threshold-percent, kept up to date as
+ * attendance is recorded instead of being worked out when a student's dashboard is rendered.
+ *
+ * Every (student, unit) pair has a running standing: sessions, present, and the outcome of each
+ * session in date order, so the latest app.at-risk.trend-sessions stay right when a record is
+ * corrected or removed. The trend is read from those ("declining" when the recent rate is more
+ * than 10 points under the overall one, "improving" when over it, else "steady"). The standings follow AttendanceStore's changes (check-ins, auto-absent, corrections)
+ * and a pair is in the at-risk index, grouped by unit, while it is under the threshold after at
+ * least app.at-risk.min-sessions sessions. HODs query it by course or department, which only reads
+ * the at-risk entries of the matching units, and each HOD gets a digest email of their courses'
+ * at-risk students on app.at-risk.digest-cron.
+ *
+ * The standings are built in the background once the app is ready; until then queries answer
+ * with ready=false.
+ */
+@Service
+public class AtRiskService {
+
+    private static final Logger log = LoggerFactory.getLogger(AtRiskService.class);
+    private static final double TREND_POINTS = 10.0;
+
+    @Autowired
+    private AttendanceStore attendanceStore;
+
+    @Autowired
+    private StudentManager studentManager;
+
+    @Autowired
+    private UnitManager unitManager;
+
+    @Autowired
+    private HODManager hodManager;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private AppThreads appThreads;
+
+    @Value("${app.at-risk.threshold-percent:75}")
+    private double thresholdPercent;
+
+    @Value("${app.at-risk.min-sessions:3}")
+    private int minSessions;
+
+    @Value("${app.at-risk.trend-sessions:5}")
+    private int trendSessions;
+
+    // Guarded by this: unit (upper case) -> student (upper case) -> standing
+    private final Map<String, Map<String, Standing>> standings = new HashMap<>();
+    private final Map<String, Map<String, Standing>> atRisk = new HashMap<>();
+    private volatile boolean ready;
+    private ExecutorService builder;
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        builder = Executors.newSingleThreadExecutor(appThreads.factory("at-risk-build-"));
+        builder.execute(() -> {
+            long start = System.nanoTime();
+            attendanceStore.addChangeListenerWithReplay(this::recordsChanged);
+            ready = true;
+            log.atInfo().addKeyValue("atRisk", getAtRiskCount())
+                    .addKeyValue("ms", (System.nanoTime() - start) / 1_000_000).log("At-risk index built");
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (builder != null) {
+            builder.shutdownNow();
+        }
+    }
+
+    // From AttendanceStore, under its write lock
+    private synchronized void recordsChanged(String unitCode, Collection<Attendance> added, Collection<Attendance> removed) {
+        Map<String, Standing> unitStandings = standings.computeIfAbsent(unitCode, k -> new HashMap<>());
+        Set<Standing> changed = new HashSet<>();
+        for (Attendance attendance : removed) {
+            Standing standing = attendance.getStudentId() != null ? unitStandings.get(attendance.getStudentId().toUpperCase()) : null;
+            if (standing != null && standing.remove(attendance)) changed.add(standing);
+        }
+        for (Attendance attendance : added) {
+            if (attendance.getStudentId() == null) continue;
+            Standing standing = unitStandings.computeIfAbsent(attendance.getStudentId().toUpperCase(),
+                    k -> new Standing(k, trendSessions));
+            standing.add(attendance);
+            changed.add(standing);
+        }
+        for (Standing standing : changed) {
+            if (standing.sessions >= minSessions && standing.percentage() < thresholdPercent) {
+                atRisk.computeIfAbsent(unitCode, k -> new HashMap<>()).put(standing.studentId, standing);
+            } else {
+                Map<String, Standing> unitAtRisk = atRisk.get(unitCode);
+                if (unitAtRisk != null && unitAtRisk.remove(standing.studentId) != null && unitAtRisk.isEmpty()) {
+                    atRisk.remove(unitCode);
+                }
+            }
+        }
+    }
+
+    // ========== QUERIES ==========
+
+    /**
+     * At-risk students, lowest attendance first, in the units of one course, of the courses of a
+     * department's HODs, or of one HOD's courses (whichever filters are given; none for every unit)
+     */
+    public Map<String, Object> getAtRisk(String courseCode, String department, String hodId) {
+        Map<String, Object> result = new HashMap<>();
+        Set<String> courses = null;
+        if (hodId != null) {
+            HOD hod = hodManager.getHOD(hodId);
+            if (hod == null) {
+                result.put("success", false);
+                result.put("message", "HOD not found.");
+                return result;
+            }
+            courses = intersect(null, new HashSet<>(hod.getCourses()));
+        }
+        if (department != null) {
+            Set<String> departmentCourses = new HashSet<>();
+            for (HOD hod : hodManager.getHODs().values()) {
+                if (department.equalsIgnoreCase(hod.getDepartment())) {
+                    departmentCourses.addAll(hod.getCourses());
+                }
+            }
+            courses = intersect(courses, departmentCourses);
+        }
+        if (courseCode != null) {
+            courses = intersect(courses, Set.of(courseCode.toUpperCase()));
+        }
+
+        List<Map<String, Object>> students = getRows(courses);
+        result.put("success", true);
+        result.put("ready", ready);
+        result.put("thresholdPercent", thresholdPercent);
+        result.put("count", students.size());
+        result.put("students", students);
+        return result;
+    }
+
+    public synchronized int getAtRiskCount() {
+        return atRisk.values().stream().mapToInt(Map::size).sum();
+    }
+
+    // Rows for the at-risk entries of the given courses' units (all units when courses is null)
+    private List<Map<String, Object>> getRows(Set<String> courses) {
+        Map<String, String> unitCourses = new HashMap<>();
+        for (Unit unit : unitManager.getUnits().values()) {
+            if (unit.getCode() != null) unitCourses.put(unit.getCode().toUpperCase(), unit.getCourseCode());
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Map<String, Standing>> entry : atRisk.entrySet()) {
+                String course = unitCourses.get(entry.getKey());
+                if (courses != null && (course == null || !courses.contains(course.toUpperCase()))) continue;
+                for (Standing standing : entry.getValue().values()) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("studentId", standing.studentId);
+                    row.put("unitCode", entry.getKey());
+                    row.put("courseCode", course);
+                    row.put("sessions", standing.sessions);
+                    row.put("present", standing.present);
+                    row.put("percentage", round(standing.percentage()));
+                    row.put("recentPercentage", round(standing.recentPercentage()));
+                    row.put("trend", standing.trend());
+                    rows.add(row);
+                }
+            }
+        }
+        for (Map<String, Object> row : rows) {
+            StudentData student = studentManager.getStudent((String) row.get("studentId"));
+            row.put("studentName", student != null ? student.getName() : null);
+        }
+        rows.sort(Comparator.comparingDouble((Map<String, Object> row) -> (Double) row.get("percentage"))
+                .thenComparing(row -> (String) row.get("studentId")));
+        return rows;
+    }
+
+    // ========== DIGEST ==========
+
+    /**
+     * One email per HOD listing the at-risk students of their courses, grouped by unit. HODs with
+     * no at-risk students or no email address are skipped.
+     */
+    @Scheduled(cron = "${app.at-risk.digest-cron:0 0 7 * * MON}")
+    public void sendDigests() {
+        if (!ready) {
+            log.info("At-risk digest skipped: index still building");
+            return;
+        }
+        int sent = 0;
+        for (HOD hod : hodManager.getHODs().values()) {
+            if (hod.getEmail() == null || hod.getEmail().isBlank()) continue;
+            List<Map<String, Object>> rows = getRows(intersect(null, new HashSet<>(hod.getCourses())));
+            if (rows.isEmpty()) continue;
+            emailService.sendAtRiskDigestEmail(hod.getEmail(), hod.getName(), formatDigest(rows));
+            sent++;
+        }
+        log.atInfo().addKeyValue("hods", sent).log("At-risk digests queued");
+    }
+
+    private String formatDigest(List<Map<String, Object>> rows) {
+        Map<String, List<Map<String, Object>>> byUnit = new TreeMap<>();
+        for (Map<String, Object> row : rows) {
+            byUnit.computeIfAbsent((String) row.get("unitCode"), k -> new ArrayList<>()).add(row);
+        }
+        StringBuilder digest = new StringBuilder();
+        byUnit.forEach((unitCode, unitRows) -> {
+            digest.append(unitCode).append(" (").append(unitRows.size()).append(")\n");
+            for (Map<String, Object> row : unitRows) {
+                digest.append("  ").append(row.get("studentId"))
+                        .append(row.get("studentName") != null ? " " + row.get("studentName") : "")
+                        .append(": ").append(row.get("percentage")).append("% of ").append(row.get("sessions"))
+                        .append(" sessions, ").append(row.get("trend")).append('\n');
+            }
+        });
+        return digest.toString();
+    }
+
+    private static Set<String> intersect(Set<String> current, Set<String> courses) {
+        Set<String> upper = new HashSet<>();
+        courses.forEach(course -> upper.add(course.toUpperCase()));
+        if (current == null) return upper;
+        Set<String> result = new HashSet<>();
+        current.forEach(course -> {
+            if (upper.contains(course.toUpperCase())) result.add(course.toUpperCase());
+        });
+        return result;
+    }
+
+    private static double round(double percentage) {
+        return Math.round(percentage * 10.0) / 10.0;
+    }
+
+    // ========== STANDING ==========
+
+    // One student's sessions in one unit, with the latest few (by day) kept for the trend
+    private static final class Standing {
+        final String studentId;
+        final int trendSessions;
+        int sessions;
+        int present;
+        // Every session's outcome, oldest first, as day (yyyyMMdd) * 2 + 1 if present, so a removal
+        // can pull an older session back into the latest trendSessions
+        int[] outcomes = new int[4];
+
+        Standing(String studentId, int trendSessions) {
+            this.studentId = studentId;
+            this.trendSessions = Math.max(1, trendSessions);
+        }
+
+        void add(Attendance attendance) {
+            int outcome = outcome(attendance);
+            if (sessions == outcomes.length) outcomes = Arrays.copyOf(outcomes, sessions * 2);
+            // Records mostly arrive in date order, so this is nearly always an append
+            int i = sessions;
+            while (i > 0 && outcomes[i - 1] > outcome) {
+                outcomes[i] = outcomes[i - 1];
+                i--;
+            }
+            outcomes[i] = outcome;
+            sessions++;
+            if (attendance.isPresent()) present++;
+        }
+
+        boolean remove(Attendance attendance) {
+            int outcome = outcome(attendance);
+            for (int i = sessions - 1; i >= 0; i--) {
+                if (outcomes[i] == outcome) {
+                    System.arraycopy(outcomes, i + 1, outcomes, i, sessions - i - 1);
+                    sessions--;
+                    if (attendance.isPresent()) present--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        double percentage() {
+            return sessions > 0 ? present * 100.0 / sessions : 0.0;
+        }
+
+        int recentCount() {
+            return Math.min(sessions, trendSessions);
+        }
+
+        double recentPercentage() {
+            int recentCount = recentCount();
+            if (recentCount == 0) return 0.0;
+            int recent = 0;
+            for (int i = sessions - recentCount; i < sessions; i++) {
+                if ((outcomes[i] & 1) == 1) recent++;
+            }
+            return recent * 100.0 / recentCount;
+        }
+
+        String trend() {
+            if (recentCount() < 2) return "steady";
+            double difference = recentPercentage() - percentage();
+            return difference < -TREND_POINTS ? "declining" : difference > TREND_POINTS ? "improving" : "steady";
+        }
+
+        private static int outcome(Attendance attendance) {
+            return day(attendance) * 2 + (attendance.isPresent() ? 1 : 0);
+        }
+
+        private static int day(Attendance attendance) {
+            String date = attendance.getDate();
+            if (date == null || date.length() < 10) return 0;
+            try {
+                return Integer.parseInt(date.substring(0, 4) + date.substring(5, 7) + date.substring(8, 10));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.config.AppMetrics;
+import com.mku.attendance.entities.Attendance;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Attendance as bitmaps, for questions that are awkward over lists of records: who missed N
+ * sessions of a unit in a row, which absentees several units have in common, and how a unit's
+ * latest sessions compare with the rest.
+ *
+ * Students are given dense ordinals, globally and again within each unit, and a unit's sessions (the
+ * days it has records for) are kept in date order. Each session holds two bitmaps over the unit's
+ * students, present and absent, so a session costs a few bytes per registered student whatever the
+ * size of the school. A student can have more than one record for a day; the extra ones are counted
+ * beside the bitmaps, so a bit is only cleared when the student's last such record goes. Queries are and/or/and-not and cardinality over those bitmaps, split across
+ * cores on a fork/join pool (app.analytics.parallelism, 0 for one thread per core).
+ *
+ * The index is built on the first query by subscribing to AttendanceStore with a replay of the
+ * stored records, and then kept up to date from the store's change events, so later queries never
+ * read records. Queries arriving during the build wait on the same build rather than starting
+ * another. Events are queued and applied by whichever thread next gets the index lock, so a
+ * check-in never waits for a running query.
+ */
+@Service
+public class AttendanceAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceAnalytics.class);
+    private static final int SEQUENTIAL_THRESHOLD = 32;
+
+    @Autowired
+    private AttendanceStore attendanceStore;
+
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Value("${app.analytics.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    // The build every query waits on; null until the first query, and again after a failed build
+    private final AtomicReference<CompletableFuture<Index>> building = new AtomicReference<>();
+
+    // Guarded by lock; the index being built or in use, null until the first query
+    private Index index;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // ========== QUERIES ==========
+
+    /**
+     * Students marked absent from at least `sessions` consecutive sessions of the unit, sorted
+     */
+    public Map<String, Object> getConsecutiveAbsentees(String unitCode, int sessions) {
+        return appMetrics.timeResult("analytics.consecutive_absences", () -> {
+            Map<String, Object> result = new HashMap<>();
+            if (unitCode == null || unitCode.isEmpty() || sessions < 1) {
+                result.put("success", false);
+                result.put("message", "A unit and a number of sessions of at least 1 are required.");
+                return result;
+            }
+            result.put("unitCode", unitCode);
+            result.put("sessions", sessions);
+            withIndex(index -> {
+                UnitIndex unit = index.units.get(unitCode.toUpperCase());
+                List<String> students = new ArrayList<>();
+                int held = 0;
+                if (unit != null) {
+                    List<BitSet> absent = new ArrayList<>();
+                    unit.sessions.values().forEach(session -> absent.add(session.absent));
+                    held = absent.size();
+                    if (held >= sessions) {
+                        BitSet missed = pool.invoke(new Streaks(absent, sessions, 0, held - sessions + 1));
+                        missed.stream().forEach(local -> students.add(index.studentIds.get(unit.globalByLocal[local])));
+                    }
+                }
+                students.sort(null);
+                result.put("sessionsHeld", held);
+                result.put("count", students.size());
+                result.put("students", students);
+            });
+            result.put("success", true);
+            return result;
+        });
+    }
+
+    /**
+     * Absentees of each unit between two dates (yyyy-MM-dd, inclusive, either may be null) and how
+     * they overlap: "absentees" per unit, "inAllUnits" (and the students), "inAnyUnit", and
+     * "onlyInFirst" (absent from the first unit but none of the others)
+     */
+    public Map<String, Object> getAbsenteeOverlap(List<String> unitCodes, String fromDate, String toDate) {
+        return appMetrics.timeResult("analytics.absentee_overlap", () -> {
+            Map<String, Object> result = new HashMap<>();
+            if (unitCodes == null || unitCodes.isEmpty() || !isDay(fromDate) || !isDay(toDate)) {
+                result.put("success", false);
+                result.put("message", "At least one unit is required; dates must be given as yyyy-MM-dd.");
+                return result;
+            }
+            withIndex(index -> {
+                List<BitSet> perUnit = pool.invoke(ForkJoinTask.adapt(() -> {
+                    List<UnitAbsentees> tasks = new ArrayList<>();
+                    for (String unitCode : unitCodes) {
+                        tasks.add(new UnitAbsentees(index.units.get(unitCode.toUpperCase()), fromDate, toDate));
+                    }
+                    List<BitSet> sets = new ArrayList<>();
+                    for (UnitAbsentees task : ForkJoinTask.invokeAll(tasks)) {
+                        sets.add(task.join());
+                    }
+                    return sets;
+                }));
+
+                Map<String, Integer> absentees = new LinkedHashMap<>();
+                BitSet all = (BitSet) perUnit.get(0).clone();
+                BitSet any = new BitSet();
+                BitSet others = new BitSet();
+                for (int i = 0; i < perUnit.size(); i++) {
+                    absentees.put(unitCodes.get(i), perUnit.get(i).cardinality());
+                    all.and(perUnit.get(i));
+                    any.or(perUnit.get(i));
+                    if (i > 0) others.or(perUnit.get(i));
+                }
+                BitSet onlyInFirst = (BitSet) perUnit.get(0).clone();
+                onlyInFirst.andNot(others);
+
+                List<String> students = new ArrayList<>();
+                all.stream().forEach(global -> students.add(index.studentIds.get(global)));
+                students.sort(null);
+                result.put("absentees", absentees);
+                result.put("inAllUnits", all.cardinality());
+                result.put("inAnyUnit", any.cardinality());
+                result.put("onlyInFirst", onlyInFirst.cardinality());
+                result.put("students", students);
+            });
+            result.put("unitCodes", unitCodes);
+            result.put("from", fromDate);
+            result.put("to", toDate);
+            result.put("success", true);
+            return result;
+        });
+    }
+
+    /**
+     * Present and absent counts of the unit's latest `sessions` sessions, oldest first, with the
+     * rate over those sessions ("recentRate"), over every session ("overallRate"), and the
+     * difference between the two in points ("change")
+     */
+    public Map<String, Object> getSessionTrend(String unitCode, int sessions) {
+        return appMetrics.timeResult("analytics.session_trend", () -> {
+            Map<String, Object> result = new HashMap<>();
+            if (unitCode == null || unitCode.isEmpty() || sessions < 1) {
+                result.put("success", false);
+                result.put("message", "A unit and a number of sessions of at least 1 are required.");
+                return result;
+            }
+            result.put("unitCode", unitCode);
+            withIndex(index -> {
+                UnitIndex unit = index.units.get(unitCode.toUpperCase());
+                List<Map<String, Object>> recent = new ArrayList<>();
+                long present = 0;
+                long marked = 0;
+                long recentPresent = 0;
+                long recentMarked = 0;
+                int held = unit != null ? unit.sessions.size() : 0;
+                if (unit != null) {
+                    int position = 0;
+                    for (Map.Entry<String, Session> entry : unit.sessions.entrySet()) {
+                        int sessionPresent = entry.getValue().present.cardinality();
+                        int sessionAbsent = entry.getValue().absent.cardinality();
+                        present += sessionPresent;
+                        marked += sessionPresent + sessionAbsent;
+                        if (position++ >= held - sessions) {
+                            recentPresent += sessionPresent;
+                            recentMarked += sessionPresent + sessionAbsent;
+                            Map<String, Object> session = new LinkedHashMap<>();
+                            session.put("date", entry.getKey());
+                            session.put("present", sessionPresent);
+                            session.put("absent", sessionAbsent);
+                            session.put("rate", percent(sessionPresent, sessionPresent + sessionAbsent));
+                            recent.add(session);
+                        }
+                    }
+                }
+                double recentRate = percent(recentPresent, recentMarked);
+                double overallRate = percent(present, marked);
+                result.put("sessionsHeld", held);
+                result.put("sessions", recent);
+                result.put("recentRate", recentRate);
+                result.put("overallRate", overallRate);
+                result.put("change", Math.round((recentRate - overallRate) * 10.0) / 10.0);
+            });
+            result.put("success", true);
+            return result;
+        });
+    }
+
+    private static double percent(long part, long whole) {
+        return whole > 0 ? Math.round(part * 1000.0 / whole) / 10.0 : 0.0;
+    }
+
+    private static boolean isDay(String date) {
+        if (date == null) return true;
+        try {
+            LocalDate.parse(date);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // ========== INDEX UPKEEP ==========
+
+    // From AttendanceStore, under its write lock: queue, and apply now only if nobody is using the index
+    private void recordsChanged(Index target, String unitCode, Collection<Attendance> added, Collection<Attendance> removed) {
+        changes.add(new Change(target, unitCode, added, removed));
+        if (lock.tryLock()) {
+            try {
+                applyChanges();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void withIndex(Consumer<Index> query) {
+        Index built = build();
+        lock.lock();
+        try {
+            applyChanges();
+            query.accept(built);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The index, built by the first caller while the others wait on the same future. A failed build
+    // fails the queries waiting on it and the next query starts over.
+    private Index build() {
+        while (true) {
+            CompletableFuture<Index> future = building.get();
+            if (future == null) {
+                CompletableFuture<Index> mine = new CompletableFuture<>();
+                if (!building.compareAndSet(null, mine)) continue;
+                buildInto(mine);
+                future = mine;
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+
+    // The store replays every stored record to the new index as added, a unit at a time under its
+    // write lock, and then sends the unit's changes, so each record is counted exactly once.
+    // Changes meant for an index from a failed build are dropped.
+    private void buildInto(CompletableFuture<Index> future) {
+        long start = System.nanoTime();
+        Index fresh = new Index();
+        lock.lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            attendanceStore.addChangeListenerWithReplay((unitCode, added, removed) ->
+                    recordsChanged(fresh, unitCode, added, removed));
+            lock.lock();
+            try {
+                applyChanges();
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                if (index == fresh) index = null;
+            } finally {
+                lock.unlock();
+            }
+            building.set(null);
+            future.completeExceptionally(e);
+            log.atError().setCause(e).log("Attendance analytics index build failed");
+            return;
+        }
+        log.atInfo().addKeyValue("units", fresh.units.size()).addKeyValue("students", fresh.studentIds.size())
+                .addKeyValue("records", attendanceStore.size()).addKeyValue("ms", (System.nanoTime() - start) / 1_000_000)
+                .log("Attendance analytics index built");
+        future.complete(fresh);
+    }
+
+    // Caller holds lock
+    private void applyChanges() {
+        Change change;
+        while ((change = changes.poll()) != null) {
+            if (change.index != index) continue;
+            for (Attendance attendance : change.removed) {
+                index.apply(change.unitCode, attendance, false);
+            }
+            for (Attendance attendance : change.added) {
+                index.apply(change.unitCode, attendance, true);
+            }
+        }
+    }
+
+    private record Change(Index index, String unitCode, Collection<Attendance> added, Collection<Attendance> removed) {
+    }
+
+    // ========== DATA ==========
+
+    private static final class Index {
+        final Map<String, Integer> studentOrdinals = new HashMap<>();
+        final List<String> studentIds = new ArrayList<>();
+        final Map<String, UnitIndex> units = new HashMap<>();
+
+        void apply(String unitCode, Attendance attendance, boolean add) {
+            if (attendance.getStudentId() == null || attendance.getDate() == null) return;
+            String studentId = attendance.getStudentId().toUpperCase();
+            Integer global = studentOrdinals.get(studentId);
+            if (global == null) {
+                if (!add) return;
+                global = studentIds.size();
+                studentOrdinals.put(studentId, global);
+                studentIds.add(studentId);
+            }
+            String day = attendance.getDate().length() >= 10 ? attendance.getDate().substring(0, 10) : attendance.getDate();
+            UnitIndex unit = units.computeIfAbsent(unitCode, k -> new UnitIndex());
+            unit.apply(global, day, attendance.isPresent(), add);
+        }
+    }
+
+    private static final class UnitIndex {
+        final Map<Integer, Integer> localByGlobal = new HashMap<>();
+        int[] globalByLocal = new int[16];
+        // Day (yyyy-MM-dd) -> session; a session's ordinal is its position in this order
+        final NavigableMap<String, Session> sessions = new TreeMap<>();
+
+        void apply(int global, String day, boolean present, boolean add) {
+            Integer local = localByGlobal.get(global);
+            if (local == null) {
+                if (!add) return;
+                local = localByGlobal.size();
+                localByGlobal.put(global, local);
+                if (local == globalByLocal.length) globalByLocal = Arrays.copyOf(globalByLocal, local * 2);
+                globalByLocal[local] = global;
+            }
+            Session session = sessions.get(day);
+            if (session == null) {
+                if (!add) return;
+                session = new Session();
+                sessions.put(day, session);
+            }
+            session.mark(local, present, add);
+            if (session.present.isEmpty() && session.absent.isEmpty()) {
+                sessions.remove(day);
+            }
+        }
+    }
+
+    private static final class Session {
+        final BitSet present = new BitSet();
+        final BitSet absent = new BitSet();
+        // (local ordinal, status) -> records beyond the first; null until a student has a duplicate
+        Map<Integer, Integer> duplicates;
+
+        void mark(int local, boolean isPresent, boolean add) {
+            BitSet bits = isPresent ? present : absent;
+            int key = local << 1 | (isPresent ? 1 : 0);
+            if (add) {
+                if (!bits.get(local)) {
+                    bits.set(local);
+                } else {
+                    if (duplicates == null) duplicates = new HashMap<>();
+                    duplicates.merge(key, 1, Integer::sum);
+                }
+            } else if (duplicates != null && duplicates.containsKey(key)) {
+                duplicates.computeIfPresent(key, (k, extra) -> extra > 1 ? extra - 1 : null);
+            } else {
+                bits.clear(local);
+            }
+        }
+    }
+
+    // ========== FORK/JOIN TASKS ==========
+
+    /**
+     * Union, over the windows starting at [from, to), of the students absent from every session in
+     * the window
+     */
+    private static final class Streaks extends RecursiveTask<BitSet> {
+        private final List<BitSet> absent;
+        private final int length;
+        private final int from;
+        private final int to;
+
+        Streaks(List<BitSet> absent, int length, int from, int to) {
+            this.absent = absent;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BitSet compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                BitSet missed = new BitSet();
+                for (int start = from; start < to; start++) {
+                    BitSet window = (BitSet) absent.get(start).clone();
+                    for (int i = start + 1; i < start + length && !window.isEmpty(); i++) {
+                        window.and(absent.get(i));
+                    }
+                    missed.or(window);
+                }
+                return missed;
+            }
+            int middle = (from + to) >>> 1;
+            Streaks left = new Streaks(absent, length, from, middle);
+            left.fork();
+            BitSet missed = new Streaks(absent, length, middle, to).compute();
+            missed.or(left.join());
+            return missed;
+        }
+    }
+
+    /**
+     * One unit's absentees between two days, as global student ordinals
+     */
+    private static final class UnitAbsentees extends RecursiveTask<BitSet> {
+        private final UnitIndex unit;
+        private final String fromDate;
+        private final String toDate;
+
+        UnitAbsentees(UnitIndex unit, String fromDate, String toDate) {
+            this.unit = unit;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+        }
+
+        @Override
+        protected BitSet compute() {
+            BitSet global = new BitSet();
+            if (unit == null) return global;
+            NavigableMap<String, Session> range = unit.sessions;
+            if (fromDate != null) range = range.tailMap(fromDate, true);
+            if (toDate != null) range = range.headMap(toDate, true);
+            List<BitSet> absent = new ArrayList<>(range.values().size());
+            range.values().forEach(session -> absent.add(session.absent));
+            BitSet local = new Union(absent, 0, absent.size()).invoke();
+            local.stream().forEach(ordinal -> global.set(unit.globalByLocal[ordinal]));
+            return global;
+        }
+    }
+
+    private static final class Union extends RecursiveTask<BitSet> {
+        private final List<BitSet> sets;
+        private final int from;
+        private final int to;
+
+        Union(List<BitSet> sets, int from, int to) {
+            this.sets = sets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BitSet compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                BitSet union = new BitSet();
+                for (int i = from; i < to; i++) {
+                    union.or(sets.get(i));
+                }
+                return union;
+            }
+            int middle = (from + to) >>> 1;
+            Union left = new Union(sets, from, middle);
+            left.fork();
+            BitSet union = new Union(sets, middle, to).compute();
+            union.or(left.join());
+            return union;
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.mku.attendance.services;
 
+import com.mku.attendance.config.AppMetrics;
 import com.mku.attendance.entities.Attendance;
 import com.mku.attendance.entities.StudentData;
+import com.mku.attendance.jfr.LectureEndEvent;
+import com.mku.attendance.jfr.LectureStartEvent;
+import com.mku.attendance.jfr.MarkAttemptEvent;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 public class AttendanceManager {
-    private List<Attendance> attendanceRecords;
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceManager.class);
+
+    private final AttendanceStore attendanceStore;
     private Map<String, LectureSession> activeLectures;
     private Map<String, Set<String>> pendingAutoMark;
     private DateTimeFormatter dateFormatter;
@@ -23,56 +37,59 @@ public class AttendanceManager {
     @Autowired
     private FileDataService fileDataService; // ADDED: File persistence
 
-    public AttendanceManager(FileDataService fileDataService) {
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Autowired
+    private LectureFeedService lectureFeedService;
+
+    @Autowired
+    private StudentFeedService studentFeedService;
+
+    @Autowired
+    private Clock clock;
+
+    // Attendance records live in AttendanceStore (one file per unit, loaded on demand)
+    public AttendanceManager(FileDataService fileDataService, AttendanceStore attendanceStore) {
         this.fileDataService = fileDataService;
-        this.attendanceRecords = new ArrayList<>();
+        this.attendanceStore = attendanceStore;
         this.activeLectures = new ConcurrentHashMap<>();
         this.pendingAutoMark = new ConcurrentHashMap<>();
         this.dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-        // Load attendance records from file on startup
-        try {
-            attendanceRecords = fileDataService.loadAttendance();
-            if (attendanceRecords == null) {
-                attendanceRecords = new ArrayList<>();
-                System.out.println("No attendance data loaded, initializing empty attendance records");
-            } else {
-                System.out.println("✅ AttendanceManager initialized with " + attendanceRecords.size() + " attendance records");
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error loading attendance records: " + e.getMessage());
-            attendanceRecords = new ArrayList<>();
-        }
-
-        System.out.println("✅ AttendanceManager initialized with file persistence");
+        log.info("AttendanceManager initialized with file persistence");
     }
 
     // Inner class to track lecture sessions
     private static class LectureSession {
+        private final Clock clock;
         private String unitCode;
         private LocalDateTime startTime;
         private LocalDateTime endTime;
         private boolean active;
         private Set<String> markedStudents;
 
-        public LectureSession(String unitCode, LocalDateTime startTime, int durationMinutes) {
+        public LectureSession(String unitCode, Clock clock, int durationMinutes) {
+            this.clock = clock;
             this.unitCode = unitCode;
-            this.startTime = startTime;
+            this.startTime = LocalDateTime.now(clock);
             this.endTime = startTime.plusMinutes(durationMinutes);
             this.active = true;
-            this.markedStudents = new HashSet<>();
+            // Request threads check students in concurrently
+            this.markedStudents = ConcurrentHashMap.newKeySet();
         }
 
         public boolean isActive() {
-            return active && LocalDateTime.now().isBefore(endTime);
+            return active && LocalDateTime.now(clock).isBefore(endTime);
         }
 
         public void endLecture() {
             this.active = false;
         }
 
-        public void markStudent(String studentId) {
-            markedStudents.add(studentId);
+        // false if the student was already checked in to this session
+        public boolean markStudent(String studentId) {
+            return markedStudents.add(studentId);
         }
 
         public Set<String> getMarkedStudents() {
@@ -80,12 +97,12 @@ public class AttendanceManager {
         }
 
         public boolean isLectureTime() {
-            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime now = LocalDateTime.now(clock);
             return !now.isBefore(startTime) && !now.isAfter(endTime);
         }
 
         public String getRemainingTime() {
-            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime now = LocalDateTime.now(clock);
             if (now.isAfter(endTime)) {
                 return "00:00";
             }
@@ -97,7 +114,7 @@ public class AttendanceManager {
 
         // Helper method to check if session exists and is valid
         public boolean isValidSession() {
-            return active && LocalDateTime.now().isBefore(endTime.plusMinutes(5)); // 5-minute grace period
+            return active && LocalDateTime.now(clock).isBefore(endTime.plusMinutes(5)); // 5-minute grace period
         }
     }
 
@@ -119,7 +136,9 @@ public class AttendanceManager {
         // Check if session is still valid
         if (!session.isValidSession()) {
             // Auto-cleanup expired session
-            activeLectures.remove(unitCode);
+            if (activeLectures.remove(unitCode, session)) {
+                lectureClosed(unitCode, "expired", 0);
+            }
             return false;
         }
 
@@ -130,49 +149,76 @@ public class AttendanceManager {
      * Start a new lecture session
      */
     public boolean startLecture(String unitCode, int durationMinutes) {
-        if (activeLectures.containsKey(unitCode)) {
-            LectureSession existingSession = activeLectures.get(unitCode);
-            if (existingSession.isValidSession()) {
+        Timer.Sample sample = appMetrics.start();
+        LectureStartEvent event = new LectureStartEvent(unitCode, durationMinutes);
+        event.begin();
+        boolean started = false;
+        Set<String> roster = null;
+        try {
+            // One step, so two lecturers starting the same unit cannot both open a session; an
+            // expired session is replaced
+            LectureSession opened = new LectureSession(unitCode, clock, durationMinutes);
+            LectureSession session = activeLectures.compute(unitCode, (code, existing) ->
+                    existing != null && existing.isValidSession() ? existing : opened);
+            if (session != opened) {
                 return false; // Lecture already active and valid
-            } else {
-                // Clean up expired session
-                activeLectures.remove(unitCode);
+            }
+            roster = studentManager.getUnitRoster(unitCode);
+            lectureFeedService.lectureStarted(unitCode, roster.size(), session::getRemainingTime);
+            studentFeedService.lectureOpened(unitCode, roster, session::getRemainingTime);
+            log.info("Lecture started for unit: {} for {} minutes", unitCode, durationMinutes);
+            started = true;
+            return true;
+        } finally {
+            appMetrics.stop(sample, "attendance.lecture.start", "outcome", started ? "success" : "already_active");
+            event.end();
+            if (event.shouldCommit()) {
+                event.started = started;
+                event.rosterSize = roster != null ? roster.size() : studentManager.getRosterSize(unitCode);
+                event.commit();
             }
         }
-
-        LectureSession session = new LectureSession(unitCode, LocalDateTime.now(), durationMinutes);
-        activeLectures.put(unitCode, session);
-        System.out.println("✅ Lecture started for unit: " + unitCode + " for " + durationMinutes + " minutes");
-        return true;
     }
 
     /**
      * End a lecture and auto-mark absent students
      */
     public void endLecture(String unitCode) {
+        Timer.Sample sample = appMetrics.start();
+        LectureEndEvent event = new LectureEndEvent(unitCode, "ended");
+        event.begin();
         LectureSession session = activeLectures.get(unitCode);
-        if (session != null) {
-            session.endLecture();
-            autoMarkAbsentStudents(unitCode, session.getMarkedStudents());
-            activeLectures.remove(unitCode);
-            System.out.println("✅ Lecture ended for unit: " + unitCode + ". Auto-marked absent students.");
+        try {
+            if (session != null) {
+                session.endLecture();
+                autoMarkAbsentStudents(unitCode, session.getMarkedStudents(), event);
+                event.commit();
+                activeLectures.remove(unitCode);
+                lectureClosed(unitCode, "ended", event.absenteesMarked);
+                log.info("Lecture ended for unit: {}. Auto-marked absent students.", unitCode);
+            }
+        } finally {
+            appMetrics.stop(sample, "attendance.lecture.end", "outcome", session != null ? "success" : "not_active");
         }
     }
 
+    // Tells the lecturer's and the students' live feeds that a lecture is over
+    private void lectureClosed(String unitCode, String reason, int absenteesMarked) {
+        lectureFeedService.lectureEnded(unitCode, reason, absenteesMarked);
+        studentFeedService.lectureClosed(unitCode);
+    }
+
     /**
      * Record attendance with status and date
      */
     public void recordAttendance(String studentId, String unitCode, String status, String date) {
         boolean present = "PRESENT".equalsIgnoreCase(status);
 
-        // Remove any existing record for the same day
+        // Replace any existing record for the same day, in one write
         String datePart = date.contains(" ") ? date.split(" ")[0] : date;
-        attendanceRecords.removeIf(a -> a.getStudentId().equals(studentId) &&
+        attendanceStore.replace(unitCode, a -> a.getStudentId().equals(studentId) &&
                 a.getUnitCode().equals(unitCode) &&
-                a.getDate().startsWith(datePart));
-
-        Attendance attendance = new Attendance(studentId, unitCode, date, present);
-        attendanceRecords.add(attendance);
+                a.getDate().startsWith(datePart), List.of(new Attendance(studentId, unitCode, date, present)));
 
         // FIXED: Save to file
         saveAttendanceToFile();
@@ -215,10 +261,21 @@ public class AttendanceManager {
      * Mark student attendance (main method) - UPDATED with save
      */
     public Map<String, Object> markAttendance(String studentId, String unitCode) {
+        MarkAttemptEvent event = new MarkAttemptEvent(unitCode);
+        event.begin();
+        try {
+            return appMetrics.timeResult("attendance.mark", () -> doMarkAttendance(studentId, unitCode, event));
+        } finally {
+            event.commit();
+        }
+    }
+
+    private Map<String, Object> doMarkAttendance(String studentId, String unitCode, MarkAttemptEvent event) {
         Map<String, Object> result = new HashMap<>();
 
         // Validate inputs
         if (studentId == null || unitCode == null) {
+            event.outcome = "invalid";
             result.put("success", false);
             result.put("message", "Invalid student or unit information.");
             return result;
@@ -226,18 +283,21 @@ public class AttendanceManager {
 
         LectureSession session = activeLectures.get(unitCode);
         if (session == null || !session.isValidSession()) {
+            event.outcome = "no_lecture";
             result.put("success", false);
             result.put("message", "No active lecture for this unit.");
             return result;
         }
 
         if (!session.isActive()) {
+            event.outcome = "lecture_ended";
             result.put("success", false);
             result.put("message", "Lecture has ended. Attendance marking closed.");
             return result;
         }
 
         if (!session.isLectureTime()) {
+            event.outcome = "lecture_expired";
             result.put("success", false);
             result.put("message", "Lecture time has expired. Cannot mark attendance.");
             return result;
@@ -246,44 +306,44 @@ public class AttendanceManager {
         // Check if student is registered for this unit
         StudentData student = studentManager.getStudent(studentId);
         if (student == null) {
+            event.outcome = "unknown_student";
             result.put("success", false);
             result.put("message", "Student not found.");
             return result;
         }
 
         if (student.getRegisteredUnits() == null || !student.getRegisteredUnits().contains(unitCode)) {
+            event.outcome = "not_registered";
             result.put("success", false);
             result.put("message", "You are not registered for this unit.");
             return result;
         }
 
-        // Check if already marked
-        String currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        boolean alreadyMarked = attendanceRecords.stream()
-                .anyMatch(a -> a.getStudentId().equals(studentId) &&
-                        a.getUnitCode().equals(unitCode) &&
-                        a.getDate().startsWith(currentDate) &&
-                        a.isPresent());
-
-        if (alreadyMarked) {
+        // Check if already marked: the session turns away a second check-in at once, and the store
+        // checks for a present record today (an earlier session of the same day) in the same write
+        // that adds this one, so concurrent check-ins by one student cannot both get through. An
+        // absent record from earlier today is replaced.
+        String timestamp = LocalDateTime.now(clock).format(dateFormatter);
+        String currentDate = timestamp.substring(0, 10);
+        Predicate<Attendance> today = a -> studentId.equalsIgnoreCase(a.getStudentId()) &&
+                a.getDate() != null && a.getDate().startsWith(currentDate);
+        event.scanLength = attendanceStore.getUnitStats(unitCode).totalRecords();
+        if (!session.markStudent(studentId) ||
+                !attendanceStore.replaceUnless(unitCode, today.and(Attendance::isPresent), today,
+                        List.of(new Attendance(studentId, unitCode, timestamp, true)))) {
+            event.outcome = "duplicate";
             result.put("success", false);
             result.put("message", "Attendance already marked for today.");
             return result;
         }
 
-        // Mark student in the session
-        session.markStudent(studentId);
-
-        // Create attendance record
-        String timestamp = LocalDateTime.now().format(dateFormatter);
-        Attendance attendance = new Attendance(studentId, unitCode, timestamp, true);
-        attendanceRecords.add(attendance);
-
         // FIXED: Save attendance records to file
         saveAttendanceToFile();
 
-        System.out.println("✅ Attendance marked and saved for student: " + studentId + " in unit: " + unitCode);
+        log.atDebug().addKeyValue("studentId", studentId).addKeyValue("unitCode", unitCode).log("Attendance marked and saved");
+        lectureFeedService.checkedIn(unitCode, studentId, student.getName());
 
+        event.outcome = "marked";
         result.put("success", true);
         result.put("message", "Attendance marked successfully!");
         result.put("remainingTime", session.getRemainingTime());
@@ -299,26 +359,103 @@ public class AttendanceManager {
         }
 
         try {
-            // Remove any existing record for the same day
+            // Replace any existing record for the same day, in one write
             String datePart = date.contains(" ") ? date.split(" ")[0] : date;
-            attendanceRecords.removeIf(a -> a.getStudentId().equals(studentId) &&
+            attendanceStore.replace(unitCode, a -> a.getStudentId().equals(studentId) &&
                     a.getUnitCode().equals(unitCode) &&
-                    a.getDate().startsWith(datePart));
-
-            Attendance attendance = new Attendance(studentId, unitCode, date, present);
-            attendanceRecords.add(attendance);
+                    a.getDate().startsWith(datePart), List.of(new Attendance(studentId, unitCode, date, present)));
 
             // FIXED: Save attendance records to file
             saveAttendanceToFile();
 
-            System.out.println("✅ Manual attendance marked and saved: " + studentId + " for unit " + unitCode + " - " + (present ? "PRESENT" : "ABSENT"));
+            log.info("Manual attendance marked and saved: {} for unit {} - {}", studentId, unitCode, (present ? "PRESENT" : "ABSENT"));
             return true;
         } catch (Exception e) {
-            System.err.println("❌ Error in manual attendance marking: " + e.getMessage());
+            log.error("Error in manual attendance marking: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Roster submission for lecturers: present/absent for many students of one unit on one day
+     * (date as yyyy-MM-dd), replacing any marks they already have for that day. Rows are checked
+     * against the unit's roster; the valid ones are applied in one write and saved once. "results"
+     * has a row per student with its outcome: "marked", "updated" (replaced an earlier mark),
+     * "unknown_student", "not_registered" or "invalid" (no present/absent value).
+     */
+    public Map<String, Object> markRoster(String unitCode, String date, Map<String, Boolean> roster) {
+        return appMetrics.timeResult("attendance.roster", () -> doMarkRoster(unitCode, date, roster));
+    }
+
+    private Map<String, Object> doMarkRoster(String unitCode, String date, Map<String, Boolean> roster) {
+        Map<String, Object> result = new HashMap<>();
+        if (unitCode == null || unitCode.isEmpty() || roster == null || roster.isEmpty()) {
+            result.put("success", false);
+            result.put("message", "A unit and at least one student are required.");
+            return result;
+        }
+        try {
+            LocalDate.parse(date != null ? date : "");
+        } catch (DateTimeParseException e) {
+            result.put("success", false);
+            result.put("message", "Date must be given as yyyy-MM-dd.");
+            return result;
+        }
+
+        Set<String> unitRoster = studentManager.getUnitRoster(unitCode);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<String, Map<String, Object>> accepted = new HashMap<>();
+        List<Attendance> records = new ArrayList<>();
+        for (Map.Entry<String, Boolean> entry : roster.entrySet()) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("studentId", entry.getKey());
+            rows.add(row);
+
+            String key = entry.getKey() != null ? entry.getKey().trim().toUpperCase() : "";
+            StudentData student = studentManager.getStudent(key);
+            if (entry.getValue() == null) {
+                row.put("status", "invalid");
+            } else if (student == null) {
+                row.put("status", "unknown_student");
+            } else if (!unitRoster.contains(key)) {
+                row.put("status", "not_registered");
+            } else if (accepted.containsKey(key)) {
+                row.put("status", "invalid"); // the same student twice
+            } else {
+                row.put("present", entry.getValue());
+                row.put("status", "marked");
+                accepted.put(key, row);
+                records.add(new Attendance(student.getStudentId(), unitCode, date, entry.getValue()));
+            }
+        }
+
+        if (!records.isEmpty()) {
+            List<Attendance> replaced = attendanceStore.replace(unitCode, a ->
+                    a.getUnitCode().equalsIgnoreCase(unitCode) &&
+                    a.getDate().startsWith(date) &&
+                    a.getStudentId() != null && accepted.containsKey(a.getStudentId().toUpperCase()), records);
+            for (Attendance attendance : replaced) {
+                accepted.get(attendance.getStudentId().toUpperCase()).put("status", "updated");
+            }
+            saveAttendanceToFile();
+        }
+
+        int rejected = rows.size() - records.size();
+        log.atInfo().addKeyValue("unitCode", unitCode).addKeyValue("date", date).addKeyValue("applied", records.size())
+                .addKeyValue("rejected", rejected).log("Roster attendance submitted");
+
+        result.put("success", !records.isEmpty());
+        result.put("message", records.isEmpty() ? "No valid rows to apply."
+                : "Recorded " + records.size() + (records.size() == 1 ? " student" : " students")
+                + (rejected > 0 ? ", rejected " + rejected + (rejected == 1 ? " row." : " rows.") : "."));
+        result.put("unitCode", unitCode);
+        result.put("date", date);
+        result.put("applied", records.size());
+        result.put("rejected", rejected);
+        result.put("results", rows);
+        return result;
+    }
+
     // ========== DATA RETRIEVAL METHODS ==========
 
     /**
@@ -327,8 +464,8 @@ public class AttendanceManager {
     public List<Attendance> getTodaysAttendanceForUnit(String unitCode) {
         if (unitCode == null) return new ArrayList<>();
 
-        String currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        return attendanceRecords.stream()
+        String currentDate = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        return attendanceStore.getRecordsForUnit(unitCode).stream()
                 .filter(a -> a.getUnitCode().equals(unitCode) && a.getDate().startsWith(currentDate))
                 .collect(Collectors.toList());
     }
@@ -339,7 +476,7 @@ public class AttendanceManager {
     public List<Attendance> getAttendanceRecordsForUnitAndDate(String unitCode, String date) {
         if (unitCode == null || date == null) return new ArrayList<>();
 
-        return attendanceRecords.stream()
+        return attendanceStore.getRecordsForUnit(unitCode).stream()
                 .filter(a -> a.getUnitCode().equals(unitCode) && a.getDate().startsWith(date))
                 .collect(Collectors.toList());
     }
@@ -350,7 +487,7 @@ public class AttendanceManager {
     public List<Attendance> getAttendanceRecordsForUnit(String unitCode) {
         if (unitCode == null) return new ArrayList<>();
 
-        return attendanceRecords.stream()
+        return attendanceStore.getRecordsForUnit(unitCode).stream()
                 .filter(a -> a.getUnitCode().equals(unitCode))
                 .sorted((a1, a2) -> a2.getDate().compareTo(a1.getDate())) // Most recent first
                 .collect(Collectors.toList());
@@ -362,7 +499,7 @@ public class AttendanceManager {
     public List<Attendance> getAttendanceRecordsForStudent(String studentId) {
         if (studentId == null) return new ArrayList<>();
 
-        return attendanceRecords.stream()
+        return attendanceStore.getRecordsForStudent(studentId).stream()
                 .filter(a -> a.getStudentId().equals(studentId))
                 .sorted((a1, a2) -> a2.getDate().compareTo(a1.getDate())) // Most recent first
                 .collect(Collectors.toList());
@@ -374,84 +511,65 @@ public class AttendanceManager {
     public List<Attendance> getTodaysAttendanceForStudent(String studentId) {
         if (studentId == null) return new ArrayList<>();
 
-        String currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        return attendanceRecords.stream()
+        String currentDate = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        return attendanceStore.getRecordsForStudent(studentId).stream()
                 .filter(a -> a.getStudentId().equals(studentId) && a.getDate().startsWith(currentDate))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get all attendance records
+     * Get all attendance records (reads every unit; prefer the per-unit and per-student lookups)
      */
     public List<Attendance> getAttendanceRecords() {
-        return new ArrayList<>(attendanceRecords);
+        return attendanceStore.getAllRecords();
+    }
+
+    /**
+     * Units that have attendance records
+     */
+    public Set<String> getAttendanceUnitCodes() {
+        return attendanceStore.getUnitCodes();
     }
 
     // ========== STATISTICS AND REPORTING METHODS ==========
 
     /**
-     * Get attendance statistics for a unit
+     * Get attendance statistics for a unit (from the unit's running counts, not its records)
      */
     public Map<String, Object> getAttendanceStatistics(String unitCode) {
         Map<String, Object> stats = new HashMap<>();
 
-        if (unitCode == null) {
-            stats.put("totalRecords", 0);
-            stats.put("presentCount", 0);
-            stats.put("absentCount", 0);
-            stats.put("attendanceRate", 0.0); // FIXED: Now Double instead of String
-            return stats;
-        }
-
-        try {
-            List<Attendance> unitRecords = getAttendanceRecordsForUnit(unitCode);
-
-            long totalRecords = unitRecords.size();
-            long presentCount = unitRecords.stream().filter(Attendance::isPresent).count();
-            long absentCount = totalRecords - presentCount;
-            double attendanceRate = totalRecords > 0 ? (double) presentCount / totalRecords * 100 : 0;
-
-            stats.put("totalRecords", totalRecords);
-            stats.put("presentCount", presentCount);
-            stats.put("absentCount", absentCount);
-            stats.put("attendanceRate", Math.round(attendanceRate * 10.0) / 10.0); // FIXED: Now Double
-        } catch (Exception e) {
-            System.err.println("Error getting attendance statistics: " + e.getMessage());
-            stats.put("totalRecords", 0);
-            stats.put("presentCount", 0);
-            stats.put("absentCount", 0);
-            stats.put("attendanceRate", 0.0); // FIXED: Now Double
-        }
+        AttendanceStore.UnitStats unitStats = attendanceStore.getUnitStats(unitCode);
+        long totalRecords = unitStats.totalRecords();
+        long presentCount = unitStats.presentCount();
+        double attendanceRate = totalRecords > 0 ? (double) presentCount / totalRecords * 100 : 0;
 
+        stats.put("totalRecords", totalRecords);
+        stats.put("presentCount", presentCount);
+        stats.put("absentCount", totalRecords - presentCount);
+        stats.put("attendanceRate", Math.round(attendanceRate * 10.0) / 10.0); // FIXED: Now Double
         return stats;
     }
 
     /**
-     * Get dashboard summary for lecturer
+     * Get dashboard summary for lecturer (running counts and the roster index, no scans)
      */
     public Map<String, Object> getDashboardSummary(String unitCode) {
         Map<String, Object> summary = new HashMap<>();
 
-        List<Attendance> unitRecords = getAttendanceRecordsForUnit(unitCode);
-        List<Attendance> todayRecords = getTodaysAttendanceForUnit(unitCode);
-
-        // Count students registered for this unit
-        long totalStudents = studentManager.getStudents().values().stream()
-                .filter(student -> student.getRegisteredUnits() != null &&
-                        student.getRegisteredUnits().contains(unitCode))
-                .count();
-
-        long presentToday = todayRecords.stream().filter(Attendance::isPresent).count();
-        long totalPresent = unitRecords.stream().filter(Attendance::isPresent).count();
+        AttendanceStore.UnitStats unitStats = attendanceStore.getUnitStats(unitCode);
+        long totalStudents = studentManager.getRosterSize(unitCode);
+        long presentToday = unitStats.presentToday();
+        long totalPresent = unitStats.presentCount();
 
         double todayRate = totalStudents > 0 ? (presentToday * 100.0) / totalStudents : 0;
-        double overallRate = unitRecords.size() > 0 ? (totalPresent * 100.0) / unitRecords.size() : 0;
+        double overallRate = unitStats.totalRecords() > 0 ? (totalPresent * 100.0) / unitStats.totalRecords() : 0;
 
         summary.put("totalStudents", totalStudents);
         summary.put("presentToday", presentToday);
         summary.put("todayRate", Math.round(todayRate * 10.0) / 10.0); // FIXED: Now Double
         summary.put("overallRate", Math.round(overallRate * 10.0) / 10.0); // FIXED: Now Double
-        summary.put("totalRecords", unitRecords.size());
+        summary.put("totalRecords", unitStats.totalRecords());
         summary.put("isActive", isAttendanceActive(unitCode));
 
         return summary;
@@ -461,7 +579,9 @@ public class AttendanceManager {
      * Get student attendance history
      */
     public List<Map<String, Object>> getStudentAttendanceHistory(String studentId, String unitCode) {
-        return attendanceRecords.stream()
+        List<Attendance> records = unitCode != null
+                ? attendanceStore.getRecordsForUnit(unitCode) : attendanceStore.getRecordsForStudent(studentId);
+        return records.stream()
                 .filter(a -> a.getStudentId().equals(studentId) &&
                         (unitCode == null || a.getUnitCode().equals(unitCode)))
                 .sorted((a1, a2) -> a2.getDate().compareTo(a1.getDate()))
@@ -520,42 +640,36 @@ public class AttendanceManager {
     /**
      * Auto-mark absent students when lecture ends - UPDATED with save
      */
-    private void autoMarkAbsentStudents(String unitCode, Set<String> presentStudents) {
-        String currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        String timestamp = LocalDateTime.now().format(dateFormatter);
+    private void autoMarkAbsentStudents(String unitCode, Set<String> presentStudents, LectureEndEvent event) {
+        String timestamp = LocalDateTime.now(clock).format(dateFormatter);
 
-        // Get all students registered for this unit from StudentManager
-        List<StudentData> allStudents = studentManager.getStudents().values().stream()
-                .filter(student -> student != null &&
-                        student.getRegisteredUnits() != null &&
-                        student.getRegisteredUnits().contains(unitCode))
-                .collect(Collectors.toList());
+        // Students registered for this unit
+        Set<String> roster = studentManager.getUnitRoster(unitCode);
 
-        System.out.println("Auto-marking absent students for unit: " + unitCode);
-        System.out.println("Present students: " + presentStudents.size());
-        System.out.println("Total registered students: " + allStudents.size());
+        log.atInfo().addKeyValue("unitCode", unitCode).addKeyValue("present", presentStudents.size())
+                .addKeyValue("registered", roster.size()).log("Auto-marking absent students");
 
-        // Mark absent students who didn't attend
-        for (StudentData student : allStudents) {
-            String studentId = student.getStudentId();
+        // Mark absent students who didn't attend; the store skips anyone already marked today in
+        // the same write, so a mark landing meanwhile is not doubled
+        List<Attendance> absentRecords = new ArrayList<>();
+        for (String studentId : roster) {
             if (!presentStudents.contains(studentId)) {
-                // Check if not already marked for today
-                boolean alreadyMarkedToday = attendanceRecords.stream()
-                        .anyMatch(a -> a.getStudentId().equals(studentId) &&
-                                a.getUnitCode().equals(unitCode) &&
-                                a.getDate().startsWith(currentDate));
-
-                if (!alreadyMarkedToday) {
-                    Attendance absentRecord = new Attendance(studentId, unitCode, timestamp, false);
-                    attendanceRecords.add(absentRecord);
-                    System.out.println("Auto-marked absent: " + studentId + " for unit: " + unitCode);
-                }
+                absentRecords.add(new Attendance(studentId, unitCode, timestamp, false));
             }
         }
+        List<Attendance> added = attendanceStore.addUnmarked(unitCode, absentRecords);
+        for (Attendance attendance : added) {
+            log.atDebug().addKeyValue("studentId", attendance.getStudentId()).addKeyValue("unitCode", unitCode).log("Auto-marked absent");
+        }
+        int absenteesMarked = added.size();
 
         // FIXED: Save attendance records to file after auto-marking
         saveAttendanceToFile();
 
+        event.rosterSize = roster.size();
+        event.present = presentStudents.size();
+        event.absenteesMarked = absenteesMarked;
+
         // Store for any future processing
         pendingAutoMark.put(unitCode, presentStudents);
     }
@@ -584,8 +698,8 @@ public class AttendanceManager {
             status.put("canMark", isActive);
 
             // Check if already marked today
-            String currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            boolean alreadyMarked = attendanceRecords.stream()
+            String currentDate = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            boolean alreadyMarked = attendanceStore.getRecordsForUnit(unitCode).stream()
                     .anyMatch(a -> a.getStudentId().equals(studentId) &&
                             a.getUnitCode().equals(unitCode) &&
                             a.getDate().startsWith(currentDate) &&
@@ -610,7 +724,7 @@ public class AttendanceManager {
             }
 
         } catch (Exception e) {
-            System.err.println("Error getting attendance status for student " + studentId + ": " + e.getMessage());
+            log.error("Error getting attendance status for student {}: {}", studentId, e.getMessage());
             status.put("message", "Status unavailable - please try again");
         }
 
@@ -624,6 +738,22 @@ public class AttendanceManager {
         return activeLectures.get(unitCode);
     }
 
+    /**
+     * Remaining marking time for a unit's lecture as mm:ss, "00:00" when none is running
+     */
+    public String getRemainingTime(String unitCode) {
+        LectureSession session = unitCode != null ? activeLectures.get(unitCode) : null;
+        return session != null ? session.getRemainingTime() : "00:00";
+    }
+
+    public int getActiveLectureCount() {
+        return activeLectures.size();
+    }
+
+    public int getAttendanceRecordCount() {
+        return attendanceStore.size();
+    }
+
     /**
      * Get all active lectures
      */
@@ -639,18 +769,9 @@ public class AttendanceManager {
     public List<String> getActiveUnitsForStudent(String studentId) {
         if (studentId == null) return new ArrayList<>();
 
-        return activeLectures.keySet().stream()
-                .filter(unitCode -> {
-                    try {
-                        StudentData student = studentManager.getStudent(studentId);
-                        return student != null &&
-                                student.getRegisteredUnits() != null &&
-                                student.getRegisteredUnits().contains(unitCode) &&
-                                isAttendanceActive(unitCode);
-                    } catch (Exception e) {
-                        return false;
-                    }
-                })
+        // Open units are kept per student by StudentFeedService as lectures start and end
+        return studentFeedService.getOpenUnits(studentId).stream()
+                .filter(this::isAttendanceActive)
                 .collect(Collectors.toList());
     }
 
@@ -660,11 +781,8 @@ public class AttendanceManager {
     public boolean canStudentMarkAttendance(String studentId) {
         if (studentId == null) return false;
 
-        StudentData student = studentManager.getStudent(studentId);
-        if (student == null || student.getRegisteredUnits() == null) return false;
-
-        return student.getRegisteredUnits().stream()
-                .anyMatch(unitCode -> isAttendanceActive(unitCode));
+        return studentFeedService.getOpenUnits(studentId).stream()
+                .anyMatch(this::isAttendanceActive);
     }
 
     /**
@@ -676,9 +794,13 @@ public class AttendanceManager {
             Map.Entry<String, LectureSession> entry = iterator.next();
             LectureSession session = entry.getValue();
             if (!session.isValidSession()) {
-                System.out.println("Cleaning up expired lecture for unit: " + entry.getKey());
-                autoMarkAbsentStudents(entry.getKey(), session.getMarkedStudents());
+                log.info("Cleaning up expired lecture for unit: {}", entry.getKey());
+                LectureEndEvent event = new LectureEndEvent(entry.getKey(), "expired");
+                event.begin();
+                autoMarkAbsentStudents(entry.getKey(), session.getMarkedStudents(), event);
+                event.commit();
                 iterator.remove();
+                lectureClosed(entry.getKey(), "expired", event.absenteesMarked);
             }
         }
     }
@@ -690,10 +812,10 @@ public class AttendanceManager {
      */
     public void saveAttendanceToFile() {
         try {
-            fileDataService.saveAttendance(attendanceRecords);
-            System.out.println("✅ Attendance data saved successfully (" + attendanceRecords.size() + " records)");
+            attendanceStore.save();
+            log.debug("Attendance data saved successfully ({} records)", attendanceStore.size());
         } catch (Exception e) {
-            System.err.println("❌ Error saving attendance data: " + e.getMessage());
+            log.error("Error saving attendance data: {}", e.getMessage());
         }
     }
 
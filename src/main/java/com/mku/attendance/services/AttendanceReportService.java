@@ -0,0 +1,160 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.entities.Attendance;
+import com.mku.attendance.entities.StudentData;
+import com.mku.attendance.jfr.ReportBuildEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * HOD attendance report pipeline (web view, CSV download and the JSON API all use it).
+ */
+@Service
+public class AttendanceReportService {
+
+    @Autowired
+    private AttendanceManager attendanceManager;
+
+    @Autowired
+    private StudentManager studentManager;
+
+    @Autowired
+    private AttendanceStore attendanceStore;
+
+    /**
+     * Attendance records for the HOD report, joined with student details, filtered and sorted most
+     * recent first. Null or empty filters are ignored; status "ALL" keeps both.
+     */
+    public List<Map<String, Object>> getFilteredAttendanceRecords(String unitCode, String date, String status, String studentId) {
+        return getFilteredAttendanceRecords(getSourceRecords(unitCode), unitCode, date, status, studentId);
+    }
+
+    /**
+     * The records a report filtered on unitCode (if any) is built from: just that unit's, rather
+     * than every unit read in and filtered afterwards
+     */
+    public List<Attendance> getSourceRecords(String unitCode) {
+        if (unitCode != null && !unitCode.isEmpty()) {
+            return attendanceStore.getRecordsForUnit(unitCode);
+        }
+        return attendanceManager.getAttendanceRecords();
+    }
+
+    public List<Map<String, Object>> getFilteredAttendanceRecords(List<Attendance> allRecords, String unitCode, String date,
+                                                                  String status, String studentId) {
+        ReportBuildEvent event = new ReportBuildEvent();
+        event.begin();
+        List<Map<String, Object>> attendanceRecords = new ArrayList<>();
+
+        // Convert to map format
+        for (Attendance record : allRecords) {
+            Map<String, Object> recordMap = new HashMap<>();
+            recordMap.put("studentId", record.getStudentId());
+            recordMap.put("unitCode", record.getUnitCode());
+            recordMap.put("date", record.getDate());
+
+            // Extract time from timestamp
+            String time = extractTimeFromTimestamp(record);
+            recordMap.put("time", time);
+
+            recordMap.put("status", record.isPresent() ? "PRESENT" : "ABSENT");
+            recordMap.put("present", record.isPresent());
+
+            StudentData student = studentManager.getStudent(record.getStudentId());
+            if (student != null) {
+                recordMap.put("studentName", student.getName());
+                recordMap.put("course", student.getCourse());
+            } else {
+                recordMap.put("studentName", "Unknown Student");
+                recordMap.put("course", "N/A");
+            }
+
+            attendanceRecords.add(recordMap);
+        }
+
+        // Apply filters
+        if (unitCode != null && !unitCode.isEmpty()) {
+            attendanceRecords = attendanceRecords.stream()
+                    .filter(r -> r.get("unitCode").toString().equalsIgnoreCase(unitCode))
+                    .collect(Collectors.toList());
+        }
+
+        if (date != null && !date.isEmpty()) {
+            attendanceRecords = attendanceRecords.stream()
+                    .filter(r -> r.get("date").toString().startsWith(date))
+                    .collect(Collectors.toList());
+        }
+
+        if (status != null && !status.isEmpty() && !status.equals("ALL")) {
+            boolean presentFilter = "PRESENT".equalsIgnoreCase(status);
+            attendanceRecords = attendanceRecords.stream()
+                    .filter(r -> (Boolean) r.get("present") == presentFilter)
+                    .collect(Collectors.toList());
+        }
+
+        if (studentId != null && !studentId.isEmpty()) {
+            attendanceRecords = attendanceRecords.stream()
+                    .filter(r -> r.get("studentId").toString().toLowerCase().contains(studentId.toLowerCase()))
+                    .collect(Collectors.toList());
+        }
+
+        // Sort by date descending
+        attendanceRecords.sort((r1, r2) -> r2.get("date").toString().compareTo(r1.get("date").toString()));
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.unitCode = unitCode;
+            event.date = date;
+            event.status = status;
+            event.rowsIn = allRecords.size();
+            event.rowsOut = attendanceRecords.size();
+            event.commit();
+        }
+        return attendanceRecords;
+    }
+
+    // Helper method to extract time from timestamp
+    private String extractTimeFromTimestamp(Attendance record) {
+        try {
+            // Try to get timestamp using reflection or available methods
+            // Since we don't know the exact methods in Attendance class, let's try common approaches
+
+            // Option 1: Try to get timestamp field
+            java.lang.reflect.Field timestampField = null;
+            try {
+                timestampField = record.getClass().getDeclaredField("timestamp");
+                timestampField.setAccessible(true);
+                String timestamp = (String) timestampField.get(record);
+                if (timestamp != null && timestamp.length() > 11) {
+                    return timestamp.substring(11, 16); // Extract HH:mm
+                }
+            } catch (Exception e) {
+                // Ignore and try next approach
+            }
+
+            // Option 2: Try to get date field and extract time if it contains time
+            try {
+                String date = record.getDate();
+                if (date != null && date.contains(" ")) {
+                    String[] parts = date.split(" ");
+                    if (parts.length > 1 && parts[1].length() >= 5) {
+                        return parts[1].substring(0, 5); // Extract HH:mm
+                    }
+                }
+            } catch (Exception e) {
+                // Ignore
+            }
+
+            // Option 3: Return default time
+            return "--:--";
+
+        } catch (Exception e) {
+            return "--:--";
+        }
+    }
+}
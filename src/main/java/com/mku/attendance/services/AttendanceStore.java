@@ -0,0 +1,789 @@
+package com.mku.attendance.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.mku.attendance.entities.Attendance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * The one place attendance lives. AttendanceManager (lecture check-ins, manual marks, auto-absent)
+ * and StudentManager (the student API) both write here, and the per-student views on StudentData
+ * (sessions, percentages, today's status) are derived from it, so students.json only holds profiles.
+ *
+ * Records are kept in one file per unit (attendance/&lt;unit&gt;.json) and loaded on demand: only the
+ * units in use stay in memory, up to app.attendance.cache.max-records records, least recently used
+ * units going first. A student's history is gathered from the units they have records in and the
+ * most recently viewed app.attendance.cache.max-students histories are kept. What stays resident
+ * at all times is small: which units each student has records in and how many records each unit
+ * holds. These are built at startup, which reads every unit file once (the lock is not held while
+ * a file is read); after that a unit is only read again if it was dropped from the cache. A unit
+ * with changes that are not saved yet is never dropped.
+ *
+ * Each unit also keeps running counts (records, present, present today) that every write adjusts,
+ * so getUnitStats() answers the dashboards without reading the unit's records. Today's count
+ * starts over when the day changes: the first read on a new day counts that day's records once.
+ * Other indexes over the records (AttendanceAnalytics) follow the same writes through a
+ * ChangeListener.
+ *
+ * Lists handed out are snapshots: a write replaces the unit's list rather than changing it, so
+ * readers never see a list change under them. Writes take one lock; no file is read or written
+ * while it is held. A unit that is not cached is read before the lock is taken, once however many
+ * callers want it at the same time, and save() writes the changed units outside it, one save at a
+ * time. A unit whose file could not be written stays unsaved (and cached) for the next save.
+ */
+@Service
+public class AttendanceStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceStore.class);
+
+    private final FileDataService fileDataService;
+    private final Clock clock;
+    private final int maxCachedRecords;
+    private final int maxCachedStudents;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock saveLock = new ReentrantLock();
+
+    // Guarded by lock
+    private final Map<String, UnitTally> tallies = new HashMap<>();
+    private final Map<String, Set<String>> unitsByStudent = new HashMap<>();
+    private final LinkedHashMap<String, Shard> units = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, List<Attendance>> histories = new LinkedHashMap<>(16, 0.75f, true);
+    // Histories being gathered; a write to the student drops the entry so a stale one is not cached
+    private final Map<String, Object> historyLoads = new HashMap<>();
+    // Units being read from disk, so concurrent callers share one read
+    private final Map<String, CompletableFuture<Shard>> loading = new HashMap<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private int cachedRecords;
+    private int totalRecords;
+
+    @Autowired
+    public AttendanceStore(FileDataService fileDataService, Clock clock,
+                           @Value("${app.attendance.cache.max-records:200000}") int maxCachedRecords,
+                           @Value("${app.attendance.cache.max-students:500}") int maxCachedStudents) {
+        this.fileDataService = fileDataService;
+        this.clock = clock;
+        this.maxCachedRecords = maxCachedRecords;
+        this.maxCachedStudents = maxCachedStudents;
+
+        // Each unit file is read once to build the tallies and the student index; the lock is
+        // only taken to add a unit that has been read
+        for (String unitCode : fileDataService.listAttendanceUnits()) {
+            String key = unitCode.toUpperCase();
+            List<Attendance> records = loadAtStartup(key);
+            lock.lock();
+            try {
+                UnitTally tally = new UnitTally(today());
+                tallies.put(key, tally);
+                totalRecords += records.size();
+                for (Attendance attendance : records) {
+                    indexStudent(key, attendance);
+                    tally.count(attendance, 1);
+                }
+                if (cachedRecords + records.size() <= maxCachedRecords) {
+                    units.put(key, new Shard(records));
+                    cachedRecords += records.size();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (fileDataService.hasLegacyAttendance()) {
+            migrateLegacyAttendance();
+        }
+        log.info("AttendanceStore initialized with {} attendance records in {} units ({} records cached)",
+                size(), tallies.size(), cachedRecords);
+    }
+
+    // An unparseable unit file is moved aside and the unit starts empty; any other read error stops startup
+    private List<Attendance> loadAtStartup(String unitCode) {
+        try {
+            return fileDataService.loadAttendanceShard(unitCode);
+        } catch (UncheckedIOException e) {
+            if (!(e.getCause() instanceof JsonProcessingException)) throw e;
+            fileDataService.quarantineAttendanceShard(unitCode);
+            return new ArrayList<>();
+        }
+    }
+
+    // attendance.json held every record in one file; split it into per-unit files once
+    private void migrateLegacyAttendance() {
+        List<Attendance> legacy;
+        try {
+            legacy = fileDataService.loadLegacyAttendance();
+        } catch (Exception e) {
+            log.error("Error loading attendance records: {}", e.getMessage());
+            return;
+        }
+        if (legacy == null) return;
+
+        int added = importRecords(legacy);
+        if (!save()) {
+            // attendance.json stays in place and is split again on the next start
+            log.error("Could not save the per-unit files split from attendance.json; keeping attendance.json");
+            return;
+        }
+        fileDataService.retireLegacyAttendance();
+        log.info("Split attendance.json into per-unit files: {} records imported into {} units", added, tallies.size());
+    }
+
+    /**
+     * A unit's records in the order they were added (unit code is not case-sensitive). Read-only.
+     */
+    public List<Attendance> getRecordsForUnit(String unitCode) {
+        if (unitCode == null) return Collections.emptyList();
+        Shard shard = load(unitCode.toUpperCase());
+        return shard != null ? shard.records : Collections.emptyList();
+    }
+
+    /**
+     * A student's records, oldest first (student id is not case-sensitive).
+     */
+    public List<Attendance> getRecordsForStudent(String studentId) {
+        if (studentId == null) return new ArrayList<>();
+        String key = studentId.toUpperCase();
+        Object token = new Object();
+        List<String> unitCodes;
+        lock.lock();
+        try {
+            List<Attendance> history = histories.get(key);
+            if (history != null) return new ArrayList<>(history);
+            unitCodes = new ArrayList<>(unitsByStudent.getOrDefault(key, Collections.emptySet()));
+            historyLoads.put(key, token);
+        } finally {
+            lock.unlock();
+        }
+
+        // Units are read without the lock, so writes carry on meanwhile
+        List<Attendance> history = new ArrayList<>();
+        boolean complete = false;
+        try {
+            for (String unitCode : unitCodes) {
+                Shard shard = load(unitCode);
+                if (shard == null) continue;
+                for (Attendance attendance : shard.records) {
+                    if (key.equalsIgnoreCase(attendance.getStudentId())) {
+                        history.add(attendance);
+                    }
+                }
+            }
+            history.sort(Comparator.comparing(a -> String.valueOf(a.getDate())));
+            complete = true;
+        } finally {
+            lock.lock();
+            try {
+                // Cached only if nothing was written for the student while the units were read
+                if (historyLoads.remove(key, token) && complete && maxCachedStudents > 0) {
+                    histories.put(key, history);
+                    trimHistories();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * Every record, unit by unit. Units that are not cached are read from disk without being
+     * cached, so a full report does not push the units in use out of memory.
+     */
+    public List<Attendance> getAllRecords() {
+        List<Attendance> all = new ArrayList<>(size());
+        forEachUnit((unitCode, records) -> all.addAll(records));
+        return all;
+    }
+
+    /**
+     * Every unit's records (upper-case unit code, read-only list), one unit at a time and read the
+     * same way as getAllRecords, so walking them all does not fill the cache
+     */
+    public void forEachUnit(BiConsumer<String, List<Attendance>> action) {
+        for (String unitCode : getUnitCodes()) {
+            List<Attendance> records;
+            lock.lock();
+            try {
+                Shard shard = units.get(unitCode);
+                records = shard != null ? shard.records : null;
+            } finally {
+                lock.unlock();
+            }
+            action.accept(unitCode, records != null ? records : Collections.unmodifiableList(fileDataService.loadAttendanceShard(unitCode)));
+        }
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener that starts from the records already stored: each unit's records are
+     * handed to it as added, under the write lock, and from then on it gets that unit's changes, so
+     * it sees every record exactly once (counts built this way stay exact). Units go one at a time,
+     * so writes carry on in between. An uncached unit is read from disk outside the lock without
+     * being cached, and the read is used only if the unit was not written to meanwhile; otherwise
+     * it is tried again.
+     */
+    public void addChangeListenerWithReplay(ChangeListener listener) {
+        Set<String> pending = new HashSet<>();
+        List<String> unitCodes;
+        lock.lock();
+        try {
+            pending.addAll(tallies.keySet());
+            unitCodes = new ArrayList<>(pending);
+            // pending is only touched under lock, as listeners are only called under it
+            listeners.add((unitCode, added, removed) -> {
+                if (!pending.contains(unitCode)) listener.recordsChanged(unitCode, added, removed);
+            });
+        } finally {
+            lock.unlock();
+        }
+        for (String unitCode : unitCodes) {
+            List<Attendance> read = null;
+            long readAt = -1;
+            while (true) {
+                lock.lock();
+                try {
+                    Shard shard = units.get(unitCode);
+                    UnitTally tally = tallies.get(unitCode);
+                    // Units are only dropped from the cache once saved, so an uncached unit's file is current
+                    List<Attendance> records = shard != null ? shard.records
+                            : tally == null ? List.of()
+                            : tally.writes == readAt ? read : null;
+                    if (records != null) {
+                        listener.recordsChanged(unitCode, records, List.of());
+                        pending.remove(unitCode);
+                        break;
+                    }
+                    readAt = tally.writes;
+                } finally {
+                    lock.unlock();
+                }
+                read = fileDataService.loadAttendanceShard(unitCode);
+            }
+        }
+    }
+
+    /**
+     * Units that have attendance records, upper case, sorted
+     */
+    public Set<String> getUnitCodes() {
+        lock.lock();
+        try {
+            Set<String> unitCodes = new TreeSet<>();
+            tallies.forEach((unitCode, tally) -> {
+                if (tally.records > 0) unitCodes.add(unitCode);
+            });
+            return unitCodes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A unit's running counts (unit code is not case-sensitive); all zero for a unit without records
+     */
+    public UnitStats getUnitStats(String unitCode) {
+        if (unitCode == null) return new UnitStats(0, 0, 0);
+        String key = unitCode.toUpperCase();
+        while (true) {
+            lock.lock();
+            try {
+                UnitTally tally = tallies.get(key);
+                if (tally == null) return new UnitStats(0, 0, 0);
+                String today = today();
+                Shard shard = units.get(key);
+                if (!today.equals(tally.day) && shard != null) {
+                    // A new day: count what is already dated today (marks entered ahead of time)
+                    tally.day = today;
+                    tally.presentOnDay = 0;
+                    for (Attendance attendance : shard.records) {
+                        if (attendance.isPresent() && tally.isOnDay(attendance)) tally.presentOnDay++;
+                    }
+                }
+                if (today.equals(tally.day)) {
+                    return new UnitStats(tally.records, tally.present, tally.presentOnDay);
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Recounting needs the unit's records: read them without the lock, then try again
+            load(key);
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return totalRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void add(Attendance attendance) {
+        addAll(List.of(attendance));
+    }
+
+    /**
+     * Adds records in one pass per unit (a lecture's absentees, say). Not saved.
+     */
+    public void addAll(Collection<Attendance> records) {
+        for (Map.Entry<String, List<Attendance>> entry : byUnit(records).entrySet()) {
+            Shard shard = lockShard(entry.getKey(), true);
+            try {
+                List<Attendance> updated = new ArrayList<>(shard.records.size() + entry.getValue().size());
+                updated.addAll(shard.records);
+                updated.addAll(entry.getValue());
+                update(entry.getKey(), shard, updated, entry.getValue(), List.of());
+                for (Attendance attendance : entry.getValue()) {
+                    indexStudent(entry.getKey(), attendance);
+                }
+                trimUnits();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes a unit's records that match the filter. Not saved.
+     */
+    public int removeIf(String unitCode, Predicate<Attendance> filter) {
+        if (unitCode == null) return 0;
+        String key = unitCode.toUpperCase();
+        Shard shard = lockShard(key, false);
+        try {
+            if (shard == null) return 0;
+            List<Attendance> kept = new ArrayList<>(shard.records.size());
+            List<Attendance> removed = new ArrayList<>();
+            for (Attendance attendance : shard.records) {
+                if (filter.test(attendance)) {
+                    removed.add(attendance);
+                    forgetHistory(attendance);
+                } else {
+                    kept.add(attendance);
+                }
+            }
+            if (!removed.isEmpty()) {
+                update(key, shard, kept, List.of(), removed);
+            }
+            return removed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a unit's records that match the filter and adds the given ones (all for that unit)
+     * in one write, so readers see either none or all of the change. Returns the records removed.
+     * Not saved.
+     */
+    public List<Attendance> replace(String unitCode, Predicate<Attendance> filter, Collection<Attendance> records) {
+        String key = unitCode.toUpperCase();
+        Shard shard = lockShard(key, true);
+        try {
+            List<Attendance> removed = new ArrayList<>();
+            List<Attendance> updated = new ArrayList<>(shard.records.size() + records.size());
+            for (Attendance attendance : shard.records) {
+                if (filter.test(attendance)) {
+                    removed.add(attendance);
+                    forgetHistory(attendance);
+                } else {
+                    updated.add(attendance);
+                }
+            }
+            updated.addAll(records);
+            for (Attendance attendance : records) {
+                indexStudent(key, attendance);
+            }
+            if (!removed.isEmpty() || !records.isEmpty()) {
+                update(key, shard, updated, records, removed);
+            }
+            trimUnits();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * replace, unless one of the unit's records matches blocking, in which case nothing is written.
+     * The check and the write are one step under the lock, so of two concurrent callers only the
+     * first gets through (a student's second check-in, say). Returns whether the write was made.
+     * Not saved.
+     */
+    public boolean replaceUnless(String unitCode, Predicate<Attendance> blocking, Predicate<Attendance> filter,
+                                 Collection<Attendance> records) {
+        String key = unitCode.toUpperCase();
+        Shard shard = lockShard(key, true);
+        try {
+            for (Attendance attendance : shard.records) {
+                if (blocking.test(attendance)) return false;
+            }
+            replace(key, filter, records);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the records (all for one unit) whose student has no record in the unit for the same
+     * day yet, checked in the same write, and returns the ones added. Not saved.
+     */
+    public List<Attendance> addUnmarked(String unitCode, Collection<Attendance> records) {
+        String key = unitCode.toUpperCase();
+        Shard shard = lockShard(key, true);
+        try {
+            Set<String> marked = new HashSet<>();
+            for (Attendance attendance : shard.records) {
+                marked.add(studentDay(attendance));
+            }
+            List<Attendance> added = new ArrayList<>();
+            for (Attendance attendance : records) {
+                if (marked.add(studentDay(attendance))) added.add(attendance);
+            }
+            if (!added.isEmpty()) {
+                replace(key, attendance -> false, added);
+            }
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Student (upper case) and day (yyyy-MM-dd) of a record
+    private static String studentDay(Attendance attendance) {
+        String studentId = attendance.getStudentId() != null ? attendance.getStudentId().toUpperCase() : "";
+        String date = attendance.getDate() != null ? attendance.getDate() : "";
+        return studentId + "|" + (date.length() >= 10 ? date.substring(0, 10) : date);
+    }
+
+    /**
+     * Merges records from another source (attendance.json, or the per-student history once kept in
+     * students.json), skipping any that already exist for the same student, unit, day and status.
+     * Not saved.
+     */
+    public int importRecords(Collection<Attendance> imported) {
+        int added = 0;
+        for (Map.Entry<String, List<Attendance>> entry : byUnit(imported).entrySet()) {
+            Shard shard = lockShard(entry.getKey(), true);
+            try {
+                Set<String> existing = new HashSet<>();
+                for (Attendance attendance : shard.records) {
+                    existing.add(dedupKey(attendance));
+                }
+                List<Attendance> updated = new ArrayList<>(shard.records);
+                List<Attendance> fresh = new ArrayList<>();
+                for (Attendance attendance : entry.getValue()) {
+                    if (existing.add(dedupKey(attendance))) {
+                        fresh.add(attendance);
+                        indexStudent(entry.getKey(), attendance);
+                    }
+                }
+                if (!fresh.isEmpty()) {
+                    updated.addAll(fresh);
+                    added += fresh.size();
+                    update(entry.getKey(), shard, updated, fresh, List.of());
+                }
+                trimUnits();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Writes the units changed since the last save. False if any of them could not be written.
+     */
+    public boolean save() {
+        saveLock.lock();
+        try {
+            Map<String, Shard> changed = new HashMap<>();
+            Map<String, Long> versions = new HashMap<>();
+            Map<String, List<Attendance>> snapshots = new HashMap<>();
+            lock.lock();
+            try {
+                units.forEach((unitCode, shard) -> {
+                    if (shard.dirty) {
+                        changed.put(unitCode, shard);
+                        versions.put(unitCode, shard.version);
+                        snapshots.put(unitCode, shard.records);
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+            if (changed.isEmpty()) return true;
+
+            Set<String> failed = new HashSet<>();
+            snapshots.forEach((unitCode, records) -> {
+                if (!fileDataService.saveAttendanceShard(unitCode, records)) failed.add(unitCode);
+            });
+
+            lock.lock();
+            try {
+                // A unit written to again while it was being saved, or not written at all, stays
+                // dirty (and so cached) for the next save
+                changed.forEach((unitCode, shard) -> {
+                    if (!failed.contains(unitCode) && shard.version == versions.get(unitCode)) shard.dirty = false;
+                });
+                trimUnits();
+            } finally {
+                lock.unlock();
+            }
+            if (!failed.isEmpty()) {
+                log.error("Attendance for {} of {} changed units could not be saved: {}", failed.size(), changed.size(), failed);
+            }
+            return failed.isEmpty();
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    // ========== CACHE ==========
+
+    /**
+     * The unit's records, read from disk if the unit is not cached; null for a unit without
+     * records. Called without the lock: the file is read outside it, and callers asking for the
+     * same unit meanwhile wait for that one read. The unit may be dropped from the cache again as
+     * soon as this returns, so writers go through lockShard.
+     */
+    private Shard load(String unitCode) {
+        CompletableFuture<Shard> future;
+        boolean reader = false;
+        lock.lock();
+        try {
+            Shard shard = units.get(unitCode);
+            if (shard != null) return shard;
+            if (!tallies.containsKey(unitCode)) return null;
+            future = loading.get(unitCode);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                loading.put(unitCode, future);
+                reader = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!reader) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        Shard shard = null;
+        RuntimeException failure = null;
+        try {
+            List<Attendance> records = fileDataService.loadAttendanceShard(unitCode);
+            lock.lock();
+            try {
+                // Writes to a unit that is not cached wait for this read, so nothing was cached meanwhile
+                shard = new Shard(records);
+                units.put(unitCode, shard);
+                cachedRecords += records.size();
+                trimUnits();
+            } finally {
+                lock.unlock();
+            }
+            return shard;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            lock.lock();
+            try {
+                loading.remove(unitCode);
+            } finally {
+                lock.unlock();
+            }
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(shard);
+            }
+        }
+    }
+
+    /**
+     * Takes the lock with the unit cached, reading it first (without the lock) if need be, and
+     * returns its shard; the caller unlocks. With create, a unit without records gets an empty
+     * shard, otherwise null is returned for it (the lock is still held).
+     */
+    private Shard lockShard(String unitCode, boolean create) {
+        while (true) {
+            load(unitCode);
+            lock.lock();
+            Shard shard = units.get(unitCode);
+            if (shard != null) return shard;
+            if (!tallies.containsKey(unitCode)) {
+                if (!create) return null;
+                tallies.put(unitCode, new UnitTally(today()));
+                shard = new Shard(new ArrayList<>());
+                units.put(unitCode, shard);
+                return shard;
+            }
+            // Dropped from the cache again before the lock was taken
+            lock.unlock();
+        }
+    }
+
+    // ========== CACHE BOOKKEEPING (callers hold lock) ==========
+
+    // Installs a unit's new list; added and removed are the difference from the old one
+    private void update(String unitCode, Shard shard, List<Attendance> records,
+                        Collection<Attendance> added, Collection<Attendance> removed) {
+        int delta = records.size() - shard.records.size();
+        shard.records = Collections.unmodifiableList(records);
+        shard.version++;
+        shard.dirty = true;
+        cachedRecords += delta;
+        totalRecords += delta;
+        UnitTally tally = tallies.get(unitCode);
+        tally.writes++;
+        removed.forEach(attendance -> tally.count(attendance, -1));
+        added.forEach(attendance -> tally.count(attendance, 1));
+        for (ChangeListener listener : listeners) {
+            listener.recordsChanged(unitCode, added, removed);
+        }
+    }
+
+    private String today() {
+        return LocalDate.now(clock).toString();
+    }
+
+    // Drops least recently used units until back under the limit, always keeping the newest one
+    private void trimUnits() {
+        Iterator<Shard> iterator = units.values().iterator();
+        int remaining = units.size();
+        while (cachedRecords > maxCachedRecords && remaining-- > 1) {
+            Shard shard = iterator.next();
+            if (!shard.dirty) {
+                cachedRecords -= shard.records.size();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void trimHistories() {
+        Iterator<String> iterator = histories.keySet().iterator();
+        while (histories.size() > maxCachedStudents && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private void indexStudent(String unitCode, Attendance attendance) {
+        if (attendance.getStudentId() == null) return;
+        String studentKey = attendance.getStudentId().toUpperCase();
+        unitsByStudent.computeIfAbsent(studentKey, k -> new HashSet<>()).add(unitCode);
+        histories.remove(studentKey);
+        historyLoads.remove(studentKey);
+    }
+
+    private void forgetHistory(Attendance attendance) {
+        if (attendance.getStudentId() != null) {
+            histories.remove(attendance.getStudentId().toUpperCase());
+            historyLoads.remove(attendance.getStudentId().toUpperCase());
+        }
+    }
+
+    private static Map<String, List<Attendance>> byUnit(Collection<Attendance> records) {
+        Map<String, List<Attendance>> grouped = new LinkedHashMap<>();
+        for (Attendance attendance : records) {
+            String unitCode = String.valueOf(attendance.getUnitCode()).toUpperCase();
+            grouped.computeIfAbsent(unitCode, k -> new ArrayList<>()).add(attendance);
+        }
+        return grouped;
+    }
+
+    private static String dedupKey(Attendance attendance) {
+        String date = attendance.getDate() != null && attendance.getDate().length() >= 10
+                ? attendance.getDate().substring(0, 10) : String.valueOf(attendance.getDate());
+        return String.valueOf(attendance.getStudentId()).toUpperCase() + '|'
+                + String.valueOf(attendance.getUnitCode()).toUpperCase() + '|' + date + '|' + attendance.isPresent();
+    }
+
+    /**
+     * Told about every change to a unit's records (upper-case unit code; removed records went before
+     * added ones were put in). Called while the store's write lock is held, so it must be quick and
+     * must not call back into the store.
+     */
+    public interface ChangeListener {
+        void recordsChanged(String unitCode, Collection<Attendance> added, Collection<Attendance> removed);
+    }
+
+    /**
+     * A unit's record count, how many of those are present, and how many present ones are dated today
+     */
+    public record UnitStats(int totalRecords, int presentCount, int presentToday) {
+    }
+
+    // Running counts for one unit; presentOnDay counts present records dated day (yyyy-MM-dd), and
+    // writes counts every change so a read made outside the lock can tell whether it is still current
+    private static final class UnitTally {
+        long writes;
+        int records;
+        int present;
+        String day;
+        int presentOnDay;
+
+        UnitTally(String day) {
+            this.day = day;
+        }
+
+        void count(Attendance attendance, int sign) {
+            records += sign;
+            if (attendance.isPresent()) {
+                present += sign;
+                if (isOnDay(attendance)) presentOnDay += sign;
+            }
+        }
+
+        boolean isOnDay(Attendance attendance) {
+            return attendance.getDate() != null && attendance.getDate().startsWith(day);
+        }
+    }
+
+    // One unit's records; the list is replaced, never changed, so it can be handed out as is.
+    // Replaced under the lock, read without it by load's callers.
+    private static final class Shard {
+        volatile List<Attendance> records;
+        long version;
+        boolean dirty;
+
+        Shard(List<Attendance> records) {
+            this.records = Collections.unmodifiableList(records);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.mku.attendance.services;
 
+import com.mku.attendance.config.AppMetrics;
 import com.mku.attendance.entities.StudentData;
 import com.mku.attendance.entities.OTPVerification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.HashMap;
@@ -19,6 +21,12 @@ public class AuthService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Autowired
+    private Clock clock;
+
     @Value("${app.otp.length:6}")
     private int otpLength;
 
@@ -39,6 +47,10 @@ public class AuthService {
      * STUDENT LOGIN - FOR REACT FRONTEND (JSON RESPONSE)
      */
     public Map<String, Object> loginStudent(String studentId, String password) {
+        return appMetrics.timeResult("auth.login", () -> doLoginStudent(studentId, password), "role", "student", "channel", "api");
+    }
+
+    private Map<String, Object> doLoginStudent(String studentId, String password) {
         Map<String, Object> result = new HashMap<>();
 
         if (isAccountLocked(studentId)) {
@@ -86,6 +98,10 @@ public class AuthService {
      * STUDENT LOGIN FOR WEB FORM - Returns redirect info for Thymeleaf
      */
     public Map<String, Object> loginStudentForWeb(String studentId, String password) {
+        return appMetrics.timeResult("auth.login", () -> doLoginStudentForWeb(studentId, password), "role", "student", "channel", "web");
+    }
+
+    private Map<String, Object> doLoginStudentForWeb(String studentId, String password) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("🌐 Web login attempt for student: " + studentId);
@@ -137,6 +153,10 @@ public class AuthService {
      * Matches your Deno edge function logic
      */
     public Map<String, Object> initiatePasswordReset(String studentId, String email) {
+        return appMetrics.timeResult("auth.otp.issue", () -> doInitiatePasswordReset(studentId, email), "role", "student", "reason", "initial");
+    }
+
+    private Map<String, Object> doInitiatePasswordReset(String studentId, String email) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🚀 ===== PASSWORD RESET INITIATED =====");
@@ -200,7 +220,7 @@ public class AuthService {
 
         // Generate OTP (matches Deno function)
         String otp = generateOTP();
-        OTPVerification otpVerification = new OTPVerification(studentEmail, otp, otpExpiryMinutes);
+        OTPVerification otpVerification = new OTPVerification(studentEmail, otp, otpExpiryMinutes, clock);
         otpStore.put(studentEmail, otpVerification);
 
         // 🎯 ALWAYS LOG OTP TO CONSOLE (Guaranteed delivery)
@@ -261,6 +281,10 @@ public class AuthService {
      * VERIFY OTP ONLY - Without resetting password
      */
     public Map<String, Object> verifyOTP(String studentId, String otp) {
+        return appMetrics.timeResult("auth.otp.verify", () -> doVerifyOTP(studentId, otp), "role", "student", "reset", "false");
+    }
+
+    private Map<String, Object> doVerifyOTP(String studentId, String otp) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🔐 ===== OTP VERIFICATION ATTEMPT =====");
@@ -401,6 +425,10 @@ public class AuthService {
      * Matches your Deno edge function logic
      */
     public Map<String, Object> verifyOTPAndResetPassword(String studentId, String otp, String newPassword) {
+        return appMetrics.timeResult("auth.otp.verify", () -> doVerifyOTPAndResetPassword(studentId, otp, newPassword), "role", "student", "reset", "true");
+    }
+
+    private Map<String, Object> doVerifyOTPAndResetPassword(String studentId, String otp, String newPassword) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🔐 ===== OTP VERIFICATION ATTEMPT =====");
@@ -503,6 +531,10 @@ public class AuthService {
      * RESEND OTP - UPDATED FOR REACT FRONTEND
      */
     public Map<String, Object> resendOTP(String studentId) {
+        return appMetrics.timeResult("auth.otp.issue", () -> doResendOTP(studentId), "role", "student", "reason", "resend");
+    }
+
+    private Map<String, Object> doResendOTP(String studentId) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🔄 ===== RESENDING OTP =====");
@@ -533,7 +565,7 @@ public class AuthService {
 
         // Generate new OTP
         String newOtp = generateOTP();
-        OTPVerification otpVerification = new OTPVerification(studentEmail, newOtp, otpExpiryMinutes);
+        OTPVerification otpVerification = new OTPVerification(studentEmail, newOtp, otpExpiryMinutes, clock);
         otpStore.put(studentEmail, otpVerification);
 
         // 🎯 ALWAYS LOG NEW OTP TO CONSOLE
@@ -677,7 +709,7 @@ public class AuthService {
         LocalDateTime lockTime = accountLocks.get(studentId);
         if (lockTime == null) return false;
 
-        if (LocalDateTime.now().isAfter(lockTime.plusMinutes(30))) {
+        if (LocalDateTime.now(clock).isAfter(lockTime.plusMinutes(30))) {
             accountLocks.remove(studentId);
             loginAttempts.remove(studentId);
             return false;
@@ -686,7 +718,7 @@ public class AuthService {
     }
 
     private void lockAccount(String studentId) {
-        accountLocks.put(studentId, LocalDateTime.now());
+        accountLocks.put(studentId, LocalDateTime.now(clock));
     }
 
     // ==== MAINTENANCE METHODS ====
@@ -715,7 +747,7 @@ public class AuthService {
                 info.put("expiresAt", otp.getExpiresAt().toString());
 
                 if (!otp.isExpired()) {
-                    long remainingMinutes = java.time.Duration.between(LocalDateTime.now(), otp.getExpiresAt()).toMinutes();
+                    long remainingMinutes = java.time.Duration.between(LocalDateTime.now(clock), otp.getExpiresAt()).toMinutes();
                     info.put("remainingMinutes", remainingMinutes);
                     info.put("expiresIn", remainingMinutes + " minutes");
                 } else {
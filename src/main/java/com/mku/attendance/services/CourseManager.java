@@ -45,6 +45,10 @@ public class CourseManager {
         return new HashMap<>(courses);
     }
 
+    public int getCourseCount() {
+        return courses.size();
+    }
+
     public Map<String, Course> getCourseDatabase() {
         return new HashMap<>(courses);
     }
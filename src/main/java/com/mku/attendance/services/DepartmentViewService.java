@@ -0,0 +1,164 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.entities.Course;
+import com.mku.attendance.entities.HOD;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the HOD dashboard shows, scoped to the HOD's own courses: HOD -> courses -> units ->
+ * rosters, with the attendance totals of those units.
+ *
+ * The structure (which units each course has and how many students are on their rosters) is joined
+ * once per HOD and kept while the parts it was joined from are unchanged: UnitManager keeps a
+ * version per course and StudentManager one per unit roster, and a view is rebuilt on its next
+ * read only when the HOD's course list or one of those versions has moved, so a change elsewhere
+ * in the faculty leaves it alone. Course names and the lecturer count come from the managers'
+ * indexes on each read. The attendance totals are read per unit from AttendanceStore's running
+ * counts, which follow every check-in, so rendering the dashboard walks only the HOD's units rather
+ * than every student and record.
+ */
+@Service
+public class DepartmentViewService {
+
+    private static final Logger log = LoggerFactory.getLogger(DepartmentViewService.class);
+
+    @Autowired
+    private HODManager hodManager;
+
+    @Autowired
+    private CourseManager courseManager;
+
+    @Autowired
+    private UnitManager unitManager;
+
+    @Autowired
+    private StudentManager studentManager;
+
+    @Autowired
+    private AttendanceStore attendanceStore;
+
+    // HOD id -> the structure last joined for that HOD
+    private final Map<String, Structure> structures = new ConcurrentHashMap<>();
+
+    public DepartmentView getView(HOD hod) {
+        Set<String> courseCodes = courseCodes(hod);
+        Structure structure = structures.get(hod.getId());
+        if (structure == null || !structure.isCurrent(courseCodes, unitManager, studentManager)) {
+            structure = build(hod, courseCodes);
+            structures.put(hod.getId(), structure);
+        }
+
+        List<CourseSummary> courses = new ArrayList<>();
+        Set<String> lecturers = new HashSet<>();
+        int totalRecords = 0;
+        int presentCount = 0;
+        int presentToday = 0;
+        for (CourseUnits course : structure.courses) {
+            int courseRecords = 0;
+            int coursePresent = 0;
+            for (String unitCode : course.unitCodes) {
+                AttendanceStore.UnitStats stats = attendanceStore.getUnitStats(unitCode);
+                courseRecords += stats.totalRecords();
+                coursePresent += stats.presentCount();
+                presentToday += stats.presentToday();
+                lecturers.addAll(hodManager.getUnitLecturers(unitCode));
+            }
+            lecturers.addAll(hodManager.getCourseLecturers(course.code));
+            totalRecords += courseRecords;
+            presentCount += coursePresent;
+            Course details = courseManager.getCourse(course.code);
+            String name = details != null ? details.getName() : course.code;
+            courses.add(new CourseSummary(course.code, name, course.unitCodes.size(), course.students,
+                    courseRecords, coursePresent, rate(coursePresent, courseRecords)));
+        }
+        return new DepartmentView(hod.getDepartment(), courses, structure.unitCount, structure.studentCount,
+                lecturers.size(), totalRecords, presentCount, presentToday, rate(presentCount, totalRecords));
+    }
+
+    private static Set<String> courseCodes(HOD hod) {
+        Set<String> courseCodes = new TreeSet<>();
+        for (String courseCode : hod.getCourses()) {
+            if (courseCode != null && !courseCode.isBlank()) {
+                courseCodes.add(courseCode.trim().toUpperCase());
+            }
+        }
+        return courseCodes;
+    }
+
+    // Versions are read before the data they cover, so a write landing mid-build leaves the
+    // structure stale rather than wrong
+    private Structure build(HOD hod, Set<String> courseCodes) {
+        long start = System.nanoTime();
+        Map<String, Long> courseVersions = new HashMap<>();
+        Map<String, Long> rosterVersions = new HashMap<>();
+        List<CourseUnits> courses = new ArrayList<>();
+        Set<String> unitCodes = new HashSet<>();
+        Set<String> departmentStudents = new HashSet<>();
+        for (String courseCode : courseCodes) {
+            courseVersions.put(courseCode, unitManager.getCourseVersion(courseCode));
+            List<String> courseUnits = new ArrayList<>(new TreeSet<>(unitManager.getUnitCodesByCourse(courseCode)));
+            Set<String> courseStudents = new HashSet<>();
+            for (String unitCode : courseUnits) {
+                unitCodes.add(unitCode.toUpperCase());
+                rosterVersions.put(unitCode.toUpperCase(), studentManager.getRosterVersion(unitCode));
+                courseStudents.addAll(studentManager.getUnitRoster(unitCode));
+            }
+            departmentStudents.addAll(courseStudents);
+            courses.add(new CourseUnits(courseCode, List.copyOf(courseUnits), courseStudents.size()));
+        }
+
+        log.atDebug().addKeyValue("hodId", hod.getId()).addKeyValue("courses", courses.size())
+                .addKeyValue("units", unitCodes.size()).addKeyValue("students", departmentStudents.size())
+                .addKeyValue("millis", (System.nanoTime() - start) / 1_000_000)
+                .log("Department view rebuilt");
+        return new Structure(Set.copyOf(courseCodes), courseVersions, rosterVersions, courses, unitCodes.size(),
+                departmentStudents.size());
+    }
+
+    private static double rate(int present, int total) {
+        return total > 0 ? Math.round(present * 1000.0 / total) / 10.0 : 0.0;
+    }
+
+    /**
+     * A HOD's department as the dashboard shows it; attendanceRate is a percentage to one decimal
+     */
+    public record DepartmentView(String department, List<CourseSummary> courses, int unitCount, int studentCount,
+                                 int lecturerCount, int totalRecords, int presentCount, int presentToday,
+                                 double attendanceRate) {
+    }
+
+    public record CourseSummary(String code, String name, int unitCount, int studentCount, int totalRecords,
+                                int presentCount, double attendanceRate) {
+    }
+
+    private record CourseUnits(String code, List<String> unitCodes, int students) {
+    }
+
+    private record Structure(Set<String> courseCodes, Map<String, Long> courseVersions,
+                             Map<String, Long> rosterVersions, List<CourseUnits> courses, int unitCount,
+                             int studentCount) {
+
+        boolean isCurrent(Set<String> currentCourses, UnitManager unitManager, StudentManager studentManager) {
+            if (!courseCodes.equals(currentCourses)) return false;
+            for (Map.Entry<String, Long> entry : courseVersions.entrySet()) {
+                if (unitManager.getCourseVersion(entry.getKey()) != entry.getValue()) return false;
+            }
+            for (Map.Entry<String, Long> entry : rosterVersions.entrySet()) {
+                if (studentManager.getRosterVersion(entry.getKey()) != entry.getValue()) return false;
+            }
+            return true;
+        }
+    }
+}
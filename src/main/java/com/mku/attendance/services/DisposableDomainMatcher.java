@@ -0,0 +1,268 @@
+package com.mku.attendance.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Disposable/blocked email domain lookup backed by attendance_data/disposable_domains.txt, which is
+ * seeded from the disposable_domains.txt on the classpath when missing.
+ * Domains are stored in a trie keyed by reversed labels (com -> mailinator -> ...), so a lookup
+ * costs one map hit per label of the queried domain and also matches every subdomain of a listed
+ * domain. The file is watched and the trie is rebuilt and swapped in whenever it changes.
+ */
+@Service
+public class DisposableDomainMatcher {
+
+    private static final String DOMAINS_FILE_NAME = "disposable_domains.txt";
+
+    // Seed list (on the classpath) copied to the data file the first time the service starts
+    private static final String DEFAULT_DOMAINS_RESOURCE = "/disposable_domains.txt";
+
+    // Keyword fallback for disposable services that are not on the list yet
+    private static final String[] DISPOSABLE_KEYWORDS = {
+            "temp", "fake", "trash", "throwaway", "spam", "temporary", "disposable"
+    };
+
+    private final Path domainsFile;
+    private volatile DomainTrie trie = new DomainTrie();
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    @Autowired
+    public DisposableDomainMatcher(FileDataService fileDataService) {
+        this(Paths.get(fileDataService.getDataDirectory(), DOMAINS_FILE_NAME));
+    }
+
+    public DisposableDomainMatcher(Path domainsFile) {
+        this.domainsFile = domainsFile;
+    }
+
+    /**
+     * Seed the data file if there is none, load it, and start watching it for changes
+     */
+    @PostConstruct
+    public void init() {
+        createDefaultDomainsFile();
+        reload();
+        startWatching();
+    }
+
+    /**
+     * True if the domain, or any parent domain of it, is on the blocked list
+     */
+    public boolean isBlockedDomain(String domain) {
+        if (domain == null || domain.isEmpty()) {
+            return false;
+        }
+        return trie.matches(normalize(domain));
+    }
+
+    /**
+     * Check if email is from disposable/temporary email service
+     */
+    public boolean isDisposableEmail(String email) {
+        if (email == null) return true;
+
+        String domain = normalize(email.substring(email.indexOf('@') + 1));
+        if (trie.matches(domain)) {
+            return true;
+        }
+
+        for (String keyword : DISPOSABLE_KEYWORDS) {
+            if (domain.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lower case, without surrounding spaces or the trailing dot of a fully qualified name ("mailinator.com.")
+    private static String normalize(String domain) {
+        String normalized = domain.trim().toLowerCase();
+        int end = normalized.length();
+        while (end > 0 && normalized.charAt(end - 1) == '.') {
+            end--;
+        }
+        return normalized.substring(0, end);
+    }
+
+    public int getDomainCount() {
+        return trie.size();
+    }
+
+    public Path getDomainsFile() {
+        return domainsFile;
+    }
+
+    /**
+     * Rebuild the trie from the data file and swap it in. Readers keep using the
+     * previous trie until the new one is complete.
+     */
+    public void reload() {
+        if (!Files.exists(domainsFile)) {
+            System.out.println("ℹ️ No disposable domains file found: " + domainsFile + " (keeping " + trie.size() + " domains)");
+            return;
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(domainsFile, StandardCharsets.UTF_8);
+            DomainTrie rebuilt = new DomainTrie();
+            for (String line : lines) {
+                rebuilt.add(line);
+            }
+            trie = rebuilt;
+            System.out.println("✅ Disposable domains loaded: " + rebuilt.size() + " domains from " + domainsFile);
+        } catch (IOException e) {
+            System.err.println("❌ Error loading disposable domains: " + e.getMessage());
+        }
+    }
+
+    private void createDefaultDomainsFile() {
+        if (Files.exists(domainsFile)) {
+            return;
+        }
+        try (InputStream defaults = DisposableDomainMatcher.class.getResourceAsStream(DEFAULT_DOMAINS_RESOURCE)) {
+            if (defaults == null) {
+                System.err.println("❌ Default disposable domains list missing from the classpath: " + DEFAULT_DOMAINS_RESOURCE);
+                return;
+            }
+            Files.createDirectories(domainsFile.toAbsolutePath().getParent());
+            Files.copy(defaults, domainsFile);
+            System.out.println("✅ Default disposable domains file created: " + domainsFile);
+        } catch (IOException e) {
+            System.err.println("❌ Failed to create disposable domains file: " + e.getMessage());
+        }
+    }
+
+    // ========== FILE WATCHER ==========
+
+    private void startWatching() {
+        Path directory = domainsFile.toAbsolutePath().getParent();
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("⚠️ Disposable domains hot-reload disabled: " + e.getMessage());
+            return;
+        }
+
+        watcherThread = new Thread(this::watchLoop, "disposable-domains-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        System.out.println("👀 Watching " + domainsFile + " for changes");
+    }
+
+    @PreDestroy
+    public void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("⚠️ Error closing disposable domains watcher: " + e.getMessage());
+            }
+        }
+    }
+
+    private void watchLoop() {
+        Path fileName = domainsFile.getFileName();
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (fileName.equals(event.context())) {
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                reload();
+            }
+
+            if (!key.reset()) {
+                return;
+            }
+        }
+    }
+
+    // ========== REVERSED-LABEL TRIE ==========
+
+    private static class DomainTrie {
+        private final Node root = new Node();
+        private int size;
+
+        void add(String line) {
+            String domain = normalize(line);
+            if (domain.isEmpty() || domain.startsWith("#")) {
+                return;
+            }
+            if (domain.startsWith("*.")) {
+                domain = domain.substring(2);
+            } else if (domain.startsWith(".")) {
+                domain = domain.substring(1);
+            }
+
+            Node node = root;
+            int end = domain.length();
+            while (end > 0) {
+                int dot = domain.lastIndexOf('.', end - 1);
+                String label = domain.substring(dot + 1, end);
+                node = node.children.computeIfAbsent(label, k -> new Node());
+                end = dot;
+            }
+            if (node != root && !node.terminal) {
+                node.terminal = true;
+                size++;
+            }
+        }
+
+        boolean matches(String domain) {
+            Node node = root;
+            int end = domain.length();
+            while (end > 0) {
+                int dot = domain.lastIndexOf('.', end - 1);
+                node = node.children.get(domain.substring(dot + 1, end));
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+                end = dot;
+            }
+            return false;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,386 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.config.AppMetrics;
+import com.mku.attendance.config.AppThreads;
+import com.mku.attendance.entities.OutboundEmail;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable outbound email queue. Every message is written to attendance_data/outbox/ before the
+ * caller returns, so nothing is lost on restart. A single dispatcher thread picks due messages,
+ * groups them into batches and hands each batch to a small sender pool; the number of batches
+ * talking to SMTP at once is capped by max-concurrency. Failed messages are retried with
+ * exponential backoff and moved to outbox/dead/ after max-attempts.
+ *
+ * Messages marked memory-only (OTPs) are the exception: they are never written to disk, are
+ * dropped rather than dead-lettered, and are discarded once they expire.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private FileDataService fileDataService;
+
+    @Autowired
+    private AppThreads appThreads;
+
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Autowired
+    private Clock clock;
+
+    @Value("${app.email.outbox.max-concurrency:2}")
+    private int maxConcurrency;
+
+    @Value("${app.email.outbox.batch-size:10}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${app.email.outbox.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    private final Map<String, OutboundEmail> pending = new ConcurrentHashMap<>();
+    private final Map<String, String> idsByDedupeKey = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    // ReentrantLock rather than synchronized: enqueue writes to disk while holding it, and a
+    // virtual thread blocked in I/O inside a synchronized block would pin its carrier thread
+    private final ReentrantLock queueLock = new ReentrantLock();
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService senders;
+    private Semaphore sendPermits;
+
+    @PostConstruct
+    public void start() {
+        for (OutboundEmail email : fileDataService.loadOutboundEmails()) {
+            if ("OTP".equals(email.getType())) {
+                // Written by an older version; the code is stale and should not stay on disk
+                fileDataService.deleteOutboundEmail(email.getId());
+                continue;
+            }
+            pending.put(email.getId(), email);
+            if (email.getDedupeKey() != null) {
+                idsByDedupeKey.put(email.getDedupeKey(), email.getId());
+            }
+        }
+
+        int purged = fileDataService.deleteDeadLetteredEmails("OTP");
+        if (purged > 0) {
+            log.atInfo().addKeyValue("purged", purged).log("Deleted dead-lettered OTP emails");
+        }
+
+        sendPermits = new Semaphore(Math.max(1, maxConcurrency));
+        senders = Executors.newFixedThreadPool(Math.max(1, maxConcurrency), appThreads.factory("email-sender-"));
+        dispatcher = Executors.newSingleThreadScheduledExecutor(appThreads.factory("email-outbox-"));
+        dispatcher.scheduleWithFixedDelay(this::dispatchSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+
+        log.atInfo().addKeyValue("pending", pending.size()).addKeyValue("maxConcurrency", maxConcurrency)
+                .addKeyValue("batchSize", batchSize).log("Email outbox started");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+        if (senders != null) {
+            senders.shutdown();
+            try {
+                senders.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.atInfo().addKeyValue("pending", pending.size()).log("Email outbox stopped; pending messages stay on disk");
+    }
+
+    /**
+     * Queue a message for delivery. If it carries a dedupe key and an earlier message with the
+     * same key has not been picked up yet, the earlier one is replaced (e.g. a re-requested OTP).
+     */
+    public void enqueue(OutboundEmail email) {
+        queueLock.lock();
+        try {
+            String key = email.getDedupeKey();
+            if (key != null) {
+                String previousId = idsByDedupeKey.get(key);
+                if (previousId != null && !inFlight.contains(previousId) && pending.remove(previousId) != null) {
+                    fileDataService.deleteOutboundEmail(previousId);
+                    deduplicatedCount.incrementAndGet();
+                    appMetrics.countEmailMessages(email.getType(), "deduplicated", 1);
+                    log.atInfo().addKeyValue("type", email.getType()).addKeyValue("to", email.getToEmail())
+                            .log("Replaced queued email");
+                }
+            }
+
+            if (!email.isMemoryOnly()) {
+                try {
+                    fileDataService.saveOutboundEmail(email);
+                } catch (IOException e) {
+                    // Still deliver from memory, it just won't survive a restart
+                    log.atWarn().addKeyValue("emailId", email.getId()).addKeyValue("error", e.getMessage())
+                            .log("Could not persist queued email");
+                }
+            }
+            pending.put(email.getId(), email);
+            if (key != null) {
+                idsByDedupeKey.put(key, email.getId());
+            }
+            appMetrics.countEmailMessages(email.getType(), "queued", 1);
+            log.atInfo().addKeyValue("type", email.getType()).addKeyValue("to", email.getToEmail())
+                    .addKeyValue("queueDepth", pending.size()).log("Queued email");
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    // ========== DISPATCH ==========
+
+    private void dispatchSafely() {
+        try {
+            dispatch();
+        } catch (Exception e) {
+            log.atError().setCause(e).log("Email outbox dispatch error");
+        }
+    }
+
+    private void dispatch() {
+        while (sendPermits.tryAcquire()) {
+            List<OutboundEmail> batch = takeDueBatch();
+            if (batch.isEmpty()) {
+                sendPermits.release();
+                return;
+            }
+            try {
+                senders.execute(() -> {
+                    try {
+                        sendBatch(batch);
+                    } finally {
+                        sendPermits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                batch.forEach(email -> inFlight.remove(email.getId()));
+                sendPermits.release();
+                throw e;
+            }
+        }
+    }
+
+    private List<OutboundEmail> takeDueBatch() {
+        queueLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            for (OutboundEmail email : List.copyOf(pending.values())) {
+                if (email.isExpired(now) && !inFlight.contains(email.getId())) {
+                    forget(email);
+                    appMetrics.countEmailMessages(email.getType(), "expired", 1);
+                    log.atInfo().addKeyValue("type", email.getType()).addKeyValue("to", email.getToEmail())
+                            .log("Dropped expired email");
+                }
+            }
+            List<OutboundEmail> batch = pending.values().stream()
+                    .filter(email -> !inFlight.contains(email.getId()))
+                    .filter(email -> email.isDue(now))
+                    .sorted(Comparator.comparing(OutboundEmail::getNextAttemptAt,
+                            Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .limit(Math.max(1, batchSize))
+                    .toList();
+            batch.forEach(email -> inFlight.add(email.getId()));
+            return batch;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private void sendBatch(List<OutboundEmail> batch) {
+        Map<SimpleMailMessage, OutboundEmail> byMessage = new IdentityHashMap<>();
+        for (OutboundEmail email : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(email.getFromEmail());
+            message.setTo(email.getToEmail());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            byMessage.put(message, email);
+        }
+
+        Map<Object, Exception> failures = new HashMap<>();
+        Exception batchFailure = null;
+        Timer.Sample sample = appMetrics.start();
+        try {
+            // One SMTP connection for the whole batch
+            mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            batchFailure = e;
+        } catch (MailException e) {
+            batchFailure = e;
+        } finally {
+            appMetrics.stop(sample, "email.send", "outcome", batchFailure == null ? "success"
+                    : failures.isEmpty() || failures.size() >= byMessage.size() ? "failure" : "partial");
+        }
+
+        for (Map.Entry<SimpleMailMessage, OutboundEmail> entry : byMessage.entrySet()) {
+            OutboundEmail email = entry.getValue();
+            Exception error = failures.isEmpty() ? batchFailure : failures.get(entry.getKey());
+            if (error == null) {
+                markSent(email);
+            } else {
+                markFailed(email, error);
+            }
+        }
+    }
+
+    // Take a message out of the queue and off disk
+    private void forget(OutboundEmail email) {
+        pending.remove(email.getId());
+        if (email.getDedupeKey() != null) {
+            idsByDedupeKey.remove(email.getDedupeKey(), email.getId());
+        }
+        if (!email.isMemoryOnly()) {
+            fileDataService.deleteOutboundEmail(email.getId());
+        }
+    }
+
+    private void markSent(OutboundEmail email) {
+        forget(email);
+        inFlight.remove(email.getId());
+        sentCount.incrementAndGet();
+        appMetrics.countEmailMessages(email.getType(), "sent", 1);
+        log.atInfo().addKeyValue("type", email.getType()).addKeyValue("to", email.getToEmail())
+                .addKeyValue("attempt", email.getAttempts() + 1).log("Email sent");
+    }
+
+    private void markFailed(OutboundEmail email, Exception error) {
+        failedAttemptCount.incrementAndGet();
+        appMetrics.countEmailMessages(email.getType(), "failed", 1);
+        email.setAttempts(email.getAttempts() + 1);
+        email.setLastError(error.getMessage());
+
+        if (email.getAttempts() >= maxAttempts || email.isExpired(LocalDateTime.now(clock))) {
+            forget(email);
+            if (!email.isMemoryOnly()) {
+                fileDataService.moveOutboundEmailToDeadLetter(email);
+            }
+            inFlight.remove(email.getId());
+            deadLetterCount.incrementAndGet();
+            appMetrics.countEmailMessages(email.getType(), "dead_lettered", 1);
+            log.atError().addKeyValue("type", email.getType()).addKeyValue("to", email.getToEmail())
+                    .addKeyValue("attempts", email.getAttempts()).addKeyValue("error", error.getMessage())
+                    .log("Giving up on email");
+            return;
+        }
+
+        long delayMs = backoffMillis(email.getAttempts());
+        email.setNextAttemptAt(LocalDateTime.now(clock).plus(Duration.ofMillis(delayMs)));
+        if (!email.isMemoryOnly()) {
+            try {
+                fileDataService.saveOutboundEmail(email);
+            } catch (IOException e) {
+                log.atWarn().addKeyValue("emailId", email.getId()).addKeyValue("error", e.getMessage())
+                        .log("Could not persist email retry state");
+            }
+        }
+        inFlight.remove(email.getId());
+        log.atWarn().addKeyValue("type", email.getType()).addKeyValue("to", email.getToEmail())
+                .addKeyValue("attempt", email.getAttempts()).addKeyValue("maxAttempts", maxAttempts)
+                .addKeyValue("retryInSeconds", delayMs / 1000).addKeyValue("error", error.getMessage())
+                .log("Email failed, will retry");
+    }
+
+    // initial * 2^(attempt-1), capped, with +/-20% jitter so a burst of failures does not retry in lockstep
+    private long backoffMillis(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        long delay = Math.min(maxBackoffMs, initialBackoffMs << shift);
+        if (delay <= 0) {
+            delay = maxBackoffMs;
+        }
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (delay * jitter);
+    }
+
+    // ========== STATS ==========
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getOldestMessageAgeSeconds() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return pending.values().stream()
+                .map(OutboundEmail::getCreatedAt)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .map(created -> Duration.between(created, now).getSeconds())
+                .orElse(0L);
+    }
+
+    public Map<String, Object> getQueueStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("depth", pending.size());
+        stats.put("inFlight", inFlight.size());
+        stats.put("oldestAgeSeconds", getOldestMessageAgeSeconds());
+        stats.put("sent", sentCount.get());
+        stats.put("failedAttempts", failedAttemptCount.get());
+        stats.put("deadLettered", deadLetterCount.get());
+        stats.put("deduplicated", deduplicatedCount.get());
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("batchSize", batchSize);
+        return stats;
+    }
+}
@@ -1,38 +1,70 @@
 package com.mku.attendance.services;
 
+import com.mku.attendance.config.AppMetrics;
+import com.mku.attendance.config.AppThreads;
+import com.mku.attendance.config.PooledMailSender;
+import com.mku.attendance.entities.OutboundEmail;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.HashMap;
-import javax.naming.directory.DirContext;
-import javax.naming.directory.InitialDirContext;
-import javax.naming.NamingException;
-import java.util.Hashtable;
 import java.util.regex.Pattern;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
 import java.io.IOException;
 import java.net.Socket;
-import javax.net.SocketFactory;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class EmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private DisposableDomainMatcher disposableDomainMatcher;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private MxResolver mxResolver;
+
+    @Autowired
+    private AppMetrics appMetrics;
+
     @Value("${app.email.from:no-reply@mku.ac.ke}")
     private String fromEmail;
 
@@ -51,67 +83,93 @@ public class EmailService {
     @Value("${spring.mail.username:}")
     private String mailUsername;
 
+    @Value("${app.email.verification.smtp-timeout-ms:5000}")
+    private int smtpVerificationTimeoutMs;
+
+    @Value("${app.email.verification.deadline-ms:10000}")
+    private long smtpVerificationDeadlineMs;
+
+    @Value("${app.email.verification.max-mx-hosts:3}")
+    private int maxMxHostsToTry;
+
+    @Value("${app.email.verification.max-concurrent:16}")
+    private int maxConcurrentValidations;
+
+    @Autowired
+    private AppThreads appThreads;
+
+    @Autowired
+    private Clock clock;
+
+    // SMTP probes and bulk validation block on network I/O: one thread per task when virtual
+    // threads are enabled, otherwise a cached pool of platform threads
+    private ExecutorService verificationExecutor;
+
     // Enhanced email validation patterns
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
             "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
     );
 
-    // Expanded list of disposable email domains
-    private static final String[] DISPOSABLE_DOMAINS = {
-            "tempmail.com", "guerrillamail.com", "mailinator.com", "10minutemail.com",
-            "throwawaymail.com", "fakeinbox.com", "yopmail.com", "trashmail.com",
-            "temp-mail.org", "disposableemail.com", "getairmail.com", "maildrop.cc",
-            "sharklasers.com", "guerrillamail.net", "grr.la", "guerrillamail.biz",
-            "spam4.me", "fake-mail.com", "mailnesia.com", "mailcatch.com",
-            "tempinbox.com", "emailondeck.com", "tmpmail.org", "mail-temp.com",
-            "temp-mail.io", "mail-temporaire.com", "temporary-mail.net", "tempomail.fr",
-            "emailtemp.com", "tempmail.net", "temp-mail.com", "temporarymail.com",
-            "mailinator.net", "mailinator.org", "mailinator2.com", "mailinator3.com",
-            "mailinator4.com", "mailinator5.com", "mailinator6.com", "mailinator7.com",
-            "mailinator8.com", "mailinator9.com", "mailinator10.com"
-    };
+    @PostConstruct
+    public void startVerificationExecutor() {
+        ThreadFactory threads = appThreads.factory("email-verify-");
+        verificationExecutor = appThreads.isVirtualEnabled()
+                ? Executors.newThreadPerTaskExecutor(threads)
+                : Executors.newCachedThreadPool(threads);
+    }
 
     /**
      * REAL EMAIL VERIFICATION - Check if email is ACTIVE and REGISTERED
      */
     public boolean validateEmailExistence(String email) {
-        System.out.println("🔍 REAL EMAIL VERIFICATION for: " + email);
+        Timer.Sample sample = appMetrics.start();
+        boolean valid = false;
+        try {
+            valid = doValidateEmailExistence(email);
+            return valid;
+        } finally {
+            appMetrics.stop(sample, "email.validation", "result", valid ? "valid" : "invalid");
+        }
+    }
+
+    private boolean doValidateEmailExistence(String email) {
+        log.debug("REAL EMAIL VERIFICATION for: {}", email);
 
         try {
             // Step 1: Basic email format validation
             if (!isValidEmailFormat(email)) {
-                System.out.println("❌ Invalid email format: " + email);
+                log.info("Invalid email format: {}", email);
                 return false;
             }
 
             // Step 2: Check for disposable/temporary emails
             if (isDisposableEmail(email)) {
-                System.out.println("❌ Disposable email detected: " + email);
+                log.info("Disposable email detected: {}", email);
                 return false;
             }
 
             // Step 3: Extract domain
             String domain = extractDomain(email);
-            System.out.println("🌐 Checking domain: " + domain);
+            log.debug("Checking domain: {}", domain);
 
             // Step 4: Check domain has MX records
             if (!checkMXRecords(domain)) {
-                System.out.println("❌ Domain has no MX records: " + domain);
+                log.info("Domain has no MX records: {}", domain);
                 return false;
             }
 
             // Step 5: REAL SMTP VERIFICATION - Check if email actually exists
             boolean emailExists = verifyEmailViaSMTP(email);
             if (!emailExists) {
-                System.out.println("❌ Email account does not exist or cannot receive emails: " + email);
+                log.info("Email account does not exist or cannot receive emails: {}", email);
                 return false;
             }
 
-            System.out.println("✅ REAL EMAIL VERIFICATION PASSED: " + email + " is ACTIVE and REGISTERED");
+            log.info("REAL EMAIL VERIFICATION PASSED: {} is ACTIVE and REGISTERED", email);
             return true;
 
         } catch (Exception e) {
-            System.err.println("❌ Email verification failed for " + email + ": " + e.getMessage());
+            log.warn("Email verification failed for {}: {}", email, e.getMessage());
             return false;
         }
     }
@@ -120,80 +178,120 @@ public class EmailService {
      * REAL SMTP VERIFICATION - Check if email account actually exists and is active
      */
     private boolean verifyEmailViaSMTP(String email) {
-        System.out.println("🔍 Performing REAL SMTP verification for: " + email);
+        log.debug("Performing REAL SMTP verification for: {}", email);
 
         String domain = extractDomain(email);
 
         try {
             // Get MX records for the domain
-            String mxRecord = getMXRecord(domain);
-            if (mxRecord == null) {
-                System.out.println("❌ No MX record found for domain: " + domain);
+            List<String> mxHosts = mxResolver.resolveMx(domain);
+            if (mxHosts.isEmpty()) {
+                log.info("No MX record found for domain: {}", domain);
                 return false;
             }
 
-            System.out.println("📧 Found MX record: " + mxRecord);
+            log.debug("Found MX records: {}", mxHosts);
 
-            // Perform full SMTP verification
-            return performFullSmtpVerification(mxRecord, email, domain);
+            // Ask several MX hosts at once, the first one that answers decides
+            return verifyAgainstMxHosts(mxHosts, email, domain);
 
         } catch (Exception e) {
-            System.err.println("❌ SMTP verification failed: " + e.getMessage());
+            log.warn("SMTP verification failed: {}", e.getMessage());
             // Fallback: if SMTP fails, check if domain is reachable
             return isDomainReachable(domain);
         }
     }
 
     /**
-     * Perform full SMTP conversation to verify email existence
+     * Run the SMTP conversation against up to max-mx-hosts servers in parallel and take the first
+     * definite answer. Hosts that cannot be reached don't count; if none answers, the address fails.
+     */
+    private boolean verifyAgainstMxHosts(List<String> mxHosts, String email, String domain) throws InterruptedException {
+        List<String> candidates = mxHosts.subList(0, Math.min(mxHosts.size(), Math.max(1, maxMxHostsToTry)));
+        CompletionService<Boolean> completion = new ExecutorCompletionService<>(verificationExecutor);
+        List<Future<Boolean>> probes = candidates.stream()
+                .map(host -> completion.submit(() -> performFullSmtpVerification(host, email, domain)))
+                .toList();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(smtpVerificationDeadlineMs);
+        try {
+            for (int i = 0; i < probes.size(); i++) {
+                Future<Boolean> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    log.info("SMTP verification deadline reached for: {}", email);
+                    return false;
+                }
+                try {
+                    Boolean answer = done.get();
+                    if (answer != null) {
+                        return answer;
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("SMTP probe failed: {}", e.getCause().getMessage());
+                }
+            }
+            return false;
+        } finally {
+            probes.forEach(probe -> probe.cancel(true));
+        }
+    }
+
+    /**
+     * Perform full SMTP conversation to verify email existence.
+     * Returns null if the server could not be reached or did not complete the conversation.
      */
-    private boolean performFullSmtpVerification(String mxRecord, String email, String domain) {
-        System.out.println("🔧 Starting full SMTP verification for: " + email);
+    private Boolean performFullSmtpVerification(String mxRecord, String email, String domain) {
+        log.debug("Starting full SMTP verification for: {} via {}", email, mxRecord);
 
-        try (Socket socket = SocketFactory.getDefault().createSocket(mxRecord, 25)) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(mxRecord, 25), smtpVerificationTimeoutMs);
+            socket.setSoTimeout(smtpVerificationTimeoutMs);
             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
             PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
 
             // Read welcome message
             String response = reader.readLine();
-            System.out.println("📧 SMTP Server: " + response);
-            if (!response.startsWith("220")) {
-                System.out.println("❌ SMTP server not ready");
-                return false;
+            log.debug("SMTP Server: {}", response);
+            if (response == null || !response.startsWith("220")) {
+                log.debug("SMTP server not ready");
+                return null;
             }
 
             // Send EHLO
             writer.println("EHLO " + domain);
             response = reader.readLine();
-            System.out.println("📧 EHLO Response: " + response);
-            if (!response.startsWith("250")) {
-                System.out.println("❌ EHLO failed");
-                return false;
+            log.debug("EHLO Response: {}", response);
+            if (response == null || !response.startsWith("250")) {
+                log.debug("EHLO failed");
+                return null;
             }
 
             // Read additional EHLO responses
-            while (response.startsWith("250-")) {
+            while (response != null && response.startsWith("250-")) {
                 response = reader.readLine();
-                System.out.println("📧 EHLO Additional: " + response);
+                log.debug("EHLO Additional: {}", response);
             }
 
             // Send MAIL FROM
             writer.println("MAIL FROM: <test@" + domain + ">");
             response = reader.readLine();
-            System.out.println("📧 MAIL FROM Response: " + response);
-            if (!response.startsWith("250")) {
-                System.out.println("❌ MAIL FROM failed");
-                return false;
+            log.debug("MAIL FROM Response: {}", response);
+            if (response == null || !response.startsWith("250")) {
+                log.debug("MAIL FROM failed");
+                return null;
             }
 
             // Send RCPT TO (this is where we check if email exists)
             writer.println("RCPT TO: <" + email + ">");
             response = reader.readLine();
-            System.out.println("📧 RCPT TO Response: " + response);
+            log.debug("RCPT TO Response: {}", response);
+            if (response == null) {
+                return null;
+            }
 
             // Check if recipient is accepted
             boolean emailExists = response.startsWith("250");
-            System.out.println("✅ Email existence check: " + (emailExists ? "EXISTS" : "DOES NOT EXIST"));
+            log.debug("Email existence check: {}", (emailExists ? "EXISTS" : "DOES NOT EXIST"));
 
             // Send QUIT
             writer.println("QUIT");
@@ -202,49 +300,68 @@ public class EmailService {
             return emailExists;
 
         } catch (IOException e) {
-            System.err.println("❌ SMTP connection failed: " + e.getMessage());
-            return false;
+            log.warn("SMTP connection to {} failed: {}", mxRecord, e.getMessage());
+            return null;
         }
     }
 
     /**
-     * Get MX record for domain
+     * Validate many addresses at once (bulk registration). Each address gets the full
+     * validateEmailExistence check; at most max-concurrent run at the same time. Permits are taken
+     * before submitting, so platform threads are not parked waiting for one.
      */
-    private String getMXRecord(String domain) {
-        try {
-            Hashtable<String, String> env = new Hashtable<>();
-            env.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
-            env.put("com.sun.jndi.dns.timeout.initial", "3000");
-            env.put("com.sun.jndi.dns.timeout.retries", "2");
-
-            DirContext ictx = new InitialDirContext(env);
-            javax.naming.directory.Attributes attrs = ictx.getAttributes(domain, new String[]{"MX"});
-
-            if (attrs.get("MX") != null) {
-                String mxRecord = attrs.get("MX").get().toString();
-                // Extract the mail server from MX record
-                String[] parts = mxRecord.split("\\s+");
-                if (parts.length >= 2) {
-                    String mailServer = parts[1].endsWith(".") ?
-                            parts[1].substring(0, parts[1].length() - 1) : parts[1];
-                    System.out.println("✅ Found MX record: " + mailServer);
-                    return mailServer;
+    public Map<String, Boolean> validateEmailsConcurrently(Collection<String> emails) {
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrentValidations));
+        Map<String, Future<Boolean>> pending = new LinkedHashMap<>();
+        for (String email : emails) {
+            if (pending.containsKey(email)) continue;
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pending.put(email, verificationExecutor.submit(() -> {
+                try {
+                    return validateEmailExistence(email);
+                } finally {
+                    permits.release();
                 }
+            }));
+        }
+
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<Boolean>> entry : pending.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                log.warn("Email verification failed for {}: {}", entry.getKey(), e.getCause().getMessage());
+                results.put(entry.getKey(), false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.put(entry.getKey(), false);
             }
-        } catch (NamingException e) {
-            System.err.println("❌ DNS lookup failed for domain " + domain + ": " + e.getMessage());
         }
-        return null;
+        // Addresses never submitted because the caller was interrupted
+        for (String email : emails) {
+            results.putIfAbsent(email, false);
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdownVerificationExecutor() {
+        verificationExecutor.shutdownNow();
     }
 
     /**
      * Quick validation for forms (basic checks only)
      */
     public boolean validateEmailFormatQuick(String email) {
-        System.out.println("🔍 Quick validating email: " + email);
+        log.debug("Quick validating email: {}", email);
 
         if (!isValidEmailFormat(email)) {
-            System.out.println("❌ Invalid email format: " + email);
+            log.info("Invalid email format: {}", email);
             return false;
         }
 
@@ -252,11 +369,11 @@ public class EmailService {
 
         // Check disposable emails
         if (isDisposableEmail(email)) {
-            System.out.println("❌ Disposable email: " + email);
+            log.info("Disposable email: {}", email);
             return false;
         }
 
-        System.out.println("✅ Quick email validation passed: " + email);
+        log.debug("Quick email validation passed: {}", email);
         return true;
     }
 
@@ -267,13 +384,13 @@ public class EmailService {
         try {
             InetAddress address = InetAddress.getByName(domain);
             boolean isReachable = address.isReachable(5000); // 5 second timeout
-            System.out.println("🌐 Domain " + domain + " reachable: " + isReachable);
+            log.debug("Domain {} reachable: {}", domain, isReachable);
             return isReachable;
         } catch (UnknownHostException e) {
-            System.err.println("❌ Domain not found: " + domain);
+            log.warn("Domain not found: {}", domain);
             return false;
         } catch (Exception e) {
-            System.err.println("⚠️ Domain reachability check failed for " + domain + ": " + e.getMessage());
+            log.warn("Domain reachability check failed for {}: {}", domain, e.getMessage());
             return false;
         }
     }
@@ -282,52 +399,18 @@ public class EmailService {
      * Check if email is from disposable/temporary email service
      */
     private boolean isDisposableEmail(String email) {
-        if (email == null) return true;
-
-        String domain = email.substring(email.indexOf('@') + 1).toLowerCase();
-
-        for (String disposableDomain : DISPOSABLE_DOMAINS) {
-            if (domain.equals(disposableDomain) || domain.endsWith("." + disposableDomain)) {
-                return true;
-            }
-        }
-
-        // Additional pattern matching for disposable emails
-        String[] disposablePatterns = {
-                "temp", "fake", "trash", "throwaway", "spam", "temporary", "disposable"
-        };
-
-        for (String pattern : disposablePatterns) {
-            if (domain.contains(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
+        return disposableDomainMatcher.isDisposableEmail(email);
     }
 
     /**
      * Check if domain has MX records using DNS lookup
      */
     private boolean checkMXRecords(String domain) {
-        try {
-            Hashtable<String, String> env = new Hashtable<>();
-            env.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
-            env.put("com.sun.jndi.dns.timeout.initial", "3000"); // 3 second timeout
-            env.put("com.sun.jndi.dns.timeout.retries", "2");
-
-            DirContext ictx = new InitialDirContext(env);
-            javax.naming.directory.Attributes attrs = ictx.getAttributes(domain, new String[]{"MX"});
-
-            if (attrs.get("MX") != null) {
-                System.out.println("✅ Domain has MX records: " + domain);
-                return true;
-            } else {
-                System.out.println("❌ No MX records found for domain: " + domain);
-                return false;
-            }
-        } catch (NamingException e) {
-            System.err.println("❌ DNS lookup failed for domain " + domain + ": " + e.getMessage());
+        if (!mxResolver.resolveMx(domain).isEmpty()) {
+            log.debug("Domain has MX records: {}", domain);
+            return true;
+        } else {
+            log.info("No MX records found for domain: {}", domain);
             return false; // Consider as invalid if DNS lookup fails
         }
     }
@@ -353,7 +436,7 @@ public class EmailService {
                 email.matches(".*[a-z]{15,}@.*") ||
                 email.matches(".*test.*@.*") ||
                 email.matches(".*fake.*@.*")) {
-            System.out.println("❌ Email matches fake pattern: " + email);
+            log.info("Email matches fake pattern: {}", email);
             return false;
         }
 
@@ -361,7 +444,7 @@ public class EmailService {
         boolean isValid = EMAIL_PATTERN.matcher(email).matches();
 
         if (!isValid) {
-            System.out.println("❌ Email format invalid: " + email);
+            log.info("Email format invalid: {}", email);
         }
 
         return isValid;
@@ -418,20 +501,17 @@ public class EmailService {
     }
 
     /**
-     * ULTRA-RELIABLE OTP EMAIL SENDING - FIXED PARAMETER ORDER
+     * ULTRA-RELIABLE OTP EMAIL SENDING - queued in the outbox, a newer OTP replaces an unsent one
      */
-    @Async
     public void sendOTPEmail(String toEmail, String studentName, String otp) { // FIXED: Correct parameter order
-        System.out.println("\n📧 ===== ATTEMPTING TO SEND OTP EMAIL =====");
-        System.out.println("🎯 TO: " + toEmail);
-        System.out.println("🎯 STUDENT: " + studentName); // Now shows correct name
-        System.out.println("🎯 OTP: " + otp); // Now shows correct OTP
+        log.atInfo().addKeyValue("to", toEmail).addKeyValue("student", studentName).addKeyValue("otp", otp)
+                .log("Queueing OTP email");
 
         // ALWAYS display OTP in console regardless of email success
         displayOTPInConsole(toEmail, studentName, otp); // Fixed parameter order
 
         if (!emailEnabled) {
-            System.out.println("❌ EMAIL SERVICE DISABLED");
+            log.info("EMAIL SERVICE DISABLED");
             return;
         }
 
@@ -439,53 +519,68 @@ public class EmailService {
         String cleanFromEmail = cleanEmail(fromEmail);
         String cleanToEmail = cleanEmail(toEmail);
 
-        System.out.println("🔧 Cleaned From: " + cleanFromEmail);
-        System.out.println("🔧 Cleaned To: " + cleanToEmail);
-
-        try {
-            // Method 1: Try simple email first (most reliable)
-            sendSimpleOTPEmail(cleanToEmail, studentName, otp, cleanFromEmail); // Fixed parameter order
-            System.out.println("✅ OTP EMAIL SENT SUCCESSFULLY TO: " + cleanToEmail);
+        String emailContent = "Dear " + studentName + ",\n\n" +
+                "Your OTP verification code is: " + otp + "\n\n" +
+                "This code will expire in " + otpExpiryMinutes + " minutes.\n\n" +
+                "If you didn't request this code, please ignore this email.\n\n" +
+                "Best regards,\n" +
+                "MKU Attendance System\n" +
+                "Mount Kenya University";
 
-        } catch (Exception e) {
-            System.err.println("❌ EMAIL FAILED: " + e.getMessage());
-            System.out.println("🎯 OTP STILL AVAILABLE IN CONSOLE: " + otp);
-        }
+        OutboundEmail email = new OutboundEmail("OTP", cleanFromEmail, cleanToEmail,
+                "MKU Attendance - OTP Verification Code", emailContent, "OTP:" + cleanToEmail, clock);
+        // The code is a credential: keep it off disk (the OTP itself does not survive a restart
+        // either) and stop retrying once it has expired
+        email.setMemoryOnly(true);
+        email.setExpiresAt(email.getCreatedAt().plusMinutes(otpExpiryMinutes));
+        emailOutboxService.enqueue(email);
     }
 
     /**
      * SEND PASSWORD RESET SUCCESS EMAIL
      */
-    @Async
     public void sendPasswordResetSuccessEmail(String toEmail, String studentName) {
         if (!emailEnabled) {
-            System.out.println("📧 EMAIL DISABLED - Password reset success for: " + studentName);
+            log.info("EMAIL DISABLED - Password reset success for: {}", studentName);
             return;
         }
 
-        try {
-            String cleanFromEmail = cleanEmail(fromEmail);
-            String cleanToEmail = cleanEmail(toEmail);
-
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(cleanFromEmail);
-            message.setTo(cleanToEmail);
-            message.setSubject("✅ MKU Attendance - Password Reset Successful");
+        String cleanFromEmail = cleanEmail(fromEmail);
+        String cleanToEmail = cleanEmail(toEmail);
 
-            String emailContent = "Dear " + studentName + ",\n\n" +
-                    "Your password has been successfully reset.\n\n" +
-                    "You can now log in to your MKU Attendance account using your new password.\n\n" +
-                    "Best regards,\n" +
-                    "MKU Attendance System\n" +
-                    "Mount Kenya University";
+        String emailContent = "Dear " + studentName + ",\n\n" +
+                "Your password has been successfully reset.\n\n" +
+                "You can now log in to your MKU Attendance account using your new password.\n\n" +
+                "Best regards,\n" +
+                "MKU Attendance System\n" +
+                "Mount Kenya University";
 
-            message.setText(emailContent);
-            mailSender.send(message);
-            System.out.println("✅ Password reset success email sent to: " + cleanToEmail);
+        emailOutboxService.enqueue(new OutboundEmail("PASSWORD_RESET", cleanFromEmail, cleanToEmail,
+                "✅ MKU Attendance - Password Reset Successful", emailContent, null, clock));
+    }
 
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to send reset success email: " + e.getMessage());
+    /**
+     * AT-RISK DIGEST FOR AN HOD - one message listing every at-risk student in their courses; a
+     * newer digest replaces one that has not been sent yet
+     */
+    public void sendAtRiskDigestEmail(String toEmail, String hodName, String digest) {
+        if (!emailEnabled) {
+            log.info("EMAIL DISABLED - At-risk digest for: {}", hodName);
+            return;
         }
+
+        String cleanFromEmail = cleanEmail(fromEmail);
+        String cleanToEmail = cleanEmail(toEmail);
+
+        String emailContent = "Dear " + hodName + ",\n\n" +
+                "These students in your courses are below the attendance threshold:\n\n" +
+                digest + "\n" +
+                "Best regards,\n" +
+                "MKU Attendance System\n" +
+                "Mount Kenya University";
+
+        emailOutboxService.enqueue(new OutboundEmail("AT_RISK_DIGEST", cleanFromEmail, cleanToEmail,
+                "MKU Attendance - Students at risk", emailContent, "AT_RISK_DIGEST:" + cleanToEmail, clock));
     }
 
     /**
@@ -494,18 +589,14 @@ public class EmailService {
     public Map<String, Object> testEmailConfiguration() {
         Map<String, Object> result = new HashMap<>();
 
-        System.out.println("\n🔧 ===== EMAIL CONFIGURATION TEST =====");
-        System.out.println("📧 From Email: " + fromEmail);
-        System.out.println("🕒 OTP Expiry: " + otpExpiryMinutes + " minutes");
-        System.out.println("✅ Email Enabled: " + emailEnabled);
-        System.out.println("🔗 Mail Host: " + mailHost);
-        System.out.println("🔢 Mail Port: " + mailPort);
-        System.out.println("👤 Mail Username: " + (mailUsername.isEmpty() ? "NOT SET" : "SET"));
-        System.out.println("🔧 Cleaned From: " + cleanEmail(fromEmail));
+        log.atInfo().addKeyValue("from", cleanEmail(fromEmail)).addKeyValue("otpExpiryMinutes", otpExpiryMinutes)
+                .addKeyValue("enabled", emailEnabled).addKeyValue("host", mailHost).addKeyValue("port", mailPort)
+                .addKeyValue("username", mailUsername.isEmpty() ? "NOT SET" : "SET")
+                .log("Email configuration");
 
         // Test if mail sender is configured
         boolean mailSenderConfigured = mailSender != null;
-        System.out.println("📨 Mail Sender: " + (mailSenderConfigured ? "✅ CONFIGURED" : "❌ NOT CONFIGURED"));
+        log.info("Mail sender: {}", (mailSenderConfigured ? "CONFIGURED" : "NOT CONFIGURED"));
 
         result.put("fromEmail", fromEmail);
         result.put("enabled", emailEnabled);
@@ -514,38 +605,30 @@ public class EmailService {
         result.put("usernameSet", !mailUsername.isEmpty());
         result.put("mailSenderConfigured", mailSenderConfigured);
         result.put("cleanedFromEmail", cleanEmail(fromEmail));
-
-        System.out.println("=====================================\n");
         return result;
     }
 
     /**
-     * Clean email address - remove whitespace and control characters
+     * Connect (and authenticate) to the configured SMTP server. Throws if the server can't be reached.
      */
-    private String cleanEmail(String email) {
-        if (email == null) return "";
-        return email.replaceAll("\\s+", "").replaceAll("[\\p{Cntrl}]", "").trim();
+    public void testSmtpConnection() throws MessagingException {
+        if (mailSender instanceof PooledMailSender pooledMailSender) {
+            pooledMailSender.testConnection();
+        } else if (mailSender instanceof JavaMailSenderImpl javaMailSenderImpl) {
+            javaMailSenderImpl.testConnection();
+        }
+    }
+
+    public boolean isEmailEnabled() {
+        return emailEnabled;
     }
 
     /**
-     * Simple text email (MOST RELIABLE) - FIXED PARAMETER ORDER
+     * Clean email address - remove whitespace and control characters
      */
-    private void sendSimpleOTPEmail(String toEmail, String studentName, String otp, String fromEmail) { // Fixed parameter order
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("MKU Attendance - OTP Verification Code");
-
-        String emailContent = "Dear " + studentName + ",\n\n" +
-                "Your OTP verification code is: " + otp + "\n\n" +
-                "This code will expire in " + otpExpiryMinutes + " minutes.\n\n" +
-                "If you didn't request this code, please ignore this email.\n\n" +
-                "Best regards,\n" +
-                "MKU Attendance System\n" +
-                "Mount Kenya University";
-
-        message.setText(emailContent);
-        mailSender.send(message);
+    private String cleanEmail(String email) {
+        if (email == null) return "";
+        return email.replaceAll("\\s+", "").replaceAll("[\\p{Cntrl}]", "").trim();
     }
 
     /**
@@ -569,13 +652,9 @@ public class EmailService {
      * GUARANTEED OTP DISPLAY IN CONSOLE - FIXED PARAMETER ORDER
      */
     private void displayOTPInConsole(String toEmail, String studentName, String otp) { // Fixed parameter order
-        System.out.println("\n🎯 ===== OTP GENERATED - CHECK BELOW =====");
-        System.out.println("🎯 STUDENT: " + studentName);
-        System.out.println("🎯 EMAIL: " + toEmail);
-        System.out.println("🎯 OTP CODE: " + otp);
-        System.out.println("🎯 EXPIRES IN: " + otpExpiryMinutes + " minutes");
-        System.out.println("🎯 TIMESTAMP: " + java.time.LocalDateTime.now());
-        System.out.println("🎯 ===================================\n");
+        log.atInfo().addKeyValue("student", studentName).addKeyValue("email", toEmail).addKeyValue("otp", otp)
+                .addKeyValue("expiresInMinutes", otpExpiryMinutes)
+                .log("OTP generated");
     }
 
     /**
@@ -630,11 +709,10 @@ public class EmailService {
      */
     @Async
     public void sendTestEmail(String toEmail) {
-        System.out.println("\n🧪 ===== SENDING TEST EMAIL =====");
-        System.out.println("📧 TO: " + toEmail);
+        log.info("Sending test email to {}", toEmail);
 
         if (!emailEnabled) {
-            System.out.println("❌ EMAIL SERVICE DISABLED");
+            log.info("EMAIL SERVICE DISABLED");
             return;
         }
 
@@ -654,12 +732,10 @@ public class EmailService {
             message.setText(emailContent);
             mailSender.send(message);
 
-            System.out.println("✅ TEST EMAIL SENT SUCCESSFULLY TO: " + cleanToEmail);
-            System.out.println("🎉 EMAIL SYSTEM IS OPERATIONAL!");
+            log.info("Test email sent to {}, email system is operational", cleanToEmail);
 
         } catch (Exception e) {
-            System.err.println("❌ FAILED TO SEND TEST EMAIL: " + e.getMessage());
+            log.warn("Failed to send test email: {}", e.getMessage());
         }
-        System.out.println("====================================\n");
     }
 }
\ No newline at end of file
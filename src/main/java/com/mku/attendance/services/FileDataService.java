@@ -1,89 +1,128 @@
 package com.mku.attendance.services;
 
+import com.mku.attendance.config.AppMetrics;
 import com.mku.attendance.entities.StudentData;
 import com.mku.attendance.entities.HOD;
 import com.mku.attendance.entities.Course;
 import com.mku.attendance.entities.Unit;
 import com.mku.attendance.entities.LecturerData;
 import com.mku.attendance.entities.Attendance;
+import com.mku.attendance.entities.OutboundEmail;
+import com.mku.attendance.jfr.PersistenceEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class FileDataService {
 
+    private static final Logger log = LoggerFactory.getLogger(FileDataService.class);
+
     // Use relative path for Railway compatibility
-    private static final String DATA_DIR = "./attendance_data/";
+    private static final String DEFAULT_DATA_DIR = "./attendance_data/";
 
-    private static final String HODS_FILE = DATA_DIR + "hods.json";
-    private static final String STUDENTS_FILE = DATA_DIR + "students.json";
-    private static final String COURSES_FILE = DATA_DIR + "courses.json";
-    private static final String UNITS_FILE = DATA_DIR + "units.json";
-    private static final String LECTURERS_FILE = DATA_DIR + "lecturers.json";
-    private static final String ATTENDANCE_FILE = DATA_DIR + "attendance.json";
+    private final String dataDir;
+    private final String hodsFile;
+    private final String studentsFile;
+    private final String coursesFile;
+    private final String unitsFile;
+    private final String lecturersFile;
+    private final String attendanceFile;
+    private final String attendanceDir;
+    private final String outboxDir;
+    private final String outboxDeadDir;
 
     private final ObjectMapper objectMapper;
 
-    public FileDataService() {
+    @Autowired
+    private AppMetrics appMetrics;
+
+    // One lock per data file so concurrent saves of the same file never interleave. ReentrantLock
+    // instead of synchronized so virtual threads doing the file I/O don't pin their carrier.
+    private final Map<String, ReentrantLock> fileLocks = new ConcurrentHashMap<>();
+
+    // app.storage.data-directory lets benchmarks and load tests work on a scratch copy of the data
+    @Autowired
+    public FileDataService(@Value("${app.storage.data-directory:" + DEFAULT_DATA_DIR + "}") String dataDirectory) {
+        dataDir = dataDirectory.endsWith("/") ? dataDirectory : dataDirectory + "/";
+        hodsFile = dataDir + "hods.json";
+        studentsFile = dataDir + "students.json";
+        coursesFile = dataDir + "courses.json";
+        unitsFile = dataDir + "units.json";
+        lecturersFile = dataDir + "lecturers.json";
+        attendanceFile = dataDir + "attendance.json";
+        attendanceDir = dataDir + "attendance/";
+        outboxDir = dataDir + "outbox/";
+        outboxDeadDir = outboxDir + "dead/";
+
         this.objectMapper = new ObjectMapper();
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         this.objectMapper.configure(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT, true);
         this.objectMapper.registerModule(new JavaTimeModule());
 
         createDataDirectory();
-        System.out.println("FileDataService initialized with data directory: " + DATA_DIR);
+        log.info("FileDataService initialized with data directory: {}", dataDir);
     }
 
     private void createDataDirectory() {
-        File dataDir = new File(DATA_DIR);
-        if (!dataDir.exists()) {
-            boolean created = dataDir.mkdirs();
+        File directory = new File(dataDir);
+        if (!directory.exists()) {
+            boolean created = directory.mkdirs();
             if (created) {
-                System.out.println("✅ Permanent data directory created: " + DATA_DIR);
+                log.info("Permanent data directory created: {}", dataDir);
             } else {
-                System.err.println("❌ Failed to create data directory: " + DATA_DIR);
+                log.warn("Failed to create data directory: {}", dataDir);
             }
         } else {
-            System.out.println("✅ Using existing data directory: " + DATA_DIR);
+            log.info("Using existing data directory: {}", dataDir);
         }
     }
 
     // Save HODs data
     public void saveHODs(Map<String, HOD> hods) {
-        saveToFile(HODS_FILE, hods, "HODs");
+        saveToFile(hodsFile, hods, "HODs");
     }
 
     // Load HODs data
     public Map<String, HOD> loadHODs() {
-        return loadFromFile(HODS_FILE, HOD.class, "HODs");
+        return loadFromFile(hodsFile, HOD.class, "HODs");
     }
 
     // Save Students data
     public void saveStudents(Map<String, StudentData> students) {
-        saveToFile(STUDENTS_FILE, students, "Students");
+        saveToFile(studentsFile, students, "Students");
     }
 
     // Load Students data
     public Map<String, StudentData> loadStudents() {
-        Map<String, StudentData> students = loadFromFile(STUDENTS_FILE, StudentData.class, "Students");
+        Map<String, StudentData> students = loadFromFile(studentsFile, StudentData.class, "Students");
 
-        if (!students.isEmpty()) {
-            System.out.println("=== LOADED STUDENTS ===");
-            students.forEach((id, student) -> {
-                System.out.println("ID: " + id + ", Name: " + student.getName() +
-                        ", Course: " + student.getCourse() +
-                        ", Units: " + (student.getRegisteredUnits() != null ? student.getRegisteredUnits().size() : 0));
-            });
-            System.out.println("=======================");
+        if (log.isDebugEnabled()) {
+            students.forEach((id, student) -> log.atDebug()
+                    .addKeyValue("studentId", id).addKeyValue("name", student.getName()).addKeyValue("course", student.getCourse())
+                    .addKeyValue("units", student.getRegisteredUnits() != null ? student.getRegisteredUnits().size() : 0)
+                    .log("Loaded student"));
         }
 
         return students;
@@ -91,124 +130,328 @@ public class FileDataService {
 
     // Save Courses data
     public void saveCourses(Map<String, Course> courses) {
-        saveToFile(COURSES_FILE, courses, "Courses");
+        saveToFile(coursesFile, courses, "Courses");
     }
 
     // Load Courses data
     public Map<String, Course> loadCourses() {
-        return loadFromFile(COURSES_FILE, Course.class, "Courses");
+        return loadFromFile(coursesFile, Course.class, "Courses");
     }
 
     // Save Units data
     public void saveUnits(Map<String, Unit> units) {
-        saveToFile(UNITS_FILE, units, "Units");
+        saveToFile(unitsFile, units, "Units");
     }
 
     // Load Units data
     public Map<String, Unit> loadUnits() {
-        return loadFromFile(UNITS_FILE, Unit.class, "Units");
+        return loadFromFile(unitsFile, Unit.class, "Units");
     }
 
     // Save Lecturers data
     public void saveLecturers(Map<String, LecturerData> lecturers) {
-        saveToFile(LECTURERS_FILE, lecturers, "Lecturers");
+        saveToFile(lecturersFile, lecturers, "Lecturers");
     }
 
     // Load Lecturers data
     public Map<String, LecturerData> loadLecturers() {
-        return loadFromFile(LECTURERS_FILE, LecturerData.class, "Lecturers");
+        return loadFromFile(lecturersFile, LecturerData.class, "Lecturers");
     }
 
-    // Save Attendance data
-    public void saveAttendance(List<Attendance> attendanceRecords) {
-        saveToFile(ATTENDANCE_FILE, attendanceRecords, "Attendance");
+    // ========== ATTENDANCE (one file per unit, see AttendanceStore) ==========
+
+    // Units that have an attendance file
+    public List<String> listAttendanceUnits() {
+        List<String> unitCodes = new ArrayList<>();
+        File[] files = new File(attendanceDir).listFiles((dir, name) -> name.endsWith(".json"));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                unitCodes.add(URLDecoder.decode(name.substring(0, name.length() - ".json".length()), StandardCharsets.UTF_8));
+            }
+        }
+        return unitCodes;
     }
 
-    // Load Attendance data
-    public List<Attendance> loadAttendance() {
-        return loadListFromFile(ATTENDANCE_FILE, Attendance.class, "Attendance");
+    // Save one unit's attendance; false if it could not be written
+    public boolean saveAttendanceShard(String unitCode, List<Attendance> records) {
+        try {
+            Files.createDirectories(Paths.get(attendanceDir));
+        } catch (IOException e) {
+            log.error("Error creating attendance directory {}: {}", attendanceDir, e.getMessage());
+        }
+        return writeFile(attendanceShardFile(unitCode), records, "Attendance");
     }
 
-    // Generic save method for Maps
-    private <T> void saveToFile(String filename, Map<String, T> data, String dataType) {
+    // Load one unit's attendance. Quieter than the other loads: shards are read on demand all day.
+    // A file that cannot be read or parsed throws rather than reading as empty, so it is never
+    // overwritten with an empty unit.
+    public List<Attendance> loadAttendanceShard(String unitCode) {
+        Path file = Paths.get(attendanceShardFile(unitCode));
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        PersistenceEvent event = new PersistenceEvent("load", "attendance");
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            byte[] json = Files.readAllBytes(file);
+            List<Attendance> records = objectMapper.readValue(json,
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, Attendance.class));
+            appMetrics.recordPersistence("load", "attendance", System.nanoTime() - start, json.length, true);
+            event.bytes = json.length;
+            event.success = true;
+            log.debug("Loaded {} attendance records for unit {}", records.size(), unitCode);
+            return records;
+        } catch (IOException e) {
+            appMetrics.recordPersistence("load", "attendance", System.nanoTime() - start, 0, false);
+            log.error("Error loading attendance for unit {}: {}", unitCode, e.getMessage(), e);
+            throw new UncheckedIOException("Cannot load attendance for unit " + unitCode, e);
+        } finally {
+            event.commit();
+        }
+    }
+
+    // Moves an unreadable unit file aside (attendance/<unit>.json.corrupt-<millis>) so it is kept for recovery
+    public void quarantineAttendanceShard(String unitCode) {
+        Path file = Paths.get(attendanceShardFile(unitCode));
+        Path aside = Paths.get(file + ".corrupt-" + System.currentTimeMillis());
+        try {
+            Files.move(file, aside);
+            log.error("Moved unreadable attendance file for unit {} to {}", unitCode, aside);
+        } catch (IOException e) {
+            log.error("Error moving {} aside: {}", file, e.getMessage());
+        }
+    }
+
+    private String attendanceShardFile(String unitCode) {
+        return attendanceDir + URLEncoder.encode(unitCode.toUpperCase(), StandardCharsets.UTF_8) + ".json";
+    }
+
+    // attendance.json from before attendance was split per unit, if it is still there
+    public boolean hasLegacyAttendance() {
+        return new File(attendanceFile).exists();
+    }
+
+    public List<Attendance> loadLegacyAttendance() {
+        return loadListFromFile(attendanceFile, Attendance.class, "Attendance");
+    }
+
+    // Kept next to the unit files (not deleted) once its records have been split out
+    public void retireLegacyAttendance() {
+        try {
+            Files.move(Paths.get(attendanceFile), Paths.get(attendanceFile + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Error renaming {}: {}", attendanceFile, e.getMessage());
+        }
+    }
+
+    // ========== OUTBOUND EMAIL QUEUE (one file per message) ==========
+
+    // Save (or overwrite) a queued email. Written to a temp file first so a crash never leaves half a message.
+    public void saveOutboundEmail(OutboundEmail email) throws IOException {
+        Path dir = Paths.get(outboxDir);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(email.getId() + ".json");
+        Path temp = dir.resolve(email.getId() + ".json.tmp");
+        PersistenceEvent event = new PersistenceEvent("save", "outbox");
+        event.begin();
+        long start = System.nanoTime();
+        byte[] json = objectMapper.writeValueAsBytes(email);
+        Files.write(temp, json);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appMetrics.recordPersistence("save", "outbox", System.nanoTime() - start, json.length, true);
+        event.bytes = json.length;
+        event.success = true;
+        event.commit();
+    }
+
+    // Load all queued emails left over from a previous run
+    public List<OutboundEmail> loadOutboundEmails() {
+        List<OutboundEmail> emails = new ArrayList<>();
+        File[] files = new File(outboxDir).listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return emails;
+        }
+        for (File file : files) {
+            PersistenceEvent event = new PersistenceEvent("load", "outbox");
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                byte[] json = Files.readAllBytes(file.toPath());
+                emails.add(objectMapper.readValue(json, OutboundEmail.class));
+                appMetrics.recordPersistence("load", "outbox", System.nanoTime() - start, json.length, true);
+                event.bytes = json.length;
+                event.success = true;
+            } catch (IOException e) {
+                appMetrics.recordPersistence("load", "outbox", System.nanoTime() - start, 0, false);
+                log.error("Error loading queued email {}: {}", file.getName(), e.getMessage());
+            } finally {
+                event.commit();
+            }
+        }
+        log.info("Loaded {} queued emails from: {}", emails.size(), outboxDir);
+        return emails;
+    }
+
+    public void deleteOutboundEmail(String id) {
+        try {
+            Files.deleteIfExists(Paths.get(outboxDir, id + ".json"));
+        } catch (IOException e) {
+            log.error("Error deleting queued email {}: {}", id, e.getMessage());
+        }
+    }
+
+    // Delete dead-lettered emails of a type (OTP mails written by older versions hold live codes)
+    public int deleteDeadLetteredEmails(String type) {
+        File[] files = new File(outboxDeadDir).listFiles((dir, name) -> name.endsWith(".json"));
+        int deleted = 0;
+        if (files == null) {
+            return deleted;
+        }
+        for (File file : files) {
+            try {
+                OutboundEmail email = objectMapper.readValue(file, OutboundEmail.class);
+                if (type.equals(email.getType()) && Files.deleteIfExists(file.toPath())) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.error("Error reading dead-lettered email {}: {}", file.getName(), e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    // Move an email that exhausted its retries out of the live queue
+    public void moveOutboundEmailToDeadLetter(OutboundEmail email) {
         try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(filename), data);
-            System.out.println("✅ " + dataType + " data saved successfully to: " + filename);
+            Files.createDirectories(Paths.get(outboxDeadDir));
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(outboxDeadDir + email.getId() + ".json"), email);
+            deleteOutboundEmail(email.getId());
         } catch (IOException e) {
-            System.err.println("❌ Error saving " + dataType + " data: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error dead-lettering queued email {}: {}", email.getId(), e.getMessage());
         }
     }
 
+    // Generic save method for Maps
+    private <T> void saveToFile(String filename, Map<String, T> data, String dataType) {
+        writeFile(filename, data, dataType);
+    }
+
     // Generic save method for Lists
     private <T> void saveToFile(String filename, List<T> data, String dataType) {
+        writeFile(filename, data, dataType);
+    }
+
+    // Serialized to bytes first so the write (and the size metric) covers exactly what hits the disk.
+    // Written to a temp file and moved over the old one, so a crash leaves the old or the new file, never half of one.
+    private boolean writeFile(String filename, Object data, String dataType) {
+        ReentrantLock lock = lockFor(filename);
+        PersistenceEvent event = new PersistenceEvent("save", dataType.toLowerCase());
+        event.begin();
+        long start = System.nanoTime();
+        long bytes = 0;
+        boolean saved = false;
+        lock.lock();
         try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(filename), data);
-            System.out.println("✅ " + dataType + " data saved successfully to: " + filename);
+            byte[] json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(data);
+            Path target = Paths.get(filename);
+            Path temp = Paths.get(filename + ".tmp");
+            Files.write(temp, json);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            bytes = json.length;
+            saved = true;
+            log.debug("{} data saved successfully to: {}", dataType, filename);
         } catch (IOException e) {
-            System.err.println("❌ Error saving " + dataType + " data: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error saving {} data: {}", dataType, e.getMessage(), e);
+        } finally {
+            lock.unlock();
+            appMetrics.recordPersistence("save", dataType.toLowerCase(), System.nanoTime() - start, bytes, saved);
+            event.bytes = bytes;
+            event.success = saved;
+            event.commit();
         }
+        return saved;
     }
 
     // Generic load method for Maps
     private <T> Map<String, T> loadFromFile(String filename, Class<T> valueType, String dataType) {
+        PersistenceEvent event = new PersistenceEvent("load", dataType.toLowerCase());
+        event.begin();
+        long start = System.nanoTime();
         try {
             File file = new File(filename);
             if (file.exists()) {
-                System.out.println("📁 Loading " + dataType + " from: " + filename);
-                Map<String, T> data = objectMapper.readValue(file,
+                log.info("Loading {} from: {}", dataType, filename);
+                byte[] json = Files.readAllBytes(file.toPath());
+                Map<String, T> data = objectMapper.readValue(json,
                         objectMapper.getTypeFactory().constructMapType(HashMap.class, String.class, valueType));
-                System.out.println("✅ " + dataType + " data loaded successfully. Count: " + data.size());
+                appMetrics.recordPersistence("load", dataType.toLowerCase(), System.nanoTime() - start, json.length, true);
+                event.bytes = json.length;
+                event.success = true;
+                log.info("{} data loaded successfully. Count: {}", dataType, data.size());
                 return data;
             } else {
-                System.out.println("ℹ️ No " + dataType + " data file found: " + filename);
+                log.info("No {} data file found: {}", dataType, filename);
             }
         } catch (IOException e) {
-            System.err.println("❌ Error loading " + dataType + " data: " + e.getMessage());
-            e.printStackTrace();
+            appMetrics.recordPersistence("load", dataType.toLowerCase(), System.nanoTime() - start, 0, false);
+            log.error("Error loading {} data: {}", dataType, e.getMessage(), e);
+        } finally {
+            event.commit();
         }
         return new HashMap<>();
     }
 
     // Generic load method for Lists
     private <T> List<T> loadListFromFile(String filename, Class<T> valueType, String dataType) {
+        PersistenceEvent event = new PersistenceEvent("load", dataType.toLowerCase());
+        event.begin();
+        long start = System.nanoTime();
         try {
             File file = new File(filename);
             if (file.exists()) {
-                System.out.println("📁 Loading " + dataType + " from: " + filename);
-                List<T> data = objectMapper.readValue(file,
+                log.info("Loading {} from: {}", dataType, filename);
+                byte[] json = Files.readAllBytes(file.toPath());
+                List<T> data = objectMapper.readValue(json,
                         objectMapper.getTypeFactory().constructCollectionType(List.class, valueType));
-                System.out.println("✅ " + dataType + " data loaded successfully. Count: " + data.size());
+                appMetrics.recordPersistence("load", dataType.toLowerCase(), System.nanoTime() - start, json.length, true);
+                event.bytes = json.length;
+                event.success = true;
+                log.info("{} data loaded successfully. Count: {}", dataType, data.size());
                 return data;
             } else {
-                System.out.println("ℹ️ No " + dataType + " data file found: " + filename);
+                log.info("No {} data file found: {}", dataType, filename);
             }
         } catch (IOException e) {
-            System.err.println("❌ Error loading " + dataType + " data: " + e.getMessage());
-            e.printStackTrace();
+            appMetrics.recordPersistence("load", dataType.toLowerCase(), System.nanoTime() - start, 0, false);
+            log.error("Error loading {} data: {}", dataType, e.getMessage(), e);
+        } finally {
+            event.commit();
         }
         return new ArrayList<>();
     }
 
-    // Comprehensive auto-save
+    private ReentrantLock lockFor(String filename) {
+        return fileLocks.computeIfAbsent(filename, key -> new ReentrantLock());
+    }
+
+    // Comprehensive auto-save (attendance is saved by AttendanceStore as it changes)
     public void autoSaveAll(Map<String, HOD> hods,
                             Map<String, StudentData> students,
                             Map<String, Course> courses,
                             Map<String, Unit> units,
-                            Map<String, LecturerData> lecturers,
-                            List<Attendance> attendanceRecords) {
+                            Map<String, LecturerData> lecturers) {
         saveHODs(hods);
         saveStudents(students);
         saveCourses(courses);
         saveUnits(units);
         saveLecturers(lecturers);
-        saveAttendance(attendanceRecords);
-        System.out.println("✅ All data auto-saved successfully to permanent storage");
+        log.info("All data auto-saved successfully to permanent storage");
     }
 
     // Get data directory path for info
     public String getDataDirectory() {
-        return DATA_DIR;
+        return dataDir;
     }
 }
\ No newline at end of file
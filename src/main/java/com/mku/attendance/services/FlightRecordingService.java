@@ -0,0 +1,117 @@
+package com.mku.attendance.services;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-demand JDK Flight Recorder recordings (see /api/system/flight-recording), so a slow lecture
+ * burst can be profiled in production without attaching an agent or restarting with JFR flags.
+ *
+ * A recording uses one of the JDK settings files ("default" is about 1% overhead, "profile" adds
+ * allocation and lock detail) plus the app's own events in com.mku.attendance.jfr. It stops by
+ * itself after the requested duration and never keeps more than app.jfr.max-size-mb on disk,
+ * and durations are capped at app.jfr.max-duration-seconds. Only one recording runs at a time;
+ * starting a new one discards the previous one.
+ *
+ * Recordings expose thread names, stack traces and request details, so the endpoints are off
+ * unless app.jfr.enabled=true, and when app.jfr.token is set every call must carry it in the
+ * X-JFR-Token header.
+ */
+@Service
+public class FlightRecordingService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordingService.class);
+
+    @Value("${app.jfr.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.jfr.token:}")
+    private String token;
+
+    @Value("${app.jfr.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${app.jfr.max-size-mb:100}")
+    private long maxSizeMb;
+
+    private Recording recording;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether a caller presenting this token may use the recordings; always true when no token
+     * is configured
+     */
+    public boolean isAuthorized(String presented) {
+        if (token == null || token.isEmpty()) {
+            return true;
+        }
+        return presented != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public synchronized Map<String, Object> start(long durationSeconds, String settings) throws IOException, ParseException {
+        if (durationSeconds <= 0 || durationSeconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+        Configuration configuration = Configuration.getConfiguration(settings);
+
+        if (recording != null) {
+            recording.close();
+        }
+        recording = new Recording(configuration);
+        recording.setName("mku-attendance");
+        recording.setDuration(Duration.ofSeconds(durationSeconds));
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.setToDisk(true);
+        recording.start();
+        log.atInfo().addKeyValue("durationSeconds", durationSeconds).addKeyValue("settings", settings)
+                .log("Flight recording started");
+        return getStatus();
+    }
+
+    /**
+     * Writes what the current recording holds so far (or everything, once it has stopped) to a
+     * temporary file and returns its path. The caller deletes the file.
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            throw new IllegalStateException("No flight recording to dump");
+        }
+        Path file = Files.createTempFile("mku-attendance-", ".jfr");
+        recording.dump(file);
+        log.atInfo().addKeyValue("bytes", Files.size(file)).log("Flight recording dumped");
+        return file;
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startTime", String.valueOf(recording.getStartTime()));
+        status.put("durationSeconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        status.put("sizeBytes", recording.getSize());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        return status;
+    }
+}
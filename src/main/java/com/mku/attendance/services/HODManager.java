@@ -5,6 +5,8 @@ import com.mku.attendance.entities.LecturerData;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class HODManager {
@@ -15,7 +17,16 @@ public class HODManager {
     private Map<String, HOD> hods = new HashMap<>();
 
     // FIXED: Lecturers now persisted through FileDataService
-    private Map<String, LecturerData> lecturers = new HashMap<>();
+    // Read without a lock; changed (and saved) under lecturerLock
+    private Map<String, LecturerData> lecturers = new ConcurrentHashMap<>();
+    // Unit code -> ids of the lecturers assigned to it, kept in step with each lecturer's unitCodes
+    private final Map<String, Set<String>> lecturersByUnit = new ConcurrentHashMap<>();
+    // Course code -> ids of the lecturers whose course it is
+    private final Map<String, Set<String>> lecturersByCourse = new ConcurrentHashMap<>();
+
+    // ReentrantLock rather than synchronized: every lecturer change saves lecturers.json while
+    // holding it, and a virtual thread blocked in I/O inside a synchronized block would pin its carrier
+    private final ReentrantLock lecturerLock = new ReentrantLock();
 
     @Autowired
     public HODManager(CourseManager courseManager, UnitManager unitManager,
@@ -29,7 +40,8 @@ public class HODManager {
         hods = fileDataService.loadHODs();
 
         // Load Lecturers data from file on startup
-        lecturers = fileDataService.loadLecturers();
+        lecturers = new ConcurrentHashMap<>(fileDataService.loadLecturers());
+        lecturers.values().forEach(this::indexAssignments);
 
         // If no HOD data exists in file, create default HOD
         if (hods.isEmpty()) {
@@ -91,6 +103,10 @@ public class HODManager {
         return new HashMap<>(hods);
     }
 
+    public int getHodCount() {
+        return hods.size();
+    }
+
     public Map<String, HOD> getHodDatabase() {
         return new HashMap<>(hods);
     }
@@ -114,8 +130,14 @@ public class HODManager {
     public void addLecturer(LecturerData lecturer) {
         if (lecturer != null && lecturer.getLecturerId() != null) {
             String lecturerId = lecturer.getLecturerId().toUpperCase();
-            lecturers.put(lecturerId, lecturer);
-            saveLecturersToFile(); // FIXED: Now saves to file
+            lecturerLock.lock();
+            try {
+                unindexAssignments(lecturers.put(lecturerId, lecturer));
+                indexAssignments(lecturer);
+                    saveLecturersToFile(); // FIXED: Now saves to file
+            } finally {
+                lecturerLock.unlock();
+            }
             System.out.println("✅ Lecturer added and saved: " + lecturerId);
             System.out.println("   Name: " + lecturer.getName());
             System.out.println("   Unit: " + lecturer.getUnitCode());
@@ -141,12 +163,103 @@ public class HODManager {
 
     public void removeLecturer(String lecturerId) {
         if (lecturerId != null) {
-            lecturers.remove(lecturerId.toUpperCase());
-            saveLecturersToFile(); // FIXED: Now saves to file
+            lecturerLock.lock();
+            try {
+                unindexAssignments(lecturers.remove(lecturerId.toUpperCase()));
+                    saveLecturersToFile(); // FIXED: Now saves to file
+            } finally {
+                lecturerLock.unlock();
+            }
             System.out.println("✅ Lecturer removed and saved: " + lecturerId);
         }
     }
 
+    /**
+     * Assigns a unit to a lecturer (many lecturers can share a unit); false if the lecturer is
+     * unknown or already has it
+     */
+    public boolean assignUnit(String lecturerId, String unitCode) {
+        lecturerLock.lock();
+        try {
+            LecturerData lecturer = lecturerId != null ? lecturers.get(lecturerId.toUpperCase()) : null;
+            if (lecturer == null || !lecturer.assignUnit(unitCode)) {
+                return false;
+            }
+            indexAssignments(lecturer);
+            saveLecturersToFile();
+            return true;
+        } finally {
+            lecturerLock.unlock();
+        }
+    }
+
+    public boolean unassignUnit(String lecturerId, String unitCode) {
+        lecturerLock.lock();
+        try {
+            LecturerData lecturer = lecturerId != null ? lecturers.get(lecturerId.toUpperCase()) : null;
+            if (lecturer == null || !lecturer.isAssignedTo(unitCode)) {
+                return false;
+            }
+            unindexAssignments(lecturer);
+            lecturer.unassignUnit(unitCode);
+            indexAssignments(lecturer);
+            saveLecturersToFile();
+            return true;
+        } finally {
+            lecturerLock.unlock();
+        }
+    }
+
+    /**
+     * Ids (upper case) of the lecturers assigned to a unit, from the assignment index
+     */
+    public Set<String> getUnitLecturers(String unitCode) {
+        if (unitCode == null) {
+            return new HashSet<>();
+        }
+        Set<String> assigned = lecturersByUnit.get(unitCode.toUpperCase());
+        return assigned != null ? new HashSet<>(assigned) : new HashSet<>();
+    }
+
+    /**
+     * Ids (upper case) of the lecturers whose course it is, from the assignment index
+     */
+    public Set<String> getCourseLecturers(String courseCode) {
+        if (courseCode == null) {
+            return new HashSet<>();
+        }
+        Set<String> ids = lecturersByCourse.get(courseCode.toUpperCase());
+        return ids != null ? new HashSet<>(ids) : new HashSet<>();
+    }
+
+    private void indexAssignments(LecturerData lecturer) {
+        if (lecturer == null || lecturer.getLecturerId() == null) return;
+        String lecturerId = lecturer.getLecturerId().toUpperCase();
+        if (lecturer.getCourseCode() != null && !lecturer.getCourseCode().isEmpty()) {
+            lecturersByCourse.computeIfAbsent(lecturer.getCourseCode().toUpperCase(), k -> ConcurrentHashMap.newKeySet()).add(lecturerId);
+        }
+        for (String unitCode : lecturer.getUnitCodes()) {
+            lecturersByUnit.computeIfAbsent(unitCode.toUpperCase(), k -> ConcurrentHashMap.newKeySet()).add(lecturerId);
+        }
+    }
+
+    private void unindexAssignments(LecturerData lecturer) {
+        if (lecturer == null || lecturer.getLecturerId() == null) return;
+        String lecturerId = lecturer.getLecturerId().toUpperCase();
+        if (lecturer.getCourseCode() != null && !lecturer.getCourseCode().isEmpty()) {
+            lecturersByCourse.computeIfPresent(lecturer.getCourseCode().toUpperCase(), (k, ids) -> {
+                ids.remove(lecturerId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        for (String unitCode : lecturer.getUnitCodes()) {
+            lecturersByUnit.computeIfPresent(unitCode.toUpperCase(), (k, assigned) -> {
+                assigned.remove(lecturerId);
+                return assigned.isEmpty() ? null : assigned;
+            });
+        }
+    }
+
     public int getLecturerCount() {
         return lecturers.size();
     }
@@ -155,13 +268,16 @@ public class HODManager {
         return String.join(", ", lecturers.keySet());
     }
 
-    // FIXED: Save lecturers to file
+    // FIXED: Save lecturers to file (under lecturerLock, so no lecturer changes while it is written)
     public void saveLecturersToFile() {
+        lecturerLock.lock();
         try {
             fileDataService.saveLecturers(lecturers);
             System.out.println("✅ Lecturers data saved successfully");
         } catch (Exception e) {
             System.err.println("❌ Error saving lecturers data: " + e.getMessage());
+        } finally {
+            lecturerLock.unlock();
         }
     }
 
@@ -0,0 +1,204 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.config.SseSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Live check-in feed for the lecturer dashboard (GET /lecturer/attendance-feed, Server-Sent
+ * Events), so lecturers no longer reload the page to see who has checked in.
+ *
+ * AttendanceManager reports each lecture's start, check-ins and end here. Every running lecture
+ * has one feed with any number of viewers: an event is serialized once and written to all of them.
+ * A viewer first gets a "snapshot" (counts and the latest check-ins), then "check-in" events as
+ * students mark, a "tick" with the remaining time every app.lecture-feed.tick-ms, and "ended" when
+ * the lecture closes, after which the stream is completed. Events are queued per viewer and
+ * written by SseSender, so a slow viewer never holds up the student marking attendance, and one
+ * that stops reading is dropped.
+ */
+@Service
+public class LectureFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(LectureFeedService.class);
+    private static final int RECENT_CHECK_INS = 50;
+
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private SseSender sseSender;
+
+    @Value("${app.lecture-feed.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+
+    // ========== EVENTS FROM AttendanceManager ==========
+
+    public void lectureStarted(String unitCode, int rosterSize, Supplier<String> remainingTime) {
+        Feed previous = feeds.put(unitCode, new Feed(unitCode, rosterSize, remainingTime));
+        if (previous != null) {
+            close(previous, "restarted", 0);
+        }
+    }
+
+    public void checkedIn(String unitCode, String studentId, String studentName) {
+        Feed feed = feeds.get(unitCode);
+        if (feed == null) return;
+
+        Map<String, Object> checkIn = new HashMap<>();
+        checkIn.put("studentId", studentId);
+        checkIn.put("studentName", studentName);
+        checkIn.put("time", LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("HH:mm:ss")));
+        Map<String, Object> data = new HashMap<>(checkIn);
+        data.put("rosterSize", feed.rosterSize);
+        data.put("remainingTime", feed.remainingTime.get());
+        synchronized (feed) {
+            feed.present++;
+            feed.recent.addFirst(checkIn);
+            if (feed.recent.size() > RECENT_CHECK_INS) feed.recent.removeLast();
+            data.put("present", feed.present);
+            publish(feed, "check-in", data);
+        }
+    }
+
+    public void lectureEnded(String unitCode, String reason, int absenteesMarked) {
+        Feed feed = feeds.remove(unitCode);
+        if (feed != null) {
+            close(feed, reason, absenteesMarked);
+        }
+    }
+
+    // ========== VIEWERS ==========
+
+    /**
+     * A stream for one viewer of a unit's lecture. With no lecture running it gets a single
+     * inactive snapshot and is completed.
+     */
+    public SseEmitter subscribe(String unitCode) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SseSender.Viewer viewer = sseSender.open(emitter);
+        Feed feed = unitCode != null ? feeds.get(unitCode) : null;
+        if (feed == null) {
+            sendInactive(viewer, unitCode);
+            return emitter;
+        }
+
+        emitter.onCompletion(() -> feed.viewers.remove(viewer));
+        emitter.onTimeout(() -> feed.viewers.remove(viewer));
+        emitter.onError(e -> feed.viewers.remove(viewer));
+        String remainingTime = feed.remainingTime.get();
+        // The snapshot is queued and the viewer joins under the feed's monitor, the same one every
+        // event is queued under, so no event is missed or seen twice
+        synchronized (feed) {
+            if (feed.closed) {
+                sendInactive(viewer, unitCode); // ended while this viewer was joining
+            } else if (viewer.send("snapshot", sseSender.toJson(snapshot(feed, remainingTime)))) {
+                feed.viewers.add(viewer);
+            }
+        }
+        log.atDebug().addKeyValue("unitCode", unitCode).addKeyValue("viewers", feed.viewers.size() + 1)
+                .log("Lecture feed viewer joined");
+        return emitter;
+    }
+
+    public int getViewerCount() {
+        return feeds.values().stream().mapToInt(feed -> feed.viewers.size()).sum();
+    }
+
+    /**
+     * Remaining time for every lecture someone is watching
+     */
+    @Scheduled(fixedRateString = "${app.lecture-feed.tick-ms:5000}", initialDelayString = "${app.lecture-feed.tick-ms:5000}")
+    public void tick() {
+        for (Feed feed : feeds.values()) {
+            if (feed.viewers.isEmpty()) continue;
+            Map<String, Object> data = new HashMap<>();
+            data.put("rosterSize", feed.rosterSize);
+            data.put("remainingTime", feed.remainingTime.get());
+            synchronized (feed) {
+                data.put("present", feed.present);
+                publish(feed, "tick", data);
+            }
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private void sendInactive(SseSender.Viewer viewer, String unitCode) {
+        Map<String, Object> inactive = new HashMap<>();
+        inactive.put("unitCode", unitCode);
+        inactive.put("active", false);
+        viewer.send("snapshot", sseSender.toJson(inactive));
+        viewer.complete();
+    }
+
+    // Called under the feed's monitor
+    private static Map<String, Object> snapshot(Feed feed, String remainingTime) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("unitCode", feed.unitCode);
+        data.put("active", true);
+        data.put("present", feed.present);
+        data.put("recentCheckIns", new ArrayList<>(feed.recent));
+        data.put("rosterSize", feed.rosterSize);
+        data.put("remainingTime", remainingTime);
+        return data;
+    }
+
+    private void close(Feed feed, String reason, int absenteesMarked) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("reason", reason);
+        data.put("rosterSize", feed.rosterSize);
+        data.put("absenteesMarked", absenteesMarked);
+        synchronized (feed) {
+            data.put("present", feed.present);
+            String json = sseSender.toJson(data);
+            feed.closed = true;
+            for (SseSender.Viewer viewer : feed.viewers) {
+                viewer.send("ended", json);
+                viewer.complete();
+            }
+            feed.viewers.clear();
+        }
+    }
+
+    // Called under the feed's monitor, so every viewer gets the feed's events in the same order
+    private void publish(Feed feed, String name, Map<String, Object> data) {
+        sseSender.publish(feed.viewers, name, data);
+    }
+
+    private static final class Feed {
+        final String unitCode;
+        final int rosterSize;
+        final Supplier<String> remainingTime;
+        final List<SseSender.Viewer> viewers = new CopyOnWriteArrayList<>();
+        // Guarded by the feed's monitor
+        final Deque<Map<String, Object>> recent = new ArrayDeque<>();
+        int present;
+        boolean closed;
+
+        Feed(String unitCode, int rosterSize, Supplier<String> remainingTime) {
+            this.unitCode = unitCode;
+            this.rosterSize = rosterSize;
+            this.remainingTime = remainingTime;
+        }
+    }
+}
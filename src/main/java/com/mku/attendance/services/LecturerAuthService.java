@@ -1,9 +1,11 @@
 package com.mku.attendance.services;
 
+import com.mku.attendance.config.AppMetrics;
 import com.mku.attendance.entities.LecturerData;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,6 +21,12 @@ public class LecturerAuthService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private AppMetrics appMetrics;
+
+    @Autowired
+    private Clock clock;
+
     // Simple OTP storage - lecturerId -> OTP data
     private final Map<String, Map<String, Object>> otpStore = new ConcurrentHashMap<>();
     private final Random random = new Random();
@@ -61,6 +69,10 @@ public class LecturerAuthService {
      * Initiate password reset process for lecturer
      */
     public Map<String, Object> initiatePasswordReset(String lecturerId, String email) {
+        return appMetrics.timeResult("auth.otp.issue", () -> doInitiatePasswordReset(lecturerId, email), "role", "lecturer", "reason", "initial");
+    }
+
+    private Map<String, Object> doInitiatePasswordReset(String lecturerId, String email) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🚀 ===== LECTURER PASSWORD RESET INITIATED =====");
@@ -101,7 +113,7 @@ public class LecturerAuthService {
 
         // Generate OTP
         String otp = generateOTP();
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(clock);
         LocalDateTime expiresAt = now.plusMinutes(10);
 
         // Store OTP data
@@ -161,6 +173,10 @@ public class LecturerAuthService {
      * Verify OTP for lecturer
      */
     public Map<String, Object> verifyOTP(String lecturerId, String otp) {
+        return appMetrics.timeResult("auth.otp.verify", () -> doVerifyOTP(lecturerId, otp), "role", "lecturer", "reset", "false");
+    }
+
+    private Map<String, Object> doVerifyOTP(String lecturerId, String otp) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🔐 ===== LECTURER OTP VERIFICATION ATTEMPT =====");
@@ -187,7 +203,7 @@ public class LecturerAuthService {
 
         // Check if OTP is expired
         LocalDateTime expiresAt = (LocalDateTime) otpData.get("expiresAt");
-        if (LocalDateTime.now().isAfter(expiresAt)) {
+        if (LocalDateTime.now(clock).isAfter(expiresAt)) {
             System.out.println("❌ OTP verification failed: OTP expired");
             otpStore.remove(lecturerId);
             result.put("success", false);
@@ -235,6 +251,10 @@ public class LecturerAuthService {
      * Reset password after OTP verification
      */
     public Map<String, Object> resetPassword(String lecturerId, String otp, String newPassword) {
+        return appMetrics.timeResult("auth.otp.verify", () -> doResetPassword(lecturerId, otp, newPassword), "role", "lecturer", "reset", "true");
+    }
+
+    private Map<String, Object> doResetPassword(String lecturerId, String otp, String newPassword) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🔑 ===== LECTURER PASSWORD RESET ATTEMPT =====");
@@ -279,7 +299,7 @@ public class LecturerAuthService {
 
         // Check if OTP is expired
         LocalDateTime expiresAt = (LocalDateTime) otpData.get("expiresAt");
-        if (LocalDateTime.now().isAfter(expiresAt)) {
+        if (LocalDateTime.now(clock).isAfter(expiresAt)) {
             System.out.println("❌ Password reset failed: OTP expired");
             otpStore.remove(lecturerId);
             result.put("success", false);
@@ -332,6 +352,10 @@ public class LecturerAuthService {
      * Resend OTP
      */
     public Map<String, Object> resendOTP(String lecturerId) {
+        return appMetrics.timeResult("auth.otp.issue", () -> doResendOTP(lecturerId), "role", "lecturer", "reason", "resend");
+    }
+
+    private Map<String, Object> doResendOTP(String lecturerId) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("\n🔄 ===== RESENDING OTP =====");
@@ -348,7 +372,7 @@ public class LecturerAuthService {
 
         // Generate new OTP
         String newOtp = generateOTP();
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(clock);
         LocalDateTime expiresAt = now.plusMinutes(10);
 
         // Update OTP data
@@ -403,6 +427,10 @@ public class LecturerAuthService {
      * Login lecturer for web
      */
     public Map<String, Object> loginLecturerForWeb(String lecturerId, String password) {
+        return appMetrics.timeResult("auth.login", () -> doLoginLecturerForWeb(lecturerId, password), "role", "lecturer", "channel", "web");
+    }
+
+    private Map<String, Object> doLoginLecturerForWeb(String lecturerId, String password) {
         Map<String, Object> result = new HashMap<>();
 
         System.out.println("🌐 Web login attempt for lecturer: " + lecturerId);
@@ -436,7 +464,7 @@ public class LecturerAuthService {
      * Clean up expired OTPs
      */
     public void cleanupExpiredOTPs() {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(clock);
         otpStore.entrySet().removeIf(entry -> {
             Map<String, Object> otpData = entry.getValue();
             LocalDateTime expiresAt = (LocalDateTime) otpData.get("expiresAt");
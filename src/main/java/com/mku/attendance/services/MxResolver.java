@@ -0,0 +1,265 @@
+package com.mku.attendance.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * MX lookups for email validation. DNS contexts are pooled and reused instead of building a new
+ * InitialDirContext per lookup, answers are cached (shorter TTL for "no MX"), concurrent lookups
+ * of the same domain share one query, and callers never wait longer than the configured deadline.
+ * Lookups run on a small dedicated pool of platform threads: the JNDI DNS client blocks inside
+ * Selector.select(), which pins a virtual thread's carrier, so running it on virtual threads would
+ * quietly exhaust the carrier pool under load. Callers (request or virtual threads) just wait on
+ * the result with a deadline.
+ *
+ * The cache holds at most app.dns.cache-max-entries domains. Expired answers are swept out
+ * periodically, and when the cache is full the least recently used answers go first.
+ *
+ * Set app.dns.server (host:port) to query a specific server, e.g. the stub DNS server used in
+ * load tests; leave it empty to use the system resolvers.
+ */
+@Service
+public class MxResolver {
+
+    @Value("${app.dns.server:}")
+    private String dnsServer;
+
+    @Value("${app.dns.timeout-ms:1000}")
+    private int timeoutMs;
+
+    @Value("${app.dns.retries:1}")
+    private int retries;
+
+    @Value("${app.dns.deadline-ms:3000}")
+    private long deadlineMs;
+
+    @Value("${app.dns.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    @Value("${app.dns.negative-cache-ttl-seconds:60}")
+    private long negativeCacheTtlSeconds;
+
+    @Value("${app.dns.max-concurrent-lookups:32}")
+    private int maxConcurrentLookups;
+
+    @Value("${app.dns.cache-max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private final Queue<DirContext> idleContexts = new ConcurrentLinkedQueue<>();
+    private final Map<String, CachedLookup> cache = new ConcurrentHashMap<>();
+    private ExecutorService lookupExecutor;
+
+    @PostConstruct
+    public void start() {
+        lookupExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentLookups),
+                Thread.ofPlatform().name("mx-lookup-", 1).daemon(true).factory());
+    }
+
+    /**
+     * Mail hosts for the domain, lowest preference first. Empty if the domain has no MX records
+     * or the lookup did not finish before the deadline.
+     */
+    public List<String> resolveMx(String domain) {
+        if (domain == null || domain.isEmpty()) {
+            return List.of();
+        }
+        String key = domain.toLowerCase();
+
+        long now = System.nanoTime();
+        CachedLookup lookup = cache.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(now) ? existing : startLookup(k));
+        lookup.lastUsedNanos = now;
+        if (cache.size() > cacheMaxEntries) {
+            trimCache();
+        }
+
+        try {
+            return lookup.future.get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("⏱️ MX lookup for " + key + " exceeded " + deadlineMs + "ms");
+            return List.of();
+        } catch (ExecutionException e) {
+            System.err.println("❌ DNS lookup failed for domain " + key + ": " + e.getCause().getMessage());
+            return List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+
+    public String resolvePrimaryMx(String domain) {
+        List<String> hosts = resolveMx(domain);
+        return hosts.isEmpty() ? null : hosts.get(0);
+    }
+
+    public int getCachedDomainCount() {
+        return cache.size();
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${app.dns.cache-sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        cache.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+    }
+
+    /**
+     * Drops expired answers, then the least recently used finished ones, until the cache is back
+     * to 90% of its cap so a full cache is not trimmed again on every new domain. Lookups still in
+     * flight are kept since callers are waiting on them.
+     */
+    private synchronized void trimCache() {
+        if (cache.size() <= cacheMaxEntries) {
+            return;
+        }
+        evictExpired();
+        int target = Math.max(0, cacheMaxEntries - cacheMaxEntries / 10);
+        int excess = cache.size() - target;
+        if (excess <= 0) {
+            return;
+        }
+        cache.entrySet().stream()
+                .filter(entry -> entry.getValue().future.isDone())
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsedNanos))
+                .limit(excess)
+                .toList()
+                .forEach(entry -> cache.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private CachedLookup startLookup(String domain) {
+        CachedLookup lookup = new CachedLookup();
+        lookupExecutor.execute(() -> {
+            try {
+                List<String> hosts = queryMx(domain);
+                long ttl = hosts.isEmpty() ? negativeCacheTtlSeconds : cacheTtlSeconds;
+                lookup.expiresAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl);
+                lookup.future.complete(hosts);
+            } catch (NamingException | RuntimeException e) {
+                // Timeouts, server failures and unexpected errors are not cached, the next caller
+                // tries again
+                cache.remove(domain, lookup);
+                lookup.future.completeExceptionally(e);
+            }
+        });
+        return lookup;
+    }
+
+    private List<String> queryMx(String domain) throws NamingException {
+        DirContext context = borrowContext();
+        boolean reusable = true;
+        try {
+            Attributes attributes = context.getAttributes(domain, new String[]{"MX"});
+            return parseMx(attributes.get("MX"));
+        } catch (NameNotFoundException e) {
+            return List.of();
+        } catch (NamingException | RuntimeException e) {
+            reusable = false;
+            throw e;
+        } finally {
+            if (reusable) {
+                idleContexts.offer(context);
+            } else {
+                closeQuietly(context);
+            }
+        }
+    }
+
+    private List<String> parseMx(Attribute mx) throws NamingException {
+        if (mx == null) {
+            return List.of();
+        }
+        List<MxRecord> records = new ArrayList<>();
+        NamingEnumeration<?> values = mx.getAll();
+        while (values.hasMore()) {
+            // "10 alt1.gmail-smtp-in.l.google.com."
+            String[] parts = values.next().toString().trim().split("\\s+");
+            if (parts.length < 2) continue;
+            String host = parts[1].endsWith(".") ? parts[1].substring(0, parts[1].length() - 1) : parts[1];
+            if (host.isEmpty()) continue; // null MX ("0 .") means the domain accepts no mail
+            try {
+                records.add(new MxRecord(Integer.parseInt(parts[0]), host));
+            } catch (NumberFormatException e) {
+                records.add(new MxRecord(Integer.MAX_VALUE, host));
+            }
+        }
+        return records.stream()
+                .sorted(Comparator.comparingInt(MxRecord::preference))
+                .map(MxRecord::host)
+                .toList();
+    }
+
+    private DirContext borrowContext() throws NamingException {
+        DirContext context = idleContexts.poll();
+        if (context != null) {
+            return context;
+        }
+
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.dns.DnsContextFactory");
+        env.put("com.sun.jndi.dns.timeout.initial", String.valueOf(timeoutMs));
+        env.put("com.sun.jndi.dns.timeout.retries", String.valueOf(retries));
+        if (dnsServer != null && !dnsServer.isBlank()) {
+            env.put(Context.PROVIDER_URL, "dns://" + dnsServer.trim());
+        }
+        return new InitialDirContext(env);
+    }
+
+    private void closeQuietly(DirContext context) {
+        try {
+            context.close();
+        } catch (NamingException e) {
+            // ignore
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+        DirContext context;
+        while ((context = idleContexts.poll()) != null) {
+            closeQuietly(context);
+        }
+    }
+
+    private record MxRecord(int preference, String host) {
+    }
+
+    private static class CachedLookup {
+        private final CompletableFuture<List<String>> future = new CompletableFuture<>();
+        // Stays "never" while the query is in flight so concurrent callers join it
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        boolean isExpired(long now) {
+            return expiresAtNanos != Long.MAX_VALUE && now - expiresAtNanos > 0;
+        }
+    }
+}
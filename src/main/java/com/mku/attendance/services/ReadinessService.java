@@ -0,0 +1,218 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.config.AppThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks startup progress and email health without holding up startup.
+ *
+ *   STARTING    - Spring context is being built
+ *   DATA_LOADED - all managers have loaded their JSON files (context refreshed)
+ *   WARMING_UP  - the web server is up and WarmupService is exercising the read paths (optional)
+ *   READY       - the web server is accepting requests
+ *
+ * The latency of the first request after READY (probes and static files aside) is recorded by
+ * FirstRequestFilter, so the effect of warmup can be seen in /api/system/readiness.
+ *
+ * Email health starts UNKNOWN and is filled in by a background SMTP probe that runs shortly after
+ * startup and then periodically; a failing probe marks email DEGRADED but never affects readiness,
+ * since OTPs are still shown in the console and queued emails are retried. The probe has its own
+ * thread: a slow SMTP server can hold it for the full connect timeout, which must not delay the
+ * shared @Scheduled jobs.
+ */
+@Service
+public class ReadinessService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadinessService.class);
+
+    public enum State { STARTING, DATA_LOADED, WARMING_UP, READY }
+
+    public enum EmailHealth { UNKNOWN, OK, DEGRADED, DISABLED }
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private WarmupService warmupService;
+
+    @Autowired
+    private AppThreads appThreads;
+
+    @Value("${app.health.email-probe.initial-delay-ms:5000}")
+    private long emailProbeInitialDelayMs;
+
+    @Value("${app.health.email-probe.interval-ms:300000}")
+    private long emailProbeIntervalMs;
+
+    private ScheduledExecutorService emailProbeExecutor;
+
+    // JVM start, so the timings include Spring's own startup
+    private final LocalDateTime startedAt = LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime()), ZoneId.systemDefault());
+    private volatile State state = State.STARTING;
+    private volatile LocalDateTime dataLoadedAt;
+    private volatile LocalDateTime readyAt;
+    private volatile String firstRequest;
+    private volatile long firstRequestMillis;
+
+    private volatile EmailHealth emailHealth = EmailHealth.UNKNOWN;
+    private volatile LocalDateTime lastEmailProbeAt;
+    private volatile long lastEmailProbeMillis;
+    private volatile String lastEmailError;
+    private volatile boolean configurationLogged;
+
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        if (state == State.STARTING) {
+            dataLoadedAt = LocalDateTime.now();
+            state = State.DATA_LOADED;
+            log.atInfo().addKeyValue("state", State.DATA_LOADED)
+                    .addKeyValue("millis", Duration.between(startedAt, dataLoadedAt).toMillis()).log("Readiness changed");
+        }
+    }
+
+    // Before any other ready listener, so they see READY (and a warmed-up app)
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (warmupService.isEnabled() && event.getApplicationContext() instanceof WebServerApplicationContext web) {
+            state = State.WARMING_UP;
+            log.atInfo().addKeyValue("state", State.WARMING_UP)
+                    .addKeyValue("millis", Duration.between(startedAt, LocalDateTime.now()).toMillis()).log("Readiness changed");
+            warmupService.run(web.getWebServer().getPort());
+        }
+        readyAt = LocalDateTime.now();
+        state = State.READY;
+        log.atInfo().addKeyValue("state", State.READY).addKeyValue("millis", Duration.between(startedAt, readyAt).toMillis())
+                .addKeyValue("email", emailHealth).log("Readiness changed");
+    }
+
+    /**
+     * Called by FirstRequestFilter for every request that completes after READY; only the first
+     * one is kept.
+     */
+    public void recordFirstRequest(String request, long millis) {
+        synchronized (this) {
+            if (firstRequest != null) return;
+            firstRequestMillis = millis;
+            firstRequest = request;
+        }
+        log.atInfo().addKeyValue("request", request).addKeyValue("millis", millis).log("First request after READY");
+    }
+
+    public boolean isFirstRequestRecorded() {
+        return firstRequest != null;
+    }
+
+    @PostConstruct
+    public void startEmailProbe() {
+        emailProbeExecutor = Executors.newSingleThreadScheduledExecutor(appThreads.factory("email-probe-"));
+        // An exception escaping a run would cancel every later one
+        emailProbeExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                probeEmail();
+            } catch (RuntimeException e) {
+                log.atWarn().addKeyValue("error", e.getMessage()).log("Email probe failed");
+            }
+        }, emailProbeInitialDelayMs, emailProbeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopEmailProbe() {
+        emailProbeExecutor.shutdownNow();
+    }
+
+    /**
+     * Background SMTP probe. The first run happens a few seconds after startup, then it repeats.
+     */
+    public void probeEmail() {
+        if (!configurationLogged) {
+            configurationLogged = true;
+            emailService.testEmailConfiguration();
+        }
+
+        if (!emailService.isEmailEnabled()) {
+            emailHealth = EmailHealth.DISABLED;
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            emailService.testSmtpConnection();
+            lastEmailError = null;
+            updateEmailHealth(EmailHealth.OK);
+        } catch (Exception e) {
+            lastEmailError = e.getMessage();
+            updateEmailHealth(EmailHealth.DEGRADED);
+        } finally {
+            lastEmailProbeMillis = (System.nanoTime() - start) / 1_000_000;
+            lastEmailProbeAt = LocalDateTime.now();
+        }
+    }
+
+    private void updateEmailHealth(EmailHealth health) {
+        if (health != emailHealth) {
+            log.atLevel(health == EmailHealth.OK ? Level.INFO : Level.WARN).addKeyValue("from", emailHealth)
+                    .addKeyValue("to", health).addKeyValue("error", lastEmailError).log("Email health changed");
+        }
+        emailHealth = health;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    public EmailHealth getEmailHealth() {
+        return emailHealth;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", state.name());
+        status.put("ready", isReady());
+        status.put("startedAt", startedAt.toString());
+        status.put("dataLoadedAt", dataLoadedAt != null ? dataLoadedAt.toString() : null);
+        status.put("readyAt", readyAt != null ? readyAt.toString() : null);
+        status.put("warmup", warmupService.getStatus());
+
+        Map<String, Object> first = new HashMap<>();
+        first.put("request", firstRequest);
+        first.put("millis", firstRequest != null ? firstRequestMillis : null);
+        status.put("firstRequest", first);
+
+        Map<String, Object> email = new HashMap<>();
+        email.put("health", emailHealth.name());
+        email.put("lastProbeAt", lastEmailProbeAt != null ? lastEmailProbeAt.toString() : null);
+        email.put("lastProbeMillis", lastEmailProbeMillis);
+        email.put("lastError", lastEmailError);
+        status.put("email", email);
+        return status;
+    }
+}
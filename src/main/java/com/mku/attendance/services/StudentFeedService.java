@@ -0,0 +1,185 @@
+package com.mku.attendance.services;
+
+import com.mku.attendance.config.SseSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Which units each student currently has an open lecture in, and a push channel per student
+ * (GET /api/students/{studentId}/lecture-feed, Server-Sent Events) so the dashboard hears about a
+ * lecture starting instead of polling for it.
+ *
+ * The open units are kept up to date as things happen rather than worked out per request:
+ * AttendanceManager reports lectures opening and closing, with the unit's roster from
+ * StudentManager, and StudentManager reports registration changes so a student who adds or drops
+ * a unit during a lecture is moved in or out. Subscribers get a "snapshot" of their open units,
+ * then "lecture-started" and "lecture-ended" events; one event is serialized once for everyone on
+ * the unit's roster who is listening.
+ */
+@Service
+public class StudentFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentFeedService.class);
+
+    @Autowired
+    private SseSender sseSender;
+
+    @Value("${app.student-feed.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    // Unit code -> its open lecture; changes are made under this object's monitor
+    private final Map<String, OpenLecture> openLectures = new ConcurrentHashMap<>();
+    // Student id (upper case) -> units with an open lecture the student is registered for
+    private final Map<String, Set<String>> openUnitsByStudent = new ConcurrentHashMap<>();
+    // Student id (upper case) -> listening viewers; lists are added to and removed under this object's monitor
+    private final Map<String, List<SseSender.Viewer>> subscribers = new ConcurrentHashMap<>();
+
+    // ========== EVENTS ==========
+
+    /**
+     * A lecture opened for unitCode; roster holds the registered students' ids (upper case)
+     */
+    public synchronized void lectureOpened(String unitCode, Set<String> roster, Supplier<String> remainingTime) {
+        OpenLecture previous = openLectures.remove(unitCode);
+        if (previous != null) {
+            previous.students.forEach(studentId -> removeOpenUnit(studentId, unitCode));
+        }
+        OpenLecture lecture = new OpenLecture(unitCode, new HashSet<>(roster), remainingTime);
+        openLectures.put(unitCode, lecture);
+        for (String studentId : lecture.students) {
+            openUnitsByStudent.computeIfAbsent(studentId, k -> ConcurrentHashMap.newKeySet()).add(unitCode);
+        }
+        notify(lecture.students, "lecture-started", lectureData(lecture));
+        log.atDebug().addKeyValue("unitCode", unitCode).addKeyValue("students", roster.size()).log("Lecture opened for students");
+    }
+
+    public synchronized void lectureClosed(String unitCode) {
+        OpenLecture lecture = openLectures.remove(unitCode);
+        if (lecture == null) return;
+        lecture.students.forEach(studentId -> removeOpenUnit(studentId, unitCode));
+        notify(lecture.students, "lecture-ended", Map.of("unitCode", unitCode));
+    }
+
+    /**
+     * A student's registered units changed (or the student was added or removed, with no units)
+     */
+    public synchronized void registrationChanged(String studentId, Set<String> registeredUnits) {
+        if (studentId == null || openLectures.isEmpty()) return;
+        String key = studentId.toUpperCase();
+        for (OpenLecture lecture : openLectures.values()) {
+            boolean registered = registeredUnits.contains(lecture.unitCode.toUpperCase());
+            if (registered && lecture.students.add(key)) {
+                openUnitsByStudent.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(lecture.unitCode);
+                notify(List.of(key), "lecture-started", lectureData(lecture));
+            } else if (!registered && lecture.students.remove(key)) {
+                removeOpenUnit(key, lecture.unitCode);
+                notify(List.of(key), "lecture-ended", Map.of("unitCode", lecture.unitCode));
+            }
+        }
+    }
+
+    // ========== QUERIES AND SUBSCRIPTIONS ==========
+
+    /**
+     * Units with an open lecture the student is registered for (lectures past their end time stay
+     * here until AttendanceManager closes them)
+     */
+    public Set<String> getOpenUnits(String studentId) {
+        if (studentId == null) return Collections.emptySet();
+        Set<String> units = openUnitsByStudent.get(studentId.toUpperCase());
+        return units != null ? new HashSet<>(units) : Collections.emptySet();
+    }
+
+    public SseEmitter subscribe(String studentId) {
+        String key = studentId.toUpperCase();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SseSender.Viewer viewer = sseSender.open(emitter);
+        // Joining and leaving both change the student's list under this object's monitor, so a
+        // viewer that leaves before it has joined is never added and a list is only dropped once empty
+        AtomicBoolean left = new AtomicBoolean();
+        Runnable remove = () -> {
+            synchronized (this) {
+                left.set(true);
+                subscribers.computeIfPresent(key, (k, list) -> {
+                    list.remove(viewer);
+                    return list.isEmpty() ? null : list;
+                });
+            }
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        // The snapshot is queued and the viewer joins under the monitor every event is queued
+        // under, so no event is missed or seen twice
+        synchronized (this) {
+            List<Map<String, Object>> open = new ArrayList<>();
+            for (String unitCode : getOpenUnits(key)) {
+                OpenLecture lecture = openLectures.get(unitCode);
+                if (lecture != null) open.add(lectureData(lecture));
+            }
+            if (!left.get() && viewer.send("snapshot", sseSender.toJson(Map.of("openLectures", open)))) {
+                subscribers.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(viewer);
+            }
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    // ========== HELPERS ==========
+
+    private void removeOpenUnit(String studentId, String unitCode) {
+        openUnitsByStudent.computeIfPresent(studentId, (k, units) -> {
+            units.remove(unitCode);
+            return units.isEmpty() ? null : units;
+        });
+    }
+
+    private void notify(Collection<String> studentIds, String name, Map<String, Object> data) {
+        List<SseSender.Viewer> listening = new ArrayList<>();
+        for (String studentId : studentIds) {
+            List<SseSender.Viewer> viewers = subscribers.get(studentId);
+            if (viewers != null) listening.addAll(viewers);
+        }
+        // A viewer that has gone away or was dropped is removed by its completion callback
+        sseSender.publish(listening, name, data);
+    }
+
+    private static Map<String, Object> lectureData(OpenLecture lecture) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("unitCode", lecture.unitCode);
+        data.put("remainingTime", lecture.remainingTime.get());
+        return data;
+    }
+
+    private static final class OpenLecture {
+        final String unitCode;
+        final Set<String> students;
+        final Supplier<String> remainingTime;
+
+        OpenLecture(String unitCode, Set<String> students, Supplier<String> remainingTime) {
+            this.unitCode = unitCode;
+            this.students = students;
+            this.remainingTime = remainingTime;
+        }
+    }
+}
@@ -1,47 +1,123 @@
 package com.mku.attendance.services;
 
+import com.mku.attendance.entities.Attendance;
 import com.mku.attendance.entities.StudentData;
 import com.mku.attendance.entities.AttendanceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class StudentManager {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentManager.class);
+
     private Map<String, StudentData> students = new HashMap<>();
+    // Unit code -> ids of the students registered for it, kept in step with registeredUnits
+    private final Map<String, Set<String>> rosters = new ConcurrentHashMap<>();
+    // Unit code (upper case) -> bumped whenever that roster may have changed, so views built from
+    // the roster can tell they are stale
+    private final Map<String, AtomicLong> rosterVersions = new ConcurrentHashMap<>();
     private final FileDataService fileDataService;
+    private final AttendanceStore attendanceStore;
+
+    @Autowired
+    private Clock clock;
 
     @Autowired
-    public StudentManager(FileDataService fileDataService) {
+    private StudentFeedService studentFeedService;
+
+    @Autowired
+    public StudentManager(FileDataService fileDataService, AttendanceStore attendanceStore) {
         this.fileDataService = fileDataService;
-        System.out.println("✅ StudentManager initializing...");
+        this.attendanceStore = attendanceStore;
+        log.info("StudentManager initializing...");
 
         // Load students from file
         try {
             students = fileDataService.loadStudents();
             if (students == null) {
                 students = new HashMap<>();
-                System.out.println("ℹ️ No students data loaded, initializing empty student map");
+                log.info("No students data loaded, initializing empty student map");
             } else {
-                System.out.println("✅ StudentManager initialized with " + students.size() + " students");
-
-                // Debug: Print loaded students
-                if (!students.isEmpty()) {
-                    System.out.println("=== LOADED STUDENTS ===");
-                    students.forEach((id, student) -> {
-                        System.out.println("ID: " + id +
-                                ", Name: " + student.getName() +
-                                ", Course: " + student.getCourse() +
-                                ", Units: " + (student.getRegisteredUnits() != null ? student.getRegisteredUnits().size() : 0));
-                    });
-                    System.out.println("=======================");
-                }
+                log.info("StudentManager initialized with {} students", students.size());
             }
         } catch (Exception e) {
-            System.err.println("❌ Error loading students: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading students: {}", e.getMessage(), e);
             students = new HashMap<>();
         }
+
+        migrateAttendanceHistory();
+        students.values().forEach(this::attachAttendanceHistory);
+        students.values().forEach(this::addToRosters);
+    }
+
+    /**
+     * One-time migration: older students.json files carry each student's attendance history as
+     * well. Merge it into the attendance store (skipping records it already has) and
+     * rewrite both files once, so students.json only holds profiles from then on. students.json is
+     * only rewritten once the attendance store has saved, so a failed save loses nothing: the
+     * history is still in students.json and is migrated again on the next start.
+     */
+    private void migrateAttendanceHistory() {
+        List<Attendance> legacy = new ArrayList<>();
+        int studentsWithHistory = 0;
+        for (StudentData student : students.values()) {
+            List<AttendanceRecord> records = student.takeLegacyAttendanceRecords();
+            if (!records.isEmpty()) {
+                studentsWithHistory++;
+                records.forEach(record -> legacy.add(record.toAttendance()));
+            }
+        }
+        if (studentsWithHistory == 0) {
+            return;
+        }
+        int imported = attendanceStore.importRecords(legacy);
+        if (!attendanceStore.save()) {
+            log.atError().addKeyValue("students", studentsWithHistory).addKeyValue("records", legacy.size())
+                    .log("Attendance store could not be saved; keeping the history in students.json");
+            return;
+        }
+        saveStudentsToFile();
+        log.atInfo().addKeyValue("students", studentsWithHistory).addKeyValue("records", legacy.size())
+                .addKeyValue("imported", imported).addKeyValue("duplicates", legacy.size() - imported)
+                .log("Migrated per-student attendance history into the attendance store");
+    }
+
+    private void attachAttendanceHistory(StudentData student) {
+        student.setAttendanceHistory(attendanceStore::getRecordsForStudent);
+    }
+
+    private void addToRosters(StudentData student) {
+        if (student == null || student.getStudentId() == null) return;
+        String studentId = student.getStudentId().toUpperCase();
+        for (String unitCode : student.getRegisteredUnits()) {
+            rosters.computeIfAbsent(unitCode.toUpperCase(), k -> ConcurrentHashMap.newKeySet()).add(studentId);
+            bumpRosterVersion(unitCode);
+        }
+    }
+
+    private void removeFromRosters(StudentData student) {
+        if (student == null || student.getStudentId() == null) return;
+        String studentId = student.getStudentId().toUpperCase();
+        for (String unitCode : student.getRegisteredUnits()) {
+            Set<String> roster = rosters.get(unitCode.toUpperCase());
+            if (roster != null) roster.remove(studentId);
+            bumpRosterVersion(unitCode);
+        }
+    }
+
+    private void bumpRosterVersion(String unitCode) {
+        rosterVersions.computeIfAbsent(unitCode.toUpperCase(), k -> new AtomicLong()).incrementAndGet();
     }
 
     // ========== CRUD OPERATIONS ==========
@@ -49,21 +125,44 @@ public class StudentManager {
     public void addStudent(StudentData student) {
         if (student != null && student.getStudentId() != null) {
             String studentId = student.getStudentId().toUpperCase();
-            students.put(studentId, student);
+            attachAttendanceHistory(student);
+            removeFromRosters(students.put(studentId, student));
+            addToRosters(student);
+            studentFeedService.registrationChanged(studentId, student.getRegisteredUnits());
             saveStudentsToFile();
-            System.out.println("✅ Student added and saved: " + studentId + " - " + student.getName());
+            log.info("Student added and saved: {} - {}", studentId, student.getName());
         } else {
-            System.err.println("❌ Cannot add student: Student or Student ID is null");
+            log.warn("Cannot add student: Student or Student ID is null");
         }
     }
 
+    /**
+     * ADD MANY STUDENTS - bulk registration, written to disk once
+     */
+    public void addStudents(List<StudentData> newStudents) {
+        int added = 0;
+        for (StudentData student : newStudents) {
+            if (student != null && student.getStudentId() != null) {
+                attachAttendanceHistory(student);
+                removeFromRosters(students.put(student.getStudentId().toUpperCase(), student));
+                addToRosters(student);
+                studentFeedService.registrationChanged(student.getStudentId(), student.getRegisteredUnits());
+                added++;
+            }
+        }
+        if (added > 0) {
+            saveStudentsToFile();
+        }
+        log.info("Bulk added and saved {} students", added);
+    }
+
     /**
      * UPDATE STUDENT - NEW METHOD FOR REACT FRONTEND
      * Updates an existing student's information
      */
     public boolean updateStudent(StudentData updatedStudent) {
         if (updatedStudent == null || updatedStudent.getStudentId() == null) {
-            System.err.println("❌ Cannot update student: Student or Student ID is null");
+            log.warn("Cannot update student: Student or Student ID is null");
             return false;
         }
 
@@ -71,7 +170,7 @@ public class StudentManager {
         StudentData existingStudent = students.get(studentId);
 
         if (existingStudent == null) {
-            System.err.println("❌ Cannot update student: Student not found - " + studentId);
+            log.warn("Cannot update student: Student not found - {}", studentId);
             return false;
         }
 
@@ -81,8 +180,10 @@ public class StudentManager {
             existingStudent.setEmail(updatedStudent.getEmail());
             existingStudent.setPasswordHash(updatedStudent.getPasswordHash());
             existingStudent.setCourse(updatedStudent.getCourse());
+            removeFromRosters(existingStudent);
             existingStudent.setRegisteredUnits(updatedStudent.getRegisteredUnits());
-            existingStudent.setAttendanceRecords(updatedStudent.getAttendanceRecords());
+            addToRosters(existingStudent);
+            studentFeedService.registrationChanged(studentId, existingStudent.getRegisteredUnits());
             existingStudent.setEmailVerified(updatedStudent.isEmailVerified());
 
             // Update timestamps
@@ -90,12 +191,11 @@ public class StudentManager {
 
             // Save to file
             saveStudentsToFile();
-            System.out.println("✅ Student updated and saved: " + studentId + " - " + updatedStudent.getName());
+            log.info("Student updated and saved: {} - {}", studentId, updatedStudent.getName());
             return true;
 
         } catch (Exception e) {
-            System.err.println("❌ Error updating student " + studentId + ": " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error updating student {}: {}", studentId, e.getMessage(), e);
             return false;
         }
     }
@@ -105,35 +205,35 @@ public class StudentManager {
      */
     public boolean updateStudentPassword(String studentId, String newPassword) {
         if (studentId == null || newPassword == null) {
-            System.err.println("❌ Cannot update password: Student ID or new password is null");
+            log.warn("Cannot update password: Student ID or new password is null");
             return false;
         }
 
         StudentData student = students.get(studentId.toUpperCase());
         if (student == null) {
-            System.err.println("❌ Cannot update password: Student not found - " + studentId);
+            log.warn("Cannot update password: Student not found - {}", studentId);
             return false;
         }
 
         try {
             student.updatePassword(newPassword);
             saveStudentsToFile();
-            System.out.println("✅ Password updated for student: " + studentId);
+            log.info("Password updated for student: {}", studentId);
             return true;
 
         } catch (Exception e) {
-            System.err.println("❌ Error updating password for student " + studentId + ": " + e.getMessage());
+            log.error("Error updating password for student {}: {}", studentId, e.getMessage());
             return false;
         }
     }
 
     public StudentData getStudent(String studentId) {
         if (studentId == null) {
-            System.err.println("❌ Student lookup failed: Student ID is null");
+            log.warn("Student lookup failed: Student ID is null");
             return null;
         }
         StudentData student = students.get(studentId.toUpperCase());
-        System.out.println("🔍 Student lookup for '" + studentId + "': " + (student != null ? "FOUND" : "NOT FOUND"));
+        log.atDebug().addKeyValue("studentId", studentId).addKeyValue("found", student != null).log("Student lookup");
         return student;
     }
 
@@ -142,7 +242,7 @@ public class StudentManager {
             return false;
         }
         boolean exists = students.containsKey(studentId.toUpperCase());
-        System.out.println("🔍 Student exists check for '" + studentId + "': " + exists);
+        log.atDebug().addKeyValue("studentId", studentId).addKeyValue("exists", exists).log("Student exists check");
         return exists;
     }
 
@@ -150,14 +250,17 @@ public class StudentManager {
         return new HashMap<>(students);
     }
 
+    public int getStudentCount() {
+        return students.size();
+    }
+
     // Save students to file
     public void saveStudentsToFile() {
         try {
             fileDataService.saveStudents(students);
-            System.out.println("✅ Students data saved successfully (" + students.size() + " students)");
+            log.debug("Students data saved successfully ({} students)", students.size());
         } catch (Exception e) {
-            System.err.println("❌ Error saving students data: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error saving students data: {}", e.getMessage(), e);
         }
     }
 
@@ -165,7 +268,7 @@ public class StudentManager {
 
     public boolean registerUnitForStudent(String studentId, String unitCode) {
         if (studentId == null || unitCode == null) {
-            System.err.println("❌ Cannot register unit: Student ID or Unit Code is null");
+            log.warn("Cannot register unit: Student ID or Unit Code is null");
             return false;
         }
 
@@ -173,45 +276,50 @@ public class StudentManager {
         if (student != null) {
             boolean registered = student.registerUnit(unitCode);
             if (registered) {
+                addToRosters(student);
+                studentFeedService.registrationChanged(student.getStudentId(), student.getRegisteredUnits());
                 saveStudentsToFile();
-                System.out.println("✅ Unit registered and saved: " + unitCode + " for student " + studentId);
+                log.info("Unit registered and saved: {} for student {}", unitCode, studentId);
                 return true;
             } else {
-                System.err.println("❌ Unit registration failed: " + unitCode + " for student " + studentId);
+                log.warn("Unit registration failed: {} for student {}", unitCode, studentId);
                 return false;
             }
         } else {
-            System.err.println("❌ Student not found for unit registration: " + studentId);
+            log.warn("Student not found for unit registration: {}", studentId);
             return false;
         }
     }
 
     public boolean removeUnitFromStudent(String studentId, String unitCode) {
         if (studentId == null || unitCode == null) {
-            System.err.println("❌ Cannot remove unit: Student ID or Unit Code is null");
+            log.warn("Cannot remove unit: Student ID or Unit Code is null");
             return false;
         }
 
         StudentData student = students.get(studentId.toUpperCase());
         if (student != null) {
+            removeFromRosters(student);
             boolean removed = student.removeUnit(unitCode);
+            addToRosters(student);
+            studentFeedService.registrationChanged(student.getStudentId(), student.getRegisteredUnits());
             if (removed) {
                 saveStudentsToFile();
-                System.out.println("✅ Unit removed and saved: " + unitCode + " from student " + studentId);
+                log.info("Unit removed and saved: {} from student {}", unitCode, studentId);
                 return true;
             } else {
-                System.err.println("❌ Unit removal failed: " + unitCode + " from student " + studentId);
+                log.warn("Unit removal failed: {} from student {}", unitCode, studentId);
                 return false;
             }
         } else {
-            System.err.println("❌ Student not found for unit removal: " + studentId);
+            log.warn("Student not found for unit removal: {}", studentId);
             return false;
         }
     }
 
     public boolean updateStudentCourse(String studentId, String courseCode) {
         if (studentId == null || courseCode == null) {
-            System.err.println("❌ Cannot update course: Student ID or Course Code is null");
+            log.warn("Cannot update course: Student ID or Course Code is null");
             return false;
         }
 
@@ -220,64 +328,78 @@ public class StudentManager {
             boolean updated = student.registerCourse(courseCode);
             if (updated) {
                 saveStudentsToFile();
-                System.out.println("✅ Course updated and saved: " + courseCode + " for student " + studentId);
+                log.info("Course updated and saved: {} for student {}", courseCode, studentId);
                 return true;
             } else {
-                System.err.println("❌ Course update failed: " + courseCode + " for student " + studentId);
+                log.warn("Course update failed: {} for student {}", courseCode, studentId);
                 return false;
             }
         } else {
-            System.err.println("❌ Student not found for course update: " + studentId);
+            log.warn("Student not found for course update: {}", studentId);
             return false;
         }
     }
 
     // ========== ATTENDANCE METHODS ==========
 
-    public void markAttendance(String studentId, String unitCode, boolean present) {
-        if (studentId == null || unitCode == null) {
-            System.err.println("❌ Cannot mark attendance: Student ID or Unit Code is null");
-            return;
-        }
-
-        StudentData student = students.get(studentId.toUpperCase());
-        if (student != null) {
-            Set<String> registeredUnits = student.getRegisteredUnits();
-            if (registeredUnits != null && registeredUnits.contains(unitCode.toUpperCase())) {
-                AttendanceRecord record = new AttendanceRecord(studentId, unitCode, present);
-                student.addAttendanceRecord(unitCode, record);
-                saveStudentsToFile();
-                System.out.println("✅ Attendance marked and saved for student " + studentId +
-                        " in unit " + unitCode + ": " + (present ? "Present" : "Absent"));
-            } else {
-                System.err.println("❌ Student " + studentId + " is not registered for unit " + unitCode);
-            }
-        } else {
-            System.err.println("❌ Student not found: " + studentId);
-        }
+    /**
+     * A student's own mark for a unit, allowed only while a lecture is open for it; replaces any
+     * mark the student already has for today, so a day keeps one record. False if not recorded.
+     */
+    public boolean markAttendance(String studentId, String unitCode, boolean present) {
+        String timestamp = LocalDateTime.now(clock).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return markAttendanceWithTimestamp(studentId, unitCode, present, timestamp);
     }
 
-    // Enhanced mark attendance with timestamp
-    public void markAttendanceWithTimestamp(String studentId, String unitCode, boolean present, String timestamp) {
+    // Enhanced mark attendance with timestamp (yyyy-MM-dd or yyyy-MM-dd HH:mm:ss, and today's
+    // date, since marks are only taken while a lecture is running)
+    public boolean markAttendanceWithTimestamp(String studentId, String unitCode, boolean present, String timestamp) {
         if (studentId == null || unitCode == null || timestamp == null) {
-            System.err.println("❌ Cannot mark attendance: Missing required parameters");
-            return;
+            log.warn("Cannot mark attendance: Missing required parameters");
+            return false;
         }
 
         StudentData student = students.get(studentId.toUpperCase());
-        if (student != null) {
-            Set<String> registeredUnits = student.getRegisteredUnits();
-            if (registeredUnits != null && registeredUnits.contains(unitCode.toUpperCase())) {
-                AttendanceRecord record = new AttendanceRecord(studentId, unitCode, present, timestamp);
-                student.addAttendanceRecord(unitCode, record);
-                saveStudentsToFile();
-                System.out.println("✅ Attendance marked with timestamp for student " + studentId +
-                        " in unit " + unitCode + ": " + (present ? "Present" : "Absent") + " at " + timestamp);
-            } else {
-                System.err.println("❌ Student " + studentId + " is not registered for unit " + unitCode);
+        if (student == null) {
+            log.warn("Student not found: {}", studentId);
+            return false;
+        }
+        String unit = unitCode.toUpperCase();
+        Set<String> registeredUnits = student.getRegisteredUnits();
+        if (registeredUnits == null || !registeredUnits.contains(unit)) {
+            log.warn("Student {} is not registered for unit {}", studentId, unitCode);
+            return false;
+        }
+        if (studentFeedService.getOpenUnits(studentId).stream().noneMatch(unit::equalsIgnoreCase)) {
+            log.atWarn().addKeyValue("studentId", studentId).addKeyValue("unitCode", unitCode)
+                    .log("Attendance not marked: no lecture running for the unit");
+            return false;
+        }
+        String today = LocalDate.now(clock).toString();
+        if (!isTimestampOn(timestamp, today)) {
+            log.atWarn().addKeyValue("studentId", studentId).addKeyValue("timestamp", timestamp)
+                    .log("Attendance not marked: timestamp is not a time today");
+            return false;
+        }
+
+        String id = student.getStudentId();
+        attendanceStore.replace(unit, a -> id.equalsIgnoreCase(a.getStudentId()) &&
+                a.getDate() != null && a.getDate().startsWith(today),
+                List.of(new Attendance(id, unit, timestamp, present)));
+        attendanceStore.save();
+        log.atDebug().addKeyValue("studentId", studentId).addKeyValue("unitCode", unitCode).addKeyValue("present", present)
+                .addKeyValue("timestamp", timestamp).log("Attendance marked and saved");
+        return true;
+    }
+
+    private static boolean isTimestampOn(String timestamp, String day) {
+        try {
+            if (timestamp.length() == 10) {
+                return LocalDate.parse(timestamp).toString().equals(day);
             }
-        } else {
-            System.err.println("❌ Student not found: " + studentId);
+            return LocalDateTime.parse(timestamp, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")).toLocalDate().toString().equals(day);
+        } catch (DateTimeParseException e) {
+            return false;
         }
     }
 
@@ -294,7 +416,7 @@ public class StudentManager {
                 courseStudents.add(student);
             }
         }
-        System.out.println("📊 Found " + courseStudents.size() + " students in course: " + courseCode);
+        log.debug("Found {} students in course: {}", courseStudents.size(), courseCode);
         return courseStudents;
     }
 
@@ -304,16 +426,49 @@ public class StudentManager {
         }
 
         List<StudentData> unitStudents = new ArrayList<>();
-        for (StudentData student : students.values()) {
-            if (student != null && student.getRegisteredUnits() != null &&
-                    student.getRegisteredUnits().contains(unitCode.toUpperCase())) {
+        for (String studentId : getUnitRoster(unitCode)) {
+            StudentData student = students.get(studentId);
+            if (student != null) {
                 unitStudents.add(student);
             }
         }
-        System.out.println("📊 Found " + unitStudents.size() + " students registered for unit: " + unitCode);
+        log.debug("Found {} students registered for unit: {}", unitStudents.size(), unitCode);
         return unitStudents;
     }
 
+    /**
+     * Ids (upper case) of the students registered for a unit, from the roster index
+     */
+    public Set<String> getUnitRoster(String unitCode) {
+        if (unitCode == null) {
+            return new HashSet<>();
+        }
+        Set<String> roster = rosters.get(unitCode.toUpperCase());
+        return roster != null ? new HashSet<>(roster) : new HashSet<>();
+    }
+
+    /**
+     * How many students are registered for a unit, without copying its roster
+     */
+    public int getRosterSize(String unitCode) {
+        if (unitCode == null) {
+            return 0;
+        }
+        Set<String> roster = rosters.get(unitCode.toUpperCase());
+        return roster != null ? roster.size() : 0;
+    }
+
+    /**
+     * Changes whenever the unit's roster may have changed; read it before the roster
+     */
+    public long getRosterVersion(String unitCode) {
+        if (unitCode == null) {
+            return 0;
+        }
+        AtomicLong version = rosterVersions.get(unitCode.toUpperCase());
+        return version != null ? version.get() : 0;
+    }
+
     public Set<String> getStudentRegisteredUnits(String studentId) {
         if (studentId == null) {
             return new HashSet<>();
@@ -328,10 +483,24 @@ public class StudentManager {
 
     // ========== STATISTICS METHODS ==========
 
+    /**
+     * The student's attendance per unit (unit code upper case) from one read of their history;
+     * pass it to getAttendanceSummary and getOverallStatistics when a page shows both. Empty for
+     * an unknown student.
+     */
+    public Map<String, StudentData.UnitAttendance> getAttendanceByUnit(String studentId) {
+        StudentData student = studentId != null ? students.get(studentId.toUpperCase()) : null;
+        return student != null ? student.getAttendanceByUnit() : new HashMap<>();
+    }
+
     public Map<String, Map<String, Object>> getAttendanceSummary(String studentId) {
+        return getAttendanceSummary(studentId, getAttendanceByUnit(studentId));
+    }
+
+    public Map<String, Map<String, Object>> getAttendanceSummary(String studentId, Map<String, StudentData.UnitAttendance> byUnit) {
         Map<String, Map<String, Object>> summary = new HashMap<>();
         if (studentId == null) {
-            System.err.println("❌ Cannot get attendance summary: Student ID is null");
+            log.warn("Cannot get attendance summary: Student ID is null");
             return summary;
         }
 
@@ -339,29 +508,35 @@ public class StudentManager {
         if (student != null) {
             Set<String> registeredUnits = student.getRegisteredUnits();
             if (registeredUnits != null) {
+                LocalDate today = LocalDate.now(clock);
                 for (String unitCode : registeredUnits) {
+                    StudentData.UnitAttendance attendance = unitAttendance(byUnit, unitCode);
                     Map<String, Object> unitSummary = new HashMap<>();
-                    unitSummary.put("totalSessions", student.getTotalSessions(unitCode));
-                    unitSummary.put("presentCount", student.getPresentCount(unitCode));
-                    unitSummary.put("absentCount", student.getAbsentCount(unitCode));
-                    unitSummary.put("attendancePercentage", student.getAttendancePercentage(unitCode));
-                    unitSummary.put("todaysStatus", student.getTodaysAttendanceStatus(unitCode));
-                    unitSummary.put("lastAttendanceDate", student.getLastAttendanceDate(unitCode));
-                    unitSummary.put("lastAttendanceTime", student.getLastAttendanceTime(unitCode));
+                    unitSummary.put("totalSessions", attendance.getTotalSessions());
+                    unitSummary.put("presentCount", attendance.getPresentCount());
+                    unitSummary.put("absentCount", attendance.getAbsentCount());
+                    unitSummary.put("attendancePercentage", attendance.getAttendancePercentage());
+                    unitSummary.put("todaysStatus", attendance.getTodaysStatus(today));
+                    unitSummary.put("lastAttendanceDate", attendance.getLastAttendanceDate());
+                    unitSummary.put("lastAttendanceTime", attendance.getLastAttendanceTime());
                     summary.put(unitCode, unitSummary);
                 }
             }
-            System.out.println("📊 Generated attendance summary for student: " + studentId + " (" + summary.size() + " units)");
+            log.debug("Generated attendance summary for student: {} ({} units)", studentId, summary.size());
         } else {
-            System.err.println("❌ Student not found for attendance summary: " + studentId);
+            log.warn("Student not found for attendance summary: {}", studentId);
         }
         return summary;
     }
 
     public Map<String, Object> getOverallStatistics(String studentId) {
+        return getOverallStatistics(studentId, getAttendanceByUnit(studentId));
+    }
+
+    public Map<String, Object> getOverallStatistics(String studentId, Map<String, StudentData.UnitAttendance> byUnit) {
         Map<String, Object> stats = new HashMap<>();
         if (studentId == null) {
-            System.err.println("❌ Cannot get overall statistics: Student ID is null");
+            log.warn("Cannot get overall statistics: Student ID is null");
             return stats;
         }
 
@@ -370,53 +545,64 @@ public class StudentManager {
             int totalSessions = 0;
             int totalPresent = 0;
             int unitsWithAttendance = 0;
+            int unitsWithGoodAttendance = 0;
 
             Set<String> registeredUnits = student.getRegisteredUnits();
             if (registeredUnits != null) {
                 for (String unitCode : registeredUnits) {
-                    int unitSessions = student.getTotalSessions(unitCode);
+                    StudentData.UnitAttendance attendance = unitAttendance(byUnit, unitCode);
+                    if (attendance.getAttendancePercentage() >= 75) unitsWithGoodAttendance++;
+                    int unitSessions = attendance.getTotalSessions();
                     if (unitSessions > 0) {
                         totalSessions += unitSessions;
-                        totalPresent += student.getPresentCount(unitCode);
+                        totalPresent += attendance.getPresentCount();
                         unitsWithAttendance++;
                     }
                 }
             }
 
             double overallPercentage = totalSessions > 0 ? (totalPresent * 100.0) / totalSessions : 0.0;
+            int registered = registeredUnits != null ? registeredUnits.size() : 0;
 
             stats.put("totalSessions", totalSessions);
             stats.put("totalPresent", totalPresent);
             stats.put("totalAbsent", totalSessions - totalPresent);
             stats.put("overallPercentage", Math.round(overallPercentage * 100.0) / 100.0);
-            stats.put("registeredUnits", registeredUnits != null ? registeredUnits.size() : 0);
+            stats.put("registeredUnits", registered);
             stats.put("unitsWithAttendance", unitsWithAttendance);
-            stats.put("unitsWithGoodAttendance", student.getUnitsWithGoodAttendanceCount());
-            stats.put("unitsNeedingImprovement", student.getUnitsNeedingImprovementCount());
-            stats.put("hasAnyAttendance", student.hasAnyAttendanceRecords());
+            stats.put("unitsWithGoodAttendance", unitsWithGoodAttendance);
+            stats.put("unitsNeedingImprovement", registered - unitsWithGoodAttendance);
+            stats.put("hasAnyAttendance", unitsWithAttendance > 0);
 
-            System.out.println("📊 Generated overall statistics for student: " + studentId);
+            log.debug("Generated overall statistics for student: {}", studentId);
         } else {
-            System.err.println("❌ Student not found for overall statistics: " + studentId);
+            log.warn("Student not found for overall statistics: {}", studentId);
         }
         return stats;
     }
 
+    private static StudentData.UnitAttendance unitAttendance(Map<String, StudentData.UnitAttendance> byUnit, String unitCode) {
+        StudentData.UnitAttendance attendance = byUnit.get(unitCode.toUpperCase());
+        return attendance != null ? attendance : new StudentData.UnitAttendance();
+    }
+
     // ========== ADMIN METHODS ==========
 
     public boolean removeStudent(String studentId) {
         if (studentId == null) {
-            System.err.println("❌ Cannot remove student: Student ID is null");
+            log.warn("Cannot remove student: Student ID is null");
             return false;
         }
 
         StudentData removedStudent = students.remove(studentId.toUpperCase());
         if (removedStudent != null) {
+            removeFromRosters(removedStudent);
+            studentFeedService.registrationChanged(studentId, Set.of());
             saveStudentsToFile();
-            System.out.println("✅ Student removed and saved: " + studentId);
+            log.info("Student removed and saved: {}", studentId);
             return true;
         } else {
-            System.err.println("❌ Student not found for removal: " + studentId);
+            log.warn("Student not found for removal: {}", studentId);
             return false;
         }
     }
@@ -434,7 +620,7 @@ public class StudentManager {
 
     public void forceSave() {
         saveStudentsToFile();
-        System.out.println("💾 Manual force save completed for students data");
+        log.info("Manual force save completed for students data");
     }
 
     // ========== VALIDATION METHODS ==========
@@ -447,10 +633,10 @@ public class StudentManager {
         StudentData student = students.get(studentId.toUpperCase());
         if (student != null) {
             boolean valid = password.equals(student.getPassword());
-            System.out.println("🔐 Student credentials validation for '" + studentId + "': " + (valid ? "VALID" : "INVALID"));
+            log.atDebug().addKeyValue("studentId", studentId).addKeyValue("valid", valid).log("Student credentials validation");
             return valid;
         }
-        System.out.println("🔐 Student credentials validation for '" + studentId + "': NOT FOUND");
+        log.atDebug().addKeyValue("studentId", studentId).addKeyValue("found", false).log("Student credentials validation");
         return false;
     }
 
@@ -462,7 +648,8 @@ public class StudentManager {
         StudentData student = students.get(studentId.toUpperCase());
         if (student != null && student.getRegisteredUnits() != null) {
             boolean registered = student.isRegisteredForUnit(unitCode);
-            System.out.println("🔍 Student " + studentId + " registered for unit " + unitCode + ": " + registered);
+            log.atDebug().addKeyValue("studentId", studentId).addKeyValue("unitCode", unitCode).addKeyValue("registered", registered)
+                    .log("Unit registration check");
             return registered;
         }
         return false;
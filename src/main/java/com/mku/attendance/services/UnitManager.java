@@ -4,11 +4,18 @@ import com.mku.attendance.entities.Unit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class UnitManager {
     private Map<String, Unit> units = new HashMap<>();
     private final FileDataService fileDataService;
+    // Course code (upper case) -> codes of its units, kept in step with units
+    private final Map<String, Set<String>> unitsByCourse = new ConcurrentHashMap<>();
+    // Course code (upper case) -> bumped whenever a unit joins or leaves the course, so views
+    // built from a course's units can tell they are stale
+    private final Map<String, AtomicLong> courseVersions = new ConcurrentHashMap<>();
 
     @Autowired
     public UnitManager(FileDataService fileDataService) {
@@ -27,13 +34,16 @@ public class UnitManager {
             System.err.println("Error loading units: " + e.getMessage());
             units = new HashMap<>();
         }
+        units.values().forEach(this::indexUnit);
 
         System.out.println("✅ UnitManager initialized with file persistence");
     }
 
     public void addUnit(String code, String name, String courseCode) {
         if (code != null && name != null && courseCode != null && !units.containsKey(code)) {
-            units.put(code, new Unit(code, name, courseCode));
+            Unit unit = new Unit(code, name, courseCode);
+            units.put(code, unit);
+            indexUnit(unit);
             saveUnitsToFile();
             System.out.println("✅ Unit added and saved: code=" + code + ", name=" + name + ", courseCode=" + courseCode);
         } else {
@@ -45,6 +55,10 @@ public class UnitManager {
         return new HashMap<>(units);
     }
 
+    public int getUnitCount() {
+        return units.size();
+    }
+
     public Map<String, Unit> getUnitDatabase() {
         return new HashMap<>(units);
     }
@@ -59,6 +73,43 @@ public class UnitManager {
         }
     }
 
+    /**
+     * Codes of a course's units, from the course index (course code is not case-sensitive)
+     */
+    public Set<String> getUnitCodesByCourse(String courseCode) {
+        if (courseCode == null) {
+            return new HashSet<>();
+        }
+        Set<String> unitCodes = unitsByCourse.get(courseCode.toUpperCase());
+        return unitCodes != null ? new HashSet<>(unitCodes) : new HashSet<>();
+    }
+
+    /**
+     * Changes whenever a unit joins or leaves the course; read it before the course's units
+     */
+    public long getCourseVersion(String courseCode) {
+        if (courseCode == null) {
+            return 0;
+        }
+        AtomicLong version = courseVersions.get(courseCode.toUpperCase());
+        return version != null ? version.get() : 0;
+    }
+
+    private void indexUnit(Unit unit) {
+        if (unit == null || unit.getCourseCode() == null) return;
+        String courseCode = unit.getCourseCode().toUpperCase();
+        unitsByCourse.computeIfAbsent(courseCode, k -> ConcurrentHashMap.newKeySet()).add(unit.getCode());
+        courseVersions.computeIfAbsent(courseCode, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private void unindexUnit(Unit unit) {
+        if (unit == null || unit.getCourseCode() == null) return;
+        String courseCode = unit.getCourseCode().toUpperCase();
+        Set<String> unitCodes = unitsByCourse.get(courseCode);
+        if (unitCodes != null) unitCodes.remove(unit.getCode());
+        courseVersions.computeIfAbsent(courseCode, k -> new AtomicLong()).incrementAndGet();
+    }
+
     // Get unit by code
     public Unit getUnit(String code) {
         return units.get(code);
@@ -72,7 +123,7 @@ public class UnitManager {
     // Remove unit
     public boolean removeUnit(String code) {
         if (units.containsKey(code)) {
-            units.remove(code);
+            unindexUnit(units.remove(code));
             saveUnitsToFile();
             System.out.println("✅ Unit removed: " + code);
             return true;
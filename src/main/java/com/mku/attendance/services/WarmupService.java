@@ -0,0 +1,158 @@
+package com.mku.attendance.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional warmup stage between DATA_LOADED and READY (app.warmup.enabled). Runs the main read
+ * paths against the data already in memory so the first lecturer and HOD requests after a deploy
+ * do not pay for template parsing, Jackson serializer creation and interpreted stream pipelines:
+ *
+ *   - lecturer dashboard summary and unit statistics for a sample of units (called directly)
+ *   - HOD dashboard, attendance report (by unit and for today) and student list by unit, the HOD
+ *     attendance records API and the student API, requested over loopback so Thymeleaf, Jackson
+ *     and the MVC stack run exactly as they do for real requests
+ *
+ * Only GETs that read data are used, so warmup changes nothing (apart from request metrics).
+ * Each path runs app.warmup.iterations times, each time with the next unit in the sample; warmup
+ * stops early once app.warmup.max-duration-ms has passed. ReadinessService stays WARMING_UP (503)
+ * until it returns.
+ */
+@Service
+public class WarmupService {
+
+    @Autowired
+    private AttendanceManager attendanceManager;
+
+    @Autowired
+    private HODManager hodManager;
+
+    @Autowired
+    private UnitManager unitManager;
+
+    @Autowired
+    private StudentManager studentManager;
+
+    @Autowired
+    private Clock clock;
+
+    @Value("${app.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.warmup.iterations:3}")
+    private int iterations;
+
+    @Value("${app.warmup.max-duration-ms:30000}")
+    private long maxDurationMs;
+
+    private volatile long durationMillis;
+    private volatile int callsCompleted;
+    private volatile int callsFailed;
+    private volatile boolean timedOut;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the warmup against the local web server on the given port. Never throws: a failed call
+     * is counted and warmup moves on.
+     */
+    public void run(int port) {
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofMillis(maxDurationMs).toNanos();
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        List<String> unitCodes = new ArrayList<>(unitManager.getUnits().keySet());
+        String hodId = hodManager.getHODs().keySet().stream().findFirst().orElse(null);
+        String studentId = studentManager.getStudents().keySet().stream().findFirst().orElse(null);
+        String today = LocalDate.now(clock).toString();
+
+        for (int i = 0; i < iterations && !timedOut; i++) {
+            String unitCode = unitCodes.isEmpty() ? null : unitCodes.get(i % unitCodes.size());
+
+            if (unitCode != null) {
+                call(deadline, () -> attendanceManager.getDashboardSummary(unitCode));
+                call(deadline, () -> attendanceManager.getAttendanceStatistics(unitCode));
+                get(http, port, deadline, "/hod/api/attendance-records?unitCode=" + encode(unitCode));
+            }
+            if (hodId != null) {
+                String hod = "?hodId=" + encode(hodId);
+                get(http, port, deadline, "/hod/dashboard" + hod);
+                get(http, port, deadline, "/hod/attendance-report" + hod + "&date=" + today);
+                if (unitCode != null) {
+                    get(http, port, deadline, "/hod/attendance-report" + hod + "&unitCode=" + encode(unitCode));
+                    get(http, port, deadline, "/hod/students" + hod + "&filterType=unit&filterValue=" + encode(unitCode));
+                }
+            }
+            if (studentId != null) {
+                get(http, port, deadline, "/api/students/" + encode(studentId));
+            }
+        }
+
+        durationMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("🔥 Warmup: " + callsCompleted + " calls in " + durationMillis + "ms"
+                + (callsFailed > 0 ? ", " + callsFailed + " failed" : "")
+                + (timedOut ? " (stopped at app.warmup.max-duration-ms)" : ""));
+    }
+
+    private void get(HttpClient http, int port, long deadline, String path) {
+        call(deadline, () -> {
+            HttpResponse<Void> response = http.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + path + " -> " + response.statusCode());
+            }
+            return null;
+        });
+    }
+
+    private void call(long deadline, WarmupCall call) {
+        if (timedOut || System.nanoTime() > deadline) {
+            timedOut = true;
+            return;
+        }
+        try {
+            call.run();
+            callsCompleted++;
+        } catch (Exception e) {
+            callsFailed++;
+            System.out.println("⚠️ Warmup call failed: " + e.getMessage());
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface WarmupCall {
+        Object run() throws Exception;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", enabled);
+        status.put("durationMillis", durationMillis);
+        status.put("calls", callsCompleted);
+        status.put("failed", callsFailed);
+        status.put("timedOut", timedOut);
+        return status;
+    }
+}
@@ -0,0 +1,481 @@
+package com.mku.attendance.perf;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mku.attendance.entities.Attendance;
+import com.mku.attendance.entities.Course;
+import com.mku.attendance.entities.HOD;
+import com.mku.attendance.entities.LecturerData;
+import com.mku.attendance.entities.StudentData;
+import com.mku.attendance.entities.Unit;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes a synthetic university into a data directory in the same format FileDataService reads:
+ * students.json, units.json, courses.json, lecturers.json, hods.json and attendance.json.
+ *
+ * Every value is derived from a hash of (seed, entity, ...) rather than from a sequential random
+ * stream, so the same seed always gives byte-identical files no matter in which order they are
+ * written. Records are streamed straight
+ * to disk; the only thing held in memory is the unit -> enrolled students index (one int per
+ * enrolment), so millions of attendance records need no more than a modest heap.
+ *
+ * Shape: students are spread over courses of about 2000 students; each course has 4 years of 10
+ * units and a student takes --units-per-student of their year's 10 (the StudentData limit is 8).
+ * Each unit has one lecturer, each department (HOD) owns up to 3 courses. Each unit meets
+ * --sessions-per-week times for 14 weeks per semester with a 3-week break in between, ending
+ * the week before --end-date. The end date defaults to a fixed day (2025-06-30), so the same
+ * options always write the same dataset; pass --end-date=today to end last week. Students have their own attendance rate around
+ * --attendance-rate, so some are chronically absent.
+ *
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.DatasetGenerator
+ *       -Dexec.args="--out=target/dataset --students=10000 --units-per-student=6 --sessions-per-week=2 --semesters=1 --seed=42"
+ *
+ * Then run the app against it with --app.storage.data-directory=target/dataset. Pass
+ * --attendance=false for the roster only, with no history at all (SemesterReplay builds its own).
+ */
+public class DatasetGenerator {
+
+    private static final int MAX_UNITS_PER_STUDENT = 8; // StudentData.registerUnit
+    private static final int STUDENTS_PER_COURSE = 2000;
+    private static final int YEARS = 4;
+    private static final int UNITS_PER_YEAR = 10;
+    private static final int UNITS_PER_COURSE = YEARS * UNITS_PER_YEAR;
+    private static final int COURSES_PER_DEPARTMENT = 3;
+    private static final int WEEKS_PER_SEMESTER = 14;
+    private static final int BREAK_WEEKS = 3;
+    static final int[] LECTURE_HOURS = {8, 10, 12, 14, 16};
+    static final LocalDate DEFAULT_END_DATE = LocalDate.of(2025, 6, 30);
+
+    private static final String[] COURSE_CODES = {
+            "BIT", "BSCS", "BSSE", "BCOM", "BBM", "BED", "BSN", "BPH", "BECO", "BJMC", "LLB", "BPA"
+    };
+    private static final String[] COURSE_NAMES = {
+            "Information Technology", "Computer Science", "Software Engineering", "Commerce",
+            "Business Management", "Education", "Nursing", "Public Health", "Economics",
+            "Journalism and Mass Communication", "Law", "Public Administration"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Brian", "Faith", "Kevin", "Mercy", "Dennis", "Joy", "Collins", "Sharon", "Victor", "Esther",
+            "Ian", "Wanjiru", "Kipchoge", "Achieng", "Mwangi", "Njeri", "Otieno", "Chebet", "Kamau", "Atieno",
+            "Peter", "Grace", "David", "Ann", "James", "Mary", "John", "Lucy", "Samuel", "Ruth"
+    };
+    private static final String[] LAST_NAMES = {
+            "Kamau", "Wanjiku", "Otieno", "Ochieng", "Mutua", "Kiprop", "Njoroge", "Wambui", "Omondi", "Cheruiyot",
+            "Kariuki", "Mwangi", "Akinyi", "Kimani", "Onyango", "Chepkoech", "Gitau", "Nyambura", "Were", "Maina"
+    };
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Config config;
+    private final ObjectMapper mapper;
+    private final int courses;
+    private final int units;
+    private final LocalDate firstMonday;
+    private final LocalDateTime createdAt;
+
+    // unit -> enrolled student indexes, ascending
+    private int[][] enrolment;
+    private long attendanceWritten;
+
+    public DatasetGenerator(Config config) {
+        this.config = config;
+        this.mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.courses = Math.max(1, (config.students + STUDENTS_PER_COURSE - 1) / STUDENTS_PER_COURSE);
+        this.units = courses * UNITS_PER_COURSE;
+
+        LocalDate endMonday = config.endDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        int spanWeeks = config.semesters * WEEKS_PER_SEMESTER + (config.semesters - 1) * BREAK_WEEKS;
+        this.firstMonday = endMonday.minusWeeks(spanWeeks);
+        this.createdAt = firstMonday.minusWeeks(2).atTime(9, 0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Config config = Config.parse(args);
+        long start = System.nanoTime();
+        System.out.println("🏗️ Generating dataset into " + config.out.toAbsolutePath() + " (seed " + config.seed + ")");
+
+        DatasetGenerator generator = new DatasetGenerator(config);
+        generator.generate();
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("✅ Done in %.1fs, heap in use %d MB%n", (System.nanoTime() - start) / 1e9,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        for (String file : new String[]{"courses.json", "units.json", "lecturers.json", "hods.json", "students.json", "attendance.json"}) {
+            System.out.printf("   %-16s %,14d bytes%n", file, Files.size(config.out.resolve(file)));
+        }
+    }
+
+    public void generate() throws IOException {
+        Files.createDirectories(config.out);
+        buildEnrolment();
+        writeCourses();
+        writeUnits();
+        writeLecturers();
+        writeHods();
+        writeStudents();
+        writeAttendance();
+        System.out.printf("📊 %d students, %d courses, %d units, %d lecturers, %d attendance records%n",
+                config.students, courses, units, units, attendanceWritten);
+    }
+
+    // ========== ENROLMENT ==========
+
+    private void buildEnrolment() {
+        int[] counts = new int[units];
+        for (int s = 0; s < config.students; s++) {
+            for (int unit : unitsOf(s)) {
+                counts[unit]++;
+            }
+        }
+        enrolment = new int[units][];
+        for (int u = 0; u < units; u++) {
+            enrolment[u] = new int[counts[u]];
+        }
+        int[] fill = new int[units];
+        for (int s = 0; s < config.students; s++) {
+            for (int unit : unitsOf(s)) {
+                enrolment[unit][fill[unit]++] = s;
+            }
+        }
+    }
+
+    int units() {
+        return units;
+    }
+
+    int[] enrolled(int unit) {
+        return enrolment[unit];
+    }
+
+    private int courseOf(int student) {
+        return student % courses;
+    }
+
+    private int yearOf(int student) {
+        return (int) (hash(config.seed, 1, student) % YEARS);
+    }
+
+    // Global unit indexes: a partial shuffle of the student's year's units, seeded per student
+    private int[] unitsOf(int student) {
+        int[] pool = new int[UNITS_PER_YEAR];
+        int base = courseOf(student) * UNITS_PER_COURSE + yearOf(student) * UNITS_PER_YEAR;
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = base + i;
+        }
+        for (int i = 0; i < config.unitsPerStudent; i++) {
+            int j = i + (int) (hash(config.seed, 2, student, i) % (pool.length - i));
+            int tmp = pool[i];
+            pool[i] = pool[j];
+            pool[j] = tmp;
+        }
+        int[] chosen = new int[config.unitsPerStudent];
+        System.arraycopy(pool, 0, chosen, 0, chosen.length);
+        return chosen;
+    }
+
+    // ========== REFERENCE DATA ==========
+
+    private String courseCode(int course) {
+        String code = COURSE_CODES[course % COURSE_CODES.length];
+        return course < COURSE_CODES.length ? code : code + (course / COURSE_CODES.length + 1);
+    }
+
+    private String courseName(int course) {
+        String name = COURSE_NAMES[course % COURSE_NAMES.length];
+        return course < COURSE_NAMES.length ? name : name + " " + (course / COURSE_NAMES.length + 1);
+    }
+
+    String unitCode(int unit) {
+        int course = unit / UNITS_PER_COURSE;
+        int inCourse = unit % UNITS_PER_COURSE;
+        return courseCode(course) + (inCourse / UNITS_PER_YEAR + 1) + String.format("%02d", inCourse % UNITS_PER_YEAR + 1);
+    }
+
+    private String lecturerId(int unit) {
+        return String.format("L%05d", unit);
+    }
+
+    String studentId(int student) {
+        return String.format("ST%07d", student);
+    }
+
+    private String personName(long... key) {
+        return FIRST_NAMES[(int) (hash(key) % FIRST_NAMES.length)] + " "
+                + LAST_NAMES[(int) (hash(mix(key)) % LAST_NAMES.length)];
+    }
+
+    private void writeCourses() throws IOException {
+        try (JsonGenerator json = open("courses.json")) {
+            json.writeStartObject();
+            for (int c = 0; c < courses; c++) {
+                json.writeFieldName(courseCode(c));
+                mapper.writeValue(json, new Course(courseCode(c), courseName(c)));
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private void writeUnits() throws IOException {
+        try (JsonGenerator json = open("units.json")) {
+            json.writeStartObject();
+            for (int u = 0; u < units; u++) {
+                int course = u / UNITS_PER_COURSE;
+                json.writeFieldName(unitCode(u));
+                mapper.writeValue(json, new Unit(unitCode(u), courseName(course) + " " + (u % UNITS_PER_COURSE + 1), courseCode(course)));
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private void writeLecturers() throws IOException {
+        try (JsonGenerator json = open("lecturers.json")) {
+            json.writeStartObject();
+            for (int u = 0; u < units; u++) {
+                String id = lecturerId(u);
+                String name = personName(config.seed, 3, u);
+                json.writeFieldName(id);
+                mapper.writeValue(json, new LecturerData(name, email(name, id, "mku.ac.ke"), id, "lecturer123",
+                        courseCode(u / UNITS_PER_COURSE), unitCode(u)));
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private void writeHods() throws IOException {
+        int departments = (courses + COURSES_PER_DEPARTMENT - 1) / COURSES_PER_DEPARTMENT;
+        try (JsonGenerator json = open("hods.json")) {
+            json.writeStartObject();
+            for (int d = 0; d < departments; d++) {
+                String id = String.format("HOD%03d", d + 1);
+                String name = personName(config.seed, 4, d);
+                HOD hod = new HOD(id, "Dr. " + name, email(name, id, "mku.ac.ke"), "Department " + (d + 1), "hod123");
+                for (int c = d * COURSES_PER_DEPARTMENT; c < Math.min(courses, (d + 1) * COURSES_PER_DEPARTMENT); c++) {
+                    hod.addCourse(courseCode(c));
+                }
+                json.writeFieldName(id);
+                mapper.writeValue(json, hod);
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private String email(String name, String id, String domain) {
+        return name.toLowerCase().replace(' ', '.') + "." + id.toLowerCase() + "@" + domain;
+    }
+
+    // ========== STUDENTS ==========
+
+    private void writeStudents() throws IOException {
+        int progressStep = Math.max(1, config.students / 10);
+        try (JsonGenerator json = open("students.json")) {
+            json.writeStartObject();
+            for (int s = 0; s < config.students; s++) {
+                StudentData student = student(s);
+                json.writeFieldName(student.getStudentId());
+                mapper.writeValue(json, student);
+                if ((s + 1) % progressStep == 0) {
+                    System.out.println("   students: " + (s + 1) + "/" + config.students);
+                }
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private StudentData student(int s) {
+        String id = studentId(s);
+        String name = personName(config.seed, 5, s);
+        UUID uuid = UUID.nameUUIDFromBytes((config.seed + ":" + id).getBytes(StandardCharsets.UTF_8));
+        StudentData student = new StudentData(uuid.toString(), id, name, email(name, id, "students.mku.ac.ke"),
+                "password", createdAt, createdAt);
+        student.setCourse(courseCode(courseOf(s)));
+
+        int[] studentUnits = unitsOf(s);
+        Set<String> codes = new LinkedHashSet<>();
+        for (int unit : studentUnits) {
+            codes.add(unitCode(unit));
+        }
+        student.setRegisteredUnits(codes);
+        return student;
+    }
+
+    // ========== ATTENDANCE (chronological) ==========
+
+    private void writeAttendance() throws IOException {
+        // Units meeting at each (day, hour) slot, with which of their weekly sessions that is
+        List<List<int[]>> slots = new ArrayList<>();
+        for (int i = 0; i < 5 * LECTURE_HOURS.length; i++) {
+            slots.add(new ArrayList<>());
+        }
+        for (int u = 0; u < units; u++) {
+            for (int j = 0; j < config.sessionsPerWeek; j++) {
+                slots.get(dayOf(u, j) * LECTURE_HOURS.length + hourSlotOf(u, j)).add(new int[]{u, j});
+            }
+        }
+
+        int weeks = config.attendance ? config.semesters * WEEKS_PER_SEMESTER : 0;
+        try (JsonGenerator json = open("attendance.json")) {
+            json.writeStartArray();
+            for (int week = 0; week < weeks; week++) {
+                for (List<int[]> slot : slots) {
+                    for (int[] meeting : slot) {
+                        int unit = meeting[0];
+                        int session = week * config.sessionsPerWeek + meeting[1];
+                        LocalDateTime start = sessionStart(unit, session);
+                        String code = unitCode(unit);
+                        for (int student : enrolment[unit]) {
+                            boolean present = isPresent(student, unit, session);
+                            String at = markedAt(student, unit, session, start, present).format(TIMESTAMP);
+                            mapper.writeValue(json, new Attendance(studentId(student), code, at, present));
+                            attendanceWritten++;
+                        }
+                    }
+                }
+                System.out.println("   attendance: week " + (week + 1) + "/" + weeks + " (" + attendanceWritten + " records)");
+            }
+            json.writeEndArray();
+        }
+    }
+
+    int dayOf(int unit, int weeklySession) {
+        return (unit + weeklySession) % 5;
+    }
+
+    int hourSlotOf(int unit, int weeklySession) {
+        return (unit / 5 + weeklySession) % LECTURE_HOURS.length;
+    }
+
+    private LocalDateTime sessionStart(int unit, int session) {
+        int week = session / config.sessionsPerWeek;
+        int weeklySession = session % config.sessionsPerWeek;
+        int calendarWeek = week + (week / WEEKS_PER_SEMESTER) * BREAK_WEEKS;
+        return firstMonday.plusWeeks(calendarWeek)
+                .plusDays(dayOf(unit, weeklySession))
+                .atTime(LECTURE_HOURS[hourSlotOf(unit, weeklySession)], 0);
+    }
+
+    // Present students mark within the first 15 minutes; absentees are recorded at lecture end (auto-mark)
+    private LocalDateTime markedAt(int student, int unit, int session, LocalDateTime start, boolean present) {
+        if (!present) {
+            return start.plusHours(2);
+        }
+        return start.plusSeconds(hash(config.seed, 6, student, unit, session) % (15 * 60));
+    }
+
+    boolean isPresent(int student, int unit, int session) {
+        return unitInterval(hash(config.seed, 7, student, unit, session)) < attendanceRate(student);
+    }
+
+    // Per-student rate around the configured mean (sum of three uniforms, roughly bell-shaped)
+    private double attendanceRate(int student) {
+        double spread = unitInterval(hash(config.seed, 8, student, 0))
+                + unitInterval(hash(config.seed, 8, student, 1))
+                + unitInterval(hash(config.seed, 8, student, 2)) - 1.5;
+        return Math.max(0.05, Math.min(0.99, config.attendanceRate + spread * 0.3));
+    }
+
+    // ========== HELPERS ==========
+
+    private JsonGenerator open(String file) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(config.out.resolve(file)), 1 << 16);
+        JsonGenerator json = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        json.useDefaultPrettyPrinter();
+        return json;
+    }
+
+    static double unitInterval(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    // Non-negative 63-bit hash of the key, SplitMix64 finaliser per component
+    static long hash(long... key) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (long k : key) {
+            h = splitMix(h ^ splitMix(k));
+        }
+        return h >>> 1;
+    }
+
+    private static long[] mix(long[] key) {
+        long[] mixed = key.clone();
+        mixed[mixed.length - 1] = ~mixed[mixed.length - 1];
+        return mixed;
+    }
+
+    private static long splitMix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ========== OPTIONS ==========
+
+    public static class Config {
+        Path out = Paths.get("target/dataset");
+        int students = 10_000;
+        int unitsPerStudent = 6;
+        int sessionsPerWeek = 2;
+        int semesters = 1;
+        double attendanceRate = 0.8;
+        long seed = 42;
+        boolean attendance = true;
+        LocalDate endDate = DEFAULT_END_DATE;
+
+        static Config parse(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                String[] option = arg.replaceFirst("^--", "").split("=", 2);
+                if (option.length != 2) {
+                    throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+                }
+                String value = option[1];
+                switch (option[0]) {
+                    case "out" -> config.out = Paths.get(value);
+                    case "students" -> config.students = Integer.parseInt(value);
+                    case "units-per-student" -> config.unitsPerStudent = Integer.parseInt(value);
+                    case "sessions-per-week" -> config.sessionsPerWeek = Integer.parseInt(value);
+                    case "semesters" -> config.semesters = Integer.parseInt(value);
+                    case "attendance-rate" -> config.attendanceRate = Double.parseDouble(value);
+                    case "seed" -> config.seed = Long.parseLong(value);
+                    case "attendance" -> config.attendance = Boolean.parseBoolean(value);
+                    case "end-date" -> config.endDate = "today".equals(value) ? LocalDate.now() : LocalDate.parse(value);
+                    default -> throw new IllegalArgumentException("Unknown option: --" + option[0]);
+                }
+            }
+            if (config.unitsPerStudent < 1 || config.unitsPerStudent > MAX_UNITS_PER_STUDENT) {
+                throw new IllegalArgumentException("--units-per-student must be 1.." + MAX_UNITS_PER_STUDENT
+                        + " (the StudentData.registerUnit limit)");
+            }
+            if (config.sessionsPerWeek < 1 || config.sessionsPerWeek > 5) {
+                throw new IllegalArgumentException("--sessions-per-week must be 1..5 (at most one per weekday)");
+            }
+            if (config.students < 1 || config.semesters < 1) {
+                throw new IllegalArgumentException("--students and --semesters must be positive");
+            }
+            return config;
+        }
+    }
+}
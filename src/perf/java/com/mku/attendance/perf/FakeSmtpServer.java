@@ -0,0 +1,234 @@
+package com.mku.attendance.perf;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process SMTP server for exercising the email outbox without a real relay.
+ * Accepts any AUTH credentials, no STARTTLS, and keeps counters of connections and accepted
+ * messages. Latency and failures can be injected to mimic a slow or flaky provider.
+ *
+ * Run: mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.FakeSmtpServer -Dexec.args="2525"
+ * then start the app with:
+ *   --spring.mail.host=localhost --spring.mail.port=2525
+ *   --spring.mail.properties.mail.smtp.starttls.enable=false
+ *   --spring.mail.properties.mail.smtp.starttls.required=false
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-smtp-session");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long greetingDelayMs;
+    private volatile long messageDelayMs;
+    private volatile double rejectRate;
+
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong acceptedMessages = new AtomicLong();
+    private final AtomicLong rejectedMessages = new AtomicLong();
+    private volatile boolean verbose;
+
+    public FakeSmtpServer(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 200, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Delay before the 220 greeting, i.e. the cost of opening a new connection */
+    public FakeSmtpServer withGreetingDelay(long millis) {
+        this.greetingDelayMs = millis;
+        return this;
+    }
+
+    /** Delay before acknowledging each message body */
+    public FakeSmtpServer withMessageDelay(long millis) {
+        this.messageDelayMs = millis;
+        return this;
+    }
+
+    /** Fraction (0..1) of recipients answered with a temporary 451 failure */
+    public FakeSmtpServer withRejectRate(double rate) {
+        this.rejectRate = rate;
+        return this;
+    }
+
+    public FakeSmtpServer verbose(boolean verbose) {
+        this.verbose = verbose;
+        return this;
+    }
+
+    public long getConnectionCount() {
+        return connections.get();
+    }
+
+    public long getAcceptedMessageCount() {
+        return acceptedMessages.get();
+    }
+
+    public long getRejectedMessageCount() {
+        return rejectedMessages.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sessions.execute(() -> handle(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("❌ Fake SMTP accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.US_ASCII)) {
+
+            sleep(greetingDelayMs);
+            reply(out, "220 localhost fake SMTP ready");
+
+            boolean recipientAccepted = false;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (verbose) {
+                    System.out.println("C: " + line);
+                }
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO" -> {
+                        out.print("250-localhost\r\n");
+                        out.print("250-AUTH PLAIN LOGIN\r\n");
+                        out.print("250-8BITMIME\r\n");
+                        reply(out, "250 OK");
+                    }
+                    case "HELO" -> reply(out, "250 localhost");
+                    case "AUTH" -> authenticate(line, in, out);
+                    case "MAIL" -> {
+                        recipientAccepted = false;
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        if (rejectRate > 0 && ThreadLocalRandom.current().nextDouble() < rejectRate) {
+                            rejectedMessages.incrementAndGet();
+                            reply(out, "451 4.3.0 Temporary failure, try again later");
+                        } else {
+                            recipientAccepted = true;
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        if (!recipientAccepted) {
+                            reply(out, "554 No valid recipients");
+                            break;
+                        }
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String dataLine;
+                        while ((dataLine = in.readLine()) != null && !dataLine.equals(".")) {
+                            // discard body
+                        }
+                        sleep(messageDelayMs);
+                        acceptedMessages.incrementAndGet();
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            if (verbose) {
+                System.err.println("⚠️ Fake SMTP session ended: " + e.getMessage());
+            }
+        }
+    }
+
+    // Accept any credentials for PLAIN and LOGIN, with or without an initial response
+    private void authenticate(String line, BufferedReader in, PrintWriter out) throws IOException {
+        String[] parts = line.trim().split("\\s+");
+        String mechanism = parts.length > 1 ? parts[1].toUpperCase() : "";
+        if (mechanism.equals("PLAIN")) {
+            if (parts.length < 3) {
+                reply(out, "334 ");
+                in.readLine();
+            }
+        } else if (mechanism.equals("LOGIN")) {
+            if (parts.length < 3) {
+                reply(out, "334 VXNlcm5hbWU6");
+                in.readLine();
+            }
+            reply(out, "334 UGFzc3dvcmQ6");
+            in.readLine();
+        } else {
+            reply(out, "504 Unrecognized authentication type");
+            return;
+        }
+        reply(out, "235 2.7.0 Authentication successful");
+    }
+
+    private void reply(PrintWriter out, String response) {
+        if (verbose) {
+            System.out.println("S: " + response);
+        }
+        out.print(response + "\r\n");
+        out.flush();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 2525;
+        FakeSmtpServer server = new FakeSmtpServer(port)
+                .withGreetingDelay(Long.getLong("smtp.greetingDelayMs", 0))
+                .withMessageDelay(Long.getLong("smtp.messageDelayMs", 0))
+                .withRejectRate(Double.parseDouble(System.getProperty("smtp.rejectRate", "0")))
+                .verbose(Boolean.getBoolean("smtp.verbose"));
+        System.out.println("📭 Fake SMTP server listening on localhost:" + server.getPort());
+
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println("📊 connections=" + server.getConnectionCount()
+                    + " accepted=" + server.getAcceptedMessageCount()
+                    + " rejected=" + server.getRejectedMessageCount());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.mku.attendance.perf;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop latency test: N concurrent clients repeatedly call one endpoint for a fixed time and
+ * the latency percentiles are printed. Used to compare app.threads.virtual.enabled=true/false.
+ *
+ * The default request is POST /api/students/bulk with one student whose email uses a fresh domain
+ * every time, so each request blocks on one uncached MX lookup and is then rejected (nothing is
+ * saved). Start the stub DNS with a delay and point the app at it:
+ *
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.StubDnsServer -Ddns.delayMs=100 -Dexec.args=5353
+ *   java -jar target/mku-attendance-web-1.0.0.jar --app.dns.server=127.0.0.1:5353 --app.threads.virtual.enabled=true|false
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.LatencyLoadTest
+ *       -Dexec.args="[baseUrl] [clients] [seconds] [path]"
+ *
+ * A path other than the default is requested with GET.
+ */
+public class LatencyLoadTest {
+
+    private static final String DEFAULT_PATH = "/api/students/bulk";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String path = args.length > 3 ? args[3] : DEFAULT_PATH;
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.println("📊 " + clients + " clients for " + seconds + "s against " + baseUrl + path);
+
+        // Short warm-up so JIT and connection setup are not in the numbers
+        runPhase(http, baseUrl, path, Math.min(clients, 20), 3, new AtomicInteger());
+        List<long[]> results = runPhase(http, baseUrl, path, clients, seconds, new AtomicInteger(1_000_000));
+
+        int total = results.stream().mapToInt(r -> r.length).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] result : results) {
+            System.arraycopy(result, 0, latencies, offset, result.length);
+            offset += result.length;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("requests=%d  throughput=%.1f req/s  errors=%d%n", total, total / (double) seconds, ERRORS.get());
+        System.out.printf("p50=%.1fms  p90=%.1fms  p99=%.1fms  max=%.1fms%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies.length > 0 ? latencies[latencies.length - 1] / 1_000_000.0 : 0);
+    }
+
+    private static final AtomicLong ERRORS = new AtomicLong();
+
+    private static List<long[]> runPhase(HttpClient http, String baseUrl, String path, int clients, int seconds,
+                                         AtomicInteger sequence) throws Exception {
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        HttpRequest request = buildRequest(baseUrl, path, sequence.incrementAndGet());
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                ERRORS.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            ERRORS.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+        }
+        List<long[]> results = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static HttpRequest buildRequest(String baseUrl, String path, int n) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60));
+        if (DEFAULT_PATH.equals(path)) {
+            String body = "{\"students\":[{\"student_id\":\"LOAD" + n + "\",\"name\":\"Load Test\","
+                    + "\"email\":\"student" + n + "@load" + n + ".test\",\"password\":\"secret1\"}]}";
+            return builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+        return builder.GET().build();
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
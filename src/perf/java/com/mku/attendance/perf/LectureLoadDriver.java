@@ -0,0 +1,580 @@
+package com.mku.attendance.perf;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load driver that replays a teaching day against a running app on localhost:
+ *
+ * - lecturers log in, open their dashboard, start attendance (POST /lecturer/start-attendance),
+ *   poll /lecturer/attendance-status through the check-in window, then stop attendance, which
+ *   auto-marks everyone else absent. Starts are staggered by --stagger seconds.
+ * - when a lecture starts, --turnout of its enrolled cohort checks in during --window seconds,
+ *   bunched towards the start: API login, POST /student/take-attendance, then the attendance
+ *   summary (GET /api/students/{id}/attendance). --student-clients workers serve the check-ins,
+ *   each sending its next request only after the previous answer, so a slow server slows the
+ *   offered load instead of piling up requests.
+ * - HODs pull the attendance report page and the CSV export in a loop with --hod-think pauses.
+ * - a trickle of password resets (--resets-per-minute) requests an OTP via
+ *   /api/students/auth/password-reset/resend and verifies it, which sends mail through the
+ *   outbox to the SMTP stub started here (initiate is not used: it checks MX records, which
+ *   needs the network).
+ *
+ * Rosters and credentials come from a dataset written by DatasetGenerator, which the app must be
+ * started on. Attendance is once per student, unit and day, so use a fresh copy for every run:
+ *
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.DatasetGenerator -Dexec.args="--out=target/dataset"
+ *   cp -r target/dataset /tmp/run-data
+ *   java -jar target/mku-attendance-web-1.0.0.jar --app.storage.data-directory=/tmp/run-data/
+ *       --spring.mail.host=localhost --spring.mail.port=2525
+ *       --spring.mail.properties.mail.smtp.starttls.enable=false --spring.mail.properties.mail.smtp.starttls.required=false
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.LectureLoadDriver
+ *       -Dexec.args="--data=target/dataset --lecturers=20 --window=60"
+ *
+ * Every --report-interval seconds a line with interval throughput and errors is printed; at the
+ * end, per endpoint: requests, errors, throughput, latency percentiles and the most common error
+ * reasons. A request counts as an error on a transport failure or timeout, a 4xx/5xx status, a
+ * form post that does not redirect, a redirect to a login page or carrying error=, or a JSON body
+ * with "success": false.
+ */
+public class LectureLoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Config config;
+    private final HttpClient http;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final DelayQueue<CheckIn> checkIns = new DelayQueue<>();
+    private final AtomicInteger pendingCheckIns = new AtomicInteger();
+    private final AtomicInteger activeLectures = new AtomicInteger();
+    private volatile boolean running = true;
+
+    // lecturerId -> unit, and unit -> enrolled studentIds, for the lecturers taking part
+    private final Map<String, String> lecturerUnits = new TreeMap<>();
+    private final Map<String, List<String>> rosters = new HashMap<>();
+    private final List<String> hodIds = new ArrayList<>();
+    private final List<String> allStudentIds = new ArrayList<>();
+
+    public LectureLoadDriver(Config config) {
+        this.config = config;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        LectureLoadDriver driver = new LectureLoadDriver(config);
+        driver.loadDataset();
+
+        FakeSmtpServer smtp = config.smtpPort > 0 ? new FakeSmtpServer(config.smtpPort) : null;
+        if (smtp != null) {
+            System.out.println("📭 SMTP stub listening on localhost:" + smtp.getPort());
+        }
+        try {
+            driver.run();
+        } finally {
+            if (smtp != null) {
+                // Give the outbox a moment to flush the last OTP emails
+                Thread.sleep(3000);
+                System.out.println("📭 SMTP stub: connections=" + smtp.getConnectionCount()
+                        + " accepted=" + smtp.getAcceptedMessageCount());
+                smtp.close();
+            }
+        }
+    }
+
+    // ========== DATASET ==========
+
+    void loadDataset() throws IOException {
+        JsonNode lecturers = MAPPER.readTree(config.data.resolve("lecturers.json").toFile());
+        Iterator<Map.Entry<String, JsonNode>> fields = lecturers.fields();
+        TreeMap<String, String> all = new TreeMap<>();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fields.next();
+            String unitCode = entry.getValue().path("unitCode").asText("");
+            if (!unitCode.isEmpty()) {
+                all.put(entry.getKey(), unitCode);
+            }
+        }
+        for (Map.Entry<String, String> entry : all.entrySet()) {
+            if (lecturerUnits.size() == config.lecturers) break;
+            lecturerUnits.put(entry.getKey(), entry.getValue());
+            rosters.put(entry.getValue(), new ArrayList<>());
+        }
+
+        MAPPER.readTree(config.data.resolve("hods.json").toFile()).fieldNames().forEachRemaining(hodIds::add);
+
+        // students.json can be large: stream it and keep only ids and registered units
+        try (JsonParser parser = MAPPER.getFactory().createParser(config.data.resolve("students.json").toFile())) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String studentId = parser.getCurrentName();
+                parser.nextToken();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if (field.equals("registeredUnits")) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            List<String> roster = rosters.get(parser.getText());
+                            if (roster != null) {
+                                roster.add(studentId);
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                allStudentIds.add(studentId);
+            }
+        }
+
+        int enrolled = rosters.values().stream().mapToInt(List::size).sum();
+        System.out.println("📂 " + config.data + ": " + allStudentIds.size() + " students, " + hodIds.size() + " HODs, "
+                + lecturerUnits.size() + " lecturers taking part (" + enrolled + " enrolments)");
+        if (lecturerUnits.isEmpty()) {
+            throw new IllegalStateException("No lecturers with a unit in " + config.data);
+        }
+    }
+
+    // ========== RUN ==========
+
+    void run() throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(config.duration);
+        System.out.println("🚀 " + lecturerUnits.size() + " lectures, " + config.studentClients + " student clients, "
+                + config.hods + " HOD clients, " + config.resetsPerMinute + " resets/min against " + config.baseUrl);
+
+        CountDownLatch lecturesDone = new CountDownLatch(lecturerUnits.size());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int index = 0;
+            for (Map.Entry<String, String> lecturer : lecturerUnits.entrySet()) {
+                long startAt = start + TimeUnit.MILLISECONDS.toNanos((long) (index++ * config.stagger * 1000));
+                clients.execute(() -> {
+                    try {
+                        runLecturer(lecturer.getKey(), lecturer.getValue(), startAt, deadline);
+                    } finally {
+                        lecturesDone.countDown();
+                    }
+                });
+            }
+            for (int i = 0; i < config.studentClients; i++) {
+                clients.execute(this::runStudentClient);
+            }
+            for (int i = 0; i < config.hods && !hodIds.isEmpty(); i++) {
+                String hodId = hodIds.get(i % hodIds.size());
+                long seed = config.seed + i;
+                clients.execute(() -> runHod(hodId, new Random(seed)));
+            }
+            if (config.resetsPerMinute > 0) {
+                clients.execute(this::runPasswordResets);
+            }
+
+            long lastReport = System.nanoTime();
+            long lastCount = 0;
+            long lastErrors = 0;
+            while (lecturesDone.getCount() > 0 || pendingCheckIns.get() > 0) {
+                if (System.nanoTime() > deadline) {
+                    System.out.println("⏱️ --duration reached, stopping");
+                    break;
+                }
+                Thread.sleep(200);
+                if (System.nanoTime() - lastReport >= TimeUnit.SECONDS.toNanos(config.reportInterval)) {
+                    long count = totalCount();
+                    long errors = totalErrors();
+                    double seconds = (System.nanoTime() - lastReport) / 1e9;
+                    System.out.printf("📊 t=%4.0fs  %7.1f req/s  errors=%d  lectures active=%d  check-ins queued=%d%n",
+                            (System.nanoTime() - start) / 1e9, (count - lastCount) / seconds, errors - lastErrors,
+                            activeLectures.get(), pendingCheckIns.get());
+                    lastReport = System.nanoTime();
+                    lastCount = count;
+                    lastErrors = errors;
+                }
+            }
+            running = false;
+            clients.shutdownNow();
+        }
+        printReport((System.nanoTime() - start) / 1e9);
+    }
+
+    private void runLecturer(String lecturerId, String unitCode, long startAt, long deadline) {
+        Client client = new Client();
+        Random random = new Random(config.seed ^ lecturerId.hashCode());
+        try {
+            sleepUntil(startAt);
+            client.postForm("POST /lecturer/login", "/lecturer/login", Map.of("lecturerId", lecturerId, "password", config.lecturerPassword));
+            client.get("GET /lecturer/dashboard", "/lecturer/dashboard");
+
+            if (!client.postForm("POST /lecturer/start-attendance", "/lecturer/start-attendance", Map.of("durationMinutes", "60"))) {
+                return;
+            }
+            activeLectures.incrementAndGet();
+            long opened = System.nanoTime();
+            for (String studentId : rosters.get(unitCode)) {
+                if (random.nextDouble() < config.turnout) {
+                    // Most students arrive early in the window
+                    double u = random.nextDouble();
+                    long delay = (long) (u * u * config.window * 1000);
+                    pendingCheckIns.incrementAndGet();
+                    checkIns.add(new CheckIn(studentId, unitCode, opened + TimeUnit.MILLISECONDS.toNanos(delay)));
+                }
+            }
+
+            long closeAt = Math.min(deadline, opened + TimeUnit.SECONDS.toNanos(config.window));
+            while (running && System.nanoTime() < closeAt) {
+                sleepUntil(Math.min(closeAt, System.nanoTime() + TimeUnit.SECONDS.toNanos(config.poll)));
+                client.get("GET /lecturer/attendance-status", "/lecturer/attendance-status");
+            }
+            client.postForm("POST /lecturer/stop-attendance", "/lecturer/stop-attendance", Map.of());
+            activeLectures.decrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runStudentClient() {
+        Client client = new Client();
+        try {
+            while (running) {
+                CheckIn checkIn = checkIns.poll(200, TimeUnit.MILLISECONDS);
+                if (checkIn == null) continue;
+                try {
+                    String studentId = checkIn.studentId;
+                    client.postJson("POST /api/students/auth/login", "/api/students/auth/login",
+                            Map.of("student_id", studentId, "password", config.studentPassword));
+                    client.postForm("POST /student/take-attendance", "/student/take-attendance",
+                            Map.of("studentId", studentId, "unitCode", checkIn.unitCode));
+                    client.get("GET /api/students/{id}/attendance", "/api/students/" + studentId + "/attendance");
+                } finally {
+                    pendingCheckIns.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runHod(String hodId, Random random) {
+        Client client = new Client();
+        List<String> units = new ArrayList<>(rosters.keySet());
+        String query = "?hodId=" + encode(hodId);
+        try {
+            client.postForm("POST /hod/login", "/hod/login", Map.of("hodId", hodId, "password", config.hodPassword));
+            while (running) {
+                String unit = units.get(random.nextInt(units.size()));
+                client.get("GET /hod/attendance-report", "/hod/attendance-report" + query + "&unitCode=" + encode(unit));
+                client.get("GET /hod/download-attendance-report", "/hod/download-attendance-report" + query + "&status=ABSENT");
+                Thread.sleep((long) (config.hodThink * 1000));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runPasswordResets() {
+        Client client = new Client();
+        Random random = new Random(config.seed);
+        long pause = (long) (60_000 / config.resetsPerMinute);
+        try {
+            while (running) {
+                Thread.sleep(pause);
+                String studentId = allStudentIds.get(random.nextInt(allStudentIds.size()));
+                JsonNode issued = client.postJsonForBody("POST /api/students/auth/password-reset/resend",
+                        "/api/students/auth/password-reset/resend", Map.of("student_id", studentId));
+                if (issued != null && issued.hasNonNull("otp")) {
+                    // Reset to the same password so the student can still log in later in the run
+                    client.postJson("POST /api/students/auth/password-reset/verify", "/api/students/auth/password-reset/verify",
+                            Map.of("student_id", studentId, "otp", issued.get("otp").asText(), "new_password", config.studentPassword));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== HTTP ==========
+
+    /** One simulated user: keeps its own session cookie, sends one request at a time */
+    private class Client {
+        private String cookie;
+
+        boolean get(String endpoint, String path) throws InterruptedException {
+            return send(endpoint, request(path).GET().build(), false) != null;
+        }
+
+        boolean postForm(String endpoint, String path, Map<String, String> form) throws InterruptedException {
+            StringBuilder body = new StringBuilder();
+            form.forEach((key, value) -> body.append(body.length() == 0 ? "" : "&").append(encode(key)).append('=').append(encode(value)));
+            return send(endpoint, request(path)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build(), true) != null;
+        }
+
+        boolean postJson(String endpoint, String path, Map<String, String> json) throws InterruptedException {
+            return postJsonForBody(endpoint, path, json) != null;
+        }
+
+        JsonNode postJsonForBody(String endpoint, String path, Map<String, String> json) throws InterruptedException {
+            try {
+                HttpResponse<String> response = send(endpoint, request(path)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(json)))
+                        .build(), false);
+                return response != null ? MAPPER.readTree(response.body()) : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(config.baseUrl + path)).timeout(Duration.ofSeconds(60));
+            if (cookie != null) {
+                builder.header("Cookie", cookie);
+            }
+            return builder;
+        }
+
+        // Returns the response when it counts as a success, null otherwise. Form posts answer with a
+        // redirect; a 200 means the form was rendered again with an error.
+        private HttpResponse<String> send(String endpoint, HttpRequest request, boolean expectRedirect) throws InterruptedException {
+            EndpointStats endpointStats = stats.computeIfAbsent(endpoint, EndpointStats::new);
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                endpointStats.record(System.nanoTime() - start, e.getClass().getSimpleName());
+                return null;
+            }
+            String failure = failureReason(response, expectRedirect);
+            endpointStats.record(System.nanoTime() - start, failure);
+
+            response.headers().firstValue("Set-Cookie")
+                    .filter(value -> value.startsWith("JSESSIONID="))
+                    .ifPresent(value -> cookie = value.split(";", 2)[0]);
+            return failure == null ? response : null;
+        }
+
+        // Null on success, otherwise a short reason for the error breakdown
+        private String failureReason(HttpResponse<String> response, boolean expectRedirect) {
+            int status = response.statusCode();
+            if (status >= 400) {
+                return "HTTP " + status;
+            }
+            if (expectRedirect && status < 300) {
+                return "form rendered again (HTTP " + status + ")";
+            }
+            if (status >= 300) {
+                String location = response.headers().firstValue("Location").orElse("");
+                int error = location.indexOf("error=");
+                if (error >= 0) {
+                    return URLDecoder.decode(location.substring(error + 6).split("&", 2)[0], StandardCharsets.UTF_8);
+                }
+                return location.contains("/login") ? "redirected to login" : null;
+            }
+            try {
+                JsonNode body = response.body().startsWith("{") ? MAPPER.readTree(response.body()) : null;
+                if (body != null && body.path("success").isBoolean() && !body.get("success").asBoolean()) {
+                    return body.path("message").asText("success=false");
+                }
+            } catch (IOException e) {
+                return "unreadable JSON";
+            }
+            return null;
+        }
+    }
+
+    // ========== STATS ==========
+
+    private static class EndpointStats {
+        private final String name;
+        private final AtomicLong errors = new AtomicLong();
+        private final Map<String, AtomicLong> reasons = new ConcurrentHashMap<>();
+        private long[] latencies = new long[1024];
+        private int count;
+
+        EndpointStats(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long nanos, String failure) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (failure != null) {
+                errors.incrementAndGet();
+                reasons.computeIfAbsent(failure, key -> new AtomicLong()).incrementAndGet();
+            }
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private long totalCount() {
+        return stats.values().stream().mapToLong(EndpointStats::count).sum();
+    }
+
+    private long totalErrors() {
+        return stats.values().stream().mapToLong(s -> s.errors.get()).sum();
+    }
+
+    private void printReport(double seconds) {
+        System.out.println();
+        System.out.printf("%-46s %8s %7s %7s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "err%", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (EndpointStats endpoint : new TreeMap<>(stats).values()) {
+            long[] sorted = endpoint.sorted();
+            long errors = endpoint.errors.get();
+            System.out.printf("%-46s %8d %7d %6.1f%% %8.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    endpoint.name, sorted.length, errors, sorted.length == 0 ? 0 : errors * 100.0 / sorted.length,
+                    sorted.length / seconds, percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    sorted.length > 0 ? sorted[sorted.length - 1] / 1_000_000.0 : 0);
+            endpoint.reasons.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+                    .limit(3)
+                    .forEach(reason -> System.out.printf("    %6d x %s%n", reason.getValue().get(), reason.getKey()));
+        }
+        System.out.printf("%ntotal: %d requests, %d errors in %.1fs (%.1f req/s)%n",
+                totalCount(), totalErrors(), seconds, totalCount() / seconds);
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    // ========== HELPERS ==========
+
+    private static class CheckIn implements Delayed {
+        final String studentId;
+        final String unitCode;
+        final long dueNanos;
+
+        CheckIn(String studentId, String unitCode, long dueNanos) {
+            this.studentId = studentId;
+            this.unitCode = unitCode;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((CheckIn) other).dueNanos);
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // ========== OPTIONS ==========
+
+    public static class Config {
+        String baseUrl = "http://localhost:8080";
+        Path data = Paths.get("target/dataset");
+        int lecturers = 20;
+        double stagger = 2;
+        int window = 60;
+        int poll = 5;
+        double turnout = 0.85;
+        int studentClients = 100;
+        int hods = 2;
+        double hodThink = 5;
+        double resetsPerMinute = 6;
+        int smtpPort = 2525;
+        int duration = 600;
+        int reportInterval = 10;
+        long seed = 1;
+        String studentPassword = "password";
+        String lecturerPassword = "lecturer123";
+        String hodPassword = "hod123";
+
+        static Config parse(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                String[] option = arg.replaceFirst("^--", "").split("=", 2);
+                if (option.length != 2) {
+                    throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+                }
+                String value = option[1];
+                switch (option[0]) {
+                    case "base-url" -> config.baseUrl = value;
+                    case "data" -> config.data = Paths.get(value);
+                    case "lecturers" -> config.lecturers = Integer.parseInt(value);
+                    case "stagger" -> config.stagger = Double.parseDouble(value);
+                    case "window" -> config.window = Integer.parseInt(value);
+                    case "poll" -> config.poll = Integer.parseInt(value);
+                    case "turnout" -> config.turnout = Double.parseDouble(value);
+                    case "student-clients" -> config.studentClients = Integer.parseInt(value);
+                    case "hods" -> config.hods = Integer.parseInt(value);
+                    case "hod-think" -> config.hodThink = Double.parseDouble(value);
+                    case "resets-per-minute" -> config.resetsPerMinute = Double.parseDouble(value);
+                    case "smtp-port" -> config.smtpPort = Integer.parseInt(value);
+                    case "duration" -> config.duration = Integer.parseInt(value);
+                    case "report-interval" -> config.reportInterval = Integer.parseInt(value);
+                    case "seed" -> config.seed = Long.parseLong(value);
+                    case "student-password" -> config.studentPassword = value;
+                    case "lecturer-password" -> config.lecturerPassword = value;
+                    case "hod-password" -> config.hodPassword = value;
+                    default -> throw new IllegalArgumentException("Unknown option: --" + option[0]);
+                }
+            }
+            return config;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.mku.attendance.perf;
+
+import com.mku.attendance.services.MxResolver;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the old lookup (new InitialDirContext per call, sequential) with MxResolver for a burst
+ * of validations, such as a bulk registration, against StubDnsServer with an artificial delay.
+ *
+ * Run: mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.MxLookupBenchmark
+ *      -Dexec.args="[lookups] [domains] [dnsDelayMs]"
+ */
+public class MxLookupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int domains = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long delayMs = args.length > 2 ? Long.parseLong(args[2]) : 20;
+
+        try (StubDnsServer dns = new StubDnsServer(0).withResponseDelay(delayMs)) {
+            for (int d = 0; d < domains; d++) {
+                dns.withMx("school" + d + ".ac.ke", "mx1.school" + d + ".ac.ke", "mx2.school" + d + ".ac.ke");
+            }
+            String server = "127.0.0.1:" + dns.getPort();
+            System.out.println("📊 MX lookups: " + lookups + " lookups over " + domains + " domains, " + delayMs + "ms DNS delay");
+
+            long queriesBefore = dns.getQueryCount();
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                legacyLookup(server, "school" + (i % domains) + ".ac.ke");
+            }
+            report("new context per lookup", start, lookups, dns.getQueryCount() - queriesBefore);
+
+            try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+                context.getEnvironment().getPropertySources().addFirst(
+                        new MapPropertySource("benchmark", Map.of("app.dns.server", server)));
+                context.register(MxResolver.class);
+                context.refresh();
+                MxResolver resolver = context.getBean(MxResolver.class);
+
+                queriesBefore = dns.getQueryCount();
+                start = System.nanoTime();
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    List<Future<List<String>>> futures = new ArrayList<>();
+                    for (int i = 0; i < lookups; i++) {
+                        String domain = "school" + (i % domains) + ".ac.ke";
+                        futures.add(executor.submit(() -> resolver.resolveMx(domain)));
+                    }
+                    for (Future<List<String>> future : futures) {
+                        if (future.get().isEmpty()) {
+                            throw new IllegalStateException("lookup returned no MX hosts");
+                        }
+                    }
+                }
+                report("MxResolver, concurrent", start, lookups, dns.getQueryCount() - queriesBefore);
+            }
+        }
+    }
+
+    private static void legacyLookup(String server, String domain) throws Exception {
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
+        env.put("com.sun.jndi.dns.timeout.initial", "3000");
+        env.put("com.sun.jndi.dns.timeout.retries", "2");
+        env.put("java.naming.provider.url", "dns://" + server);
+        DirContext context = new InitialDirContext(env);
+        Attributes attributes = context.getAttributes(domain, new String[]{"MX"});
+        if (attributes.get("MX") == null) {
+            throw new IllegalStateException("no MX for " + domain);
+        }
+    }
+
+    private static void report(String name, long start, int lookups, long queries) {
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("%-24s %8.0f ms total  %8.2f ms/lookup  %5d DNS queries%n",
+                name, millis, millis / lookups, queries);
+    }
+}
@@ -0,0 +1,49 @@
+package com.mku.attendance.perf;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Clock that only moves when told to. Registered as the app's Clock bean, it lets a replay jump
+ * from one lecture event to the next instead of waiting for wall time to pass.
+ */
+public class ReplayClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant instant;
+
+    public ReplayClock(LocalDateTime start, ZoneId zone) {
+        this.zone = zone;
+        this.instant = start.atZone(zone).toInstant();
+    }
+
+    /** Moves the clock to the given local time; never backwards */
+    public void advanceTo(LocalDateTime time) {
+        Instant target = time.atZone(zone).toInstant();
+        if (target.isBefore(instant)) {
+            throw new IllegalArgumentException("Replay clock cannot go back from " + now() + " to " + time);
+        }
+        instant = target;
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.ofInstant(instant, zone);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return Clock.fixed(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -0,0 +1,436 @@
+package com.mku.attendance.perf;
+
+import com.mku.attendance.MkuAttendanceApplication;
+import com.mku.attendance.services.AttendanceManager;
+import com.mku.attendance.services.AttendanceReportService;
+import com.mku.attendance.services.AuthService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Replays a whole semester against the real services on a ReplayClock, so 14 weeks of lectures
+ * run in minutes: every lecture is started, its cohort checks in over the first quarter hour (a
+ * few stragglers after it has closed), and the lecturer ends it, auto-marking absentees. About
+ * one lecture in ten is never ended and is cleaned up by cleanupExpiredLectures once its grace
+ * period has passed. Each day a few students also request and use (or let expire) a password
+ * reset OTP, and a few lock themselves out and come back after the lockout has passed.
+ *
+ * The roster and timetable come from DatasetGenerator with the same options (--students,
+ * --units-per-student, --sessions-per-week, --seed), written to --out with no history. The full
+ * application context is started on that directory without a web server and with email off.
+ *
+ * At the end of every simulated week it records: attendance records held, the size of the
+ * attendance files, heap used after a full GC, the cost of one attendance save, mark and
+ * end-lecture latency over the week (each mark rewrites its unit's file), and the latency of the HOD unit report, unit
+ * statistics and a student's unit history. A per-week table is printed; --csv=file also writes it
+ * as CSV.
+ *
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.SemesterReplay
+ *       -Dexec.args="--students=200 --weeks=14 --csv=target/replay.csv"
+ */
+public class SemesterReplay {
+
+    private static final int LECTURE_MINUTES = 60;
+    private static final double FORGOTTEN_LECTURE_RATE = 0.1;
+    private static final double LATE_ARRIVAL_RATE = 0.03;
+
+    private final Options options;
+    private final DatasetGenerator dataset;
+    private final ReplayClock clock;
+    private final PrintStream console = System.out;
+    private final List<WeekStats> weeks = new ArrayList<>();
+
+    private AttendanceManager attendanceManager;
+    private AttendanceReportService reportService;
+    private AuthService authService;
+
+    // Sanity counters: these only come out right if the services really follow the replay clock
+    private int marksAccepted;
+    private int marksRejected;
+    private int forgottenLectures;
+    private int otpsVerified;
+    private int otpsExpiredOnUse;
+    private int lockouts;
+    private int lockedRetries;
+    private int unlockedAfterWait;
+
+    private SemesterReplay(Options options) {
+        this.options = options;
+        this.dataset = new DatasetGenerator(options.dataset);
+        this.clock = new ReplayClock(options.start.atTime(7, 0), ZoneId.systemDefault());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        new SemesterReplay(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        Path dataDir = options.dataset.out;
+        deleteDirectory(dataDir);
+        console.println("🏗️ Writing roster to " + dataDir.toAbsolutePath());
+        silenceConsole();
+        dataset.generate();
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MkuAttendanceApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // primary, so it is injected instead of ClockConfig's system clock
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("replayClock", Clock.class,
+                        () -> clock, definition -> definition.setPrimary(true)))
+                // command-line form so these win over application.properties
+                .run("--app.storage.data-directory=" + dataDir.toAbsolutePath() + "/",
+                        "--app.email.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        try {
+            attendanceManager = context.getBean(AttendanceManager.class);
+            reportService = context.getBean(AttendanceReportService.class);
+            authService = context.getBean(AuthService.class);
+            restoreConsole();
+            console.printf("▶️ Replaying %d weeks from %s: %d students, %d units, %d sessions/week%n",
+                    options.weeks, options.start, options.dataset.students, dataset.units(), options.dataset.sessionsPerWeek);
+
+            for (int week = 0; week < options.weeks; week++) {
+                long wallStart = System.nanoTime();
+                WeekStats stats = new WeekStats(week + 1);
+                silenceConsole();
+                for (int day = 0; day < 5; day++) {
+                    replayDay(week, day, stats);
+                }
+                probe(stats, wallStart);
+                restoreConsole();
+                weeks.add(stats);
+                console.println(stats.row());
+            }
+        } finally {
+            restoreConsole();
+            context.close();
+        }
+        report();
+    }
+
+    // ========== SIMULATION ==========
+
+    private void replayDay(int week, int day, WeekStats stats) {
+        LocalDate date = options.start.plusWeeks(week).plusDays(day);
+        for (int slot = 0; slot < DatasetGenerator.LECTURE_HOURS.length; slot++) {
+            LocalDateTime slotStart = date.atTime(DatasetGenerator.LECTURE_HOURS[slot], 0);
+            clock.advanceTo(slotStart);
+            attendanceManager.cleanupExpiredLectures();
+            replaySlot(week, day, slot, slotStart, stats);
+            if (slot == 2) {
+                passwordResetsAndLockouts(week, day, date);
+            }
+        }
+        clock.advanceTo(date.atTime(18, 30));
+        attendanceManager.cleanupExpiredLectures();
+        retryAfterLockout(week, day);
+        authService.cleanupExpiredOTPs();
+    }
+
+    private void replaySlot(int week, int day, int slot, LocalDateTime start, WeekStats stats) {
+        // Lectures meeting in this slot, with the session number of each within the semester
+        List<int[]> lectures = new ArrayList<>();
+        for (int unit = 0; unit < dataset.units(); unit++) {
+            for (int j = 0; j < options.dataset.sessionsPerWeek; j++) {
+                if (dataset.dayOf(unit, j) == day && dataset.hourSlotOf(unit, j) == slot) {
+                    lectures.add(new int[]{unit, week * options.dataset.sessionsPerWeek + j});
+                }
+            }
+        }
+        if (lectures.isEmpty()) return;
+
+        // {seconds after start, unit, student}, in arrival order across all lectures of the slot
+        List<long[]> arrivals = new ArrayList<>();
+        for (int[] lecture : lectures) {
+            attendanceManager.startLecture(dataset.unitCode(lecture[0]), LECTURE_MINUTES);
+            for (int student : dataset.enrolled(lecture[0])) {
+                if (!dataset.isPresent(student, lecture[0], lecture[1])) continue;
+                long hash = DatasetGenerator.hash(options.dataset.seed, 20, student, lecture[0], lecture[1]);
+                long offset = DatasetGenerator.unitInterval(hash) < LATE_ARRIVAL_RATE
+                        ? LECTURE_MINUTES * 60 + hash % 600
+                        : hash % 900;
+                arrivals.add(new long[]{offset, lecture[0], student});
+            }
+        }
+        arrivals.sort(Comparator.comparingLong(arrival -> arrival[0]));
+
+        boolean[] ended = new boolean[lectures.size()];
+        for (long[] arrival : arrivals) {
+            // Lecturers end on time; the stragglers arrive afterwards
+            if (arrival[0] >= LECTURE_MINUTES * 60) {
+                endLectures(lectures, ended, start, week, stats);
+            }
+            clock.advanceTo(start.plusSeconds(arrival[0]));
+            long begin = System.nanoTime();
+            Map<String, Object> result = attendanceManager.markAttendance(
+                    dataset.studentId((int) arrival[2]), dataset.unitCode((int) arrival[1]));
+            stats.marks.add(System.nanoTime() - begin);
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                marksAccepted++;
+            } else {
+                marksRejected++;
+            }
+        }
+        endLectures(lectures, ended, start, week, stats);
+    }
+
+    private void endLectures(List<int[]> lectures, boolean[] ended, LocalDateTime start, int week, WeekStats stats) {
+        LocalDateTime end = start.plusMinutes(LECTURE_MINUTES);
+        if (clock.now().isBefore(end)) {
+            clock.advanceTo(end);
+        }
+        for (int i = 0; i < lectures.size(); i++) {
+            if (ended[i]) continue;
+            ended[i] = true;
+            int unit = lectures.get(i)[0];
+            if (DatasetGenerator.unitInterval(DatasetGenerator.hash(options.dataset.seed, 21, unit, lectures.get(i)[1])) < FORGOTTEN_LECTURE_RATE) {
+                forgottenLectures++; // left open; cleanupExpiredLectures auto-marks it at the next slot
+                continue;
+            }
+            long begin = System.nanoTime();
+            attendanceManager.endLecture(dataset.unitCode(unit));
+            stats.endLectures.add(System.nanoTime() - begin);
+        }
+    }
+
+    // Around lunchtime: a few OTP resets (half used straight away, half left to expire) and lockouts
+    private void passwordResetsAndLockouts(int week, int day, LocalDate date) {
+        clock.advanceTo(date.atTime(13, 30));
+        for (int i = 0; i < options.resetsPerDay; i++) {
+            String studentId = student(week, day, 30 + i);
+            Map<String, Object> issued = authService.resendOTP(studentId);
+            if (i % 2 == 0 && issued.get("otp") != null) {
+                Map<String, Object> verified = authService.verifyOTPAndResetPassword(studentId, (String) issued.get("otp"), "password");
+                if (Boolean.TRUE.equals(verified.get("success"))) {
+                    otpsVerified++;
+                }
+            }
+        }
+
+        clock.advanceTo(date.atTime(13, 40));
+        for (int i = 0; i < options.lockoutsPerDay; i++) {
+            String studentId = student(week, day, 60 + i);
+            Map<String, Object> result = null;
+            for (int attempt = 0; attempt < 5; attempt++) {
+                result = authService.loginStudent(studentId, "wrong-password");
+            }
+            if (String.valueOf(result.get("message")).contains("locked")) {
+                lockouts++;
+            }
+        }
+        clock.advanceTo(date.atTime(13, 45));
+        for (int i = 0; i < options.lockoutsPerDay; i++) {
+            if (!Boolean.TRUE.equals(authService.loginStudent(student(week, day, 60 + i), "password").get("success"))) {
+                lockedRetries++;
+            }
+        }
+    }
+
+    // Evening: lockouts have passed, and the unused OTPs from lunchtime have expired
+    private void retryAfterLockout(int week, int day) {
+        for (int i = 0; i < options.lockoutsPerDay; i++) {
+            if (Boolean.TRUE.equals(authService.loginStudent(student(week, day, 60 + i), "password").get("success"))) {
+                unlockedAfterWait++;
+            }
+        }
+        if (options.resetsPerDay > 1) {
+            Map<String, Object> late = authService.verifyOTPAndResetPassword(student(week, day, 31), "000000", "password");
+            if (String.valueOf(late.get("message")).toLowerCase().contains("expired")) {
+                otpsExpiredOnUse++;
+            }
+        }
+    }
+
+    private String student(int week, int day, int n) {
+        long hash = DatasetGenerator.hash(options.dataset.seed, 22, week, day, n);
+        return dataset.studentId((int) (hash % options.dataset.students));
+    }
+
+    // ========== MEASUREMENT ==========
+
+    private void probe(WeekStats stats, long wallStart) throws IOException {
+        stats.wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+        stats.records = attendanceManager.getAttendanceRecordCount();
+
+        long begin = System.nanoTime();
+        attendanceManager.saveAttendanceToFile();
+        stats.saveMs = (System.nanoTime() - begin) / 1e6;
+        try (Stream<Path> files = Files.list(options.dataset.out.resolve("attendance"))) {
+            stats.fileBytes = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+
+        System.gc();
+        stats.heapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        String unit = dataset.unitCode(0);
+        String student = dataset.studentId(dataset.enrolled(0).length > 0 ? dataset.enrolled(0)[0] : 0);
+        stats.reportMs = medianMs(() -> reportService.getFilteredAttendanceRecords(unit, null, "ALL", null));
+        stats.statisticsMs = medianMs(() -> attendanceManager.getAttendanceStatistics(unit));
+        stats.historyMs = medianMs(() -> attendanceManager.getStudentAttendanceHistory(student, unit));
+    }
+
+    private static double medianMs(Runnable query) {
+        long[] samples = new long[5];
+        for (int i = 0; i < samples.length; i++) {
+            long begin = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2] / 1e6;
+    }
+
+    private void report() throws IOException {
+        WeekStats first = weeks.get(0);
+        WeekStats last = weeks.get(weeks.size() - 1);
+        console.println();
+        console.printf("📈 Week 1 -> week %d: records x%.1f, save %.1f -> %.1f ms, mark p50 %.2f -> %.2f ms, report %.1f -> %.1f ms, heap %d -> %d MB%n",
+                last.week, last.records / (double) Math.max(1, first.records), first.saveMs, last.saveMs,
+                first.marks.percentile(50), last.marks.percentile(50), first.reportMs, last.reportMs,
+                first.heapBytes >> 20, last.heapBytes >> 20);
+        console.printf("✅ marks accepted=%d rejected=%d, lectures left open=%d, OTPs verified=%d, expired OTPs refused=%d,"
+                        + " lockouts=%d, refused while locked=%d, let back in after 30 min=%d%n",
+                marksAccepted, marksRejected, forgottenLectures, otpsVerified, otpsExpiredOnUse,
+                lockouts, lockedRetries, unlockedAfterWait);
+
+        if (options.csv != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(options.csv))) {
+                out.println(WeekStats.CSV_HEADER);
+                weeks.forEach(week -> out.println(week.csv()));
+            }
+            console.println("💾 Wrote " + options.csv.toAbsolutePath());
+        }
+    }
+
+    private static class WeekStats {
+        static final String HEADER = String.format("%4s %9s %8s %8s %8s %9s %9s %9s %9s %9s %9s %7s",
+                "week", "records", "file MB", "heap MB", "save ms", "mark p50", "mark p99", "end p50", "report", "stats", "history", "wall s");
+        static final String CSV_HEADER = "week,records,file_bytes,heap_bytes,save_ms,mark_p50_ms,mark_p99_ms,"
+                + "end_lecture_p50_ms,report_ms,statistics_ms,history_ms,wall_s";
+
+        final int week;
+        final Samples marks = new Samples();
+        final Samples endLectures = new Samples();
+        int records;
+        long fileBytes;
+        long heapBytes;
+        double saveMs;
+        double reportMs;
+        double statisticsMs;
+        double historyMs;
+        double wallSeconds;
+
+        WeekStats(int week) {
+            this.week = week;
+        }
+
+        String row() {
+            String row = String.format("%4d %9d %8.1f %8d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %7.1f",
+                    week, records, fileBytes / 1048576.0, heapBytes >> 20, saveMs, marks.percentile(50), marks.percentile(99),
+                    endLectures.percentile(50), reportMs, statisticsMs, historyMs, wallSeconds);
+            return week == 1 ? HEADER + System.lineSeparator() + row : row;
+        }
+
+        String csv() {
+            return String.format("%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f",
+                    week, records, fileBytes, heapBytes, saveMs, marks.percentile(50), marks.percentile(99),
+                    endLectures.percentile(50), reportMs, statisticsMs, historyMs, wallSeconds);
+        }
+    }
+
+    private static class Samples {
+        private long[] values = new long[256];
+        private int count;
+
+        void add(long nanos) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = nanos;
+        }
+
+        double percentile(int percentile) {
+            if (count == 0) return 0;
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    // The services log every call; keep the replay's own output readable
+    private void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    private void restoreConsole() {
+        System.setOut(console);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static class Options {
+        DatasetGenerator.Config dataset;
+        LocalDate start = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(15);
+        int weeks = 14;
+        int resetsPerDay = 4;
+        int lockoutsPerDay = 2;
+        Path csv;
+
+        // Replay options are handled here, the rest go to DatasetGenerator after the replay defaults
+        static Options parse(String[] args) {
+            Options options = new Options();
+            List<String> datasetArgs = new ArrayList<>(List.of("--out=target/replay", "--students=200", "--units-per-student=4"));
+            for (String arg : args) {
+                String[] option = arg.replaceFirst("^--", "").split("=", 2);
+                String value = option.length == 2 ? option[1] : "";
+                switch (option[0]) {
+                    case "start" -> options.start = LocalDate.parse(value).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                    case "weeks" -> options.weeks = Integer.parseInt(value);
+                    case "resets-per-day" -> options.resetsPerDay = Integer.parseInt(value);
+                    case "lockouts-per-day" -> options.lockoutsPerDay = Integer.parseInt(value);
+                    case "csv" -> options.csv = Paths.get(value);
+                    default -> datasetArgs.add(arg);
+                }
+            }
+            datasetArgs.add("--attendance=false");
+            options.dataset = DatasetGenerator.Config.parse(datasetArgs.toArray(new String[0]));
+            return options;
+        }
+    }
+}
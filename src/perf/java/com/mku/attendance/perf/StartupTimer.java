@@ -0,0 +1,92 @@
+package com.mku.attendance.perf;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time to first request: launches the app command, polls --url until it answers 200 and
+ * stops the process, --runs times. Prints each run and the median/min. Compare a plain launch with
+ * the faststart build (mvn -Pfaststart package) on the same dataset:
+ *
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.DatasetGenerator -Dexec.args="--out=target/startup-data --students=20000"
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.StartupTimer
+ *       -Dexec.args="--runs=5 -- java -jar target/mku-attendance-web-1.0.0.jar --app.storage.data-directory=target/startup-data/"
+ *   ... -Dexec.args="--runs=5 -- java -XX:SharedArchiveFile=target/faststart/app.jsa -Dspring.aot.enabled=true
+ *       -jar target/faststart/mku-attendance-web-1.0.0-faststart.jar --app.storage.data-directory=target/startup-data/"
+ *
+ * The app's output goes to target/startup-timer.log. The port in --url must be free beforehand.
+ */
+public class StartupTimer {
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080/student/login";
+        int runs = 5;
+        int timeoutSeconds = 180;
+        List<String> command = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--")) {
+                command.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            }
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            String value = option.length == 2 ? option[1] : "";
+            switch (option[0]) {
+                case "url" -> url = value;
+                case "runs" -> runs = Integer.parseInt(value);
+                case "timeout" -> timeoutSeconds = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (command.isEmpty()) {
+            throw new IllegalArgumentException("Usage: StartupTimer [--url=...] [--runs=N] [--timeout=s] -- <command...>");
+        }
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).build();
+        File log = new File("target/startup-timer.log");
+
+        System.out.println("⏱️ " + String.join(" ", command));
+        long[] times = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(log)).start();
+            try {
+                long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+                while (true) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("App exited with " + process.exitValue() + " before answering, see " + log);
+                    }
+                    if (System.nanoTime() > deadline) {
+                        throw new IllegalStateException("No 200 from " + url + " within " + timeoutSeconds + "s");
+                    }
+                    try {
+                        if (http.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) break;
+                    } catch (java.io.IOException notListeningYet) {
+                        // retry
+                    }
+                    Thread.sleep(10);
+                }
+                times[run] = System.nanoTime() - start;
+                System.out.printf("run %d: %.0f ms%n", run + 1, times[run] / 1e6);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+
+        Arrays.sort(times);
+        System.out.printf("time to first request: median=%.0f ms  min=%.0f ms  (%d runs)%n",
+                times[runs / 2] / 1e6, times[0] / 1e6, runs);
+    }
+}
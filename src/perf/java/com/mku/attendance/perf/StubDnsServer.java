@@ -0,0 +1,177 @@
+package com.mku.attendance.perf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tiny UDP DNS server that answers MX queries from an in-memory table, so email validation can be
+ * exercised without real DNS. Unknown names get NXDOMAIN. A response delay can be set to mimic a
+ * slow resolver. Point the app at it with --app.dns.server=127.0.0.1:<port>.
+ *
+ * Run: mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.StubDnsServer -Dexec.args="5353"
+ */
+public class StubDnsServer implements AutoCloseable {
+
+    private static final int TYPE_MX = 15;
+    private static final int CLASS_IN = 1;
+
+    private final DatagramSocket socket;
+    private final Map<String, List<String>> mxTable = new ConcurrentHashMap<>();
+    private final ExecutorService responders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong queries = new AtomicLong();
+    private volatile long responseDelayMs;
+
+    public StubDnsServer(int port) throws SocketException {
+        this.socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        Thread listener = new Thread(this::listen, "stub-dns");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /** Register MX hosts for a domain, in preference order */
+    public StubDnsServer withMx(String domain, String... hosts) {
+        mxTable.put(domain.toLowerCase(), List.of(hosts));
+        return this;
+    }
+
+    public StubDnsServer withResponseDelay(long millis) {
+        this.responseDelayMs = millis;
+        return this;
+    }
+
+    public long getQueryCount() {
+        return queries.get();
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        responders.shutdownNow();
+    }
+
+    private void listen() {
+        byte[] buffer = new byte[512];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                return;
+            }
+            queries.incrementAndGet();
+            byte[] query = java.util.Arrays.copyOf(packet.getData(), packet.getLength());
+            InetAddress address = packet.getAddress();
+            int port = packet.getPort();
+            responders.execute(() -> respond(query, address, port));
+        }
+    }
+
+    private void respond(byte[] query, InetAddress address, int port) {
+        try {
+            if (responseDelayMs > 0) {
+                Thread.sleep(responseDelayMs);
+            }
+            byte[] response = buildResponse(query);
+            if (response != null) {
+                socket.send(new DatagramPacket(response, response.length, address, port));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // client gone or socket closed
+        }
+    }
+
+    private byte[] buildResponse(byte[] query) {
+        if (query.length < 12) return null;
+
+        // Question section: QNAME labels, then QTYPE and QCLASS
+        int offset = 12;
+        StringBuilder name = new StringBuilder();
+        while (offset < query.length && query[offset] != 0) {
+            int length = query[offset] & 0xFF;
+            if (name.length() > 0) name.append('.');
+            name.append(new String(query, offset + 1, length, StandardCharsets.US_ASCII));
+            offset += length + 1;
+        }
+        int questionEnd = offset + 5;
+        if (questionEnd > query.length) return null;
+        int qtype = ((query[offset + 1] & 0xFF) << 8) | (query[offset + 2] & 0xFF);
+
+        List<String> hosts = mxTable.get(name.toString().toLowerCase());
+        boolean nxdomain = hosts == null;
+        List<String> answers = (!nxdomain && qtype == TYPE_MX) ? hosts : List.of();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(query[0]);
+        out.write(query[1]);
+        writeShort(out, nxdomain ? 0x8183 : 0x8180); // QR, RD, RA (+ NXDOMAIN)
+        writeShort(out, 1);
+        writeShort(out, answers.size());
+        writeShort(out, 0);
+        writeShort(out, 0);
+        out.write(query, 12, questionEnd - 12);
+
+        int preference = 10;
+        for (String host : answers) {
+            byte[] encodedHost = encodeName(host);
+            writeShort(out, 0xC00C); // pointer to the name in the question
+            writeShort(out, TYPE_MX);
+            writeShort(out, CLASS_IN);
+            writeShort(out, 0);
+            writeShort(out, 300); // TTL
+            writeShort(out, 2 + encodedHost.length);
+            writeShort(out, preference);
+            out.write(encodedHost, 0, encodedHost.length);
+            preference += 10;
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeName(String host) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String label : host.split("\\.")) {
+            byte[] bytes = label.getBytes(StandardCharsets.US_ASCII);
+            out.write(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        out.write(0);
+        return out.toByteArray();
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write((value >> 8) & 0xFF);
+        out.write(value & 0xFF);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5353;
+        StubDnsServer server = new StubDnsServer(port)
+                .withResponseDelay(Long.getLong("dns.delayMs", 0))
+                .withMx("gmail.com", "gmail-smtp-in.l.google.com", "alt1.gmail-smtp-in.l.google.com")
+                .withMx("mku.ac.ke", "mail.mku.ac.ke")
+                .withMx("example.com", "localhost");
+        System.out.println("🧭 Stub DNS server listening on 127.0.0.1:" + server.getPort() + " (udp)");
+
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println("📊 queries=" + server.getQueryCount());
+        }
+    }
+}
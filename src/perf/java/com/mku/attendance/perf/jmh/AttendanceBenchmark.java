@@ -0,0 +1,116 @@
+package com.mku.attendance.perf.jmh;
+
+import com.mku.attendance.entities.Attendance;
+import com.mku.attendance.services.AttendanceManager;
+import com.mku.attendance.services.AttendanceStore;
+import com.mku.attendance.services.FileDataService;
+import com.mku.attendance.services.StudentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AttendanceManager hot paths against a growing attendance history.
+ *
+ * Both operations change the state they are measured on (every mark adds a record, ending a
+ * lecture adds the absentees), so each iteration starts from a freshly loaded copy of the same
+ * seeded files and measures a fixed batch in single-shot mode. Scores are per batch:
+ *
+ *   markAttendance      - MARKS_PER_BATCH students marking into one open lecture
+ *   endLectureAutoMark  - one endLecture of a ROSTER-student unit that nobody attended, which
+ *                         runs autoMarkAbsentStudents and saves the attendance file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AttendanceBenchmark {
+
+    static final int MARKS_PER_BATCH = 100;
+    static final int ROSTER = 300;
+
+    @Param({"1000", "10000", "100000"})
+    public int historySize;
+
+    private Path dataDirectory;
+    private List<Attendance> history;
+    private AnnotationConfigApplicationContext context;
+    private AttendanceManager attendanceManager;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        dataDirectory = BenchmarkFixture.createDataDirectory("attendance");
+        BenchmarkFixture.writeStudents(dataDirectory, BenchmarkFixture.students(ROSTER));
+        history = BenchmarkFixture.attendanceHistory(historySize, ROSTER, 42);
+    }
+
+    @Setup(Level.Iteration)
+    public void reload() {
+        BenchmarkFixture.restoreConsole();
+        if (context != null) {
+            context.close();
+        }
+        BenchmarkFixture.writeAttendance(dataDirectory, history);
+        context = BenchmarkFixture.context(dataDirectory, FileDataService.class, AttendanceStore.class, StudentManager.class, AttendanceManager.class);
+        attendanceManager = context.getBean(AttendanceManager.class);
+        attendanceManager.startLecture("U0", 120);
+        BenchmarkFixture.silenceConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() {
+        BenchmarkFixture.restoreConsole();
+        if (context != null) {
+            context.close();
+        }
+        BenchmarkFixture.deleteDirectory(dataDirectory);
+    }
+
+    @Benchmark
+    @Measurement(iterations = 10, batchSize = MARKS_PER_BATCH)
+    @Warmup(iterations = 5, batchSize = MARKS_PER_BATCH)
+    public Map<String, Object> markAttendance(MarkCursor cursor) {
+        Map<String, Object> result = attendanceManager.markAttendance(BenchmarkFixture.studentId(cursor.next++), "U0");
+        if (!Boolean.TRUE.equals(result.get("success"))) {
+            throw new IllegalStateException("mark rejected: " + result.get("message"));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int endLectureAutoMark() {
+        attendanceManager.endLecture("U0");
+        return attendanceManager.getAttendanceRecordCount();
+    }
+
+    /**
+     * Next student to mark; reset with every iteration so each batch marks fresh students.
+     */
+    @State(Scope.Thread)
+    public static class MarkCursor {
+        int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            next = 0;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.mku.attendance.perf.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mku.attendance.config.AppMetrics;
+import com.mku.attendance.config.AppThreads;
+import com.mku.attendance.config.ClockConfig;
+import com.mku.attendance.config.SseSender;
+import com.mku.attendance.entities.Attendance;
+import com.mku.attendance.entities.StudentData;
+import com.mku.attendance.services.LectureFeedService;
+import com.mku.attendance.services.StudentFeedService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Shared setup for the JMH benchmarks: writes deterministic data files into a scratch directory
+ * and builds just the services under test in a small Spring context pointed at it through
+ * app.storage.data-directory, so the real attendance_data/ is never touched.
+ *
+ * Student ids are S000000, S000001, ... and units U0..U7; every student takes all eight units.
+ * History records are dated before today so they never collide with marks made by a benchmark.
+ */
+final class BenchmarkFixture {
+
+    static final String[] UNITS = {"U0", "U1", "U2", "U3", "U4", "U5", "U6", "U7"};
+
+    private static final ObjectWriter WRITER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .writerWithDefaultPrettyPrinter();
+
+    private static final PrintStream ORIGINAL_OUT = System.out;
+
+    private BenchmarkFixture() {
+    }
+
+    static Path createDataDirectory(String name) {
+        try {
+            return Files.createTempDirectory("jmh-" + name + "-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String studentId(int index) {
+        return String.format("S%06d", index);
+    }
+
+    static Map<String, StudentData> students(int count) {
+        LocalDateTime created = LocalDate.now().minusYears(1).atStartOfDay();
+        Map<String, StudentData> students = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String id = studentId(i);
+            StudentData student = new StudentData(id, "Student " + i, "student" + i + "@students.mku.ac.ke", "secret" + i);
+            student.setCreatedAt(created);
+            student.setUpdatedAt(created);
+            student.setCourse("BSCIT");
+            Set<String> units = new LinkedHashSet<>(List.of(UNITS));
+            student.setRegisteredUnits(units);
+            students.put(id, student);
+        }
+        return students;
+    }
+
+    /**
+     * Per-student history: every one of the first {@code students} students has {@code sessionsPerUnit}
+     * past sessions in each unit, roughly 80% present.
+     */
+    static List<Attendance> studentHistory(int students, int sessionsPerUnit, long seed) {
+        Random random = new Random(seed);
+        List<Attendance> history = new ArrayList<>(students * UNITS.length * sessionsPerUnit);
+        for (int i = 0; i < students; i++) {
+            String id = studentId(i);
+            for (String unit : UNITS) {
+                for (int s = 0; s < sessionsPerUnit; s++) {
+                    String date = LocalDate.now().minusDays(sessionsPerUnit - s).toString();
+                    history.add(new Attendance(id, unit, date + " 08:0" + (s % 10) + ":00", random.nextInt(100) < 80));
+                }
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Past attendance spread over the first {@code students} students and all units, one lecture
+     * per unit per day going back from yesterday, roughly 80% present.
+     */
+    static List<Attendance> attendanceHistory(int size, int students, long seed) {
+        Random random = new Random(seed);
+        List<Attendance> history = new ArrayList<>(size);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        int perDay = Math.max(1, students * UNITS.length);
+        for (int i = 0; i < size; i++) {
+            LocalDate day = yesterday.minusDays(i / perDay);
+            String studentId = studentId(random.nextInt(students));
+            String unit = UNITS[i % UNITS.length];
+            history.add(new Attendance(studentId, unit, day + " 08:" + String.format("%02d", i % 60) + ":00",
+                    random.nextInt(100) < 80));
+        }
+        return history;
+    }
+
+    static void writeStudents(Path directory, Map<String, StudentData> students) {
+        write(directory.resolve("students.json"), students);
+    }
+
+    static void writeAttendance(Path directory, List<Attendance> attendance) {
+        write(directory.resolve("attendance.json"), attendance);
+    }
+
+    private static void write(Path file, Object data) {
+        try {
+            WRITER.writeValue(file.toFile(), data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Spring context with only the given service classes (plus metrics, the clock and the live feeds
+     * AttendanceManager and StudentManager report to) on the scratch directory.
+     */
+    static AnnotationConfigApplicationContext context(Path directory, Class<?>... services) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("app.storage.data-directory", directory.toString())));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(AppMetrics.class, ClockConfig.class, AppThreads.class, SseSender.class,
+                LectureFeedService.class, StudentFeedService.class);
+        context.register(services);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * The services log every operation to stdout. Formatting still happens, but the output goes
+     * nowhere so the console does not dominate (or flood) the measurement.
+     */
+    static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    static void restoreConsole() {
+        System.setOut(ORIGINAL_OUT);
+    }
+
+    static void deleteDirectory(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mku.attendance.perf.jmh;
+
+import com.mku.attendance.services.DisposableDomainMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmailService.isDisposableEmail, which delegates to DisposableDomainMatcher, over a fixed mix of
+ * ordinary, listed, subdomain-of-listed and keyword-only addresses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisposableEmailBenchmark {
+
+    private static final String[] EMAILS = {
+            "jane.wanjiru@gmail.com",
+            "student0042@students.mku.ac.ke",
+            "someone@mailinator.com",
+            "x@inbox.eu.mailinator.com",
+            "peter@yahoo.co.uk",
+            "burner@my-temp-box.io",
+            "lecturer@mku.ac.ke",
+            "abc@outlook.com"
+    };
+
+    private Path dataDirectory;
+    private DisposableDomainMatcher matcher;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        dataDirectory = BenchmarkFixture.createDataDirectory("disposable");
+        matcher = new DisposableDomainMatcher(dataDirectory.resolve("disposable_domains.txt"));
+        matcher.init();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() {
+        matcher.stopWatching();
+        BenchmarkFixture.deleteDirectory(dataDirectory);
+    }
+
+    @Benchmark
+    public boolean isDisposableEmail() {
+        next = (next + 1) & (EMAILS.length - 1);
+        return matcher.isDisposableEmail(EMAILS[next]);
+    }
+}
@@ -0,0 +1,106 @@
+package com.mku.attendance.perf.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, e.g. one from main and one from a branch, and flags every
+ * benchmark that got slower by more than the threshold where the two error intervals do not
+ * overlap (so noise alone is not reported). Exits with status 1 if anything regressed.
+ *
+ * Running the benchmarks (JMH forks its own JVMs, so use exec:exec rather than exec:java):
+ *
+ *   mvn -Pperf compile exec:exec -Dexec.executable=java
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main -rf json -rff target/jmh-main.json [regex]"
+ *
+ * e.g. regex "AttendanceBenchmark" or "PersistenceBenchmark.loadStudents -p students=10000";
+ * run with -h after org.openjdk.jmh.Main for all JMH options. Then compare:
+ *
+ *   mvn -Pperf compile exec:java -Dexec.mainClass=com.mku.attendance.perf.jmh.JmhCompare
+ *       -Dexec.args="target/jmh-main.json target/jmh-branch.json [thresholdPercent]"
+ *
+ * Compare runs from the same machine; absolute numbers between machines mean little.
+ */
+public class JmhCompare {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: JmhCompare <baseline.json> <candidate.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = load(args[0]);
+        Map<String, JsonNode> candidate = load(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-80s %14s %14s %9s%n", "benchmark", "baseline", "candidate", "change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue().get("primaryMetric");
+            String unit = after.get("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-80s %14s %14s %9s%n", entry.getKey(), "-", format(after), "new");
+                continue;
+            }
+            before = before.get("primaryMetric");
+
+            double oldScore = before.get("score").asDouble();
+            double newScore = after.get("score").asDouble();
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+            // Throughput modes report ops/time (higher is better), the others time/op
+            boolean higherIsBetter = unit.startsWith("ops/");
+            double slowdown = higherIsBetter ? -change : change;
+            boolean overlap = Math.abs(newScore - oldScore) <= error(before) + error(after);
+
+            String flag = "";
+            if (slowdown > threshold && !overlap) {
+                flag = "  <-- REGRESSION";
+                regressions++;
+            } else if (slowdown < -threshold && !overlap) {
+                flag = "  improved";
+            }
+            System.out.printf("%-80s %14s %14s %+8.1f%%%s%n", entry.getKey(), format(before), format(after), change, flag);
+        }
+
+        System.out.println();
+        System.out.println(regressions == 0
+                ? "✅ No regressions above " + threshold + "%"
+                : "❌ " + regressions + " benchmark(s) regressed by more than " + threshold + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Keyed by benchmark method, mode and parameters so runs with different @Param sets line up
+    private static Map<String, JsonNode> load(String file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(file))) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                    .replace("com.mku.attendance.perf.jmh.", ""));
+            key.append(" [").append(result.get("mode").asText()).append("]");
+            JsonNode params = result.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(JsonNode metric) {
+        return String.format("%.3f %s", metric.get("score").asDouble(), metric.get("scoreUnit").asText());
+    }
+}
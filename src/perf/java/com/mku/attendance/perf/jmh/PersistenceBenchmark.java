@@ -0,0 +1,70 @@
+package com.mku.attendance.perf.jmh;
+
+import com.mku.attendance.entities.StudentData;
+import com.mku.attendance.services.FileDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-file students.json save and load, the cost paid on every student update and at startup.
+ * Students carry eight units and no attendance, like the live file (attendance is in attendance.json).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private Path dataDirectory;
+    private AnnotationConfigApplicationContext context;
+    private FileDataService fileDataService;
+    private Map<String, StudentData> data;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        dataDirectory = BenchmarkFixture.createDataDirectory("persistence");
+        data = BenchmarkFixture.students(students);
+        BenchmarkFixture.writeStudents(dataDirectory, data);
+        context = BenchmarkFixture.context(dataDirectory, FileDataService.class);
+        fileDataService = context.getBean(FileDataService.class);
+        BenchmarkFixture.silenceConsole();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() {
+        BenchmarkFixture.restoreConsole();
+        context.close();
+        BenchmarkFixture.deleteDirectory(dataDirectory);
+    }
+
+    @Benchmark
+    public void saveStudents() {
+        fileDataService.saveStudents(data);
+    }
+
+    @Benchmark
+    public Map<String, StudentData> loadStudents() {
+        return fileDataService.loadStudents();
+    }
+}
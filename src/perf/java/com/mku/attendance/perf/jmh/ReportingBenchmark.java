@@ -0,0 +1,116 @@
+package com.mku.attendance.perf.jmh;
+
+import com.mku.attendance.services.AttendanceManager;
+import com.mku.attendance.services.AttendanceReportService;
+import com.mku.attendance.services.AttendanceStore;
+import com.mku.attendance.services.FileDataService;
+import com.mku.attendance.services.StudentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths: the HOD attendance report pipeline (join with students, filter, sort) over the
+ * whole attendance history, and the per-student attendance summary on the student dashboard.
+ * Neither changes state, so plain average time is used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportingBenchmark {
+
+    static final int STUDENTS = 2000;
+
+    @State(Scope.Benchmark)
+    public static class HodReport {
+
+        @Param({"1000", "10000", "100000"})
+        public int historySize;
+
+        Path dataDirectory;
+        AnnotationConfigApplicationContext context;
+        AttendanceReportService reportService;
+
+        @Setup(Level.Trial)
+        public void seed() {
+            dataDirectory = BenchmarkFixture.createDataDirectory("hod-report");
+            BenchmarkFixture.writeStudents(dataDirectory, BenchmarkFixture.students(STUDENTS));
+            BenchmarkFixture.writeAttendance(dataDirectory, BenchmarkFixture.attendanceHistory(historySize, STUDENTS, 42));
+            context = BenchmarkFixture.context(dataDirectory, FileDataService.class, AttendanceStore.class, StudentManager.class,
+                    AttendanceManager.class, AttendanceReportService.class);
+            reportService = context.getBean(AttendanceReportService.class);
+            BenchmarkFixture.silenceConsole();
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            BenchmarkFixture.restoreConsole();
+            context.close();
+            BenchmarkFixture.deleteDirectory(dataDirectory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StudentSummary {
+
+        // Per-unit history for each student: roughly one, four and sixteen weeks of lectures
+        @Param({"3", "12", "48"})
+        public int sessionsPerUnit;
+
+        Path dataDirectory;
+        AnnotationConfigApplicationContext context;
+        StudentManager studentManager;
+        int nextStudent;
+
+        @Setup(Level.Trial)
+        public void seed() {
+            dataDirectory = BenchmarkFixture.createDataDirectory("student-summary");
+            BenchmarkFixture.writeStudents(dataDirectory, BenchmarkFixture.students(STUDENTS));
+            BenchmarkFixture.writeAttendance(dataDirectory, BenchmarkFixture.studentHistory(STUDENTS, sessionsPerUnit, 42));
+            context = BenchmarkFixture.context(dataDirectory, FileDataService.class, AttendanceStore.class, StudentManager.class);
+            studentManager = context.getBean(StudentManager.class);
+            BenchmarkFixture.silenceConsole();
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            BenchmarkFixture.restoreConsole();
+            context.close();
+            BenchmarkFixture.deleteDirectory(dataDirectory);
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> hodReportUnfiltered(HodReport state) {
+        return state.reportService.getFilteredAttendanceRecords(null, null, "ALL", null);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> hodReportUnitAndStatus(HodReport state) {
+        return state.reportService.getFilteredAttendanceRecords("U3", null, "ABSENT", null);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Object>> studentAttendanceSummary(StudentSummary state) {
+        state.nextStudent = (state.nextStudent + 1) % STUDENTS;
+        return state.studentManager.getAttendanceSummary(BenchmarkFixture.studentId(state.nextStudent));
+    }
+}